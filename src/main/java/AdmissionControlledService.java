@@ -0,0 +1,101 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.rmi.NoSuchObjectException;
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.rmi.server.RMIClientSocketFactory;
+import java.rmi.server.RMIServerSocketFactory;
+import java.rmi.server.UnicastRemoteObject;
+import java.rmi.server.Unreferenced;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Puts an {@link AdmissionController} in front of every {@link KanbanService} method. The wrapped
+ * service is what gets exported and bound in the registry, so new service methods are covered
+ * automatically; metrics are reported per method name.
+ *
+ * {@link KanbanService#openSession()} is answered here: it exports another wrapper for the caller
+ * alone, and calls through it are admitted under a session ID of their own instead of the calling
+ * host, so clients behind one address do not share a rate limit. The session ends when its client
+ * lets go of the stub and the distributed garbage collector reports it unreferenced.
+ */
+public class AdmissionControlledService implements InvocationHandler {
+
+    private static final AtomicLong NEXT_SESSION = new AtomicLong();
+
+    private final KanbanService target;
+    private final AdmissionController admission;
+    private final String session; // Null for the service bound in the registry
+    private final RMIClientSocketFactory clientSockets;
+    private final RMIServerSocketFactory serverSockets;
+
+    private AdmissionControlledService(KanbanService target, AdmissionController admission, String session,
+                                       RMIClientSocketFactory clientSockets, RMIServerSocketFactory serverSockets) {
+        this.target = target;
+        this.admission = admission;
+        this.session = session;
+        this.clientSockets = clientSockets;
+        this.serverSockets = serverSockets;
+    }
+
+    // Sessions are exported with the given socket factories, like the wrapped service should be
+    public static KanbanService wrap(KanbanService target, AdmissionController admission,
+                                     RMIClientSocketFactory clientSockets, RMIServerSocketFactory serverSockets) {
+        return (KanbanService) Proxy.newProxyInstance(
+                KanbanService.class.getClassLoader(),
+                new Class<?>[]{KanbanService.class},
+                new AdmissionControlledService(target, admission, null, clientSockets, serverSockets));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            return method.invoke(this, args); // equals/hashCode/toString of the wrapper itself
+        }
+        if (method.getDeclaringClass() == Unreferenced.class) {
+            endSession(proxy);
+            return null;
+        }
+
+        if (session != null) {
+            ClientSessions.enter(session);
+        }
+        try {
+            admission.acquire(method.getName());
+            try {
+                if (method.getName().equals("openSession")) {
+                    return openSession();
+                }
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                admission.release();
+            }
+        } finally {
+            if (session != null) {
+                ClientSessions.exit();
+            }
+        }
+    }
+
+    private KanbanService openSession() throws RemoteException {
+        String id = "session#" + NEXT_SESSION.incrementAndGet(); // Host names and addresses never contain '#'
+        Remote sessionService = (Remote) Proxy.newProxyInstance(
+                KanbanService.class.getClassLoader(),
+                new Class<?>[]{KanbanService.class, Unreferenced.class},
+                new AdmissionControlledService(target, admission, id, clientSockets, serverSockets));
+        return (KanbanService) UnicastRemoteObject.exportObject(sessionService, 0, clientSockets, serverSockets);
+    }
+
+    private void endSession(Object sessionService) {
+        admission.endSession(session);
+        try {
+            UnicastRemoteObject.unexportObject((Remote) sessionService, true);
+        } catch (NoSuchObjectException e) {
+            // Already unexported
+        }
+    }
+}
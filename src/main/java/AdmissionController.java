@@ -0,0 +1,147 @@
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control in front of the service methods. Each client session (see {@link ClientSessions})
+ * has a token bucket, and a global semaphore bounds the number of calls using a database connection
+ * at the same time. Calls that cannot be admitted fail fast with a {@link RateLimitedException}
+ * carrying a retry-after hint instead of queueing up.
+ *
+ * The board reads that task notifications trigger on every client watching the board are served
+ * from the shared task list cache; they take no tokens, so one change never gets the reloads it
+ * causes rejected. They still count against the concurrency limit.
+ *
+ * Configured with system properties:
+ * planny.admission.ratePerSecond (default 20), planny.admission.burst (default 40),
+ * planny.admission.maxConcurrent (default 32), planny.admission.metricsIntervalSeconds (default 60, 0 disables logging).
+ */
+public class AdmissionController {
+
+    private static final long IDLE_BUCKET_NANOS = TimeUnit.MINUTES.toNanos(10);
+    private static final Set<String> NOT_RATE_LIMITED = Set.of("getBoardTasks", "getBoardTasksIfChanged", "getBoardSummary");
+
+    private final double ratePerSecond;
+    private final double burst;
+    private final int maxConcurrent;
+    private final Semaphore concurrency;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, OperationMetrics> metrics = new ConcurrentHashMap<>();
+
+    public AdmissionController() {
+        this(Double.parseDouble(System.getProperty("planny.admission.ratePerSecond", "20")),
+                Double.parseDouble(System.getProperty("planny.admission.burst", "40")),
+                Integer.getInteger("planny.admission.maxConcurrent", 32));
+
+        long interval = Long.getLong("planny.admission.metricsIntervalSeconds", 60);
+        if (interval > 0) {
+            ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "admission-metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleAtFixedRate(() -> {
+                System.out.println("Admission metrics: " + snapshot());
+                evictIdleBuckets();
+            }, interval, interval, TimeUnit.SECONDS);
+        }
+    }
+
+    public AdmissionController(double ratePerSecond, double burst, int maxConcurrent) {
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.maxConcurrent = maxConcurrent;
+        this.concurrency = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * Admits a call or throws. On success the caller must call {@link #release()} when done,
+     * typically in a finally block.
+     */
+    public void acquire(String operation) throws RateLimitedException {
+        OperationMetrics opMetrics = metrics.computeIfAbsent(operation, k -> new OperationMetrics());
+
+        long waitNanos = NOT_RATE_LIMITED.contains(operation) ? 0
+                : buckets.computeIfAbsent(ClientSessions.current(), k -> new TokenBucket(burst)).tryTake(ratePerSecond, burst);
+        if (waitNanos > 0) {
+            opMetrics.rejectedRate.increment();
+            throw new RateLimitedException(operation, Math.max(1, TimeUnit.NANOSECONDS.toMillis(waitNanos)));
+        }
+        if (!concurrency.tryAcquire()) {
+            opMetrics.rejectedConcurrency.increment();
+            throw new RateLimitedException(operation, 50);
+        }
+        opMetrics.admitted.increment();
+    }
+
+    public void release() {
+        concurrency.release();
+    }
+
+    // Drops the bucket of a session whose client went away
+    public void endSession(String session) {
+        buckets.remove(session);
+    }
+
+    /**
+     * For shutting down: waits for the admitted calls to finish and rejects all calls from then
+     * on. Returns false if calls were still running after the timeout.
+     */
+    public boolean drain(long timeout, TimeUnit unit) throws InterruptedException {
+        return concurrency.tryAcquire(maxConcurrent, timeout, unit);
+    }
+
+    // Admitted / rejected counts per operation, e.g. {moveTask=admitted:120 rejected:3 (rate:3, concurrency:0)}
+    public Map<String, String> snapshot() {
+        Map<String, String> result = new TreeMap<>();
+        metrics.forEach((operation, m) -> {
+            long rate = m.rejectedRate.sum();
+            long busy = m.rejectedConcurrency.sum();
+            result.put(operation, "admitted:" + m.admitted.sum() + " rejected:" + (rate + busy)
+                    + " (rate:" + rate + ", concurrency:" + busy + ")");
+        });
+        return result;
+    }
+
+    private void evictIdleBuckets() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isIdle(now));
+    }
+
+    private static class TokenBucket {
+        private double tokens;
+        private long lastRefill = System.nanoTime();
+
+        TokenBucket(double tokens) {
+            this.tokens = tokens;
+        }
+
+        // Returns 0 if a token was taken, otherwise the time until one becomes available
+        synchronized long tryTake(double ratePerSecond, double burst) {
+            long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - lastRefill) * ratePerSecond / 1_000_000_000.0);
+            lastRefill = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) ((1 - tokens) / ratePerSecond * 1_000_000_000.0);
+        }
+
+        synchronized boolean isIdle(long now) {
+            return now - lastRefill > IDLE_BUCKET_NANOS;
+        }
+    }
+
+    private static class OperationMetrics {
+        final LongAdder admitted = new LongAdder();
+        final LongAdder rejectedRate = new LongAdder();
+        final LongAdder rejectedConcurrency = new LongAdder();
+    }
+}
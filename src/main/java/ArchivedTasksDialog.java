@@ -0,0 +1,133 @@
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.SwingWorker;
+import javax.swing.table.AbstractTableModel;
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Read-only list of a board's archived tasks, newest first. Archived tasks are not part of the
+ * board payload; they are fetched here page by page with keyset pagination.
+ */
+public class ArchivedTasksDialog extends JDialog {
+
+    private static final int PAGE_SIZE = 100;
+
+    private final KanbanService service;
+    private final int boardId;
+    private final IntFunction<String> userNames;
+    private final BiConsumer<String, RemoteException> errorHandler;
+    private final ArchivedTasksTableModel tableModel = new ArchivedTasksTableModel();
+    private final JButton loadMoreButton = new JButton("Load more");
+    private final JLabel statusLabel = new JLabel();
+    private boolean hasMore;
+
+    public ArchivedTasksDialog(JFrame owner, KanbanService service, Board board, IntFunction<String> userNames,
+                               BiConsumer<String, RemoteException> errorHandler) {
+        super(owner, "Archived Tasks - " + board.getName(), false);
+        this.service = service;
+        this.boardId = board.getId();
+        this.userNames = userNames;
+        this.errorHandler = errorHandler;
+
+        JTable table = new JTable(tableModel);
+        table.getColumnModel().getColumn(0).setPreferredWidth(50);
+        table.getColumnModel().getColumn(1).setPreferredWidth(300);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        controls.setBorder(BorderFactory.createEmptyBorder(0, 5, 0, 5));
+        controls.add(loadMoreButton);
+        controls.add(statusLabel);
+        add(controls, BorderLayout.SOUTH);
+
+        loadMoreButton.addActionListener(e -> loadPage(tableModel.lastTaskId()));
+        setPreferredSize(new Dimension(700, 450));
+        pack();
+        setLocationRelativeTo(owner);
+        loadPage(0);
+    }
+
+    private void loadPage(int beforeTaskId) {
+        loadMoreButton.setEnabled(false);
+        new SwingWorker<List<Task>, Void>() {
+            @Override
+            protected List<Task> doInBackground() throws Exception {
+                return service.getArchivedTasks(boardId, beforeTaskId, PAGE_SIZE);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    List<Task> page = get();
+                    tableModel.append(page);
+                    hasMore = page.size() == PAGE_SIZE;
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    errorHandler.accept("Failed to load archived tasks",
+                            cause instanceof RemoteException re ? re : new RemoteException(cause.getMessage(), cause));
+                }
+                loadMoreButton.setEnabled(hasMore);
+                statusLabel.setText(tableModel.getRowCount() + (hasMore ? "+" : "") + " archived tasks");
+            }
+        }.execute();
+    }
+
+    // Rows in page order: descending task ID
+    private class ArchivedTasksTableModel extends AbstractTableModel {
+        private final String[] columns = {"ID", "Title", "Assigned To", "Created At", "Completed At"};
+        private final List<Task> rows = new ArrayList<>();
+
+        int lastTaskId() {
+            return rows.isEmpty() ? 0 : rows.get(rows.size() - 1).getId();
+        }
+
+        void append(List<Task> page) {
+            if (page.isEmpty()) {
+                return;
+            }
+            int first = rows.size();
+            rows.addAll(page);
+            fireTableRowsInserted(first, rows.size() - 1);
+        }
+
+        @Override
+        public int getRowCount() {
+            return rows.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columns.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columns[column];
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            Task task = rows.get(rowIndex);
+            return switch (columnIndex) {
+                case 0 -> task.getId();
+                case 1 -> task.getTitle();
+                case 2 -> userNames.apply(task.getAssigneeId());
+                case 3 -> ClientGUI.formatTableValue(task.getCreatedAt());
+                default -> ClientGUI.formatTableValue(task.getUpdatedAt());
+            };
+        }
+    }
+}
@@ -0,0 +1,190 @@
+import javax.swing.AbstractAction;
+import javax.swing.BorderFactory;
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.DefaultListModel;
+import javax.swing.JComponent;
+import javax.swing.JList;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTextField;
+import javax.swing.KeyStroke;
+import javax.swing.ListSelectionModel;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.BorderLayout;
+import java.awt.Component;
+import java.awt.event.ActionEvent;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Type-ahead user picker for assigning tasks, usable with any number of users. Each keystroke
+ * lists the matching users the client has cached right away ({@link UserDirectory#cachedMatches});
+ * once typing pauses for {@value #DEBOUNCE_MILLIS} ms the server is searched as well and its
+ * matches are merged in. A new query cancels the search in flight, and results of superseded
+ * queries are dropped. All state is confined to the EDT.
+ */
+public class AssigneePicker extends JPanel {
+
+    private static final int DEBOUNCE_MILLIS = 200;
+    private static final int RESULT_LIMIT = 20;
+    private static final Comparator<User> BY_NAME = Comparator
+            .comparing((User user) -> user.getUsername().toLowerCase(Locale.ROOT))
+            .thenComparingInt(User::getId);
+
+    private final KanbanService service;
+    private final UserDirectory directory;
+    private final JTextField queryField = new JTextField();
+    private final DefaultListModel<User> results = new DefaultListModel<>();
+    private final JList<User> resultList = new JList<>(results);
+    private final Timer debounce;
+    private SwingWorker<List<User>, Void> search; // In flight, if any
+    private int generation; // Bumped per query; results of older queries are dropped
+
+    // initial is preselected and listed until the user types; may be null
+    public AssigneePicker(KanbanService service, UserDirectory directory, User initial) {
+        super(new BorderLayout(0, 2));
+        this.service = service;
+        this.directory = directory;
+
+        resultList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        resultList.setVisibleRowCount(6);
+        resultList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
+                super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+                setText(((User) value).getUsername());
+                return this;
+            }
+        });
+        queryField.setToolTipText("Type the beginning of a user name");
+        add(queryField, BorderLayout.NORTH);
+        JScrollPane scrollPane = new JScrollPane(resultList);
+        scrollPane.setBorder(BorderFactory.createEtchedBorder());
+        add(scrollPane, BorderLayout.CENTER);
+
+        debounce = new Timer(DEBOUNCE_MILLIS, e -> searchServer());
+        debounce.setRepeats(false);
+        queryField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                queryChanged();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                queryChanged();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                queryChanged();
+            }
+        });
+        // Arrow keys move through the results without leaving the text field
+        bindSelectionKey("DOWN", "nextResult", 1);
+        bindSelectionKey("UP", "previousResult", -1);
+
+        if (initial != null) {
+            results.addElement(initial);
+            resultList.setSelectedIndex(0);
+        }
+        debounce.start(); // First page of users for the empty query
+    }
+
+    public User getSelectedUser() {
+        return resultList.getSelectedValue();
+    }
+
+    private void queryChanged() {
+        generation++;
+        cancelSearch();
+        showResults(directory.cachedMatches(queryField.getText().trim(), RESULT_LIMIT));
+        debounce.restart();
+    }
+
+    private void searchServer() {
+        cancelSearch();
+        String query = queryField.getText().trim();
+        int queryGeneration = generation;
+        search = new SwingWorker<>() {
+            @Override
+            protected List<User> doInBackground() throws Exception {
+                return service.searchUsers(query, RESULT_LIMIT);
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled() || queryGeneration != generation) {
+                    return;
+                }
+                try {
+                    List<User> found = get();
+                    directory.remember(found);
+                    List<User> merged = new ArrayList<>(found);
+                    for (int i = 0; i < results.size(); i++) {
+                        merged.add(results.get(i));
+                    }
+                    showResults(merged);
+                } catch (CancellationException e) {
+                    // Superseded by a newer query
+                } catch (Exception e) {
+                    // The cached matches stay listed; the next keystroke tries again
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    System.err.println("Error searching users: " + cause.getMessage());
+                }
+            }
+        };
+        search.execute();
+    }
+
+    private void cancelSearch() {
+        if (search != null) {
+            search.cancel(true);
+            search = null;
+        }
+    }
+
+    // Lists the users by name without duplicates, keeping the selection if it is still listed
+    private void showResults(List<User> users) {
+        Map<Integer, User> unique = new LinkedHashMap<>();
+        users.stream().sorted(BY_NAME).forEach(user -> unique.putIfAbsent(user.getId(), user));
+        User selected = resultList.getSelectedValue();
+        results.clear();
+        int selectedIndex = -1;
+        for (User user : unique.values()) {
+            if (results.size() == RESULT_LIMIT) {
+                break;
+            }
+            if (selected != null && user.getId() == selected.getId()) {
+                selectedIndex = results.size();
+            }
+            results.addElement(user);
+        }
+        if (!results.isEmpty()) {
+            resultList.setSelectedIndex(Math.max(selectedIndex, 0));
+            resultList.ensureIndexIsVisible(resultList.getSelectedIndex());
+        }
+    }
+
+    private void bindSelectionKey(String key, String actionName, int step) {
+        queryField.getInputMap(JComponent.WHEN_FOCUSED).put(KeyStroke.getKeyStroke(key), actionName);
+        queryField.getActionMap().put(actionName, new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                int index = resultList.getSelectedIndex() + step;
+                if (index >= 0 && index < results.size()) {
+                    resultList.setSelectedIndex(index);
+                    resultList.ensureIndexIsVisible(index);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,48 @@
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+// A file attached to a task; the content is kept once per SHA-256 in the server's BlobStore
+public class Attachment implements Serializable {
+    // Largest chunk of an upload or download call, so no call holds a whole file in memory
+    public static final int CHUNK_SIZE = 1024 * 1024;
+
+    private final int id;
+    private final int taskId;
+    private final int boardId;
+    private final int userId; // Who attached it
+    private final String fileName;
+    private final long size;
+    private final String sha256; // Hex, lower case
+    private final LocalDateTime createdAt;
+
+    public Attachment(int id, int taskId, int boardId, int userId, String fileName, long size, String sha256, LocalDateTime createdAt) {
+        this.id = id;
+        this.taskId = taskId;
+        this.boardId = boardId;
+        this.userId = userId;
+        this.fileName = fileName;
+        this.size = size;
+        this.sha256 = sha256;
+        this.createdAt = createdAt;
+    }
+
+    public int getId() { return id; }
+    public int getTaskId() { return taskId; }
+    public int getBoardId() { return boardId; }
+    public int getUserId() { return userId; }
+    public String getFileName() { return fileName; }
+    public long getSize() { return size; }
+    public String getSha256() { return sha256; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    @Override
+    public String toString() {
+        return "Attachment{" +
+                "id=" + id +
+                ", taskId=" + taskId +
+                ", fileName='" + fileName + '\'' +
+                ", size=" + size +
+                ", sha256='" + sha256 + '\'' +
+                '}';
+    }
+}
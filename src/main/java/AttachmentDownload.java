@@ -0,0 +1,9 @@
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+
+// Server-side download of one attachment; chunks are fetched one at a time until an empty one is returned
+public interface AttachmentDownload extends Remote {
+    long getSize() throws RemoteException;
+    byte[] nextChunk() throws RemoteException;
+    void close() throws RemoteException;
+}
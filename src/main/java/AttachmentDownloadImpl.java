@@ -0,0 +1,63 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.rmi.server.Unreferenced;
+
+/**
+ * Remote download of one attachment, handed out {@link Attachment#CHUNK_SIZE} bytes at a time
+ * from a memory-mapped file of the {@link BlobStore}. Closes itself when exhausted, when the
+ * client calls {@link #close()}, or when the client disappears (RMI unreferenced).
+ */
+public class AttachmentDownloadImpl extends UnicastRemoteObject implements AttachmentDownload, Unreferenced {
+
+    private final long size;
+    private ByteBuffer content; // Read position is the download position
+
+    protected AttachmentDownloadImpl(BlobStore blobStore, Attachment attachment) throws RemoteException {
+        super(0, CompressedSocketFactory.forExport(), CompressedSocketFactory.forExport());
+        try {
+            content = blobStore.map(attachment.getSha256());
+        } catch (IOException e) {
+            e.printStackTrace();
+            close();
+            throw new RemoteException("Error opening attachment " + attachment.getFileName(), e);
+        }
+        size = content.remaining();
+    }
+
+    @Override
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public synchronized byte[] nextChunk() {
+        if (content == null) {
+            return new byte[0];
+        }
+        byte[] chunk = new byte[Math.min(Attachment.CHUNK_SIZE, content.remaining())];
+        content.get(chunk);
+        if (!content.hasRemaining()) {
+            close();
+        }
+        return chunk;
+    }
+
+    @Override
+    public synchronized void close() {
+        content = null; // The mapping is released once collected
+        try {
+            UnicastRemoteObject.unexportObject(this, true);
+        } catch (NoSuchObjectException e) {
+            // Already unexported
+        }
+    }
+
+    @Override
+    public void unreferenced() {
+        System.out.println("Attachment download abandoned by client, closing.");
+        close();
+    }
+}
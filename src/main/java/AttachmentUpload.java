@@ -0,0 +1,9 @@
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+
+// Server-side upload of one attachment; the file is sent in order, in chunks of at most Attachment.CHUNK_SIZE bytes
+public interface AttachmentUpload extends Remote {
+    void sendChunk(byte[] chunk) throws RemoteException;
+    Attachment commit() throws RemoteException; // Once all announced bytes were sent
+    void abort() throws RemoteException;
+}
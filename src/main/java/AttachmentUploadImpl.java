@@ -0,0 +1,109 @@
+import java.io.IOException;
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.rmi.server.Unreferenced;
+import java.sql.SQLException;
+
+/**
+ * Remote upload of one attachment into the {@link BlobStore}. Chunks go straight to a temporary
+ * file, so a server holds at most one chunk per upload in memory whatever the file size. On
+ * commit the file is moved into the store (or dropped if the same content is stored already)
+ * and attached to the task. Closes itself on commit, abort or when the client disappears.
+ */
+public class AttachmentUploadImpl extends UnicastRemoteObject implements AttachmentUpload, Unreferenced {
+
+    private final KanbanRepository repository;
+    private final int taskId;
+    private final int userId;
+    private final String fileName;
+    private BlobStore.Writer writer;
+
+    protected AttachmentUploadImpl(KanbanRepository repository, BlobStore blobStore, int taskId, int userId,
+                                   String fileName, long size) throws RemoteException {
+        super(0, CompressedSocketFactory.forExport(), CompressedSocketFactory.forExport());
+        this.repository = repository;
+        this.taskId = taskId;
+        this.userId = userId;
+        this.fileName = fileName;
+        try {
+            writer = blobStore.newWriter(size);
+        } catch (IOException e) {
+            close();
+            throw new RemoteException("Error starting upload: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized void sendChunk(byte[] chunk) throws RemoteException {
+        ensureOpen();
+        if (chunk.length > Attachment.CHUNK_SIZE) {
+            abort();
+            throw new RemoteException("Chunks can be at most " + Attachment.CHUNK_SIZE + " bytes");
+        }
+        try {
+            writer.write(chunk);
+        } catch (IOException e) {
+            e.printStackTrace();
+            abort();
+            throw new RemoteException("Error writing attachment: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized Attachment commit() throws RemoteException {
+        ensureOpen();
+        long size = writer.getWritten();
+        String sha256;
+        try {
+            sha256 = writer.finish();
+        } catch (IOException e) {
+            e.printStackTrace();
+            abort();
+            throw new RemoteException("Error storing attachment: " + e.getMessage(), e);
+        }
+        writer = null;
+        close();
+
+        try {
+            Attachment attachment = repository.addAttachment(taskId, userId, fileName, size, sha256);
+            if (attachment == null) {
+                throw new RemoteException("Task " + taskId + " does not exist.");
+            }
+            System.out.println("Attached " + fileName + " (" + size + " bytes) to task " + taskId);
+            return attachment;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RemoteException("Error attaching file", e);
+        }
+    }
+
+    @Override
+    public synchronized void abort() {
+        if (writer != null) {
+            writer.abort();
+            writer = null;
+        }
+        close();
+    }
+
+    @Override
+    public void unreferenced() {
+        System.out.println("Attachment upload abandoned by client, deleting it.");
+        abort();
+    }
+
+    private void ensureOpen() throws RemoteException {
+        if (writer == null) {
+            throw new RemoteException("Upload is closed");
+        }
+    }
+
+    private void close() {
+        try {
+            UnicastRemoteObject.unexportObject(this, true);
+        } catch (NoSuchObjectException e) {
+            // Already unexported
+        }
+    }
+}
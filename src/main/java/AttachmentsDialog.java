@@ -0,0 +1,328 @@
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JFileChooser;
+import javax.swing.JFrame;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.ListSelectionModel;
+import javax.swing.SwingWorker;
+import javax.swing.table.AbstractTableModel;
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.rmi.RemoteException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Lists a task's attachments and uploads and downloads them. Files are streamed in chunks of
+ * {@link Attachment#CHUNK_SIZE} bytes, so neither side holds a whole file in memory. Before
+ * uploading, the file is hashed; if the server already stores the same content, it is attached
+ * without being sent again.
+ */
+public class AttachmentsDialog extends JDialog {
+
+    private static final long HASH_WINDOW = 64L * 1024 * 1024; // Bytes mapped at a time while hashing
+
+    private final KanbanService service;
+    private final int taskId;
+    private final int userId;
+    private final IntFunction<String> userNames;
+    private final BiConsumer<String, RemoteException> errorHandler;
+    private final AttachmentsTableModel tableModel = new AttachmentsTableModel();
+    private final JTable table = new JTable(tableModel);
+    private final JButton attachButton = new JButton("Attach File...");
+    private final JButton downloadButton = new JButton("Download...");
+    private final JProgressBar progressBar = new JProgressBar(0, 100);
+
+    public AttachmentsDialog(JFrame owner, KanbanService service, Task task, int userId, IntFunction<String> userNames,
+                             BiConsumer<String, RemoteException> errorHandler) {
+        super(owner, "Attachments - " + task.getTitle(), false);
+        this.service = service;
+        this.taskId = task.getId();
+        this.userId = userId;
+        this.userNames = userNames;
+        this.errorHandler = errorHandler;
+
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.getColumnModel().getColumn(0).setPreferredWidth(250);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        controls.setBorder(BorderFactory.createEmptyBorder(0, 5, 0, 5));
+        controls.add(attachButton);
+        controls.add(downloadButton);
+        progressBar.setStringPainted(true);
+        progressBar.setVisible(false);
+        controls.add(progressBar);
+        add(controls, BorderLayout.SOUTH);
+
+        attachButton.addActionListener(e -> chooseAndUpload());
+        downloadButton.addActionListener(e -> chooseAndDownload());
+        setPreferredSize(new Dimension(650, 350));
+        pack();
+        setLocationRelativeTo(owner);
+        load();
+    }
+
+    private void load() {
+        new SwingWorker<List<Attachment>, Void>() {
+            @Override
+            protected List<Attachment> doInBackground() throws Exception {
+                return service.getAttachments(taskId);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    tableModel.setRows(get());
+                } catch (Exception e) {
+                    reportError("Failed to load attachments", e);
+                }
+            }
+        }.execute();
+    }
+
+    private void chooseAndUpload() {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path file = chooser.getSelectedFile().toPath();
+        runTransfer("Attaching " + file.getFileName(), "Failed to attach file", listener -> upload(file, listener));
+    }
+
+    private void chooseAndDownload() {
+        int row = table.getSelectedRow();
+        if (row < 0) {
+            return;
+        }
+        Attachment attachment = tableModel.get(table.convertRowIndexToModel(row));
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File(attachment.getFileName()));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path target = chooser.getSelectedFile().toPath();
+        runTransfer("Downloading " + attachment.getFileName(), "Failed to download attachment", listener -> {
+            download(attachment, target, listener);
+            return null;
+        });
+    }
+
+    private interface ProgressListener {
+        void progress(long done, long total);
+    }
+
+    // Returns an attachment to list, if any
+    private interface Transfer {
+        Attachment run(ProgressListener listener) throws Exception;
+    }
+
+    // Runs one transfer at a time on a background thread, with a progress bar
+    private void runTransfer(String description, String failureMessage, Transfer transfer) {
+        attachButton.setEnabled(false);
+        downloadButton.setEnabled(false);
+        progressBar.setValue(0);
+        progressBar.setString(description);
+        progressBar.setVisible(true);
+        SwingWorker<Attachment, Void> worker = new SwingWorker<>() {
+            @Override
+            protected Attachment doInBackground() throws Exception {
+                return transfer.run((done, total) -> setProgress(total == 0 ? 100 : (int) (done * 100 / total)));
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    Attachment added = get();
+                    if (added != null) {
+                        tableModel.add(added);
+                    }
+                } catch (Exception e) {
+                    reportError(failureMessage, e);
+                }
+                attachButton.setEnabled(true);
+                downloadButton.setEnabled(true);
+                progressBar.setVisible(false);
+            }
+        };
+        worker.addPropertyChangeListener(event -> {
+            if ("progress".equals(event.getPropertyName())) {
+                progressBar.setValue((Integer) event.getNewValue());
+            }
+        });
+        worker.execute();
+    }
+
+    // Attaches the file, sending it only if the server does not store the same content yet
+    private Attachment upload(Path file, ProgressListener listener) throws IOException, RemoteException {
+        String fileName = file.getFileName().toString();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            Attachment stored = service.attachStoredFile(taskId, userId, fileName, sha256(channel));
+            if (stored != null) {
+                listener.progress(size, size);
+                return stored;
+            }
+
+            AttachmentUpload upload = service.uploadAttachment(taskId, userId, fileName, size);
+            boolean committed = false;
+            try {
+                ByteBuffer buffer = ByteBuffer.allocate(Attachment.CHUNK_SIZE);
+                long sent = 0;
+                while (sent < size) {
+                    buffer.clear();
+                    int read = 0;
+                    while (buffer.hasRemaining() && read >= 0) { // A short read is not the end of the file
+                        read = channel.read(buffer, sent + buffer.position());
+                    }
+                    if (buffer.position() == 0) {
+                        throw new IOException(fileName + " got shorter while it was sent");
+                    }
+                    upload.sendChunk(Arrays.copyOf(buffer.array(), (int) Math.min(buffer.position(), size - sent)));
+                    sent += Math.min(buffer.position(), size - sent);
+                    listener.progress(sent, size);
+                }
+                Attachment attachment = upload.commit();
+                committed = true;
+                return attachment;
+            } finally {
+                if (!committed) {
+                    abortQuietly(upload);
+                }
+            }
+        }
+    }
+
+    private void download(Attachment attachment, Path target, ProgressListener listener) throws IOException {
+        AttachmentDownload download = service.downloadAttachment(attachment.getId());
+        boolean complete = false;
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = download.getSize();
+            long received = 0;
+            byte[] chunk;
+            while ((chunk = download.nextChunk()).length > 0) {
+                ByteBuffer buffer = ByteBuffer.wrap(chunk);
+                while (buffer.hasRemaining()) {
+                    received += channel.write(buffer, received);
+                }
+                listener.progress(received, size);
+            }
+            complete = received == size;
+            if (!complete) {
+                throw new IOException("Download ended after " + received + " of " + size + " bytes");
+            }
+        } finally {
+            if (!complete) {
+                try {
+                    download.close();
+                } catch (RemoteException e) {
+                    // Closes itself once the server notices the client is gone
+                }
+                Files.deleteIfExists(target);
+            }
+        }
+    }
+
+    // Hex SHA-256 of the file, read through memory-mapped windows instead of copying into the heap
+    private static String sha256(FileChannel channel) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // Every JRE has SHA-256
+        }
+        long size = channel.size();
+        for (long position = 0; position < size; position += HASH_WINDOW) {
+            digest.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(HASH_WINDOW, size - position)));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void abortQuietly(AttachmentUpload upload) {
+        try {
+            upload.abort();
+        } catch (RemoteException e) {
+            // The server deletes abandoned uploads once it notices the client is gone
+        }
+    }
+
+    private void reportError(String message, Exception e) {
+        Throwable cause = e.getCause() != null ? e.getCause() : e;
+        errorHandler.accept(message, cause instanceof RemoteException re ? re : new RemoteException(cause.getMessage(), cause));
+    }
+
+    static String formatSize(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format("%.1f KB", bytes / 1024.0);
+        }
+        return String.format("%.1f MB", bytes / (1024.0 * 1024));
+    }
+
+    private class AttachmentsTableModel extends AbstractTableModel {
+        private final String[] columns = {"File", "Size", "Attached By", "Attached At"};
+        private final List<Attachment> rows = new ArrayList<>();
+
+        Attachment get(int row) {
+            return rows.get(row);
+        }
+
+        void setRows(List<Attachment> attachments) {
+            rows.clear();
+            rows.addAll(attachments);
+            fireTableDataChanged();
+        }
+
+        void add(Attachment attachment) {
+            rows.add(attachment);
+            fireTableRowsInserted(rows.size() - 1, rows.size() - 1);
+        }
+
+        @Override
+        public int getRowCount() {
+            return rows.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columns.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columns[column];
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            Attachment attachment = rows.get(rowIndex);
+            return switch (columnIndex) {
+                case 0 -> attachment.getFileName();
+                case 1 -> formatSize(attachment.getSize());
+                case 2 -> userNames.apply(attachment.getUserId());
+                default -> ClientGUI.formatTableValue(attachment.getCreatedAt());
+            };
+        }
+    }
+}
@@ -0,0 +1,169 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed file store for task attachments. Each file is kept once, named after the
+ * SHA-256 of its content (in a subdirectory per first two hex digits), however many tasks it is
+ * attached to; clients check for a hash before sending a file, so a file that is already stored
+ * is not sent again. Files are never changed once stored.
+ *
+ * Uploads are written to a temporary file as their chunks arrive, hashed on the way, and moved
+ * into place on {@link Writer#finish()}; a file that turns out to be stored already is dropped.
+ * Downloads read memory-mapped files, so chunks are copied straight from the page cache.
+ * Configured with planny.attachments.dir (default planny-attachments) and
+ * planny.attachments.maxMegabytes (default 100).
+ */
+public class BlobStore {
+
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path dir;
+    private final Path tempDir;
+    private final long maxSize;
+
+    BlobStore(Path dir, long maxSize) {
+        this.dir = dir;
+        this.tempDir = dir.resolve("tmp");
+        this.maxSize = maxSize;
+    }
+
+    public static BlobStore open() {
+        long maxMegabytes = Long.getLong("planny.attachments.maxMegabytes", 100);
+        // Files are mapped as a whole for downloads, which is limited to 2 GB
+        long maxSize = Math.min(maxMegabytes * 1024 * 1024, Integer.MAX_VALUE);
+        BlobStore store = new BlobStore(Path.of(System.getProperty("planny.attachments.dir", "planny-attachments")), maxSize);
+        store.deleteAbandonedUploads();
+        return store;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public static boolean isValidHash(String sha256) {
+        return sha256 != null && SHA256_HEX.matcher(sha256).matches();
+    }
+
+    // Size of the stored file, or -1 if there is none with that hash
+    public long size(String sha256) throws IOException {
+        Path file = path(sha256);
+        return Files.exists(file) ? Files.size(file) : -1;
+    }
+
+    // Maps the whole file read-only; the mapping stays valid after the channel is closed
+    public MappedByteBuffer map(String sha256) throws IOException {
+        try (FileChannel channel = FileChannel.open(path(sha256), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    public Writer newWriter(long size) throws IOException {
+        if (size < 0 || size > maxSize) {
+            throw new IOException("Attachments can be at most " + maxSize / (1024 * 1024) + " MB");
+        }
+        Files.createDirectories(tempDir);
+        return new Writer(Files.createTempFile(tempDir, "upload-", ".part"), size);
+    }
+
+    private Path path(String sha256) {
+        if (!isValidHash(sha256)) {
+            throw new IllegalArgumentException("Not a SHA-256 hash: " + sha256);
+        }
+        return dir.resolve(sha256.substring(0, 2)).resolve(sha256);
+    }
+
+    // Uploads cut off by a server restart
+    private void deleteAbandonedUploads() {
+        if (!Files.isDirectory(tempDir)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(tempDir, "upload-*.part")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            System.err.println("Error deleting abandoned uploads in " + tempDir + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes one upload of a known size. Chunks must arrive in order; they are written at their
+     * position with the channel, without going through a stream buffer, and hashed as they are.
+     */
+    public class Writer {
+        private final Path tempFile;
+        private final long size;
+        private final FileChannel channel;
+        private final MessageDigest digest;
+        private long written;
+
+        private Writer(Path tempFile, long size) throws IOException {
+            this.tempFile = tempFile;
+            this.size = size;
+            this.channel = FileChannel.open(tempFile, StandardOpenOption.WRITE);
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e); // Every JRE has SHA-256
+            }
+        }
+
+        public long getWritten() {
+            return written;
+        }
+
+        public void write(byte[] chunk) throws IOException {
+            if (written + chunk.length > size) {
+                throw new IOException("More data than the announced " + size + " bytes");
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(chunk);
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer, written);
+            }
+            digest.update(chunk);
+        }
+
+        // Moves the file into the store, unless it is stored already; returns its hash
+        public String finish() throws IOException {
+            if (written != size) {
+                throw new IOException("Upload incomplete: " + written + " of " + size + " bytes");
+            }
+            channel.force(false);
+            channel.close();
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            Path target = path(sha256);
+            if (Files.exists(target)) {
+                Files.delete(tempFile); // Same content as a stored file
+                return sha256;
+            }
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                Files.delete(tempFile); // Stored by a concurrent upload of the same file
+            }
+            return sha256;
+        }
+
+        public void abort() {
+            try {
+                channel.close();
+                Files.deleteIfExists(tempFile);
+            } catch (IOException e) {
+                System.err.println("Error deleting aborted upload " + tempFile + ": " + e.getMessage());
+            }
+        }
+    }
+}
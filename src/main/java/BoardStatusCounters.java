@@ -0,0 +1,87 @@
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Server-side cache of the stored board status counters (board_status_counts with PostgreSQL).
+ * All boards are loaded once at startup and mutations apply their deltas after the change was
+ * committed, so summaries and WIP limit pre-checks never need a query. The stored counters remain
+ * the authority: they are maintained together with the task change, guarded by the WIP limit.
+ */
+public class BoardStatusCounters {
+
+    private static final int NO_LIMIT = -1;
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private final Map<Integer, BoardCounters> boards = new ConcurrentHashMap<>();
+
+    public void loadAll(KanbanRepository repository) throws SQLException {
+        boards.clear();
+        for (BoardSummary summary : repository.getBoardSummaries().values()) {
+            BoardCounters counters = new BoardCounters();
+            for (TaskStatus status : STATUSES) {
+                counters.counts.set(status.ordinal(), summary.getCount(status));
+                Integer limit = summary.getWipLimit(status);
+                counters.limits.set(status.ordinal(), limit == null ? NO_LIMIT : limit);
+            }
+            boards.put(summary.getBoardId(), counters);
+        }
+        System.out.println("Loaded status counters for " + boards.size() + " boards.");
+    }
+
+    public void addBoard(int boardId) {
+        boards.putIfAbsent(boardId, new BoardCounters());
+    }
+
+    public void removeBoard(int boardId) {
+        boards.remove(boardId);
+    }
+
+    public void apply(int boardId, TaskStatus status, int delta) {
+        BoardCounters counters = boards.get(boardId);
+        if (counters != null && delta != 0) {
+            counters.counts.addAndGet(status.ordinal(), delta);
+        }
+    }
+
+    public void setLimit(int boardId, TaskStatus status, Integer limit) {
+        boards.computeIfAbsent(boardId, id -> new BoardCounters())
+                .limits.set(status.ordinal(), limit == null ? NO_LIMIT : limit);
+    }
+
+    // True if adding the given number of tasks to the status would exceed its WIP limit
+    public boolean wouldExceedLimit(int boardId, TaskStatus status, int added) {
+        BoardCounters counters = boards.get(boardId);
+        if (counters == null) {
+            return false;
+        }
+        int limit = counters.limits.get(status.ordinal());
+        return limit != NO_LIMIT && counters.counts.get(status.ordinal()) + added > limit;
+    }
+
+    public BoardSummary summary(int boardId) {
+        Map<TaskStatus, Integer> counts = new EnumMap<>(TaskStatus.class);
+        Map<TaskStatus, Integer> limits = new EnumMap<>(TaskStatus.class);
+        BoardCounters counters = boards.get(boardId);
+        for (TaskStatus status : STATUSES) {
+            counts.put(status, counters == null ? 0 : counters.counts.get(status.ordinal()));
+            if (counters != null && counters.limits.get(status.ordinal()) != NO_LIMIT) {
+                limits.put(status, counters.limits.get(status.ordinal()));
+            }
+        }
+        return new BoardSummary(boardId, counts, limits);
+    }
+
+    private static class BoardCounters {
+        final AtomicIntegerArray counts = new AtomicIntegerArray(STATUSES.length);
+        final AtomicIntegerArray limits = new AtomicIntegerArray(STATUSES.length);
+
+        BoardCounters() {
+            for (int i = 0; i < STATUSES.length; i++) {
+                limits.set(i, NO_LIMIT);
+            }
+        }
+    }
+}
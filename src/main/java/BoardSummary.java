@@ -0,0 +1,44 @@
+import java.io.Serializable;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Number of tasks per status on a board, with the configured WIP limits (absent = no limit)
+public class BoardSummary implements Serializable {
+    private final int boardId;
+    private final Map<TaskStatus, Integer> counts;
+    private final Map<TaskStatus, Integer> wipLimits;
+
+    public BoardSummary(int boardId, Map<TaskStatus, Integer> counts, Map<TaskStatus, Integer> wipLimits) {
+        this.boardId = boardId;
+        this.counts = new EnumMap<>(counts);
+        this.wipLimits = wipLimits.isEmpty() ? new EnumMap<>(TaskStatus.class) : new EnumMap<>(wipLimits);
+    }
+
+    public int getBoardId() { return boardId; }
+
+    public int getCount(TaskStatus status) {
+        return counts.getOrDefault(status, 0);
+    }
+
+    // Returns null if the status has no WIP limit
+    public Integer getWipLimit(TaskStatus status) {
+        return wipLimits.get(status);
+    }
+
+    public int getTotalCount() {
+        int total = 0;
+        for (int count : counts.values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return "BoardSummary{" +
+                "boardId=" + boardId +
+                ", counts=" + counts +
+                ", wipLimits=" + wipLimits +
+                '}';
+    }
+}
@@ -0,0 +1,155 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+
+/**
+ * Server-side cache of serialized board task lists. After a change, every client showing the
+ * board reloads it; instead of querying and serializing the same list for each of them, the first
+ * request builds a {@link TaskListPayload} and the others share it. Concurrent requests for a board
+ * whose payload is being built wait for that build (single-flight) instead of starting their own.
+ *
+ * Each board has a revision, bumped by {@link #invalidate(int)} before clients are notified of a
+ * change, so a payload is only reused for the revision it was built for. Payloads larger than
+ * planny.taskCache.compressAbove bytes (default 65536, -1 to disable) are deflated.
+ *
+ * Revisions count from zero again when the server starts cold, so they are only comparable
+ * within an epoch, which changes on every cold start. A warm start ({@link WarmStart}) restores
+ * the epoch together with the revisions and payloads, so clients can tell that nothing they have
+ * is out of date.
+ */
+public class BoardTaskListCache {
+
+    public interface Loader {
+        List<Task> load() throws RemoteException;
+    }
+
+    private record Entry(long revision, CompletableFuture<TaskListPayload> payload) {}
+
+    // Revisions and built payloads, as saved for a warm start
+    public record Snapshot(long epoch, Map<Integer, Long> revisions, List<TaskListPayload> payloads) {}
+
+    private static final int COMPRESS_ABOVE = Integer.getInteger("planny.taskCache.compressAbove", 64 * 1024);
+
+    private final Map<Integer, AtomicLong> revisions = new ConcurrentHashMap<>();
+    private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong(); // Tells whether a snapshot is still current
+    private volatile long epoch = System.currentTimeMillis();
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    // Whether a client holding this revision of the board's tasks is up to date
+    public boolean isCurrent(int boardId, long epoch, long revision) {
+        return epoch == this.epoch && revision(boardId).get() == revision;
+    }
+
+    public TaskListPayload get(int boardId, Loader loader) throws RemoteException {
+        long revision = revision(boardId).get();
+        CompletableFuture<TaskListPayload> created = new CompletableFuture<>();
+        Entry entry = entries.compute(boardId, (id, existing) ->
+                existing != null && existing.revision >= revision ? existing : new Entry(revision, created));
+
+        if (entry.payload == created) {
+            try {
+                created.complete(build(boardId, revision, loader.load()));
+            } catch (RemoteException | RuntimeException e) {
+                // Let the next request retry instead of caching the failure
+                entries.remove(boardId, entry);
+                created.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        try {
+            return entry.payload.join();
+        } catch (CompletionException e) {
+            throw new RemoteException("Error loading tasks", e.getCause());
+        }
+    }
+
+    // Called after a board's tasks changed, before the change is announced; returns the new revision
+    public long invalidate(int boardId) {
+        invalidations.incrementAndGet();
+        long revision = revision(boardId).incrementAndGet();
+        entries.remove(boardId);
+        return revision;
+    }
+
+    public void removeBoard(int boardId) {
+        invalidations.incrementAndGet();
+        entries.remove(boardId);
+        revisions.remove(boardId);
+    }
+
+    public long invalidationCount() {
+        return invalidations.get();
+    }
+
+    // Payloads still being built are left out; they are built again after the restart
+    public Snapshot snapshot() {
+        Map<Integer, Long> current = new HashMap<>();
+        revisions.forEach((boardId, revision) -> current.put(boardId, revision.get()));
+        List<TaskListPayload> payloads = new ArrayList<>();
+        entries.forEach((boardId, entry) -> {
+            if (entry.payload.isDone() && !entry.payload.isCompletedExceptionally()
+                    && current.getOrDefault(boardId, 0L) == entry.revision) {
+                payloads.add(entry.payload.join());
+            }
+        });
+        return new Snapshot(epoch, current, payloads);
+    }
+
+    // Only before the service is exported
+    public void restore(Snapshot snapshot) {
+        epoch = snapshot.epoch();
+        snapshot.revisions().forEach((boardId, revision) -> revisions.put(boardId, new AtomicLong(revision)));
+        for (TaskListPayload payload : snapshot.payloads()) {
+            entries.put(payload.getBoardId(), new Entry(payload.getRevision(), CompletableFuture.completedFuture(payload)));
+        }
+    }
+
+    private AtomicLong revision(int boardId) {
+        return revisions.computeIfAbsent(boardId, id -> new AtomicLong());
+    }
+
+    private TaskListPayload build(int boardId, long revision, List<Task> tasks) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(256, tasks.size() * 200));
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(new ArrayList<>(tasks));
+        } catch (IOException e) {
+            throw new IllegalStateException("Error serializing tasks", e); // In-memory stream
+        }
+        byte[] data = bytes.toByteArray();
+        if (COMPRESS_ABOVE < 0 || data.length <= COMPRESS_ABOVE) {
+            return new TaskListPayload(boardId, epoch, revision, false, data);
+        }
+        return new TaskListPayload(boardId, epoch, revision, true, deflate(data));
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+}
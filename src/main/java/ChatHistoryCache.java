@@ -0,0 +1,102 @@
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The latest messages of each chat channel, so the first page of history, which every client
+ * loads when it opens a channel or reconnects, is served without a query. Sent messages are added
+ * as they are stored; the first request for a channel merges them with the latest page from the
+ * database. Merging (instead of replacing) keeps a message that is not on the read replica yet.
+ * Older pages are always read from the database.
+ */
+public class ChatHistoryCache {
+
+    public interface Loader {
+        List<ChatMessage> load() throws RemoteException;
+    }
+
+    // Same order as the history pages
+    private static final Comparator<ChatMessage> ORDER =
+            Comparator.comparing(ChatMessage::getCreatedAt).thenComparingInt(ChatMessage::getMessageId);
+
+    private static class Channel {
+        final TreeSet<ChatMessage> latest = new TreeSet<>(ORDER); // Guarded by the channel
+        boolean loaded;
+    }
+
+    private final int capacity;
+    private final Map<Integer, Channel> channels = new ConcurrentHashMap<>();
+
+    public ChatHistoryCache(int capacity) {
+        this.capacity = capacity;
+    }
+
+    // The latest messages of the channel, oldest first; limit is at most the capacity
+    public List<ChatMessage> latest(int boardId, int limit, Loader loader) throws RemoteException {
+        Channel channel = channels.computeIfAbsent(boardId, id -> new Channel());
+        synchronized (channel) {
+            if (channel.loaded) {
+                return tail(channel.latest, limit);
+            }
+        }
+        List<ChatMessage> page = loader.load();
+        synchronized (channel) {
+            for (ChatMessage message : page) {
+                add(channel, message);
+            }
+            channel.loaded = channels.get(boardId) == channel; // Unless the board was deleted meanwhile
+            return tail(channel.latest, limit);
+        }
+    }
+
+    public void add(ChatMessage message) {
+        Channel channel = channels.computeIfAbsent(message.getBoardId(), id -> new Channel());
+        synchronized (channel) {
+            add(channel, message);
+        }
+    }
+
+    public void removeChannel(int boardId) {
+        channels.remove(boardId);
+    }
+
+    // Loaded channels only, as saved for a warm start
+    public Map<Integer, List<ChatMessage>> snapshot() {
+        Map<Integer, List<ChatMessage>> snapshot = new HashMap<>();
+        channels.forEach((boardId, channel) -> {
+            synchronized (channel) {
+                if (channel.loaded) {
+                    snapshot.put(boardId, new ArrayList<>(channel.latest));
+                }
+            }
+        });
+        return snapshot;
+    }
+
+    // Only before the service is exported
+    public void restore(Map<Integer, List<ChatMessage>> snapshot) {
+        snapshot.forEach((boardId, messages) -> {
+            Channel channel = new Channel();
+            messages.forEach(message -> add(channel, message));
+            channel.loaded = true;
+            channels.put(boardId, channel);
+        });
+    }
+
+    private void add(Channel channel, ChatMessage message) {
+        channel.latest.add(message);
+        if (channel.latest.size() > capacity) {
+            channel.latest.pollFirst();
+        }
+    }
+
+    private static List<ChatMessage> tail(TreeSet<ChatMessage> messages, int limit) {
+        List<ChatMessage> all = new ArrayList<>(messages);
+        return new ArrayList<>(all.subList(Math.max(0, all.size() - limit), all.size())); // Sublists are not serializable
+    }
+}
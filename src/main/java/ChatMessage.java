@@ -2,15 +2,20 @@ import java.io.Serializable;
 import java.time.LocalDateTime;
 
 public class ChatMessage implements Serializable {
+    // Channel of messages that belong to no board
+    public static final int GENERAL_CHANNEL = -1;
+
     private int messageId;
+    private int boardId; // Channel: the board the message was sent in, or GENERAL_CHANNEL
     private int userId;
     private String username;
     private String content;
     private LocalDateTime createdAt;
 
     // Constructor used by server when retrieving from DB
-    public ChatMessage(int messageId, int userId, String username, String content, LocalDateTime createdAt) {
+    public ChatMessage(int messageId, int boardId, int userId, String username, String content, LocalDateTime createdAt) {
         this.messageId = messageId;
+        this.boardId = boardId;
         this.userId = userId;
         this.username = username;
         this.content = content;
@@ -19,6 +24,7 @@ public class ChatMessage implements Serializable {
 
     // Getters
     public int getMessageId() { return messageId; }
+    public int getBoardId() { return boardId; }
     public int getUserId() { return userId; }
     public String getUsername() { return username; }
     public String getContent() { return content; }
@@ -29,6 +35,7 @@ public class ChatMessage implements Serializable {
     public String toString() {
         return "ChatMessage{" +
                 "messageId=" + messageId +
+                ", boardId=" + boardId +
                 ", userId=" + userId +
                 ", username='" + username + '\'' +
                 ", content='" + content + '\'' +
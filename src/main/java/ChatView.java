@@ -0,0 +1,151 @@
+import javax.swing.JScrollPane;
+import javax.swing.JTextPane;
+import javax.swing.SwingUtilities;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.DefaultCaret;
+import javax.swing.text.Element;
+import javax.swing.text.SimpleAttributeSet;
+import javax.swing.text.StyleConstants;
+import javax.swing.text.StyledDocument;
+import java.awt.Color;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Chat display with a bounded document. Messages are formatted on a background thread and
+ * queued; the EDT drains the queue in one batch per event, so a burst of messages costs one
+ * document update instead of one per message. Lines beyond the cap (system property
+ * {@code planny.chat.maxLines}, default 1000) are trimmed from the top.
+ */
+public class ChatView extends JScrollPane {
+
+    private static final DateTimeFormatter CHAT_DATE_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+    private static final int MAX_LINES = Integer.getInteger("planny.chat.maxLines", 1000);
+
+    private final JTextPane textPane = new JTextPane();
+    private final StyledDocument document = textPane.getStyledDocument();
+    private final SimpleAttributeSet timeStyle = new SimpleAttributeSet();
+    private final SimpleAttributeSet userStyle = new SimpleAttributeSet();
+    private final SimpleAttributeSet contentStyle = new SimpleAttributeSet();
+
+    private final ExecutorService formatter = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "chat-formatter");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ConcurrentLinkedQueue<String[]> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    public ChatView() {
+        setViewportView(textPane);
+        textPane.setEditable(false); // Users shouldn't edit the history
+        // Scrolling is done explicitly after each batch instead of on every insert
+        ((DefaultCaret) textPane.getCaret()).setUpdatePolicy(DefaultCaret.NEVER_UPDATE);
+
+        StyleConstants.setForeground(timeStyle, Color.GRAY);
+        StyleConstants.setBold(userStyle, true);
+    }
+
+    // Replaces the whole history; may be called from any thread
+    public void setMessages(List<ChatMessage> messages) {
+        formatter.execute(() -> {
+            pending.clear();
+            pending.add(new String[0]); // Marker: clear the document before the next lines
+            int from = Math.max(0, messages.size() - MAX_LINES);
+            for (ChatMessage message : messages.subList(from, messages.size())) {
+                pending.add(format(message));
+            }
+            scheduleFlush();
+        });
+    }
+
+    // Appends a message; may be called from any thread (e.g. the RMI callback thread)
+    public void appendMessage(ChatMessage message) {
+        formatter.execute(() -> {
+            pending.add(format(message));
+            scheduleFlush();
+        });
+    }
+
+    // Puts an earlier page of messages (oldest first) above the current history; may be called
+    // from any thread. Only as many lines as fit under the cap are kept, newest first.
+    public void prependMessages(List<ChatMessage> messages) {
+        formatter.execute(() -> {
+            List<String[]> lines = new ArrayList<>(messages.size());
+            for (ChatMessage message : messages) {
+                lines.add(format(message));
+            }
+            // Queued behind any pending flush, since both go through the EDT in order
+            SwingUtilities.invokeLater(() -> insertAtTop(lines));
+        });
+    }
+
+    private static String[] format(ChatMessage message) {
+        return new String[]{
+                "[" + message.getCreatedAt().format(CHAT_DATE_FORMATTER) + "] ",
+                message.getUsername() + ": ",
+                message.getContent() + "\n"
+        };
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::flush);
+        }
+    }
+
+    // Runs on the EDT: inserts everything queued so far, trims old lines and scrolls once
+    private void flush() {
+        flushScheduled.set(false);
+        try {
+            String[] line;
+            while ((line = pending.poll()) != null) {
+                if (line.length == 0) {
+                    document.remove(0, document.getLength());
+                    continue;
+                }
+                int offset = document.getLength();
+                document.insertString(offset, line[0], timeStyle);
+                document.insertString(offset + line[0].length(), line[1], userStyle);
+                document.insertString(offset + line[0].length() + line[1].length(), line[2], contentStyle);
+            }
+            trim();
+        } catch (BadLocationException e) {
+            e.printStackTrace();
+        }
+        textPane.setCaretPosition(document.getLength());
+    }
+
+    // Runs on the EDT
+    private void insertAtTop(List<String[]> lines) {
+        int room = Math.max(0, MAX_LINES - (document.getDefaultRootElement().getElementCount() - 1));
+        int offset = 0;
+        try {
+            for (String[] line : lines.subList(Math.max(0, lines.size() - room), lines.size())) {
+                document.insertString(offset, line[0], timeStyle);
+                offset += line[0].length();
+                document.insertString(offset, line[1], userStyle);
+                offset += line[1].length();
+                document.insertString(offset, line[2], contentStyle);
+                offset += line[2].length();
+            }
+        } catch (BadLocationException e) {
+            e.printStackTrace();
+        }
+        textPane.setCaretPosition(0);
+    }
+
+    private void trim() throws BadLocationException {
+        Element root = document.getDefaultRootElement();
+        // Every message ends with a newline, so the last paragraph is always empty
+        int excess = root.getElementCount() - 1 - MAX_LINES;
+        if (excess > 0) {
+            document.remove(0, root.getElement(excess - 1).getEndOffset());
+        }
+    }
+}
@@ -1,18 +1,17 @@
-import java.rmi.Naming;
 import java.rmi.RemoteException;
 
 public class Client {
 
-    private static KanbanService service;
+    private static ReconnectingService connection;
 
     public static void main(String[] args) {
         try {
-            // 1. Connect to the RMI Registry and look up the KanbanService
-            service = (KanbanService) Naming.lookup("rmi://localhost/KanbanService");
+            // 1. Connect to the RMI Registry and look up the KanbanService (looked up again if the server restarts)
+            connection = ReconnectingService.connect("rmi://localhost/KanbanService");
             System.out.println("Connected to KanbanService!");
 
-            // 2. Launch the GUI, passing the service instance
-            ClientGUI clientGUI = new ClientGUI(service);
+            // 2. Launch the GUI, passing the connection
+            ClientGUI clientGUI = new ClientGUI(connection);
             clientGUI.launch();
 
         } catch (RemoteException e) { // Catch RemoteException from ClientGUI constructor
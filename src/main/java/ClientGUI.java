@@ -1,39 +1,52 @@
 import javax.swing.*;
 import javax.swing.event.TableModelEvent;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.table.*;
 import java.awt.*;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.rmi.RemoteException;
 import java.rmi.server.UnicastRemoteObject;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
 
 public class ClientGUI extends UnicastRemoteObject implements ClientListener {
 
-    private KanbanService service;
+    private final ReconnectingService connection;
+    private final KanbanService service;
     private JFrame frame;
     private DefaultListModel<Board> boardListModel;
     private JList<Board> boardList;
     private JPanel mainPanel;
     private JTable taskTable;
     private DefaultTableModel taskTableModel;
-    private JTextArea chatDisplayArea;
+    private TableDisplayCache taskDisplayCache;
+    private KanbanBoardPanel kanbanBoardPanel;
+    private MyTasksPanel myTasksPanel;
+    private ChatView chatView;
     private JTextField chatInputField;
     private JButton sendButton;
+    private JPanel chatPanel;
+    private JButton loadEarlierButton;
+    private volatile int chatChannel = ChatMessage.GENERAL_CHANNEL; // Follows the selected board
+    private volatile int oldestChatMessageId; // Paging cursor for "Load earlier"; 0 until history is loaded
+    private volatile LocalDateTime oldestChatCreatedAt; // Sent with the cursor, so the server can bound the search by time
     private int currentBoardId = -1;
+    private LocalTaskBoard taskBoard; // Tasks of the current board, with own changes applied ahead of the server
     private User currentUser;
-    private Map<Integer, String> userMap = new HashMap<>();
+    private UserDirectory userDirectory; // User names, fetched on demand and kept current by the server
+    private OfflineQueue offlineQueue; // Changes made while the server could not be reached
 
     private static final int COL_ID = 0;
     private static final int COL_TITLE = 1;
@@ -48,27 +61,33 @@ public class ClientGUI extends UnicastRemoteObject implements ClientListener {
     private static final int COL_USER_ID = 8;
     private static final int COL_ASSIGNEE_ID = 9;
 
+    private static final int CHAT_PAGE_SIZE = 100;
+
     private static final DateTimeFormatter TABLE_DATE_FORMATTER =
             DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    static final DateTimeFormatter DUE_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
 
-    private static final DateTimeFormatter CHAT_DATE_FORMATTER =
-            DateTimeFormatter.ofPattern("HH:mm");
+    public ClientGUI(ReconnectingService connection) throws RemoteException{
+        // Exported like the service, so server callbacks use compressing sockets too
+        super(0, CompressedSocketFactory.forExport(), CompressedSocketFactory.forExport());
+        this.connection = connection;
+        this.service = connection.service();
+    }
 
-    public ClientGUI(KanbanService service) throws RemoteException{
-        super();
-        this.service = service;
+    // Called on the EDT once user names arrived: updates the name cells and repaints the views
+    private void refreshUserNames() {
+        for (int row = 0; row < taskTableModel.getRowCount(); row++) {
+            updateNameCell(row, COL_CREATED_BY, userDirectory.name((int) taskTableModel.getValueAt(row, COL_USER_ID), "Unknown User"));
+            updateNameCell(row, COL_ASSIGNED_TO, userDirectory.name((int) taskTableModel.getValueAt(row, COL_ASSIGNEE_ID), "Unassigned"));
+        }
+        for (Window window : Window.getWindows()) {
+            window.repaint();
+        }
     }
 
-    private void fetchUsers() {
-        try {
-            List<User> users = service.getUsers();
-            userMap.clear();
-            for (User user : users) {
-                userMap.put(user.getId(), user.getUsername());
-            }
-            System.out.println("Fetched " + userMap.size() + " users.");
-        } catch (RemoteException e) {
-            handleRemoteException("Error fetching users", e);
+    private void updateNameCell(int row, int column, String name) {
+        if (!name.equals(taskTableModel.getValueAt(row, column))) {
+            taskTableModel.setValueAt(name, row, column);
         }
     }
 
@@ -208,8 +227,8 @@ public class ClientGUI extends UnicastRemoteObject implements ClientListener {
 
     private void initializeMainGUI() {
         try {
+            userDirectory = new UserDirectory(service, this::refreshUserNames);
             service.registerListener(this);
-            fetchUsers();
         } catch (RemoteException e) {
             e.printStackTrace();
             SwingUtilities.invokeLater(() ->
@@ -217,6 +236,30 @@ public class ClientGUI extends UnicastRemoteObject implements ClientListener {
             );
             return;
         }
+        try {
+            offlineQueue = OfflineQueue.open(currentUser.getId());
+        } catch (IOException e) {
+            e.printStackTrace();
+            SwingUtilities.invokeLater(() ->
+                JOptionPane.showMessageDialog(null, "Failed to open the offline change queue: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE)
+            );
+            return;
+        }
+        connection.addConnectionListener(new ReconnectingService.ConnectionListener() {
+            @Override
+            public void connectionLost() {
+                SwingUtilities.invokeLater(ClientGUI.this::updateConnectionStatus);
+            }
+
+            @Override
+            public void reconnected() throws Exception {
+                // A restarted server knows nothing of this client: register the callbacks again
+                service.registerListener(ClientGUI.this);
+                service.subscribeUserTasks(ClientGUI.this, currentUser.getId());
+                service.subscribeChat(ClientGUI.this, chatChannel);
+                sendQueuedChanges();
+            }
+        });
 
         frame = new JFrame("Planny App - Logged in as: " + currentUser.getUsername());
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -226,9 +269,16 @@ public class ClientGUI extends UnicastRemoteObject implements ClientListener {
         // --- Menu Bar ---
         JMenuBar menuBar = new JMenuBar();
         JMenu fileMenu = new JMenu("File");
-        JMenuItem saveAsCsvItem = new JMenuItem("Save As CSV...");
-        saveAsCsvItem.addActionListener(e -> saveTableAsCsv());
-        fileMenu.add(saveAsCsvItem);
+        JMenuItem exportBoardItem = new JMenuItem("Export Board...");
+        exportBoardItem.addActionListener(e -> exportTasks(false));
+        fileMenu.add(exportBoardItem);
+        JMenuItem exportAllItem = new JMenuItem("Export All Boards...");
+        exportAllItem.addActionListener(e -> exportTasks(true));
+        fileMenu.add(exportAllItem);
+        fileMenu.addSeparator();
+        JMenuItem importItem = new JMenuItem("Import Tasks from CSV...");
+        importItem.addActionListener(e -> importTasks());
+        fileMenu.add(importItem);
         menuBar.add(fileMenu);
         frame.setJMenuBar(menuBar); // Set the menu bar for the frame
 
@@ -270,7 +320,8 @@ public class ClientGUI extends UnicastRemoteObject implements ClientListener {
         taskTableModel = new DefaultTableModel(new Object[]{"ID", "Title", "Description", "Status", "Created By", "Assigned To", "Created At", "Updated At", "UserId", "AssigneeId"}, 0) {
             @Override
             public boolean isCellEditable(int row, int column) {
-                return column == COL_TITLE || column == COL_DESC;
+                // Created tasks can only be edited once the server assigned their ID
+                return (column == COL_TITLE || column == COL_DESC) && (int) getValueAt(row, COL_ID) > 0;
             }
 
             @Override
@@ -281,7 +332,18 @@ public class ClientGUI extends UnicastRemoteObject implements ClientListener {
                 return super.getColumnClass(columnIndex);
             }
         };
-        taskTable = new JTable(taskTableModel);
+        taskTable = new JTable(taskTableModel) {
+            // Rows with changes not confirmed by the server yet are grayed out
+            @Override
+            public Component prepareRenderer(TableCellRenderer renderer, int row, int column) {
+                Component component = super.prepareRenderer(renderer, row, column);
+                if (!isRowSelected(row) && taskBoard != null
+                        && taskBoard.isPending((int) getModel().getValueAt(convertRowIndexToModel(row), COL_ID))) {
+                    component.setForeground(Color.GRAY);
+                }
+                return component;
+            }
+        };
         taskTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
 
 
@@ -304,18 +366,18 @@ public class ClientGUI extends UnicastRemoteObject implements ClientListener {
                     if (column == COL_TITLE) {
                         if (currentTitle.trim().isEmpty()) {
                             JOptionPane.showMessageDialog(frame, "Task title cannot be empty.", "Validation Error", JOptionPane.ERROR_MESSAGE);
-                            loadTasksForBoard(currentBoardId); // Reload to revert change
+                            SwingUtilities.invokeLater(this::showTasks); // Revert the change
                             return;
                         }
                         if (currentTitle.length() > 100) {
                             JOptionPane.showMessageDialog(frame, "Task title cannot exceed 100 characters.", "Validation Error", JOptionPane.ERROR_MESSAGE);
-                            loadTasksForBoard(currentBoardId); // Reload to revert change
+                            SwingUtilities.invokeLater(this::showTasks); // Revert the change
                             return;
                         }
                     } else if (column == COL_DESC) {
                         if (currentDescription.length() > 500) {
                             JOptionPane.showMessageDialog(frame, "Task description cannot exceed 500 characters.", "Validation Error", JOptionPane.ERROR_MESSAGE);
-                            loadTasksForBoard(currentBoardId); // Reload to revert change
+                            SwingUtilities.invokeLater(this::showTasks); // Revert the change
                             return;
                         }
                     }
@@ -323,11 +385,17 @@ public class ClientGUI extends UnicastRemoteObject implements ClientListener {
                     // Call the service update method with all current fields
                     try {
                         if (column == COL_TITLE || column == COL_DESC) {
-                            service.updateTask(taskId, currentAssignedId, currentTitle, currentDescription, currentStatus);
+                            Task task = taskBoard != null ? taskBoard.find(taskId) : null;
+                            if (task != null) {
+                                Task changed = LocalTaskBoard.copy(task);
+                                changed.setTitle(currentTitle);
+                                changed.setDescription(currentDescription);
+                                Task previous = taskBoard.update(changed);
+                                submitTaskChange(taskId, previous, false, "Failed to update task",
+                                        OfflineOperation.updateTask(task, currentAssignedId, currentTitle, currentDescription, currentStatus));
+                            }
                         }
 
-                    } catch (RemoteException ex) {
-                        handleRemoteException("Failed to update task", ex);
                     } catch (ClassCastException castEx) {
                         System.err.println("Error casting table value during update: " + castEx.getMessage());
                         handleRemoteException("Internal error processing update", new RemoteException(castEx.getMessage()));
@@ -351,57 +419,12 @@ public class ClientGUI extends UnicastRemoteObject implements ClientListener {
         columnModel.getColumn(COL_CREATED_AT).setPreferredWidth(140);
         columnModel.getColumn(COL_UPDATED_AT).setPreferredWidth(140);
 
-        TableCellRenderer statusRenderer = new DefaultTableCellRenderer() {
-            @Override
-            public Component getTableCellRendererComponent(JTable table, Object value,
-                                                           boolean isSelected, boolean hasFocus, int row, int column) {
-                // Get the default component (JLabel)
-                Component c = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
-
-                if (value instanceof TaskStatus status) {
-                    switch (status) {
-                        case TO_DO:
-                            c.setBackground(Color.RED);
-                            c.setForeground(Color.WHITE); // Set text color for contrast
-                            break;
-                        case IN_PROGRESS:
-                            c.setBackground(Color.YELLOW);
-                            c.setForeground(Color.BLACK); // Set text color for contrast
-                            break;
-                        case DONE:
-                            c.setBackground(Color.GREEN);
-                            c.setForeground(Color.BLACK); // Set text color for contrast
-                            break;
-                        default:
-                            // Reset to default if status is unknown (shouldn't happen)
-                            c.setBackground(isSelected ? table.getSelectionBackground() : table.getBackground());
-                            c.setForeground(isSelected ? table.getSelectionForeground() : table.getForeground());
-                            break;
-                    }
-                    // Set text alignment to center for the status
-                    ((JLabel) c).setHorizontalAlignment(SwingConstants.CENTER);
-                } else {
-                    // Reset to default colors if the value is not a TaskStatus or null
-                    c.setBackground(isSelected ? table.getSelectionBackground() : table.getBackground());
-                    c.setForeground(isSelected ? table.getSelectionForeground() : table.getForeground());
-                    ((JLabel) c).setHorizontalAlignment(SwingConstants.LEFT); // Reset alignment
-                }
-
-                // Ensure the text of the status is still displayed
-                setText(value != null ? value.toString() : "");
-
-                return c;
-            }
-        };
-        // Apply the custom renderer to the Status column
-        taskTable.getColumnModel().getColumn(COL_STATUS).setCellRenderer(statusRenderer);
+        // Renderers are single reusable components; colors are precomputed per status
+        taskTable.getColumnModel().getColumn(COL_STATUS).setCellRenderer(new StatusCellRenderer());
 
-        TableCellRenderer dateTimeRenderer = (table, value, isSelected, hasFocus, row, column) -> {
-            if (value instanceof LocalDateTime) {
-                return new JLabel(((LocalDateTime) value).format(TABLE_DATE_FORMATTER));
-            }
-            return new JLabel(value != null ? value.toString() : "");
-        };
+        // Formatted timestamps are cached per row and dropped when that row changes
+        taskDisplayCache = new TableDisplayCache(taskTableModel, ClientGUI::formatTableValue);
+        TableCellRenderer dateTimeRenderer = new DateTimeCellRenderer(taskDisplayCache);
         taskTable.getColumnModel().getColumn(COL_CREATED_AT).setCellRenderer(dateTimeRenderer);
         taskTable.getColumnModel().getColumn(COL_UPDATED_AT).setCellRenderer(dateTimeRenderer);
 
@@ -444,20 +467,33 @@ public class ClientGUI extends UnicastRemoteObject implements ClientListener {
 
         JScrollPane taskScrollPane = new JScrollPane(taskTable);
 
-        mainPanel.add(taskScrollPane, BorderLayout.CENTER);
+        // Board view: one lane per status, cards can be dragged within and between lanes
+        kanbanBoardPanel = new KanbanBoardPanel(
+                userId -> userDirectory.name(userId, "Unassigned"),
+                taskId -> taskBoard != null && taskBoard.isPending(taskId),
+                this::moveTaskFromBoardView);
+
+        JTabbedPane taskViews = new JTabbedPane();
+        taskViews.addTab("Table", taskScrollPane);
+        taskViews.addTab("Board", kanbanBoardPanel);
+
+        // Cross-board view of the current user's tasks, kept live by targeted events
+        myTasksPanel = new MyTasksPanel(service, currentUser.getId(), this::boardName, this::handleRemoteException);
+        taskViews.addTab("My Tasks", myTasksPanel);
+        mainPanel.add(taskViews, BorderLayout.CENTER);
         frame.add(mainPanel, BorderLayout.CENTER);
 
         // --- Chat Panel (EAST) ---
-        JPanel chatPanel = new JPanel(new BorderLayout(5, 5));
-        chatPanel.setBorder(BorderFactory.createTitledBorder("Chat")); // Add a title border
+        chatPanel = new JPanel(new BorderLayout(5, 5));
+        chatPanel.setBorder(BorderFactory.createTitledBorder("Chat: General")); // Title names the channel
         chatPanel.setPreferredSize(new Dimension(300, 0)); // Set preferred width
 
-        chatDisplayArea = new JTextArea();
-        chatDisplayArea.setEditable(false); // Users shouldn't edit the history
-        chatDisplayArea.setLineWrap(true);
-        chatDisplayArea.setWrapStyleWord(true);
-        JScrollPane chatScrollPane = new JScrollPane(chatDisplayArea);
-        chatPanel.add(chatScrollPane, BorderLayout.CENTER);
+        loadEarlierButton = new JButton("Load earlier");
+        loadEarlierButton.addActionListener(e -> loadEarlierChatHistory());
+        chatPanel.add(loadEarlierButton, BorderLayout.NORTH);
+
+        chatView = new ChatView();
+        chatPanel.add(chatView, BorderLayout.CENTER);
 
         JPanel inputPanel = new JPanel(new BorderLayout(5, 0)); // Panel for input field and button
         chatInputField = new JTextField();
@@ -488,18 +524,29 @@ public class ClientGUI extends UnicastRemoteObject implements ClientListener {
 
         // Fetch boards
         fetchBoards();
-        loadChatHistory();
+        switchChatChannel(ChatMessage.GENERAL_CHANNEL, null);
+        try {
+            service.subscribeUserTasks(this, currentUser.getId());
+        } catch (RemoteException e) {
+            handleRemoteException("Failed to subscribe to your tasks", e);
+        }
+        myTasksPanel.reload();
+        if (offlineQueue.size() > 0) {
+            new Thread(this::sendQueuedChanges, "offline-replay").start(); // Left over from an earlier session
+        }
 
         // Listener for selecting boards
         boardList.addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting()) {
                 Board selectedBoard = boardList.getSelectedValue();
                 if (selectedBoard != null) {
-                    showBoardTasks(selectedBoard);
                     currentBoardId = selectedBoard.getId();
+                    showBoardTasks(selectedBoard);
+                    switchChatChannel(selectedBoard.getId(), selectedBoard.getName());
                 } else {
                     currentBoardId = -1;
                     loadTasksForBoard(currentBoardId); // Clear tasks if no board selected
+                    switchChatChannel(ChatMessage.GENERAL_CHANNEL, null);
                 }
             }
         });
@@ -507,138 +554,219 @@ public class ClientGUI extends UnicastRemoteObject implements ClientListener {
         frame.setVisible(true);
     }
 
-    private void saveTableAsCsv() {
-        if (currentBoardId == -1) {
-            JOptionPane.showMessageDialog(frame, "Please select a board first.", "Cannot Save", JOptionPane.WARNING_MESSAGE);
-            return;
-        }
-
-        Board selectedBoard = boardList.getSelectedValue();
-        if (selectedBoard == null) {
-            // This case should ideally not happen if currentBoardId != -1, but good to check
-            JOptionPane.showMessageDialog(frame, "No board selected.", "Cannot Save", JOptionPane.WARNING_MESSAGE);
-            return;
+    private void exportTasks(boolean allBoards) {
+        String fileName;
+        int boardId;
+        if (allBoards) {
+            boardId = -1;
+            fileName = "all_boards_tasks.csv";
+        } else {
+            Board selectedBoard = boardList.getSelectedValue();
+            if (currentBoardId == -1 || selectedBoard == null) {
+                JOptionPane.showMessageDialog(frame, "Please select a board first.", "Cannot Export", JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            boardId = selectedBoard.getId();
+            String boardName = selectedBoard.getName().replaceAll("[^a-zA-Z0-9\\-_]", "_"); // Sanitize board name for filename
+            fileName = boardName + "_tasks.csv";
         }
-        String boardName = selectedBoard.getName().replaceAll("[^a-zA-Z0-9\\-_]", "_"); // Sanitize board name for filename
 
         JFileChooser fileChooser = new JFileChooser();
-        fileChooser.setDialogTitle("Save Task Table as CSV");
-        // Suggest a filename based on the board name
-        fileChooser.setSelectedFile(new File(boardName + "_tasks.csv"));
+        fileChooser.setDialogTitle(allBoards ? "Export All Boards" : "Export Board");
+        fileChooser.setSelectedFile(new File(fileName));
+        fileChooser.addChoosableFileFilter(new FileNameExtensionFilter("CSV (*.csv)", "csv"));
+        fileChooser.addChoosableFileFilter(new FileNameExtensionFilter("Newline-delimited JSON (*.ndjson)", "ndjson"));
 
-        int userSelection = fileChooser.showSaveDialog(frame);
+        if (fileChooser.showSaveDialog(frame) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
 
-        if (userSelection == JFileChooser.APPROVE_OPTION) {
-            File fileToSave = fileChooser.getSelectedFile();
-            // Ensure the file has a .csv extension
-            if (!fileToSave.getName().toLowerCase().endsWith(".csv")) {
-                fileToSave = new File(fileToSave.getParentFile(), fileToSave.getName() + ".csv");
+        File fileToSave = fileChooser.getSelectedFile();
+        String lowerName = fileToSave.getName().toLowerCase();
+        // Ensure the file has a known extension
+        if (!lowerName.endsWith(".csv") && !lowerName.endsWith(".ndjson")) {
+            fileToSave = new File(fileToSave.getParentFile(), fileToSave.getName() + ".csv");
+        }
+        File exportFile = fileToSave;
+        System.out.println("Exporting tasks to: " + exportFile.getAbsolutePath());
+
+        // The export runs on a background thread; the monitor follows the worker's progress
+        ProgressMonitor progressMonitor = new ProgressMonitor(frame, "Exporting tasks to " + exportFile.getName(), null, 0, 100);
+        progressMonitor.setMillisToDecideToPopup(200);
+
+        TaskExportWorker worker = new TaskExportWorker(service, boardId, exportFile.toPath(),
+                TaskExportWorker.formatFor(exportFile.toPath()),
+                userDirectory);
+        worker.addPropertyChangeListener(evt -> {
+            if ("progress".equals(evt.getPropertyName())) {
+                progressMonitor.setProgress((Integer) evt.getNewValue());
+                if (progressMonitor.isCanceled()) {
+                    worker.cancel(false);
+                }
+            } else if ("state".equals(evt.getPropertyName()) && evt.getNewValue() == SwingWorker.StateValue.DONE) {
+                progressMonitor.close();
+                if (worker.isCancelled()) {
+                    return;
+                }
+                try {
+                    long count = worker.get();
+                    JOptionPane.showMessageDialog(frame, "Exported " + count + " tasks to:\n" + exportFile.getName(), "Export Successful", JOptionPane.INFORMATION_MESSAGE);
+                } catch (Exception ex) {
+                    Throwable cause = ex instanceof ExecutionException && ex.getCause() != null ? ex.getCause() : ex;
+                    cause.printStackTrace();
+                    JOptionPane.showMessageDialog(frame, "Error exporting tasks: " + cause.getMessage(), "Export Error", JOptionPane.ERROR_MESSAGE);
+                }
             }
+        });
+        worker.execute();
+    }
 
-            System.out.println("Saving table to: " + fileToSave.getAbsolutePath());
+    private void importTasks() {
+        if (currentBoardId == -1) {
+            JOptionPane.showMessageDialog(frame, "Please select a board first.", "Cannot Import", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
 
-            try (FileWriter fw = new FileWriter(fileToSave);
-                 BufferedWriter bw = new BufferedWriter(fw)) {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Import Tasks from CSV");
+        fileChooser.setFileFilter(new FileNameExtensionFilter("CSV (*.csv)", "csv"));
+        if (fileChooser.showOpenDialog(frame) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
 
-                TableColumnModel colModel = taskTable.getColumnModel();
-                List<Integer> visibleColumns = new ArrayList<>();
-                List<String> headers = new ArrayList<>();
+        File importFile = fileChooser.getSelectedFile();
+        System.out.println("Importing tasks from: " + importFile.getAbsolutePath());
 
-                // Get visible column indices and headers
-                for (int i = 0; i < taskTableModel.getColumnCount(); i++) {
-                    // Check if the column is visible (basic check, might need refinement if columns are hidden differently)
-                    if (colModel.getColumn(i).getMaxWidth() > 0) {
-                        visibleColumns.add(i);
-                        headers.add(taskTableModel.getColumnName(i));
-                    }
-                }
+        ProgressMonitor progressMonitor = new ProgressMonitor(frame, "Importing tasks from " + importFile.getName(), null, 0, 100);
+        progressMonitor.setMillisToDecideToPopup(200);
 
-                // Write header row
-                bw.write(String.join(",", headers));
-                bw.newLine();
-
-                // Write data rows
-                for (int row = 0; row < taskTableModel.getRowCount(); row++) {
-                    List<String> rowData = new ArrayList<>();
-                    for (int colIndex : visibleColumns) {
-                        Object value = taskTableModel.getValueAt(row, colIndex);
-                        String cellValue;
-                        if (value instanceof LocalDateTime) {
-                            // Format LocalDateTime using the table formatter
-                            cellValue = ((LocalDateTime) value).format(TABLE_DATE_FORMATTER);
-                        } else {
-                            cellValue = (value == null) ? "" : value.toString();
-                        }
-                        // Basic CSV escaping: double quotes around values containing commas or quotes
-                        if (cellValue.contains(",") || cellValue.contains("\"") || cellValue.contains("\n")) {
-                            cellValue = "\"" + cellValue.replace("\"", "\"\"") + "\"";
-                        }
-                        rowData.add(cellValue);
+        TaskImportWorker worker = new TaskImportWorker(service, currentBoardId, currentUser.getId(), importFile.toPath());
+        worker.addPropertyChangeListener(evt -> {
+            if ("progress".equals(evt.getPropertyName())) {
+                progressMonitor.setProgress((Integer) evt.getNewValue());
+                if (progressMonitor.isCanceled()) {
+                    worker.cancel(false);
+                }
+            } else if ("state".equals(evt.getPropertyName()) && evt.getNewValue() == SwingWorker.StateValue.DONE) {
+                progressMonitor.close();
+                if (worker.isCancelled()) {
+                    return;
+                }
+                try {
+                    ImportResult result = worker.get();
+                    String message = "Imported " + result.getImportedCount() + " tasks.";
+                    if (result.getRejectedCount() > 0) {
+                        message += "\n" + result.getRejectedCount() + " rows were skipped (empty or too long title/description, unknown status or user).";
                     }
-                    bw.write(String.join(",", rowData));
-                    bw.newLine();
+                    JOptionPane.showMessageDialog(frame, message, "Import Finished", JOptionPane.INFORMATION_MESSAGE);
+                } catch (Exception ex) {
+                    Throwable cause = ex instanceof ExecutionException && ex.getCause() != null ? ex.getCause() : ex;
+                    cause.printStackTrace();
+                    JOptionPane.showMessageDialog(frame, "Error importing tasks: " + cause.getMessage(), "Import Error", JOptionPane.ERROR_MESSAGE);
                 }
-
-                JOptionPane.showMessageDialog(frame, "Table saved successfully to:\n" + fileToSave.getName(), "Save Successful", JOptionPane.INFORMATION_MESSAGE);
-
-            } catch (IOException ex) {
-                ex.printStackTrace();
-                JOptionPane.showMessageDialog(frame, "Error saving file: " + ex.getMessage(), "Save Error", JOptionPane.ERROR_MESSAGE);
             }
-        }
+        });
+        worker.execute();
     }
 
     private void sendMessage() {
         String messageText = chatInputField.getText().trim();
         if (!messageText.isEmpty()) {
             try {
-                // Call service with userId and content
-                service.sendMessage(currentUser.getId(), messageText);
+                // Sent to the channel of the selected board (or the general one)
+                sendOrQueue(OfflineOperation.sendMessage(currentUser.getId(), chatChannel, messageText));
                 chatInputField.setText(""); // Clear the input field
             } catch (RemoteException e) {
                 handleRemoteException("Failed to send message", e);
+            } catch (IOException e) {
+                handleRemoteException("Failed to queue message", new RemoteException(e.getMessage(), e));
             }
         }
         chatInputField.requestFocusInWindow(); // Keep focus on input field
     }
 
-    private void loadChatHistory() {
-        // Start a new background thread to fetch history
+    // Called on the EDT when the selected board changes; boardName is null for the general channel
+    private void switchChatChannel(int channel, String boardName) {
+        chatPanel.setBorder(BorderFactory.createTitledBorder(boardName == null ? "Chat: General" : "Chat: " + boardName));
+        int previous = chatChannel;
+        if (previous == channel && oldestChatMessageId != 0) {
+            return; // Same channel, e.g. the board list was refreshed
+        }
+        chatChannel = channel;
+        oldestChatMessageId = 0;
+        loadEarlierButton.setEnabled(false);
+        chatView.setMessages(List.of());
         new Thread(() -> {
             try {
-                // Perform the potentially blocking RMI call in the background
-                List<ChatMessage> history = service.getChatHistory();
-
-                // Update the UI on the Event Dispatch Thread
-                SwingUtilities.invokeLater(() -> {
-                    chatDisplayArea.setText(""); // Clear existing content
-                    for (ChatMessage message : history) {
-                        appendChatMessage(message); // Use helper to format
-                    }
-                    // Scroll to bottom after loading history
-                    chatDisplayArea.setCaretPosition(chatDisplayArea.getDocument().getLength());
-                });
+                if (previous != channel) {
+                    service.unsubscribeChat(this, previous);
+                }
+                // Subscribe before loading, so no message falls between the history and the live feed
+                service.subscribeChat(this, channel);
+                loadChatHistory(channel);
+            } catch (RemoteException e) {
+                handleRemoteException("Failed to switch chat channel", e);
+            }
+        }).start();
+    }
 
+    // Runs on a background thread; results for a channel that is no longer shown are dropped
+    private void loadChatHistory(int channel) {
+        try {
+            List<ChatMessage> history = service.getChatHistory(channel, null, 0, CHAT_PAGE_SIZE);
+            if (chatChannel != channel) {
+                return;
+            }
+            // Formatting happens off the EDT; the view scrolls to the bottom after loading
+            chatView.setMessages(history);
+            oldestChatCreatedAt = history.isEmpty() ? null : history.get(0).getCreatedAt();
+            oldestChatMessageId = history.isEmpty() ? -1 : history.get(0).getMessageId();
+            boolean more = history.size() == CHAT_PAGE_SIZE;
+            SwingUtilities.invokeLater(() -> loadEarlierButton.setEnabled(more && chatChannel == channel));
+        } catch (RemoteException e) {
+            handleRemoteException("Failed to load chat history", e);
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            SwingUtilities.invokeLater(() ->
+                    JOptionPane.showMessageDialog(frame, "An unexpected error occurred while loading chat history: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE)
+            );
+        }
+    }
+
+    // Fetches the page before the oldest message shown and puts it on top
+    private void loadEarlierChatHistory() {
+        int channel = chatChannel;
+        int before = oldestChatMessageId;
+        LocalDateTime beforeCreatedAt = oldestChatCreatedAt;
+        if (before <= 0 || beforeCreatedAt == null) {
+            return;
+        }
+        loadEarlierButton.setEnabled(false);
+        new Thread(() -> {
+            try {
+                List<ChatMessage> page = service.getChatHistory(channel, beforeCreatedAt, before, CHAT_PAGE_SIZE);
+                if (chatChannel != channel || oldestChatMessageId != before) {
+                    return;
+                }
+                if (!page.isEmpty()) {
+                    oldestChatCreatedAt = page.get(0).getCreatedAt();
+                    oldestChatMessageId = page.get(0).getMessageId();
+                    chatView.prependMessages(page);
+                }
+                boolean more = page.size() == CHAT_PAGE_SIZE;
+                SwingUtilities.invokeLater(() -> loadEarlierButton.setEnabled(more && chatChannel == channel));
             } catch (RemoteException e) {
-                // Handle exceptions, ensuring error messages are shown on the EDT
-                handleRemoteException("Failed to load chat history", e);
-            } catch (Exception ex) {
-                // Catch any other unexpected exceptions during background processing
-                ex.printStackTrace();
-                SwingUtilities.invokeLater(() ->
-                        JOptionPane.showMessageDialog(frame, "An unexpected error occurred while loading chat history: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE)
-                );
+                handleRemoteException("Failed to load earlier messages", e);
+                SwingUtilities.invokeLater(() -> loadEarlierButton.setEnabled(chatChannel == channel));
             }
-        }).start(); // Start the background thread
+        }).start();
     }
 
-    private void appendChatMessage(ChatMessage message) {
-        String formattedTime = message.getCreatedAt().format(CHAT_DATE_FORMATTER);
-        String formattedMessage = String.format("[%s] %s: %s\n",
-                formattedTime,
-                message.getUsername(),
-                message.getContent());
-        chatDisplayArea.append(formattedMessage);
+    static String formatTableValue(Object value) {
+        if (value instanceof LocalDateTime) {
+            return ((LocalDateTime) value).format(TABLE_DATE_FORMATTER);
+        }
+        return value != null ? value.toString() : "";
     }
 
     // Helper method to hide a column
@@ -683,9 +811,104 @@ public class ClientGUI extends UnicastRemoteObject implements ClientListener {
         });
         contextMenu.add(deleteBoardItem);
 
+        // --- "Set WIP Limits" Option ---
+        JMenuItem wipLimitsItem = new JMenuItem("Set WIP Limits...");
+        wipLimitsItem.addActionListener(actionEvent -> editWipLimits(selectedBoard));
+        contextMenu.add(wipLimitsItem);
+
+        // --- "Archived Tasks" Option ---
+        JMenuItem archivedItem = new JMenuItem("Archived Tasks...");
+        archivedItem.addActionListener(actionEvent -> new ArchivedTasksDialog(frame, service, selectedBoard,
+                userId -> userDirectory.name(userId, "Unassigned"), this::handleRemoteException).setVisible(true));
+        contextMenu.add(archivedItem);
+
         contextMenu.show(e.getComponent(), e.getX(), e.getY());
     }
 
+    // Empty fields clear the due date or the reminder
+    private void editDueDate(int taskId) {
+        Task task = taskBoard != null ? taskBoard.find(taskId) : null;
+        if (task == null) {
+            return;
+        }
+        JPanel panel = new JPanel(new GridLayout(2, 2, 5, 5));
+        JTextField dueField = new JTextField(task.getDueAt() != null ? task.getDueAt().format(DUE_DATE_FORMATTER) : "", 16);
+        JTextField remindField = new JTextField(task.getRemindAt() != null ? task.getRemindAt().format(DUE_DATE_FORMATTER) : "", 16);
+        panel.add(new JLabel("Due (yyyy-MM-dd HH:mm):"));
+        panel.add(dueField);
+        panel.add(new JLabel("Remind me at:"));
+        panel.add(remindField);
+
+        int result = JOptionPane.showConfirmDialog(frame, panel, "Due Date - " + task.getTitle(),
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if (result != JOptionPane.OK_OPTION) {
+            return;
+        }
+
+        LocalDateTime dueAt;
+        LocalDateTime remindAt;
+        try {
+            dueAt = parseDueDate(dueField.getText());
+            remindAt = parseDueDate(remindField.getText());
+        } catch (DateTimeParseException ex) {
+            JOptionPane.showMessageDialog(frame, "Dates must look like 2025-06-30 17:00.", "Validation Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (taskBoard == null || taskBoard.find(taskId) == null) {
+            return; // Reloaded without the task meanwhile
+        }
+        Task changed = LocalTaskBoard.copy(taskBoard.find(taskId));
+        changed.setDueAt(dueAt);
+        changed.setRemindAt(remindAt);
+        Task previous = taskBoard.update(changed);
+        submitTaskChange(taskId, previous, false, "Failed to set due date", () -> service.setTaskDueDate(taskId, dueAt, remindAt));
+    }
+
+    private static LocalDateTime parseDueDate(String text) {
+        return text.isBlank() ? null : LocalDateTime.parse(text.trim(), DUE_DATE_FORMATTER);
+    }
+
+    private void editWipLimits(Board board) {
+        BoardSummary summary;
+        try {
+            summary = service.getBoardSummary(board.getId());
+        } catch (RemoteException ex) {
+            handleRemoteException("Failed to load board summary", ex);
+            return;
+        }
+
+        // One field per status; an empty field means no limit
+        JPanel panel = new JPanel(new GridLayout(TaskStatus.values().length, 2, 5, 5));
+        Map<TaskStatus, JTextField> fields = new HashMap<>();
+        for (TaskStatus status : TaskStatus.values()) {
+            Integer limit = summary.getWipLimit(status);
+            JTextField field = new JTextField(limit == null ? "" : limit.toString());
+            fields.put(status, field);
+            panel.add(new JLabel(status.toString().replace('_', ' ') + " (" + summary.getCount(status) + " tasks):"));
+            panel.add(field);
+        }
+
+        int result = JOptionPane.showConfirmDialog(frame, panel, "WIP Limits for " + board.getName(),
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if (result != JOptionPane.OK_OPTION) {
+            return;
+        }
+
+        try {
+            for (TaskStatus status : TaskStatus.values()) {
+                String text = fields.get(status).getText().trim();
+                Integer limit = text.isEmpty() ? null : Integer.valueOf(text);
+                if (!Objects.equals(limit, summary.getWipLimit(status))) {
+                    service.setWipLimit(board.getId(), status, limit);
+                }
+            }
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(frame, "WIP limits must be whole numbers.", "Validation Error", JOptionPane.ERROR_MESSAGE);
+        } catch (RemoteException ex) {
+            handleRemoteException("Failed to set WIP limit", ex);
+        }
+    }
+
     private void renameBoard(Board board) {
         String currentName = board.getName();
         String newName = JOptionPane.showInputDialog(frame, "Enter new name for board:", currentName);
@@ -708,6 +931,147 @@ public class ClientGUI extends UnicastRemoteObject implements ClientListener {
         }
     }
 
+    private void moveTaskFromBoardView(int taskId, TaskStatus newStatus, int afterTaskId) {
+        if (taskBoard == null || taskId < 0 || afterTaskId < 0 || taskBoard.find(taskId) == null) {
+            return; // Created tasks can only be moved once stored
+        }
+        Task previous = taskBoard.reorder(taskId, newStatus, afterTaskId);
+        submitTaskChange(taskId, previous, false, "Failed to move task",
+                OfflineOperation.reorderTask(previous, newStatus, afterTaskId));
+    }
+
+    private void deleteTaskLocally(int taskId) {
+        if (taskBoard == null || taskBoard.find(taskId) == null) {
+            return;
+        }
+        Task previous = taskBoard.remove(taskId);
+        submitTaskChange(taskId, previous, true, "Failed to delete task", OfflineOperation.deleteTask(previous));
+    }
+
+    private void updateTaskLocally(int taskId, int assigneeId, String title, String description, TaskStatus status, String failureMessage) {
+        Task task = taskBoard != null ? taskBoard.find(taskId) : null;
+        if (task == null) {
+            return;
+        }
+        Task changed = LocalTaskBoard.copy(task);
+        changed.setAssigneeId(assigneeId);
+        changed.setTitle(title);
+        changed.setDescription(description);
+        changed.setStatus(status);
+        Task previous = taskBoard.update(changed);
+        submitTaskChange(taskId, previous, false, failureMessage,
+                OfflineOperation.updateTask(task, assigneeId, title, description, status));
+    }
+
+    /**
+     * Sends a task change that was already applied to the local board (localTaskId is the task's
+     * ID, or the local ID of a created task) and shows it right away. When the server answers, its
+     * version replaces the local one, or the previous version is restored if the change failed.
+     * The board is reloaded afterwards only if someone else changed it meanwhile. A change that
+     * was queued offline stays pending until the queue is sent and the board reloaded.
+     */
+    private void submitTaskChange(int localTaskId, Task previous, boolean removes, String failureMessage,
+                                  OfflineOperation change) {
+        submitTaskChange(localTaskId, previous, removes, failureMessage, () -> sendOrQueue(change));
+    }
+
+    private interface TaskMutation {
+        TaskMutationResult send() throws IOException; // Null if queued
+    }
+
+    // For changes that are not queued while offline: they fail and are rolled back instead
+    private void submitTaskChange(int localTaskId, Task previous, boolean removes, String failureMessage,
+                                  TaskMutation mutation) {
+        LocalTaskBoard board = taskBoard;
+        SwingUtilities.invokeLater(this::showTasks); // Not from within the table's own event dispatch
+        new SwingWorker<TaskMutationResult, Void>() {
+            @Override
+            protected TaskMutationResult doInBackground() throws Exception {
+                return mutation.send();
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    TaskMutationResult result = get();
+                    if (result == null) {
+                        return; // Queued
+                    }
+                    board.confirm(localTaskId, result, removes);
+                } catch (InterruptedException | ExecutionException e) {
+                    board.rollback(localTaskId, previous);
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    handleRemoteException(failureMessage,
+                            cause instanceof RemoteException re ? re : new RemoteException(cause.getMessage(), cause));
+                }
+                if (board != taskBoard) {
+                    return; // Another board was loaded meanwhile
+                }
+                showTasks();
+                if (board.needsReload()) {
+                    loadTasksForBoard(board.getBoardId());
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Sends a change, or queues it while the server cannot be reached (and while earlier changes
+     * are still queued, to keep their order). A change is only queued if it certainly did not
+     * reach the server; if the connection broke during the call, it fails instead. Returns null
+     * if the change was queued, and for chat messages.
+     */
+    private TaskMutationResult sendOrQueue(OfflineOperation change) throws IOException {
+        if (offlineQueue.queueIfBusy(change, connection.isConnected())) {
+            SwingUtilities.invokeLater(this::updateConnectionStatus);
+            return null;
+        }
+        try {
+            return change.apply(service);
+        } catch (RemoteException e) {
+            if (!ReconnectingService.isRequestNotSent(e)) {
+                throw e;
+            }
+            offlineQueue.append(change);
+            SwingUtilities.invokeLater(this::updateConnectionStatus);
+            return null;
+        }
+    }
+
+    // Runs on a background thread once connected; then reloads what may have changed meanwhile
+    private void sendQueuedChanges() {
+        OfflineQueue.ReplayResult result = offlineQueue.replay(service);
+        if (result.sent() > 0 || !result.dropped().isEmpty()) {
+            System.out.println("Sent " + result.sent() + " offline changes, dropped " + result.dropped().size()
+                    + ", " + result.remaining() + " still queued.");
+        }
+        loadChatHistory(chatChannel);
+        SwingUtilities.invokeLater(() -> {
+            updateConnectionStatus();
+            if (!result.dropped().isEmpty()) {
+                JOptionPane.showMessageDialog(frame,
+                        "These changes made while offline were not applied:\n- " + String.join("\n- ", result.dropped()),
+                        "Offline Changes", JOptionPane.WARNING_MESSAGE);
+            }
+            fetchBoards();
+            catchUpBoard();
+            myTasksPanel.reload();
+        });
+    }
+
+    // Called on the EDT: shows in the title whether the client is offline and what is queued
+    private void updateConnectionStatus() {
+        if (frame == null) {
+            return; // Still starting
+        }
+        String status = connection.isConnected() ? "" : " [Offline - reconnecting]";
+        int queued = offlineQueue.size();
+        if (queued > 0) {
+            status += " [" + queued + (queued == 1 ? " change" : " changes") + " waiting to be sent]";
+        }
+        frame.setTitle("Planny App - Logged in as: " + currentUser.getUsername() + status);
+    }
+
     private void confirmAndDeleteTask(int taskId) {
         int confirm = JOptionPane.showConfirmDialog(frame,
                 "Are you sure you want to delete task ID " + taskId + "?",
@@ -716,17 +1080,18 @@ public class ClientGUI extends UnicastRemoteObject implements ClientListener {
                 JOptionPane.WARNING_MESSAGE);
 
         if (confirm == JOptionPane.YES_OPTION) {
-            try {
-                service.deleteTask(taskId);
-                // Table will be refreshed by onTasksUpdated callback
-            } catch (RemoteException ex) {
-                handleRemoteException("Failed to delete task", ex);
-            }
+            deleteTaskLocally(taskId);
         }
     }
 
     // --- Helper method for handling RemoteExceptions ---
     private void handleRemoteException(String messagePrefix, RemoteException ex) {
+        if (ReconnectingService.isConnectionFailure(ex)) {
+            // No dialog per failed call while offline; the title shows the connection state
+            System.err.println(messagePrefix + ": " + ex.getMessage());
+            SwingUtilities.invokeLater(this::updateConnectionStatus);
+            return;
+        }
         ex.printStackTrace();
         SwingUtilities.invokeLater(() ->
                 JOptionPane.showMessageDialog(frame, messagePrefix + ": " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE)
@@ -737,36 +1102,29 @@ public class ClientGUI extends UnicastRemoteObject implements ClientListener {
         JPopupMenu contextMenu = new JPopupMenu();
 
         int taskId = (int) taskTableModel.getValueAt(row, COL_ID);
+        if (taskId < 0) {
+            return; // Not stored yet
+        }
         String currentTitle = (String) taskTableModel.getValueAt(row, COL_TITLE);
         String currentDescription = (String) taskTableModel.getValueAt(row, COL_DESC);
         TaskStatus currentStatus = (TaskStatus) taskTableModel.getValueAt(row, COL_STATUS);
         int currentAssigneeId = (int) taskTableModel.getValueAt(row, COL_ASSIGNEE_ID);
 
         // --- "Reassign Task" Option ---
-        JMenu reassignToMenu = new JMenu("Reassign to");
-        boolean addedReassignOption = false;
-        // Loop through the userMap to find users
-        for (Map.Entry<Integer, String> entry : userMap.entrySet()) {
-            if (entry.getKey() != currentAssigneeId) { // Only show other users
-                JMenuItem userItem = new JMenuItem(entry.getValue());
-                userItem.addActionListener(actionEvent -> {
-                    try {
-                        service.updateTask(taskId, entry.getKey(), currentTitle, currentDescription, currentStatus);
-                    } catch (RemoteException ex) {
-                        ex.printStackTrace();
-                        SwingUtilities.invokeLater(() ->
-                                JOptionPane.showMessageDialog(frame, "Failed to move task: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE)
-                        );
-                    }
-                });
-                reassignToMenu.add(userItem);
-                addedReassignOption = true;
+        JMenuItem reassignItem = new JMenuItem("Reassign to...");
+        reassignItem.addActionListener(actionEvent -> {
+            User currentAssignee = currentAssigneeId > 0
+                    ? new User(currentAssigneeId, userDirectory.name(currentAssigneeId, "Unassigned"), null, null)
+                    : null;
+            AssigneePicker picker = new AssigneePicker(service, userDirectory, currentAssignee);
+            picker.setPreferredSize(new Dimension(250, 180));
+            int result = JOptionPane.showConfirmDialog(frame, picker, "Reassign Task", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+            User assignee = picker.getSelectedUser();
+            if (result == JOptionPane.OK_OPTION && assignee != null && assignee.getId() != currentAssigneeId) {
+                updateTaskLocally(taskId, assignee.getId(), currentTitle, currentDescription, currentStatus, "Failed to reassign task");
             }
-        }
-        // Only add the "Reassign to" menu if there are options
-        if (addedReassignOption) {
-            contextMenu.add(reassignToMenu);
-        }
+        });
+        contextMenu.add(reassignItem);
 
         // --- "Move to" Submenu ---
         JMenu moveToMenu = new JMenu("Move to");
@@ -774,15 +1132,13 @@ public class ClientGUI extends UnicastRemoteObject implements ClientListener {
             if (newStatus != currentStatus) { // Only show other statuses
                 JMenuItem statusItem = new JMenuItem(newStatus.toString().replace('_', ' ')); // Make it more readable
                 statusItem.addActionListener(actionEvent -> {
-                    try {
-                        service.moveTask(taskId, newStatus);
-                        // Table will be refreshed by onTasksUpdated callback
-                    } catch (RemoteException ex) {
-                        ex.printStackTrace();
-                        SwingUtilities.invokeLater(() ->
-                                JOptionPane.showMessageDialog(frame, "Failed to move task: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE)
-                        );
+                    if (taskBoard == null || taskBoard.find(taskId) == null) {
+                        return;
                     }
+                    Task moved = LocalTaskBoard.copy(taskBoard.find(taskId));
+                    moved.setStatus(newStatus);
+                    Task previous = taskBoard.update(moved);
+                    submitTaskChange(taskId, previous, false, "Failed to move task", OfflineOperation.moveTask(previous, newStatus));
                 });
                 moveToMenu.add(statusItem);
             }
@@ -790,6 +1146,22 @@ public class ClientGUI extends UnicastRemoteObject implements ClientListener {
 
         contextMenu.add(moveToMenu);
 
+        // --- "Due Date" Option ---
+        JMenuItem dueDateItem = new JMenuItem("Due Date...");
+        dueDateItem.addActionListener(actionEvent -> editDueDate(taskId));
+        contextMenu.add(dueDateItem);
+
+        // --- "Attachments" Option ---
+        JMenuItem attachmentsItem = new JMenuItem("Attachments...");
+        attachmentsItem.addActionListener(actionEvent -> {
+            Task task = taskBoard != null ? taskBoard.find(taskId) : null;
+            if (task != null) {
+                new AttachmentsDialog(frame, service, task, currentUser.getId(),
+                        userId -> userDirectory.name(userId, "Unknown User"), this::handleRemoteException).setVisible(true);
+            }
+        });
+        contextMenu.add(attachmentsItem);
+
         // --- "Delete" Option ---
         JMenuItem deleteItem = new JMenuItem("Delete");
         deleteItem.addActionListener(actionEvent -> {
@@ -800,15 +1172,7 @@ public class ClientGUI extends UnicastRemoteObject implements ClientListener {
                     JOptionPane.WARNING_MESSAGE);
 
             if (confirm == JOptionPane.YES_OPTION) {
-                try {
-                    service.deleteTask(taskId);
-                    // Table will be refreshed by onTasksUpdated callback
-                } catch (RemoteException ex) {
-                    ex.printStackTrace();
-                    SwingUtilities.invokeLater(() ->
-                            JOptionPane.showMessageDialog(frame, "Failed to delete task: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE)
-                    );
-                }
+                deleteTaskLocally(taskId);
             }
         });
         contextMenu.add(deleteItem);
@@ -839,6 +1203,16 @@ public class ClientGUI extends UnicastRemoteObject implements ClientListener {
         }
     }
 
+    private String boardName(int boardId) {
+        for (int i = 0; i < boardListModel.getSize(); i++) {
+            Board board = boardListModel.getElementAt(i);
+            if (board.getId() == boardId) {
+                return board.getName();
+            }
+        }
+        return "Board " + boardId;
+    }
+
     private void showBoardTasks(Board board) {
         if (board == null) {
             loadTasksForBoard(-1); // Clear tasks if board is null
@@ -882,13 +1256,8 @@ private void openNewTaskDialog() {
     JScrollPane descriptionScrollPane = new JScrollPane(descriptionField);
     JComboBox<TaskStatus> statusCombo = new JComboBox<>(TaskStatus.values());
 
-    JComboBox<String> assigneeCombo = new JComboBox<>();
-    Map<String, Integer> assigneeNameToIdMap = new HashMap<>();
-
-    for (Map.Entry<Integer, String> entry : userMap.entrySet()) {
-        assigneeCombo.addItem(entry.getValue());
-        assigneeNameToIdMap.put(entry.getValue(), entry.getKey());
-    }
+    // Searches users as the name is typed instead of listing all of them
+    AssigneePicker assigneePicker = new AssigneePicker(service, userDirectory, currentUser);
 
     JPanel panel = new JPanel(new GridBagLayout());
     GridBagConstraints gbc = new GridBagConstraints();
@@ -913,10 +1282,10 @@ private void openNewTaskDialog() {
     panel.add(statusCombo, gbc);
 
     panel.add(new JLabel("Assign to:"), gbc); // Add Assignee label
-    panel.add(assigneeCombo, gbc);          // Add Assignee dropdown
+    panel.add(assigneePicker, gbc);         // Add Assignee search
 
     // Set the preferred size for the dialog panel if needed
-    panel.setPreferredSize(new Dimension(350, 300)); // Increased height for assignee
+    panel.setPreferredSize(new Dimension(350, 420)); // Increased height for assignee search
 
     int result = JOptionPane.showConfirmDialog(frame, panel, "Create New Task", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
 
@@ -924,8 +1293,8 @@ private void openNewTaskDialog() {
         String title = titleField.getText().trim();
         String description = descriptionField.getText().trim();
         TaskStatus status = (TaskStatus) statusCombo.getSelectedItem();
-        String selectedAssigneeName = (String) assigneeCombo.getSelectedItem();
-        int assigneeId = assigneeNameToIdMap.getOrDefault(selectedAssigneeName, currentUser.getId());
+        User selectedAssignee = assigneePicker.getSelectedUser();
+        int assigneeId = selectedAssignee != null ? selectedAssignee.getId() : currentUser.getId();
 
         if (title.isEmpty()) {
             JOptionPane.showMessageDialog(frame, "Task title cannot be empty.", "Validation Error", JOptionPane.ERROR_MESSAGE);
@@ -941,16 +1310,15 @@ private void openNewTaskDialog() {
             return;
         }
 
-        try {
-            service.createTask(currentBoardId, currentUser.getId(), assigneeId, title, description, status);
-        } catch (RemoteException ex) {
-            handleRemoteException("Failed to create task", ex);
-        } catch (Exception ex) { // Catch other potential exceptions
-            ex.printStackTrace();
-            SwingUtilities.invokeLater(() ->
-                    JOptionPane.showMessageDialog(frame, "An unexpected error occurred while creating the task: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE)
-            );
+        if (taskBoard == null || taskBoard.getBoardId() != currentBoardId) {
+            return; // The board is still loading
         }
+        // Shown right away with a local ID; replaced by the stored task once the server answers
+        int boardId = currentBoardId;
+        LocalDateTime now = LocalDateTime.now();
+        int localTaskId = taskBoard.add(new Task(0, title, description, status, boardId, currentUser.getId(), assigneeId, now, now));
+        submitTaskChange(localTaskId, null, false, "Failed to create task",
+                OfflineOperation.createTask(boardId, currentUser.getId(), assigneeId, title, description, status));
     }
 }
 
@@ -958,64 +1326,168 @@ private void openNewTaskDialog() {
         if (boardId == -1) {
             // Clear the table if no board is selected
             SwingUtilities.invokeLater(() -> {
-                if (taskTable.isEditing()) {
-                    taskTable.getCellEditor().cancelCellEditing();
-                }
-                taskTableModel.setRowCount(0);
+                taskBoard = null;
+                showTasks();
+                kanbanBoardPanel.setSummary(null);
             });
             return;
         }
 
         try {
-            List<Task> tasks = service.getTasksByBoard(boardId);
-
-            SwingUtilities.invokeLater(() -> {
-                // Stop editing before reloading data to avoid conflicts
-                if (taskTable.isEditing()) {
-                    taskTable.getCellEditor().cancelCellEditing();
-                }
+            showBoardTasks(boardId, service.getBoardTasks(boardId));
+        } catch (RemoteException e) {
+            RateLimitedException limited = RateLimitedException.of(e);
+            if (limited != null) {
+                // Still busy after the connection's retries; load again later instead of staying stale
+                reloadLater(boardId, limited.getRetryAfterMillis());
+                return;
+            }
+            // Show error messages also on the EDT
+            handleRemoteException("Error loading tasks", e);
+        } catch (IOException e) {
+            handleRemoteException("Error loading tasks", new RemoteException("Unreadable task list from server", e));
+        }
+    }
 
-                taskTableModel.setRowCount(0); // Clear existing tasks
-                for (Task task : tasks) {
-                    taskTableModel.addRow(new Object[]{
-                            task.getId(),
-                            task.getTitle(),
-                            task.getDescription(),
-                            task.getStatus(),
-                            userMap.getOrDefault(task.getUserId(), "Unknown User"),
-                            userMap.getOrDefault(task.getAssigneeId(), "Unassigned"),
-                            task.getCreatedAt(),
-                            task.getUpdatedAt(),
-                            task.getUserId(),
-                            task.getAssigneeId()
-                    });
-                }
-            });
+    private void reloadLater(int boardId, long delayMillis) {
+        Timer timer = new Timer((int) Math.max(100, delayMillis), event -> {
+            if (currentBoardId == boardId) {
+                loadTasksForBoard(boardId);
+            }
+        });
+        timer.setRepeats(false);
+        timer.start();
+    }
 
+    /**
+     * After reconnecting: reloads the board only if it changed while the client was away. A server
+     * that started warm still knows the board's revision and answers that nothing changed; after a
+     * cold start the epoch differs and the board is reloaded.
+     */
+    private void catchUpBoard() {
+        LocalTaskBoard board = taskBoard;
+        if (board == null || board.getBoardId() != currentBoardId || board.hasPendingChanges()) {
+            loadTasksForBoard(currentBoardId); // Changes sent from the offline queue stay pending until reloaded
+            return;
+        }
+        int boardId = board.getBoardId();
+        try {
+            TaskListPayload payload = service.getBoardTasksIfChanged(boardId, board.getEpoch(), board.getRevision());
+            if (payload != null) {
+                showBoardTasks(boardId, payload);
+            } else {
+                kanbanBoardPanel.setSummary(service.getBoardSummary(boardId)); // WIP limits may have changed
+            }
         } catch (RemoteException e) {
-            // Show error messages also on the EDT
             handleRemoteException("Error loading tasks", e);
+        } catch (IOException e) {
+            handleRemoteException("Error loading tasks", new RemoteException("Unreadable task list from server", e));
         }
     }
 
+    private void showBoardTasks(int boardId, TaskListPayload payload) throws IOException {
+        List<Task> tasks = payload.getTasks();
+        BoardSummary summary = service.getBoardSummary(boardId);
+        // Names of users not seen yet, in one round trip, before the rows are built
+        List<Integer> userIds = new ArrayList<>(tasks.size() * 2);
+        for (Task task : tasks) {
+            userIds.add(task.getUserId());
+            userIds.add(task.getAssigneeId());
+        }
+        userDirectory.resolve(userIds);
+
+        SwingUtilities.invokeLater(() -> {
+            if (boardId != currentBoardId) {
+                return; // Another board was selected meanwhile
+            }
+            taskBoard = new LocalTaskBoard(boardId, tasks, payload.getEpoch(), payload.getRevision());
+            showTasks();
+            kanbanBoardPanel.setSummary(summary);
+        });
+    }
+
+    // Fills the table and the board view from the local board, including unconfirmed changes
+    private void showTasks() {
+        // Stop editing before reloading data to avoid conflicts
+        if (taskTable.isEditing()) {
+            taskTable.getCellEditor().cancelCellEditing();
+        }
+
+        List<Task> tasks = taskBoard != null ? taskBoard.getTasks() : List.of();
+        taskTableModel.setRowCount(0); // Clear existing tasks
+        for (Task task : tasks) {
+            taskTableModel.addRow(new Object[]{
+                    task.getId(),
+                    task.getTitle(),
+                    task.getDescription(),
+                    task.getStatus(),
+                    userDirectory.name(task.getUserId(), "Unknown User"),
+                    userDirectory.name(task.getAssigneeId(), "Unassigned"),
+                    task.getCreatedAt(),
+                    task.getUpdatedAt(),
+                    task.getUserId(),
+                    task.getAssigneeId()
+            });
+        }
+        kanbanBoardPanel.setTasks(tasks);
+    }
+
     @Override
-    public void onTasksUpdated(int boardId) throws RemoteException {
+    public void onTasksUpdated(int boardId, long revision, BoardSummary summary) throws RemoteException {
         if (currentBoardId == boardId) {
-            SwingUtilities.invokeLater(() -> loadTasksForBoard(boardId));
+            SwingUtilities.invokeLater(() -> {
+                kanbanBoardPanel.setSummary(summary);
+                // Own changes are already shown; only reload for changes made by others
+                LocalTaskBoard board = taskBoard;
+                if (board != null && board.getBoardId() == boardId) {
+                    board.announced(revision);
+                    if (!board.needsReload()) {
+                        return;
+                    }
+                }
+                loadTasksForBoard(boardId);
+            });
         }
     }
 
     @Override
     public void onBoardListChanged() throws RemoteException {
-        SwingUtilities.invokeLater(this::fetchBoards);
+        SwingUtilities.invokeLater(() -> {
+            fetchBoards();
+            // A deleted board takes its tasks with it, so reload the cross-board view
+            myTasksPanel.reload();
+        });
     }
 
     @Override
-    public void onChatMessageReceived(ChatMessage message) throws RemoteException {
+    public void onUserTaskChanged(Task task, boolean removed) throws RemoteException {
+        SwingUtilities.invokeLater(() -> myTasksPanel.applyChange(task, removed));
+    }
+
+    @Override
+    public void onUserDirectoryChanged(User user) throws RemoteException {
+        userDirectory.userChanged(user);
+    }
+
+    @Override
+    public void onTaskReminder(Task task) throws RemoteException {
         SwingUtilities.invokeLater(() -> {
-            appendChatMessage(message); // Use helper to format
-            // Auto-scroll to the bottom on new message
-            chatDisplayArea.setCaretPosition(chatDisplayArea.getDocument().getLength());
+            String due = task.getDueAt() != null ? "\nDue " + task.getDueAt().format(DUE_DATE_FORMATTER) : "";
+            // Not modal, so reminders that arrive while the user is away do not pile up blocking dialogs
+            JDialog dialog = new JOptionPane("Reminder: #" + task.getId() + " " + task.getTitle() + due,
+                    JOptionPane.INFORMATION_MESSAGE).createDialog(frame, "Task Reminder");
+            dialog.setModal(false);
+            dialog.setVisible(true);
         });
     }
+
+    @Override
+    public void onChatMessageReceived(ChatMessage message) throws RemoteException {
+        // Messages of a channel we just left may still be in flight
+        if (message.getBoardId() != chatChannel) {
+            return;
+        }
+        // Formatted off the EDT and appended in batches when messages arrive in bursts
+        chatView.appendMessage(message);
+    }
 }
\ No newline at end of file
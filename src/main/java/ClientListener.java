@@ -2,7 +2,11 @@ import java.rmi.Remote;
 import java.rmi.RemoteException;
 
 public interface ClientListener extends Remote {
-    void onTasksUpdated(int boardId) throws RemoteException;
+    // revision is the board revision the change produced (see BoardTaskListCache)
+    void onTasksUpdated(int boardId, long revision, BoardSummary summary) throws RemoteException;
     void onBoardListChanged() throws RemoteException;
     void onChatMessageReceived(ChatMessage message) throws RemoteException;
+    void onUserTaskChanged(Task task, boolean removed) throws RemoteException;
+    void onUserDirectoryChanged(User user) throws RemoteException; // A user was created or changed
+    void onTaskReminder(Task task) throws RemoteException; // Sent to the assignee when the task's reminder is due
 }
@@ -0,0 +1,32 @@
+import java.rmi.server.RemoteServer;
+import java.rmi.server.ServerNotActiveException;
+
+// RMI calls have no session object; a call through a stub from KanbanService.openSession carries
+// the session, otherwise the calling host identifies the client
+public final class ClientSessions {
+
+    private static final ThreadLocal<String> SESSION = new ThreadLocal<>(); // Set for the duration of a call
+
+    private ClientSessions() {}
+
+    public static String current() {
+        String session = SESSION.get();
+        if (session != null) {
+            return session;
+        }
+        try {
+            return RemoteServer.getClientHost();
+        } catch (ServerNotActiveException e) {
+            return "local"; // Not called through RMI (e.g. from the server itself)
+        }
+    }
+
+    // For the duration of a call through a session stub
+    static void enter(String session) {
+        SESSION.set(session);
+    }
+
+    static void exit() {
+        SESSION.remove();
+    }
+}
@@ -0,0 +1,325 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Socket that sends data in frames, deflating the large ones. Writes are buffered until RMI
+ * flushes (at the end of each call or result) or the buffer reaches {@link #MAX_FRAME}; the frame
+ * is then deflated if it is larger than the threshold and compression actually pays off. After a
+ * frame that did not shrink by at least 10%, the next few large frames are sent as they are, so
+ * incompressible data (already compressed task list payloads, for instance) costs little CPU.
+ *
+ * Frame: flag byte (0 raw, 1 deflated), raw length, payload length, payload.
+ */
+public class CompressedSocket extends Socket {
+
+    static final int MAX_FRAME = 1 << 20;
+    private static final int SKIP_AFTER_POOR_RATIO = 8;
+
+    // Totals over all compressed sockets of this process, for benchmarks and diagnostics
+    static final AtomicLong rawBytesSent = new AtomicLong();
+    static final AtomicLong wireBytesSent = new AtomicLong();
+
+    private final int compressAbove;
+    private InputStream in;
+    private OutputStream out;
+
+    // Client side
+    CompressedSocket(String host, int port, int compressAbove) throws IOException {
+        super(host, port);
+        this.compressAbove = compressAbove;
+    }
+
+    // Server side, connected by ServerSocket.implAccept
+    CompressedSocket(int compressAbove) {
+        this.compressAbove = compressAbove;
+    }
+
+    @Override
+    public synchronized InputStream getInputStream() throws IOException {
+        if (in == null) {
+            in = new FramedInputStream(new BufferedInputStream(super.getInputStream(), 65536));
+        }
+        return in;
+    }
+
+    @Override
+    public synchronized OutputStream getOutputStream() throws IOException {
+        if (out == null) {
+            out = new FramedOutputStream(new BufferedOutputStream(super.getOutputStream(), 65536), compressAbove);
+        }
+        return out;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (out != null && !isClosed()) {
+                out.flush();
+            }
+        } catch (IOException e) {
+            // Closing anyway
+        }
+        super.close();
+    }
+
+    private static class FramedOutputStream extends FilterOutputStream {
+
+        private final int compressAbove;
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private byte[] buffer = new byte[8192];
+        private byte[] compressed = new byte[0];
+        private int count;
+        private int skipFrames;
+
+        FramedOutputStream(OutputStream out, int compressAbove) {
+            super(out);
+            this.compressAbove = compressAbove;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            ensureCapacity(1);
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (count == MAX_FRAME) {
+                    writeFrame();
+                }
+                int chunk = Math.min(len, MAX_FRAME - count);
+                ensureCapacity(chunk);
+                System.arraycopy(b, off, buffer, count, chunk);
+                count += chunk;
+                off += chunk;
+                len -= chunk;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writeFrame();
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                deflater.end();
+                out.close();
+            }
+        }
+
+        private void ensureCapacity(int extra) throws IOException {
+            if (count + extra > MAX_FRAME) {
+                writeFrame();
+            }
+            if (count + extra > buffer.length) {
+                byte[] grown = new byte[Math.min(MAX_FRAME, Math.max(buffer.length * 2, count + extra))];
+                System.arraycopy(buffer, 0, grown, 0, count);
+                buffer = grown;
+            }
+        }
+
+        private void writeFrame() throws IOException {
+            if (count == 0) {
+                return;
+            }
+            int payloadLength = count;
+            boolean deflated = false;
+            if (compressAbove >= 0 && count > compressAbove) {
+                if (skipFrames > 0) {
+                    skipFrames--;
+                } else {
+                    int length = deflate();
+                    if (length < count * 0.9) {
+                        payloadLength = length;
+                        deflated = true;
+                    } else {
+                        skipFrames = SKIP_AFTER_POOR_RATIO;
+                    }
+                }
+            }
+
+            out.write(deflated ? 1 : 0);
+            writeInt(count);
+            writeInt(payloadLength);
+            out.write(deflated ? compressed : buffer, 0, payloadLength);
+            rawBytesSent.addAndGet(count);
+            wireBytesSent.addAndGet(9 + payloadLength);
+            count = 0;
+        }
+
+        private int deflate() {
+            if (compressed.length < count + 64) {
+                compressed = new byte[count + 64];
+            }
+            deflater.reset();
+            deflater.setInput(buffer, 0, count);
+            deflater.finish();
+            int length = 0;
+            while (!deflater.finished() && length < compressed.length) {
+                length += deflater.deflate(compressed, length, compressed.length - length);
+            }
+            return deflater.finished() ? length : Integer.MAX_VALUE;
+        }
+
+        private void writeInt(int value) throws IOException {
+            out.write(value >>> 24);
+            out.write(value >>> 16);
+            out.write(value >>> 8);
+            out.write(value);
+        }
+    }
+
+    private static class FramedInputStream extends FilterInputStream {
+
+        private final Inflater inflater = new Inflater();
+        private byte[] buffer = new byte[8192];
+        private byte[] payload = new byte[0];
+        private int position;
+        private int limit;
+
+        FramedInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (position == limit && !readFrame()) {
+                return -1;
+            }
+            return buffer[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (position == limit && !readFrame()) {
+                return -1;
+            }
+            int n = Math.min(len, limit - position);
+            System.arraycopy(buffer, position, b, off, n);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = 0;
+            while (skipped < n && (position < limit || readFrame())) {
+                int step = (int) Math.min(n - skipped, limit - position);
+                position += step;
+                skipped += step;
+            }
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return limit - position;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            inflater.end();
+            in.close();
+        }
+
+        // Reads the next non-empty frame; returns false at the end of the stream
+        private boolean readFrame() throws IOException {
+            // A loop, not recursion: a peer sending empty frames must not overflow the stack
+            while (true) {
+                int flag = in.read();
+                if (flag == -1) {
+                    return false;
+                }
+                int rawLength = readInt();
+                int payloadLength = readInt();
+                if (flag > 1 || rawLength < 0 || rawLength > MAX_FRAME || payloadLength < 0 || payloadLength > MAX_FRAME + 64) {
+                    throw new IOException("Corrupt frame header");
+                }
+                if (buffer.length < rawLength) {
+                    buffer = new byte[rawLength];
+                }
+                if (flag == 0) {
+                    if (payloadLength != rawLength) {
+                        throw new IOException("Corrupt frame header");
+                    }
+                    readFully(buffer, payloadLength);
+                } else {
+                    if (payload.length < payloadLength) {
+                        payload = new byte[payloadLength];
+                    }
+                    readFully(payload, payloadLength);
+                    inflater.reset();
+                    inflater.setInput(payload, 0, payloadLength);
+                    try {
+                        int inflated = 0;
+                        while (inflated < rawLength && !inflater.finished()) {
+                            int n = inflater.inflate(buffer, inflated, rawLength - inflated);
+                            if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                                throw new IOException("Corrupt compressed frame"); // Truncated data would spin forever
+                            }
+                            inflated += n;
+                        }
+                        if (inflated != rawLength) {
+                            throw new IOException("Corrupt compressed frame");
+                        }
+                    } catch (DataFormatException e) {
+                        throw new IOException("Corrupt compressed frame", e);
+                    }
+                }
+                position = 0;
+                limit = rawLength;
+                if (rawLength > 0) {
+                    return true;
+                }
+            }
+        }
+
+        private int readInt() throws IOException {
+            int value = 0;
+            for (int i = 0; i < 4; i++) {
+                int b = in.read();
+                if (b == -1) {
+                    throw new EOFException("Truncated frame header");
+                }
+                value = (value << 8) | b;
+            }
+            return value;
+        }
+
+        private void readFully(byte[] target, int length) throws IOException {
+            int read = 0;
+            while (read < length) {
+                int n = in.read(target, read, length - read);
+                if (n == -1) {
+                    throw new EOFException("Truncated frame");
+                }
+                read += n;
+            }
+        }
+    }
+}
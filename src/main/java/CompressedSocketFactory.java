@@ -0,0 +1,64 @@
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.rmi.server.RMIClientSocketFactory;
+import java.rmi.server.RMIServerSocketFactory;
+
+/**
+ * RMI socket factories whose connections compress large messages (see {@link CompressedSocket}).
+ * The server exports KanbanService with them and ClientGUI exports its listener with them; the
+ * client factory travels with the stub, so callers need no configuration.
+ *
+ * Each side decides for what it sends: messages larger than planny.rmi.compressAbove bytes
+ * (default 8192, -1 to never compress) are deflated. The exporter's value is carried by the client
+ * factory and used unless the caller sets the property itself. planny.rmi.compression=false on the
+ * exporting side exports with plain sockets instead.
+ */
+public class CompressedSocketFactory implements RMIClientSocketFactory, RMIServerSocketFactory, Serializable {
+
+    private static final int DEFAULT_COMPRESS_ABOVE = 8192;
+
+    private final int compressAbove;
+
+    public CompressedSocketFactory(int compressAbove) {
+        this.compressAbove = compressAbove;
+    }
+
+    // The factory to export with, or null for RMI's default sockets
+    public static CompressedSocketFactory forExport() {
+        if (!Boolean.parseBoolean(System.getProperty("planny.rmi.compression", "true"))) {
+            return null;
+        }
+        return new CompressedSocketFactory(Integer.getInteger("planny.rmi.compressAbove", DEFAULT_COMPRESS_ABOVE));
+    }
+
+    @Override
+    public Socket createSocket(String host, int port) throws IOException {
+        // Runs on the caller, which may override the threshold for its requests
+        return new CompressedSocket(host, port, Integer.getInteger("planny.rmi.compressAbove", compressAbove));
+    }
+
+    @Override
+    public ServerSocket createServerSocket(int port) throws IOException {
+        return new ServerSocket(port) {
+            @Override
+            public Socket accept() throws IOException {
+                Socket socket = new CompressedSocket(compressAbove);
+                implAccept(socket);
+                return socket;
+            }
+        };
+    }
+
+    // RMI shares connections between objects exported with equal factories
+    @Override
+    public boolean equals(Object o) {
+        return o != null && o.getClass() == getClass() && ((CompressedSocketFactory) o).compressAbove == compressAbove;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(compressAbove);
+    }
+}
@@ -1,20 +1,245 @@
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.Statement;
 import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Connections to the primary database and, optionally, to read replicas.
+ *
+ * Writes always use {@link #getConnection()}. Read-only service methods use
+ * {@link #getReadConnection(int)}, which picks a replica round-robin unless the calling session
+ * (or the board being read) was written within the stickiness window, in which case the primary
+ * is used so that clients read their own writes and notified clients see the change that
+ * triggered the notification.
+ *
+ * Configured with system properties: planny.db.url (primary), planny.db.replicas (comma-separated
+ * JDBC URLs, none by default), planny.db.stickyMillis (default 5000).
+ */
 public class DatabaseManager {
 
-    private static final String URL = "jdbc:postgresql://localhost:5432/planny_db";
+    private static final String URL = System.getProperty("planny.db.url", "jdbc:postgresql://localhost:5432/planny_db");
     private static final String USER = "postgres";
     private static final String PASSWORD = "planny";
 
+    private static final List<String> REPLICA_URLS = parseUrls(System.getProperty("planny.db.replicas", ""));
+    private static final long STICKY_NANOS = TimeUnit.MILLISECONDS.toNanos(Long.getLong("planny.db.stickyMillis", 5000));
+    private static final AtomicInteger nextReplica = new AtomicInteger();
+    private static final Map<String, Long> lastWriteNanos = new ConcurrentHashMap<>();
+    private static final Set<String> createdPartitions = ConcurrentHashMap.newKeySet();
 
+    // Connection to the primary; marks the calling session as having written
     public static Connection getConnection() throws SQLException {
+        if (!REPLICA_URLS.isEmpty()) {
+            markWritten(ClientSessions.current());
+        }
+        return DriverManager.getConnection(URL, USER, PASSWORD);
+    }
+
+    public static Connection getReadConnection() throws SQLException {
+        return getReadConnection(-1);
+    }
+
+    // Connection for a read-only query, optionally about one board (-1 for none)
+    public static Connection getReadConnection(int boardId) throws SQLException {
+        if (REPLICA_URLS.isEmpty() || recentlyWritten(ClientSessions.current())
+                || (boardId != -1 && recentlyWritten(boardKey(boardId)))) {
+            return DriverManager.getConnection(URL, USER, PASSWORD);
+        }
+
+        int start = Math.floorMod(nextReplica.getAndIncrement(), REPLICA_URLS.size());
+        for (int i = 0; i < REPLICA_URLS.size(); i++) {
+            String replicaUrl = REPLICA_URLS.get((start + i) % REPLICA_URLS.size());
+            try {
+                Connection conn = DriverManager.getConnection(replicaUrl, USER, PASSWORD);
+                conn.setReadOnly(true);
+                return conn;
+            } catch (SQLException e) {
+                System.err.println("Read replica unavailable (" + replicaUrl + "): " + e.getMessage());
+            }
+        }
+        // Fall back to the primary if no replica is reachable
         return DriverManager.getConnection(URL, USER, PASSWORD);
     }
 
+    // Called after a board's tasks changed so that the reloads it triggers go to the primary
+    public static void markBoardWritten(int boardId) {
+        if (!REPLICA_URLS.isEmpty()) {
+            markWritten(boardKey(boardId));
+        }
+    }
+
+    private static void markWritten(String key) {
+        long now = System.nanoTime();
+        lastWriteNanos.put(key, now);
+        if (lastWriteNanos.size() > 10_000) {
+            lastWriteNanos.values().removeIf(writtenAt -> now - writtenAt > STICKY_NANOS);
+        }
+    }
+
+    private static boolean recentlyWritten(String key) {
+        Long writtenAt = lastWriteNanos.get(key);
+        return writtenAt != null && System.nanoTime() - writtenAt < STICKY_NANOS;
+    }
+
+    private static String boardKey(int boardId) {
+        return "board:" + boardId;
+    }
+
+    /**
+     * Moves the rows of an unpartitioned messages table (from before partitioning) into the
+     * partitioned one, creating a partition per month found, all in one transaction. The old ID
+     * sequence is kept, so message IDs keep increasing.
+     */
+    private static void migrateUnpartitionedMessages(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet kind = stmt.executeQuery("SELECT relkind FROM pg_class WHERE relname = 'messages' AND relkind = 'r'")) {
+            if (!kind.next()) {
+                return;
+            }
+        }
+        System.out.println("Moving messages into a partitioned table...");
+        connection.setAutoCommit(false);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("ALTER TABLE messages RENAME TO messages_unpartitioned;");
+            stmt.executeUpdate("ALTER INDEX IF EXISTS messages_pkey RENAME TO messages_unpartitioned_pkey;");
+            stmt.executeUpdate("DROP INDEX IF EXISTS idx_messages_board_id;");
+            stmt.executeUpdate("ALTER TABLE messages_unpartitioned ADD COLUMN IF NOT EXISTS board_id INTEGER;");
+            stmt.executeUpdate("ALTER TABLE messages_unpartitioned ALTER COLUMN message_id DROP DEFAULT;");
+            stmt.executeUpdate("ALTER SEQUENCE IF EXISTS messages_message_id_seq OWNED BY NONE;");
+            stmt.executeUpdate("CREATE SEQUENCE IF NOT EXISTS messages_message_id_seq;");
+            stmt.executeUpdate("""
+                CREATE TABLE messages (
+                    message_id INTEGER NOT NULL DEFAULT nextval('messages_message_id_seq'),
+                    board_id INTEGER REFERENCES boards(id) ON DELETE CASCADE,
+                    user_id INTEGER NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+                    content TEXT NOT NULL,
+                    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                    PRIMARY KEY (message_id, created_at)
+                ) PARTITION BY RANGE (created_at);
+            """);
+
+            List<YearMonth> months = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT DISTINCT date_trunc('month', COALESCE(created_at, CURRENT_TIMESTAMP)) FROM messages_unpartitioned")) {
+                while (rs.next()) {
+                    months.add(YearMonth.from(rs.getTimestamp(1).toLocalDateTime()));
+                }
+            }
+            for (YearMonth month : months) {
+                createMonthlyPartition(stmt, "messages", month);
+            }
+            int moved = stmt.executeUpdate("""
+                INSERT INTO messages (message_id, board_id, user_id, content, created_at)
+                SELECT message_id, board_id, user_id, content, COALESCE(created_at, CURRENT_TIMESTAMP)
+                FROM messages_unpartitioned
+            """);
+            stmt.executeUpdate("DROP TABLE messages_unpartitioned;");
+            connection.commit();
+            System.out.println("Moved " + moved + " messages into " + months.size() + " monthly partitions.");
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static List<String> parseUrls(String value) {
+        List<String> urls = new ArrayList<>();
+        for (String url : value.split(",")) {
+            if (!url.isBlank()) {
+                urls.add(url.trim());
+            }
+        }
+        return urls;
+    }
+
+    /**
+     * Creates the monthly partitions of a table partitioned by range on a timestamp, from the
+     * previous month up to monthsAhead months ahead, so rows stamped by the database's clock
+     * always have a partition even around the turn of a month. Each partition is only created
+     * once per run.
+     */
+    public static void ensureMonthlyPartitions(String table, int monthsAhead) throws SQLException {
+        YearMonth now = YearMonth.now();
+        for (YearMonth month = now.minusMonths(1); !month.isAfter(now.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+            String partition = partitionName(table, month);
+            if (createdPartitions.contains(partition)) {
+                continue;
+            }
+            try (Connection connection = getConnection();
+                 Statement stmt = connection.createStatement()) {
+                createMonthlyPartition(stmt, table, month);
+            }
+            createdPartitions.add(partition);
+        }
+    }
+
+    // Drops the monthly partitions that end before the given month; returns their names
+    public static List<String> dropMonthlyPartitionsBefore(String table, YearMonth cutoff) throws SQLException {
+        String sql = """
+                SELECT c.relname FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                JOIN pg_class p ON p.oid = i.inhparent
+                WHERE p.relname = ?
+            """;
+        List<String> dropped = new ArrayList<>();
+        try (Connection connection = getConnection();
+             PreparedStatement select = connection.prepareStatement(sql);
+             Statement stmt = connection.createStatement()) {
+            select.setString(1, table);
+            ResultSet rs = select.executeQuery();
+            List<String> partitions = new ArrayList<>();
+            while (rs.next()) {
+                partitions.add(rs.getString(1));
+            }
+            for (String partition : partitions) {
+                YearMonth month = partitionMonth(table, partition);
+                if (month != null && month.isBefore(cutoff)) {
+                    // Dropping a whole partition leaves no dead rows behind, unlike DELETE
+                    stmt.executeUpdate("DROP TABLE IF EXISTS " + partition);
+                    createdPartitions.remove(partition);
+                    dropped.add(partition);
+                }
+            }
+        }
+        return dropped;
+    }
+
+    private static void createMonthlyPartition(Statement stmt, String table, YearMonth month) throws SQLException {
+        stmt.executeUpdate("CREATE TABLE IF NOT EXISTS " + partitionName(table, month) + " PARTITION OF " + table
+                + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+    }
+
+    private static String partitionName(String table, YearMonth month) {
+        return String.format("%s_y%04dm%02d", table, month.getYear(), month.getMonthValue());
+    }
+
+    // Month of a partition named by partitionName, or null for any other table
+    private static YearMonth partitionMonth(String table, String partition) {
+        String prefix = table + "_y";
+        if (!partition.startsWith(prefix) || partition.length() != prefix.length() + 7 || partition.charAt(prefix.length() + 4) != 'm') {
+            return null;
+        }
+        try {
+            int year = Integer.parseInt(partition.substring(prefix.length(), prefix.length() + 4));
+            int month = Integer.parseInt(partition.substring(prefix.length() + 5));
+            return YearMonth.of(year, month);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
     public static void initialize() throws SQLException {
         createTables();
     }
@@ -69,15 +294,109 @@ public class DatabaseManager {
                 );
             """);
 
-            // Create messages table
+            // Indexes for the cross-board "My tasks" queries
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_tasks_assignee_id ON tasks (assignee_id, id);");
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_tasks_user_id ON tasks (user_id, id);");
+
+            // Assignee search: case-insensitive username prefixes, byte-wise so LIKE 'abc%' is a range scan
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_users_username_search ON users ((lower(username) COLLATE \"C\"), id);");
+
+            // Position within the status column (see TaskRank); byte-wise collation so keys sort like
+            // in Java. Tasks from before ranks existed are ranked by ID.
+            stmt.executeUpdate("ALTER TABLE tasks ADD COLUMN IF NOT EXISTS rank TEXT COLLATE \"C\";");
+            stmt.executeUpdate("UPDATE tasks SET rank = lpad(id::text, 10, '0') || 'V' WHERE rank IS NULL;");
+            stmt.executeUpdate("ALTER TABLE tasks ALTER COLUMN rank SET NOT NULL;");
+            // Ordered column reads; the ID breaks ties between concurrently assigned ranks
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_tasks_board_status_rank ON tasks (board_id, status, rank, id);");
+
+            // Candidates for archival: DONE tasks by last change
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_tasks_done_updated_at ON tasks (updated_at) WHERE status = 'DONE';");
+
+            // Archived tasks, partitioned by month of archival (see ensureMonthlyPartitions)
+            stmt.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS archived_tasks (
+                    id INTEGER NOT NULL,
+                    board_id INTEGER NOT NULL REFERENCES boards(id) ON DELETE CASCADE,
+                    user_id INTEGER NOT NULL REFERENCES users(id),
+                    assignee_id INTEGER REFERENCES users(id),
+                    title TEXT NOT NULL,
+                    description TEXT,
+                    status task_status NOT NULL,
+                    rank TEXT COLLATE "C" NOT NULL,
+                    created_at TIMESTAMP,
+                    updated_at TIMESTAMP,
+                    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                    PRIMARY KEY (id, archived_at)
+                ) PARTITION BY RANGE (archived_at);
+            """);
+            // Per-board paging, newest first
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_archived_tasks_board_id ON archived_tasks (board_id, id);");
+
+            // Due dates and reminders; remind_at is cleared once the reminder was sent. Archived
+            // tasks have the columns too, since task rows are read the same way from both tables.
+            for (String table : List.of("tasks", "archived_tasks")) {
+                stmt.executeUpdate("ALTER TABLE " + table + " ADD COLUMN IF NOT EXISTS due_at TIMESTAMP;");
+                stmt.executeUpdate("ALTER TABLE " + table + " ADD COLUMN IF NOT EXISTS remind_at TIMESTAMP;");
+            }
+            // Pending reminders, loaded into the ReminderScheduler on startup
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_tasks_remind_at ON tasks (id) WHERE remind_at IS NOT NULL;");
+
+            // Files attached to tasks; the content is in the BlobStore, by hash. No foreign key to
+            // tasks, since archived tasks keep their attachments; rows go with their board.
+            stmt.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS task_attachments (
+                    id SERIAL PRIMARY KEY,
+                    task_id INTEGER NOT NULL,
+                    board_id INTEGER NOT NULL REFERENCES boards(id) ON DELETE CASCADE,
+                    user_id INTEGER NOT NULL REFERENCES users(id),
+                    file_name VARCHAR(255) NOT NULL,
+                    size BIGINT NOT NULL,
+                    sha256 CHAR(64) NOT NULL,
+                    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+                );
+            """);
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_task_attachments_task_id ON task_attachments (task_id, id);");
+
+            // Per-board, per-status task counters, maintained together with task changes
+            stmt.executeUpdate("""
+                CREATE TABLE IF NOT EXISTS board_status_counts (
+                    board_id INTEGER NOT NULL REFERENCES boards(id) ON DELETE CASCADE,
+                    status task_status NOT NULL,
+                    task_count INTEGER NOT NULL DEFAULT 0,
+                    wip_limit INTEGER CHECK (wip_limit IS NULL OR wip_limit >= 0),
+                    PRIMARY KEY (board_id, status)
+                );
+            """);
+
+            // Resync the counters with the tasks table on startup (also creates missing rows)
+            stmt.executeUpdate("""
+                INSERT INTO board_status_counts (board_id, status, task_count)
+                SELECT b.id, s.status, COUNT(t.id)
+                FROM boards b
+                CROSS JOIN unnest(enum_range(NULL::task_status)) AS s(status)
+                LEFT JOIN tasks t ON t.board_id = b.id AND t.status = s.status
+                GROUP BY b.id, s.status
+                ON CONFLICT (board_id, status) DO UPDATE SET task_count = EXCLUDED.task_count;
+            """);
+
+            // Messages, partitioned by month of creation; partitions are created ahead and dropped
+            // after the retention period by PartitionMaintenance. The ID sequence is created
+            // separately so an unpartitioned table from an older version can hand it over.
+            migrateUnpartitionedMessages(connection);
+            stmt.executeUpdate("CREATE SEQUENCE IF NOT EXISTS messages_message_id_seq;");
             stmt.executeUpdate("""
                 CREATE TABLE IF NOT EXISTS messages (
-                    message_id SERIAL PRIMARY KEY,
+                    message_id INTEGER NOT NULL DEFAULT nextval('messages_message_id_seq'),
+                    board_id INTEGER REFERENCES boards(id) ON DELETE CASCADE,
                     user_id INTEGER NOT NULL REFERENCES users(id) ON DELETE CASCADE,
                     content TEXT NOT NULL,
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
-                );
+                    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                    PRIMARY KEY (message_id, created_at)
+                ) PARTITION BY RANGE (created_at);
             """);
+            stmt.executeUpdate("ALTER SEQUENCE messages_message_id_seq OWNED BY messages.message_id;");
+            // Board chat channels (NULL is the general channel), paged newest first
+            stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_messages_channel ON messages (board_id, created_at, message_id);");
 
             System.out.println("Tables checked/created successfully.");
         }
@@ -0,0 +1,26 @@
+import javax.swing.JTable;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.Component;
+
+/**
+ * Renders timestamp cells using a single reusable label. The formatted strings come from a
+ * {@link TableDisplayCache}, so scrolling does not re-format (or allocate) per paint.
+ */
+public class DateTimeCellRenderer extends DefaultTableCellRenderer {
+
+    private final TableDisplayCache cache;
+
+    public DateTimeCellRenderer(TableDisplayCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public Component getTableCellRendererComponent(JTable table, Object value,
+                                                   boolean isSelected, boolean hasFocus, int row, int column) {
+        super.getTableCellRendererComponent(table, null, isSelected, hasFocus, row, column);
+        int modelRow = table.convertRowIndexToModel(row);
+        int modelColumn = table.convertColumnIndexToModel(column);
+        setText(cache.get(modelRow, modelColumn));
+        return this;
+    }
+}
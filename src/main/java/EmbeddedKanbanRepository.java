@@ -0,0 +1,1422 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * Embedded storage that needs no external process. All data lives in memory, with indexes by
+ * board, assignee and creator, and every change is appended to a log file before it is applied.
+ * The whole state is written to a snapshot file every planny.embedded.snapshotEvery changes
+ * (default 100000), every planny.embedded.snapshotMinutes (default 10) and on {@link #close()};
+ * the log then starts over. On startup the snapshot is loaded and the log replayed on top of it.
+ *
+ * Log and snapshot use the same records, each framed with its length and CRC32. Records are
+ * upserts and deletes, so replaying a log already contained in the snapshot (a crash between
+ * writing the snapshot and truncating the log) is harmless, and a torn record at the end of the
+ * log is dropped. Changes are written to the OS before they are acknowledged; with
+ * planny.embedded.fsync=true they are also forced to disk. Files are kept in planny.embedded.dir
+ * (default planny-data).
+ *
+ * Reads share a read lock and changes take the write lock, so a single node serves both in
+ * microseconds. Snapshots hold the read lock while they are written, blocking changes meanwhile.
+ */
+public class EmbeddedKanbanRepository implements KanbanRepository {
+
+    private static final byte PUT_USER = 1;
+    private static final byte PUT_BOARD = 2;
+    private static final byte DELETE_BOARD = 3;
+    private static final byte PUT_TASK = 4;
+    private static final byte DELETE_TASK = 5;
+    private static final byte SET_WIP_LIMIT = 6;
+    private static final byte PUT_MESSAGE = 7;
+    private static final byte SEQUENCES = 8;
+    private static final byte PUT_CHANNEL_MESSAGE = 9; // PUT_MESSAGE with a channel; PUT_MESSAGE is the general channel
+    private static final byte PUT_RANKED_TASK = 10; // PUT_TASK with a rank; PUT_TASK tasks are ranked by ID
+    private static final byte PUT_ARCHIVED_TASK = 11; // Same layout as PUT_RANKED_TASK; moves the task to the archive
+    private static final byte PUT_ATTACHMENT = 12;
+
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+    private static final Comparator<Task> TASK_ORDER =
+            Comparator.comparing(Task::getStatus).thenComparing(Task::getRank).thenComparingInt(Task::getId);
+    private static final String MAX_RANK = "\uffff"; // Above every rank key
+
+    private record UserRow(int id, String username, String password, LocalDateTime createdAt, LocalDateTime updatedAt) {}
+
+    private record MessageRow(int id, int boardId, int userId, String content, LocalDateTime createdAt) {}
+
+    private static class BoardCounts {
+        final int[] counts = new int[STATUSES.length];
+        final Integer[] limits = new Integer[STATUSES.length];
+    }
+
+    private final Path snapshotFile;
+    private final Path logFile;
+    private final boolean fsync;
+    private final long snapshotEvery;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ScheduledExecutorService snapshotter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "embedded-store-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private FileChannel log;
+    private volatile long changesSinceSnapshot;
+    private volatile boolean snapshotPending;
+    private long changeCount; // Records written since the store was created; guarded by lock
+
+    // State, guarded by lock
+    private final Map<Integer, UserRow> users = new HashMap<>();
+    private final Map<String, UserRow> usersByName = new HashMap<>();
+    private final TreeMap<String, UserRow> usersBySearchKey = new TreeMap<>(); // See searchKey
+    private final TreeMap<Integer, Board> boards = new TreeMap<>();
+    private final Map<String, Integer> boardIdsByName = new HashMap<>();
+    private final Map<Integer, BoardCounts> boardCounts = new HashMap<>();
+    private final TreeMap<Integer, Task> tasks = new TreeMap<>();
+    private final Map<Integer, NavigableSet<Task>> tasksByBoard = new HashMap<>(); // Ordered by status, rank, ID
+    private final Map<Integer, NavigableSet<Integer>> tasksByAssignee = new HashMap<>();
+    private final Map<Integer, NavigableSet<Integer>> tasksByCreator = new HashMap<>();
+    private final Map<Integer, TreeMap<Integer, MessageRow>> messagesByChannel = new HashMap<>();
+    private final Map<Integer, TreeMap<Integer, Task>> archivedByBoard = new HashMap<>(); // Outside every hot index
+    private final Map<Integer, TreeMap<Integer, Attachment>> attachmentsByTask = new HashMap<>();
+    private final Map<Integer, Attachment> attachments = new HashMap<>();
+    private int nextUserId = 1;
+    private int nextBoardId = 1;
+    private int nextTaskId = 1;
+    private int nextMessageId = 1;
+    private int nextAttachmentId = 1;
+
+    private EmbeddedKanbanRepository(Path dir, boolean fsync, long snapshotEvery, long snapshotMinutes) throws IOException {
+        Files.createDirectories(dir);
+        this.snapshotFile = dir.resolve("snapshot.dat");
+        this.logFile = dir.resolve("log.dat");
+        this.fsync = fsync;
+        this.snapshotEvery = snapshotEvery;
+
+        long start = System.nanoTime();
+        if (Files.exists(snapshotFile)) {
+            try (FileChannel snapshot = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+                if (replay(snapshot, false) != snapshot.size()) {
+                    throw new IOException("Corrupt snapshot " + snapshotFile);
+                }
+            }
+        }
+        log = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long validLength = replay(log, true);
+        if (validLength < log.size()) {
+            System.err.println("Dropping " + (log.size() - validLength) + " bytes of incomplete records at the end of " + logFile);
+            log.truncate(validLength);
+        }
+        log.position(validLength);
+        System.out.println("Embedded store loaded from " + dir.toAbsolutePath() + " in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms: " + boards.size() + " boards, "
+                + tasks.size() + " tasks.");
+
+        snapshotter.scheduleWithFixedDelay(this::snapshotIfChanged, snapshotMinutes, snapshotMinutes, TimeUnit.MINUTES);
+    }
+
+    public static EmbeddedKanbanRepository open() throws IOException {
+        return new EmbeddedKanbanRepository(
+                Path.of(System.getProperty("planny.embedded.dir", "planny-data")),
+                Boolean.getBoolean("planny.embedded.fsync"),
+                Long.getLong("planny.embedded.snapshotEvery", 100_000),
+                Long.getLong("planny.embedded.snapshotMinutes", 10));
+    }
+
+    // Writes a final snapshot; the repository must not be used afterwards
+    public void close() {
+        snapshotter.shutdownNow();
+        lock.writeLock().lock();
+        try {
+            if (changesSinceSnapshot > 0) {
+                writeSnapshot();
+            }
+            log.close();
+        } catch (IOException e) {
+            System.err.println("Error writing embedded store snapshot: " + e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public String changeStamp() {
+        lock.readLock().lock();
+        try {
+            return "embedded " + snapshotFile.getParent().toAbsolutePath() + " #" + changeCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- Users ---
+
+    @Override
+    public User authenticateUser(String username, String password) {
+        lock.readLock().lock();
+        try {
+            UserRow user = usersByName.get(username);
+            return user != null && user.password.equals(password) ? toUser(user) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public User createUser(String username, String password) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            if (usersByName.containsKey(username)) {
+                throw new SQLException("Username already exists: " + username, UNIQUE_VIOLATION_STATE);
+            }
+            LocalDateTime now = LocalDateTime.now();
+            UserRow user = new UserRow(nextUserId, username, password, now, now);
+            write(putUser(user));
+            return toUser(user);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<User> getUsers() {
+        lock.readLock().lock();
+        try {
+            List<User> result = new ArrayList<>(users.size());
+            for (UserRow user : users.values()) {
+                result.add(toUser(user));
+            }
+            result.sort((a, b) -> a.getUsername().compareTo(b.getUsername()));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<User> searchUsers(String prefix, int limit) {
+        String from = prefix.toLowerCase(Locale.ROOT);
+        lock.readLock().lock();
+        try {
+            List<User> result = new ArrayList<>(Math.min(limit, 64));
+            for (UserRow user : usersBySearchKey.subMap(from, true, from + Character.MAX_VALUE, false).values()) {
+                if (result.size() == limit) {
+                    break;
+                }
+                result.add(toUser(user));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Lower-case name, then the ID to tell apart names that only differ in case
+    private static String searchKey(UserRow user) {
+        return user.username.toLowerCase(Locale.ROOT) + '\0' + user.id;
+    }
+
+    @Override
+    public List<User> getUsersById(int[] userIds) {
+        lock.readLock().lock();
+        try {
+            List<User> result = new ArrayList<>(userIds.length);
+            for (int userId : userIds) {
+                UserRow user = users.get(userId);
+                if (user != null) {
+                    result.add(toUser(user));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- Boards and counters ---
+
+    @Override
+    public List<Board> getBoards() {
+        lock.readLock().lock();
+        try {
+            List<Board> result = new ArrayList<>(boards.size());
+            for (Board board : boards.values()) {
+                result.add(copy(board));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Board createBoard(String name) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            if (boardIdsByName.containsKey(name)) {
+                throw new SQLException("Board name already exists: " + name, UNIQUE_VIOLATION_STATE);
+            }
+            LocalDateTime now = LocalDateTime.now();
+            int id = nextBoardId;
+            write(putBoard(new Board(id, name, now, now)));
+            return copy(boards.get(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean updateBoard(int boardId, String name) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            Board board = boards.get(boardId);
+            if (board == null) {
+                return false;
+            }
+            Integer existing = boardIdsByName.get(name);
+            if (existing != null && existing != boardId) {
+                throw new SQLException("Board name already exists: " + name, UNIQUE_VIOLATION_STATE);
+            }
+            write(putBoard(new Board(boardId, name, board.getCreatedAt(), LocalDateTime.now())));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean deleteBoard(int boardId) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            if (!boards.containsKey(boardId)) {
+                return false;
+            }
+            write(record(DELETE_BOARD, out -> out.writeInt(boardId)));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<Integer, BoardSummary> getBoardSummaries() {
+        lock.readLock().lock();
+        try {
+            Map<Integer, BoardSummary> summaries = new HashMap<>();
+            for (int boardId : boardCounts.keySet()) {
+                summaries.put(boardId, summary(boardId));
+            }
+            return summaries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean setWipLimit(int boardId, TaskStatus status, Integer limit) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            if (!boards.containsKey(boardId)) {
+                return false;
+            }
+            write(setWipLimitRecord(boardId, status, limit));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // --- Tasks ---
+
+    @Override
+    public Task getTask(int taskId) {
+        lock.readLock().lock();
+        try {
+            Task task = tasks.get(taskId);
+            return task != null ? copy(task) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getTasks(int boardId) {
+        lock.readLock().lock();
+        try {
+            return copiesOf(tasksByBoard.getOrDefault(boardId, Collections.emptyNavigableSet()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getUserTasks(int userId, boolean includeCreated, int afterTaskId, int limit) {
+        lock.readLock().lock();
+        try {
+            // Merges the two ID views in ascending order, so a page costs O(limit log n)
+            Iterator<Integer> assigned = tasksByAssignee.getOrDefault(userId, Collections.emptyNavigableSet())
+                    .tailSet(afterTaskId, false).iterator();
+            Iterator<Integer> created = includeCreated
+                    ? tasksByCreator.getOrDefault(userId, Collections.emptyNavigableSet()).tailSet(afterTaskId, false).iterator()
+                    : Collections.emptyIterator();
+            List<Task> result = new ArrayList<>();
+            Integer nextAssigned = assigned.hasNext() ? assigned.next() : null;
+            Integer nextCreated = created.hasNext() ? created.next() : null;
+            while (result.size() < limit && (nextAssigned != null || nextCreated != null)) {
+                int id;
+                if (nextCreated == null || (nextAssigned != null && nextAssigned < nextCreated)) {
+                    id = nextAssigned;
+                    nextAssigned = assigned.hasNext() ? assigned.next() : null;
+                } else {
+                    id = nextCreated;
+                    if (nextCreated.equals(nextAssigned)) { // Assigned to and created by the user
+                        nextAssigned = assigned.hasNext() ? assigned.next() : null;
+                    }
+                    nextCreated = created.hasNext() ? created.next() : null;
+                }
+                result.add(copy(tasks.get(id)));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public TaskStream streamTasks(int boardId) {
+        lock.readLock().lock();
+        try {
+            long totalCount = boardId == -1 ? tasks.size() : tasksByBoard.getOrDefault(boardId, Collections.emptyNavigableSet()).size();
+            return new PagedTaskStream(boardId, totalCount);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public TaskImport beginImport(int boardId, int userId) {
+        return new EmbeddedTaskImport(boardId, userId);
+    }
+
+    @Override
+    public Task createTask(int boardId, int userId, int assigneeId, String title, String description, TaskStatus status) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            if (!boards.containsKey(boardId)) {
+                return null;
+            }
+            if (wouldExceedLimit(boardId, status, 1)) {
+                throw KanbanRepository.wipLimitReached(boardCounts.get(boardId).limits[status.ordinal()], status);
+            }
+            requireUser(userId);
+            requireUser(assigneeId);
+            LocalDateTime now = LocalDateTime.now();
+            int id = nextTaskId;
+            Task task = new Task(id, title, description, status, boardId, userId, assigneeId, now, now);
+            task.setRank(TaskRank.after(lastRank(boardId, status))); // End of the column
+            write(putTask(task));
+            return copy(tasks.get(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public TaskChange moveTask(int taskId, TaskStatus newStatus) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            Task task = tasks.get(taskId);
+            if (task == null) {
+                return null;
+            }
+            return change(task, task.getAssigneeId(), task.getTitle(), task.getDescription(), newStatus);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public TaskChange updateTask(int taskId, int assigneeId, String title, String description, TaskStatus status) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            Task task = tasks.get(taskId);
+            if (task == null) {
+                return null;
+            }
+            requireUser(assigneeId);
+            return change(task, assigneeId, title, description, status);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private TaskChange change(Task task, int assigneeId, String title, String description, TaskStatus status) throws SQLException {
+        TaskStatus previousStatus = task.getStatus();
+        int previousAssigneeId = task.getAssigneeId();
+        if (previousStatus != status && wouldExceedLimit(task.getBoardId(), status, 1)) {
+            throw KanbanRepository.wipLimitReached(boardCounts.get(task.getBoardId()).limits[status.ordinal()], status);
+        }
+        Task changed = new Task(task.getId(), title, description, status, task.getBoardId(), task.getUserId(),
+                assigneeId, task.getCreatedAt(), LocalDateTime.now());
+        changed.setRank(task.getRank());
+        changed.setDueAt(task.getDueAt());
+        changed.setRemindAt(task.getRemindAt());
+        write(putTask(changed));
+        return new TaskChange(copy(tasks.get(task.getId())), previousStatus, previousAssigneeId);
+    }
+
+    @Override
+    public TaskChange setTaskSchedule(int taskId, LocalDateTime dueAt, LocalDateTime remindAt) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            Task task = tasks.get(taskId);
+            if (task == null) {
+                return null;
+            }
+            Task changed = copy(task);
+            changed.setDueAt(dueAt);
+            changed.setRemindAt(remindAt);
+            changed.setUpdatedAt(LocalDateTime.now());
+            write(putTask(changed));
+            return new TaskChange(copy(changed), task.getStatus(), task.getAssigneeId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getTasksWithReminders(int afterTaskId, int limit) {
+        lock.readLock().lock();
+        try {
+            List<Task> result = new ArrayList<>();
+            for (Task task : tasks.tailMap(afterTaskId, false).values()) {
+                if (task.getRemindAt() != null) {
+                    result.add(copy(task));
+                    if (result.size() == limit) {
+                        break;
+                    }
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Task takeReminder(int taskId, LocalDateTime remindAt) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            Task task = tasks.get(taskId);
+            if (task == null || !remindAt.equals(task.getRemindAt())) {
+                return null;
+            }
+            Task changed = copy(task); // Keeps updated_at: not a change by a user
+            changed.setRemindAt(null);
+            write(putTask(changed));
+            return copy(changed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public TaskChange reorderTask(int taskId, TaskStatus status, int afterTaskId) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            Task task = tasks.get(taskId);
+            if (task == null) {
+                return null;
+            }
+            String lower = null;
+            if (afterTaskId > 0) {
+                Task anchor = tasks.get(afterTaskId);
+                if (afterTaskId == taskId || anchor == null || anchor.getBoardId() != task.getBoardId() || anchor.getStatus() != status) {
+                    throw new SQLException("Task " + afterTaskId + " is not in the " + status + " column", FOREIGN_KEY_VIOLATION_STATE);
+                }
+                lower = anchor.getRank();
+            }
+            Task next = firstAfter(tasksByBoard.get(task.getBoardId()), status, lower != null ? lower : "", taskId);
+
+            TaskStatus previousStatus = task.getStatus();
+            if (previousStatus != status && wouldExceedLimit(task.getBoardId(), status, 1)) {
+                throw KanbanRepository.wipLimitReached(boardCounts.get(task.getBoardId()).limits[status.ordinal()], status);
+            }
+            Task reordered = new Task(task.getId(), task.getTitle(), task.getDescription(), status, task.getBoardId(),
+                    task.getUserId(), task.getAssigneeId(), task.getCreatedAt(), LocalDateTime.now());
+            reordered.setRank(TaskRank.between(lower, next != null ? next.getRank() : null));
+            reordered.setDueAt(task.getDueAt());
+            reordered.setRemindAt(task.getRemindAt());
+            write(putTask(reordered));
+            return new TaskChange(copy(tasks.get(taskId)), previousStatus, task.getAssigneeId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int rebalanceRanks(int boardId, TaskStatus status) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            NavigableSet<Task> boardTasks = tasksByBoard.get(boardId);
+            if (boardTasks == null) {
+                return 0;
+            }
+            List<Task> column = new ArrayList<>(boardTasks.subSet(probe(status, "", Integer.MIN_VALUE), true,
+                    probe(status, MAX_RANK, Integer.MAX_VALUE), true));
+            String[] ranks = TaskRank.spread(column.size());
+            byte[][] records = new byte[column.size()][];
+            for (int i = 0; i < records.length; i++) {
+                records[i] = putTask(withRank(column.get(i), ranks[i]));
+            }
+            if (records.length > 0) {
+                write(records);
+            }
+            return records.length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Task deleteTask(int taskId) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            Task task = tasks.get(taskId);
+            if (task == null) {
+                return null;
+            }
+            write(record(DELETE_TASK, out -> out.writeInt(taskId)));
+            return task;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // --- Archive ---
+
+    @Override
+    public List<Task> archiveDoneTasks(LocalDateTime doneBefore, int limit) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            List<Task> candidates = new ArrayList<>();
+            for (Task task : tasks.values()) {
+                if (task.getStatus() == TaskStatus.DONE && task.getUpdatedAt().isBefore(doneBefore)) {
+                    candidates.add(task);
+                }
+            }
+            candidates.sort(Comparator.comparing(Task::getUpdatedAt));
+            List<Task> archived = new ArrayList<>(candidates.subList(0, Math.min(limit, candidates.size())));
+            if (!archived.isEmpty()) {
+                byte[][] records = new byte[archived.size()][];
+                for (int i = 0; i < records.length; i++) {
+                    records[i] = taskRecord(PUT_ARCHIVED_TASK, archived.get(i));
+                }
+                write(records);
+            }
+            return copiesOf(archived);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getArchivedTasks(int boardId, int beforeTaskId, int limit) {
+        lock.readLock().lock();
+        try {
+            TreeMap<Integer, Task> archived = archivedByBoard.get(boardId);
+            if (archived == null) {
+                return new ArrayList<>();
+            }
+            List<Task> page = new ArrayList<>();
+            for (Task task : archived.headMap(beforeTaskId > 0 ? beforeTaskId : Integer.MAX_VALUE, false).descendingMap().values()) {
+                if (page.size() == limit) {
+                    break;
+                }
+                page.add(copy(task));
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- Attachments ---
+
+    @Override
+    public Attachment addAttachment(int taskId, int userId, String fileName, long size, String sha256) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            requireUser(userId);
+            Task task = tasks.get(taskId);
+            if (task == null) {
+                return null;
+            }
+            Attachment attachment = new Attachment(nextAttachmentId, taskId, task.getBoardId(), userId, fileName, size, sha256, LocalDateTime.now());
+            write(putAttachment(attachment));
+            return attachment;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Attachment> getAttachments(int taskId) {
+        lock.readLock().lock();
+        try {
+            TreeMap<Integer, Attachment> taskAttachments = attachmentsByTask.get(taskId);
+            return taskAttachments == null ? new ArrayList<>() : new ArrayList<>(taskAttachments.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Attachment getAttachment(int attachmentId) {
+        lock.readLock().lock();
+        try {
+            return attachments.get(attachmentId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- Chat ---
+
+    @Override
+    public ChatMessage addChatMessage(int userId, int boardId, String content) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            requireUser(userId);
+            if (boardId != ChatMessage.GENERAL_CHANNEL && !boards.containsKey(boardId)) {
+                throw new SQLException("Board " + boardId + " does not exist", FOREIGN_KEY_VIOLATION_STATE);
+            }
+            int id = nextMessageId;
+            write(putMessage(new MessageRow(id, boardId, userId, content, LocalDateTime.now())));
+            return toChatMessage(messagesByChannel.get(boardId).get(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<ChatMessage> getChatHistory(int boardId, LocalDateTime beforeCreatedAt, int beforeMessageId, int limit) {
+        lock.readLock().lock();
+        try {
+            List<ChatMessage> history = new ArrayList<>();
+            TreeMap<Integer, MessageRow> channel = messagesByChannel.get(boardId);
+            if (channel == null) {
+                return history;
+            }
+            for (MessageRow message : channel.headMap(beforeCreatedAt != null ? beforeMessageId : Integer.MAX_VALUE, false).descendingMap().values()) {
+                if (history.size() == limit) {
+                    break;
+                }
+                history.add(toChatMessage(message));
+            }
+            Collections.reverse(history);
+            return history;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- Helpers, called with the lock held ---
+
+    private void requireUser(int userId) throws SQLException {
+        if (!users.containsKey(userId)) {
+            throw new SQLException("User " + userId + " does not exist", FOREIGN_KEY_VIOLATION_STATE);
+        }
+    }
+
+    private boolean wouldExceedLimit(int boardId, TaskStatus status, int added) {
+        BoardCounts counts = boardCounts.get(boardId);
+        Integer limit = counts == null ? null : counts.limits[status.ordinal()];
+        return limit != null && counts.counts[status.ordinal()] + added > limit;
+    }
+
+    private BoardSummary summary(int boardId) {
+        BoardCounts counts = boardCounts.get(boardId);
+        Map<TaskStatus, Integer> countMap = new EnumMap<>(TaskStatus.class);
+        Map<TaskStatus, Integer> limitMap = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus status : STATUSES) {
+            countMap.put(status, counts.counts[status.ordinal()]);
+            if (counts.limits[status.ordinal()] != null) {
+                limitMap.put(status, counts.limits[status.ordinal()]);
+            }
+        }
+        return new BoardSummary(boardId, countMap, limitMap);
+    }
+
+    private static List<Task> copiesOf(Collection<Task> tasks) {
+        List<Task> result = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            result.add(copy(task));
+        }
+        return result;
+    }
+
+    private static Task copy(Task task) {
+        return withRank(task, task.getRank());
+    }
+
+    private static Task withRank(Task task, String rank) {
+        Task copy = new Task(task.getId(), task.getTitle(), task.getDescription(), task.getStatus(), task.getBoardId(),
+                task.getUserId(), task.getAssigneeId(), task.getCreatedAt(), task.getUpdatedAt());
+        copy.setRank(rank);
+        copy.setDueAt(task.getDueAt());
+        copy.setRemindAt(task.getRemindAt());
+        return copy;
+    }
+
+    // Rank of the last task in a column, or null if it is empty
+    private String lastRank(int boardId, TaskStatus status) {
+        NavigableSet<Task> boardTasks = tasksByBoard.get(boardId);
+        if (boardTasks == null) {
+            return null;
+        }
+        Task last = boardTasks.lower(probe(status, MAX_RANK, Integer.MAX_VALUE));
+        return last != null && last.getStatus() == status ? last.getRank() : null;
+    }
+
+    // First task of a column ranked strictly after the given rank ("" for the top), skipping one task
+    private Task firstAfter(NavigableSet<Task> boardTasks, TaskStatus status, String rank, int skipTaskId) {
+        for (Task task : boardTasks.tailSet(probe(status, rank, Integer.MAX_VALUE), false)) {
+            if (task.getStatus() != status) {
+                return null;
+            }
+            if (task.getId() != skipTaskId && task.getRank().compareTo(rank) > 0) {
+                return task;
+            }
+        }
+        return null;
+    }
+
+    // A key for navigating the board index; only status, rank and ID are compared
+    private static Task probe(TaskStatus status, String rank, int id) {
+        Task probe = new Task();
+        probe.setStatus(status);
+        probe.setRank(rank);
+        probe.setId(id);
+        return probe;
+    }
+
+    private static Board copy(Board board) {
+        return new Board(board.getId(), board.getName(), board.getCreatedAt(), board.getUpdatedAt());
+    }
+
+    private static User toUser(UserRow user) {
+        return new User(user.id, user.username, user.createdAt, user.updatedAt);
+    }
+
+    private ChatMessage toChatMessage(MessageRow message) {
+        UserRow user = users.get(message.userId);
+        return new ChatMessage(message.id, message.boardId, message.userId, user != null ? user.username : "Unknown", message.content, message.createdAt);
+    }
+
+    // --- Log ---
+
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static byte[] record(byte type, RecordWriter writer) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(type);
+            writer.write(out);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // In-memory stream
+        }
+    }
+
+    private static byte[] putUser(UserRow user) {
+        return record(PUT_USER, out -> {
+            out.writeInt(user.id);
+            out.writeUTF(user.username);
+            out.writeUTF(user.password);
+            writeTime(out, user.createdAt);
+            writeTime(out, user.updatedAt);
+        });
+    }
+
+    private static byte[] putBoard(Board board) {
+        return record(PUT_BOARD, out -> {
+            out.writeInt(board.getId());
+            out.writeUTF(board.getName());
+            writeTime(out, board.getCreatedAt());
+            writeTime(out, board.getUpdatedAt());
+        });
+    }
+
+    private static byte[] putTask(Task task) {
+        return taskRecord(PUT_RANKED_TASK, task);
+    }
+
+    private static byte[] taskRecord(byte type, Task task) {
+        return record(type, out -> {
+            out.writeInt(task.getId());
+            out.writeInt(task.getBoardId());
+            out.writeInt(task.getUserId());
+            out.writeInt(task.getAssigneeId());
+            writeString(out, task.getTitle());
+            writeString(out, task.getDescription());
+            out.writeByte(task.getStatus().ordinal());
+            writeTime(out, task.getCreatedAt());
+            writeTime(out, task.getUpdatedAt());
+            writeString(out, task.getRank());
+            writeNullableTime(out, task.getDueAt());
+            writeNullableTime(out, task.getRemindAt());
+        });
+    }
+
+    private static byte[] setWipLimitRecord(int boardId, TaskStatus status, Integer limit) {
+        return record(SET_WIP_LIMIT, out -> {
+            out.writeInt(boardId);
+            out.writeByte(status.ordinal());
+            out.writeInt(limit == null ? -1 : limit);
+        });
+    }
+
+    private static byte[] putMessage(MessageRow message) {
+        return record(PUT_CHANNEL_MESSAGE, out -> {
+            out.writeInt(message.id);
+            out.writeInt(message.boardId);
+            out.writeInt(message.userId);
+            writeString(out, message.content);
+            writeTime(out, message.createdAt);
+        });
+    }
+
+    private static byte[] putAttachment(Attachment attachment) {
+        return record(PUT_ATTACHMENT, out -> {
+            out.writeInt(attachment.getId());
+            out.writeInt(attachment.getTaskId());
+            out.writeInt(attachment.getBoardId());
+            out.writeInt(attachment.getUserId());
+            writeString(out, attachment.getFileName());
+            out.writeLong(attachment.getSize());
+            out.writeUTF(attachment.getSha256());
+            writeTime(out, attachment.getCreatedAt());
+        });
+    }
+
+    private byte[] sequences() {
+        return record(SEQUENCES, out -> {
+            out.writeInt(nextUserId);
+            out.writeInt(nextBoardId);
+            out.writeInt(nextTaskId);
+            out.writeInt(nextMessageId);
+            out.writeInt(nextAttachmentId);
+            out.writeLong(changeCount);
+        });
+    }
+
+    // Appends the records to the log, then applies them; called with the write lock held
+    private void write(byte[]... records) throws SQLException {
+        try {
+            for (byte[] record : records) {
+                ByteBuffer frame = frame(record);
+                while (frame.hasRemaining()) {
+                    log.write(frame);
+                }
+            }
+            if (fsync) {
+                log.force(false);
+            }
+        } catch (IOException e) {
+            throw new SQLException("Error writing to the embedded store log", e);
+        }
+        for (byte[] record : records) {
+            apply(record);
+        }
+        changesSinceSnapshot += records.length;
+        changeCount += records.length;
+        if (changesSinceSnapshot >= snapshotEvery && !snapshotPending) {
+            snapshotPending = true;
+            snapshotter.execute(this::snapshotIfChanged);
+        }
+    }
+
+    private static ByteBuffer frame(byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        ByteBuffer frame = ByteBuffer.allocate(8 + record.length);
+        frame.putInt(record.length).putInt((int) crc.getValue()).put(record).flip();
+        return frame;
+    }
+
+    // Applies every valid record of the file and returns the length of the valid prefix; log
+    // records count as changes, snapshot records restore the count
+    private long replay(FileChannel channel, boolean countChanges) throws IOException {
+        ByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        CRC32 crc = new CRC32();
+        while (file.remaining() >= 8) {
+            int length = file.getInt(file.position());
+            int checksum = file.getInt(file.position() + 4);
+            if (length <= 0 || length > file.remaining() - 8) {
+                break;
+            }
+            byte[] record = new byte[length];
+            file.get(file.position() + 8, record);
+            crc.reset();
+            crc.update(record);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            apply(record);
+            if (countChanges) {
+                changeCount++;
+            }
+            file.position(file.position() + 8 + length);
+        }
+        return file.position();
+    }
+
+    private void apply(byte[] record) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+            switch (in.readByte()) {
+                case PUT_USER -> {
+                    UserRow user = new UserRow(in.readInt(), in.readUTF(), in.readUTF(), readTime(in), readTime(in));
+                    UserRow previous = users.put(user.id, user);
+                    if (previous != null) {
+                        usersByName.remove(previous.username);
+                        usersBySearchKey.remove(searchKey(previous));
+                    }
+                    usersByName.put(user.username, user);
+                    usersBySearchKey.put(searchKey(user), user);
+                    nextUserId = Math.max(nextUserId, user.id + 1);
+                }
+                case PUT_BOARD -> {
+                    Board board = new Board(in.readInt(), in.readUTF(), readTime(in), readTime(in));
+                    Board previous = boards.put(board.getId(), board);
+                    if (previous != null) {
+                        boardIdsByName.remove(previous.getName());
+                    }
+                    boardIdsByName.put(board.getName(), board.getId());
+                    boardCounts.computeIfAbsent(board.getId(), id -> new BoardCounts());
+                    nextBoardId = Math.max(nextBoardId, board.getId() + 1);
+                }
+                case DELETE_BOARD -> {
+                    int boardId = in.readInt();
+                    Board board = boards.remove(boardId);
+                    if (board != null) {
+                        boardIdsByName.remove(board.getName());
+                    }
+                    NavigableSet<Task> boardTasks = tasksByBoard.get(boardId);
+                    if (boardTasks != null) {
+                        for (Task task : new ArrayList<>(boardTasks)) {
+                            removeTask(task.getId());
+                        }
+                    }
+                    boardCounts.remove(boardId);
+                    messagesByChannel.remove(boardId);
+                    archivedByBoard.remove(boardId);
+                    attachments.values().removeIf(attachment -> attachment.getBoardId() == boardId);
+                    attachmentsByTask.values().removeIf(taskAttachments -> taskAttachments.firstEntry().getValue().getBoardId() == boardId);
+                }
+                case PUT_TASK, PUT_RANKED_TASK -> {
+                    Task task = readTask(in, record[0] == PUT_RANKED_TASK);
+                    int id = task.getId();
+                    removeTask(id);
+                    tasks.put(id, task);
+                    tasksByBoard.computeIfAbsent(task.getBoardId(), key -> new TreeSet<>(TASK_ORDER)).add(task);
+                    tasksByAssignee.computeIfAbsent(task.getAssigneeId(), key -> new TreeSet<>()).add(id);
+                    tasksByCreator.computeIfAbsent(task.getUserId(), key -> new TreeSet<>()).add(id);
+                    boardCounts.computeIfAbsent(task.getBoardId(), key -> new BoardCounts()).counts[task.getStatus().ordinal()]++;
+                    nextTaskId = Math.max(nextTaskId, id + 1);
+                }
+                case PUT_ARCHIVED_TASK -> {
+                    Task task = readTask(in, true);
+                    removeTask(task.getId());
+                    archivedByBoard.computeIfAbsent(task.getBoardId(), key -> new TreeMap<>()).put(task.getId(), task);
+                    nextTaskId = Math.max(nextTaskId, task.getId() + 1);
+                }
+                case DELETE_TASK -> {
+                    int taskId = in.readInt();
+                    removeTask(taskId);
+                    // Only on delete: removeTask also runs for updates and archiving
+                    TreeMap<Integer, Attachment> taskAttachments = attachmentsByTask.remove(taskId);
+                    if (taskAttachments != null) {
+                        attachments.keySet().removeAll(taskAttachments.keySet());
+                    }
+                }
+                case SET_WIP_LIMIT -> {
+                    int boardId = in.readInt();
+                    TaskStatus status = STATUSES[in.readByte()];
+                    int limit = in.readInt();
+                    boardCounts.computeIfAbsent(boardId, key -> new BoardCounts()).limits[status.ordinal()] = limit < 0 ? null : limit;
+                }
+                case PUT_MESSAGE, PUT_CHANNEL_MESSAGE -> {
+                    int id = in.readInt();
+                    int boardId = record[0] == PUT_CHANNEL_MESSAGE ? in.readInt() : ChatMessage.GENERAL_CHANNEL;
+                    MessageRow message = new MessageRow(id, boardId, in.readInt(), readString(in), readTime(in));
+                    messagesByChannel.computeIfAbsent(boardId, key -> new TreeMap<>()).put(message.id, message);
+                    nextMessageId = Math.max(nextMessageId, message.id + 1);
+                }
+                case PUT_ATTACHMENT -> {
+                    Attachment attachment = new Attachment(in.readInt(), in.readInt(), in.readInt(), in.readInt(),
+                            readString(in), in.readLong(), in.readUTF(), readTime(in));
+                    attachments.put(attachment.getId(), attachment);
+                    attachmentsByTask.computeIfAbsent(attachment.getTaskId(), key -> new TreeMap<>()).put(attachment.getId(), attachment);
+                    nextAttachmentId = Math.max(nextAttachmentId, attachment.getId() + 1);
+                }
+                case SEQUENCES -> {
+                    nextUserId = Math.max(nextUserId, in.readInt());
+                    nextBoardId = Math.max(nextBoardId, in.readInt());
+                    nextTaskId = Math.max(nextTaskId, in.readInt());
+                    nextMessageId = Math.max(nextMessageId, in.readInt());
+                    if (in.available() >= 4) { // Written since attachments were added
+                        nextAttachmentId = Math.max(nextAttachmentId, in.readInt());
+                    }
+                    if (in.available() >= 8) { // Written since warm starts were added
+                        changeCount = Math.max(changeCount, in.readLong());
+                    }
+                }
+                default -> throw new IllegalStateException("Unknown record type " + record[0]);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Malformed record", e);
+        }
+    }
+
+    private static Task readTask(DataInputStream in, boolean ranked) throws IOException {
+        int id = in.readInt();
+        int boardId = in.readInt();
+        int userId = in.readInt();
+        int assigneeId = in.readInt();
+        String title = readString(in);
+        String description = readString(in);
+        TaskStatus status = STATUSES[in.readByte()];
+        Task task = new Task(id, title, description, status, boardId, userId, assigneeId, readTime(in), readTime(in));
+        task.setRank(ranked ? readString(in) : TaskRank.forLegacyId(id));
+        if (in.available() > 0) { // Written since due dates were added
+            task.setDueAt(readNullableTime(in));
+            task.setRemindAt(readNullableTime(in));
+        }
+        return task;
+    }
+
+    private void removeTask(int taskId) {
+        Task task = tasks.remove(taskId);
+        if (task == null) {
+            return;
+        }
+        NavigableSet<Task> boardTasks = tasksByBoard.get(task.getBoardId());
+        if (boardTasks != null) {
+            boardTasks.remove(task);
+            if (boardTasks.isEmpty()) {
+                tasksByBoard.remove(task.getBoardId());
+            }
+        }
+        removeFromIndex(tasksByAssignee, task.getAssigneeId(), taskId);
+        removeFromIndex(tasksByCreator, task.getUserId(), taskId);
+        BoardCounts counts = boardCounts.get(task.getBoardId());
+        if (counts != null) {
+            counts.counts[task.getStatus().ordinal()]--;
+        }
+    }
+
+    private static void removeFromIndex(Map<Integer, NavigableSet<Integer>> index, int key, int taskId) {
+        NavigableSet<Integer> ids = index.get(key);
+        if (ids != null) {
+            ids.remove(taskId);
+            if (ids.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    // --- Snapshots ---
+
+    private void snapshotIfChanged() {
+        lock.readLock().lock();
+        try {
+            if (changesSinceSnapshot > 0) {
+                writeSnapshot();
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing embedded store snapshot: " + e.getMessage());
+        } finally {
+            snapshotPending = false;
+            lock.readLock().unlock();
+        }
+    }
+
+    // Writes the state as records to a new snapshot, replaces the old one and starts a new log
+    private void writeSnapshot() throws IOException {
+        long start = System.nanoTime();
+        Path tempFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (FileChannel snapshot = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            List<byte[]> records = new ArrayList<>();
+            records.add(sequences());
+            users.values().forEach(user -> records.add(putUser(user)));
+            boards.values().forEach(board -> records.add(putBoard(board)));
+            boardCounts.forEach((boardId, counts) -> {
+                for (TaskStatus status : STATUSES) {
+                    if (counts.limits[status.ordinal()] != null) {
+                        records.add(setWipLimitRecord(boardId, status, counts.limits[status.ordinal()]));
+                    }
+                }
+            });
+            tasks.values().forEach(task -> records.add(putTask(task)));
+            messagesByChannel.values().forEach(channel -> channel.values().forEach(message -> records.add(putMessage(message))));
+            archivedByBoard.values().forEach(archived -> archived.values().forEach(task -> records.add(taskRecord(PUT_ARCHIVED_TASK, task))));
+            attachments.values().forEach(attachment -> records.add(putAttachment(attachment)));
+
+            ByteBuffer[] frames = new ByteBuffer[records.size()];
+            for (int i = 0; i < frames.length; i++) {
+                frames[i] = frame(records.get(i));
+            }
+            long remaining = 0;
+            for (ByteBuffer frame : frames) {
+                remaining += frame.remaining();
+            }
+            while (remaining > 0) {
+                remaining -= snapshot.write(frames);
+            }
+            snapshot.force(true);
+        }
+        Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.truncate(0);
+        log.position(0);
+        changesSinceSnapshot = 0;
+        System.out.println("Embedded store snapshot written in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms.");
+    }
+
+    private static void writeTime(DataOutputStream out, LocalDateTime time) throws IOException {
+        out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(time.getNano());
+    }
+
+    private static LocalDateTime readTime(DataInputStream in) throws IOException {
+        return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+    }
+
+    private static void writeNullableTime(DataOutputStream out, LocalDateTime time) throws IOException {
+        out.writeBoolean(time != null);
+        if (time != null) {
+            writeTime(out, time);
+        }
+    }
+
+    private static LocalDateTime readNullableTime(DataInputStream in) throws IOException {
+        return in.readBoolean() ? readTime(in) : null;
+    }
+
+    // writeUTF is limited to 64 KB, so longer strings (descriptions, chat) are written as UTF-8 bytes
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Pages through tasks ordered by board, then status and rank, like the PostgreSQL export. Each
+     * chunk is read under the read lock and the next one resumes after the key of the last task
+     * returned, so only one chunk is held in memory and writers wait for one chunk at most. Unlike
+     * the cursor, this is not a snapshot: a task moved during the export may be missed or repeated.
+     */
+    private class PagedTaskStream implements TaskStream {
+
+        private final int boardId; // -1 for all boards
+        private final long totalCount;
+        private Integer currentBoardId; // Null once exhausted
+        private Task lastKey; // Null before the first task of the current board
+
+        PagedTaskStream(int boardId, long totalCount) {
+            this.boardId = boardId;
+            this.totalCount = totalCount;
+            this.currentBoardId = boardId != -1 ? Integer.valueOf(boardId) : boards.isEmpty() ? null : boards.firstKey();
+        }
+
+        @Override
+        public long getTotalCount() {
+            return totalCount;
+        }
+
+        @Override
+        public List<Task> next(int maxTasks) {
+            List<Task> chunk = new ArrayList<>(Math.min(maxTasks, 1024));
+            lock.readLock().lock();
+            try {
+                while (currentBoardId != null && chunk.size() < maxTasks) {
+                    NavigableSet<Task> boardTasks = tasksByBoard.getOrDefault(currentBoardId, Collections.emptyNavigableSet());
+                    for (Task task : lastKey == null ? boardTasks : boardTasks.tailSet(lastKey, false)) {
+                        if (chunk.size() == maxTasks) {
+                            break;
+                        }
+                        chunk.add(copy(task));
+                        lastKey = probe(task.getStatus(), task.getRank(), task.getId());
+                    }
+                    if (chunk.size() < maxTasks) { // The board is done
+                        currentBoardId = boardId == -1 ? boards.higherKey(currentBoardId) : null;
+                        lastKey = null;
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            return chunk;
+        }
+
+        @Override
+        public void close() {
+            currentBoardId = null;
+        }
+    }
+
+    /**
+     * Stages parsed CSV rows in memory; on commit, rows are validated the same way as the
+     * PostgreSQL import and the valid ones are written to the log at once.
+     */
+    private class EmbeddedTaskImport implements TaskImport {
+
+        private final int boardId;
+        private final int userId;
+        private final List<String[]> rows = new ArrayList<>();
+
+        EmbeddedTaskImport(int boardId, int userId) {
+            this.boardId = boardId;
+            this.userId = userId;
+        }
+
+        @Override
+        public long stage(String csvRows) throws SQLException {
+            long staged = 0;
+            try (CsvReader reader = new CsvReader(new StringReader(csvRows))) {
+                String[] row;
+                while ((row = reader.readRecord()) != null) {
+                    rows.add(row);
+                    staged++;
+                }
+            } catch (IOException e) {
+                throw new SQLException("Error staging imported tasks: " + e.getMessage(), e);
+            }
+            return staged;
+        }
+
+        @Override
+        public Map<TaskStatus, Integer> commit() throws SQLException {
+            lock.writeLock().lock();
+            try {
+                Map<TaskStatus, Integer> importedByStatus = new EnumMap<>(TaskStatus.class);
+                List<byte[]> records = new ArrayList<>();
+                LocalDateTime now = LocalDateTime.now();
+                int id = nextTaskId;
+                Map<TaskStatus, String> lastRanks = new EnumMap<>(TaskStatus.class);
+                for (String[] row : rows) {
+                    Task task = validate(row, id, now);
+                    if (task != null) {
+                        // Appended to the end of the column, in file order
+                        String rank = TaskRank.after(lastRanks.containsKey(task.getStatus())
+                                ? lastRanks.get(task.getStatus()) : lastRank(boardId, task.getStatus()));
+                        task.setRank(rank);
+                        lastRanks.put(task.getStatus(), rank);
+                        records.add(putTask(task));
+                        importedByStatus.merge(task.getStatus(), 1, Integer::sum);
+                        id++;
+                    }
+                }
+                if (records.isEmpty()) {
+                    return importedByStatus;
+                }
+                if (!boards.containsKey(boardId)) {
+                    throw new SQLException("Board " + boardId + " does not exist", FOREIGN_KEY_VIOLATION_STATE);
+                }
+                for (Map.Entry<TaskStatus, Integer> entry : importedByStatus.entrySet()) {
+                    if (wouldExceedLimit(boardId, entry.getKey(), entry.getValue())) {
+                        throw new SQLException("Import would exceed the WIP limit of "
+                                + boardCounts.get(boardId).limits[entry.getKey().ordinal()] + " for "
+                                + entry.getKey().toString().replace('_', ' ') + ".", WIP_LIMIT_STATE);
+                    }
+                }
+                write(records.toArray(new byte[0][]));
+                return importedByStatus;
+            } finally {
+                rows.clear();
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public void abort() {
+            rows.clear();
+        }
+
+        // Returns null for rows the PostgreSQL import would skip
+        private Task validate(String[] row, int id, LocalDateTime now) {
+            String title = field(row, 0);
+            String description = field(row, 1);
+            String status = field(row, 2);
+            String createdBy = field(row, 3);
+            String assignedTo = field(row, 4);
+            if (title.isBlank() || title.length() > 100 || description.length() > 500) {
+                return null;
+            }
+            TaskStatus taskStatus = null;
+            for (TaskStatus candidate : STATUSES) {
+                if (candidate.name().equals(status.isEmpty() ? TaskStatus.TO_DO.name() : status)) {
+                    taskStatus = candidate;
+                }
+            }
+            UserRow creator = usersByName.get(createdBy);
+            UserRow assignee = usersByName.get(assignedTo);
+            if (taskStatus == null || (!createdBy.isEmpty() && creator == null) || (!assignedTo.isEmpty() && assignee == null)) {
+                return null;
+            }
+            return new Task(id, title, description.isEmpty() ? null : description, taskStatus, boardId,
+                    creator != null ? creator.id : userId, assignee != null ? assignee.id : 0, now, now);
+        }
+
+        private String field(String[] row, int index) {
+            return index < row.length ? row[index] : "";
+        }
+    }
+}
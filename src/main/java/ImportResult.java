@@ -0,0 +1,22 @@
+import java.io.Serializable;
+
+public class ImportResult implements Serializable {
+    private final long importedCount;
+    private final long rejectedCount;
+
+    public ImportResult(long importedCount, long rejectedCount) {
+        this.importedCount = importedCount;
+        this.rejectedCount = rejectedCount;
+    }
+
+    public long getImportedCount() { return importedCount; }
+    public long getRejectedCount() { return rejectedCount; }
+
+    @Override
+    public String toString() {
+        return "ImportResult{" +
+                "importedCount=" + importedCount +
+                ", rejectedCount=" + rejectedCount +
+                '}';
+    }
+}
@@ -0,0 +1,72 @@
+import javax.swing.BorderFactory;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.border.TitledBorder;
+import java.awt.GridLayout;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+
+/**
+ * Board view with one {@link KanbanLaneView} per {@link TaskStatus}. Dragging a card within a
+ * lane or onto another lane hands the task ID, the target status and the card it was dropped
+ * after to the drop handler.
+ */
+public class KanbanBoardPanel extends JPanel {
+
+    private final Map<TaskStatus, KanbanLaneView> lanes = new EnumMap<>(TaskStatus.class);
+    private final Map<TaskStatus, TitledBorder> laneBorders = new EnumMap<>(TaskStatus.class);
+    private BoardSummary summary;
+
+    public KanbanBoardPanel(IntFunction<String> userNames, IntPredicate pendingTasks, KanbanLaneView.DropHandler dropHandler) {
+        super(new GridLayout(1, TaskStatus.values().length, 5, 0));
+
+        for (TaskStatus status : TaskStatus.values()) {
+            KanbanLaneView lane = new KanbanLaneView(status, userNames, pendingTasks, dropHandler);
+            JScrollPane scrollPane = new JScrollPane(lane);
+            TitledBorder border = BorderFactory.createTitledBorder(laneTitle(status, 0, null));
+            scrollPane.setBorder(border);
+            lanes.put(status, lane);
+            laneBorders.put(status, border);
+            add(scrollPane);
+        }
+    }
+
+    // Splits the board's tasks into lanes, keeping the server (rank) order within each lane
+    public void setTasks(List<Task> tasks) {
+        Map<TaskStatus, List<Task>> byStatus = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus status : TaskStatus.values()) {
+            byStatus.put(status, new ArrayList<>());
+        }
+        for (Task task : tasks) {
+            byStatus.get(task.getStatus()).add(task);
+        }
+        for (TaskStatus status : TaskStatus.values()) {
+            lanes.get(status).setTasks(byStatus.get(status));
+        }
+        updateTitles();
+    }
+
+    // Counts and WIP limits pushed by the server; shown in the lane titles
+    public void setSummary(BoardSummary summary) {
+        this.summary = summary;
+        updateTitles();
+    }
+
+    private void updateTitles() {
+        for (TaskStatus status : TaskStatus.values()) {
+            int count = summary != null ? summary.getCount(status) : lanes.get(status).getTaskCount();
+            Integer wipLimit = summary != null ? summary.getWipLimit(status) : null;
+            laneBorders.get(status).setTitle(laneTitle(status, count, wipLimit));
+        }
+        repaint();
+    }
+
+    private static String laneTitle(TaskStatus status, int count, Integer wipLimit) {
+        String name = status.toString().replace('_', ' ');
+        return wipLimit == null ? name + " (" + count + ")" : name + " (" + count + "/" + wipLimit + ")";
+    }
+}
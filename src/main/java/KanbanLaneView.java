@@ -0,0 +1,292 @@
+import javax.swing.JComponent;
+import javax.swing.Scrollable;
+import javax.swing.SwingConstants;
+import javax.swing.TransferHandler;
+import javax.swing.UIManager;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.Transferable;
+import java.awt.datatransfer.UnsupportedFlavorException;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+
+/**
+ * A single Kanban column. All cards of the lane are painted by this one component: only the
+ * cards intersecting the clip rectangle are painted, so the cost of a repaint depends on the
+ * viewport height and not on the number of tasks in the lane.
+ */
+public class KanbanLaneView extends JComponent implements Scrollable {
+
+    // Gets the dropped task, the lane's status and the task it was dropped after (0 for the top)
+    public interface DropHandler {
+        void taskDropped(int taskId, TaskStatus status, int afterTaskId);
+    }
+
+    private static final int CARD_HEIGHT = 56;
+    private static final int CARD_GAP = 6;
+    private static final int ROW_HEIGHT = CARD_HEIGHT + CARD_GAP;
+    private static final int PADDING = 6;
+    // JVM-local, so text dropped from other applications (e.g. "12") is not taken for a task ID
+    private static final DataFlavor TASK_FLAVOR = taskFlavor();
+
+    private final TaskStatus status;
+    private final IntFunction<String> userNames;
+    private final IntPredicate pendingTasks; // Changed locally, not confirmed by the server yet
+    private final DropHandler dropHandler;
+    private List<Task> tasks = new ArrayList<>();
+    private int selectedIndex = -1;
+
+    public KanbanLaneView(TaskStatus status, IntFunction<String> userNames, IntPredicate pendingTasks, DropHandler dropHandler) {
+        this.status = status;
+        this.userNames = userNames;
+        this.pendingTasks = pendingTasks;
+        this.dropHandler = dropHandler;
+        setOpaque(true);
+        setBackground(UIManager.getColor("Panel.background"));
+        setTransferHandler(new CardTransferHandler());
+
+        MouseAdapter mouseHandler = new MouseAdapter() {
+            private int pressedIndex = -1;
+
+            @Override
+            public void mousePressed(MouseEvent e) {
+                pressedIndex = indexAt(e.getY());
+                setSelectedIndex(pressedIndex);
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (pressedIndex != -1) {
+                    getTransferHandler().exportAsDrag(KanbanLaneView.this, e, TransferHandler.MOVE);
+                    pressedIndex = -1;
+                }
+            }
+        };
+        addMouseListener(mouseHandler);
+        addMouseMotionListener(mouseHandler);
+    }
+
+    public TaskStatus getStatus() {
+        return status;
+    }
+
+    public int getTaskCount() {
+        return tasks.size();
+    }
+
+    // Replaces the lane content; only a revalidate (not a re-layout of children) is needed
+    public void setTasks(List<Task> tasks) {
+        this.tasks = tasks;
+        if (selectedIndex >= tasks.size()) {
+            selectedIndex = -1;
+        }
+        revalidate();
+        repaint();
+    }
+
+    private void setSelectedIndex(int index) {
+        if (index == selectedIndex) {
+            return;
+        }
+        repaintCard(selectedIndex);
+        selectedIndex = index;
+        repaintCard(selectedIndex);
+    }
+
+    private int indexAt(int y) {
+        int index = (y - PADDING) / ROW_HEIGHT;
+        if (y < PADDING || index >= tasks.size()) {
+            return -1;
+        }
+        // Clicks in the gap between cards do not select anything
+        return (y - PADDING) % ROW_HEIGHT < CARD_HEIGHT ? index : -1;
+    }
+
+    // Slot between cards nearest to y: 0 is above the first card, tasks.size() below the last
+    private int insertionIndexAt(int y) {
+        int index = (y - PADDING + ROW_HEIGHT / 2) / ROW_HEIGHT;
+        return Math.max(0, Math.min(tasks.size(), index));
+    }
+
+    private void repaintCard(int index) {
+        if (index >= 0) {
+            repaint(0, PADDING + index * ROW_HEIGHT, getWidth(), CARD_HEIGHT);
+        }
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(200, PADDING * 2 + tasks.size() * ROW_HEIGHT);
+    }
+
+    @Override
+    protected void paintComponent(Graphics graphics) {
+        Graphics2D g = (Graphics2D) graphics;
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        // Only the cards that intersect the clip are painted
+        int first = Math.max(0, (clip.y - PADDING) / ROW_HEIGHT);
+        int last = Math.min(tasks.size() - 1, (clip.y + clip.height - PADDING) / ROW_HEIGHT);
+        FontMetrics fm = g.getFontMetrics();
+        int cardWidth = getWidth() - PADDING * 2;
+
+        for (int i = first; i <= last; i++) {
+            Task task = tasks.get(i);
+            int y = PADDING + i * ROW_HEIGHT;
+
+            g.setColor(i == selectedIndex ? UIManager.getColor("List.selectionBackground") : Color.WHITE);
+            g.fillRoundRect(PADDING, y, cardWidth, CARD_HEIGHT, 8, 8);
+            g.setColor(StatusCellRenderer.backgroundFor(status));
+            g.fillRect(PADDING, y + 4, 4, CARD_HEIGHT - 8);
+            g.setColor(Color.GRAY);
+            g.drawRoundRect(PADDING, y, cardWidth, CARD_HEIGHT, 8, 8);
+
+            int textX = PADDING + 12;
+            int textWidth = cardWidth - 18;
+            boolean pending = pendingTasks.test(task.getId());
+            g.setColor(i == selectedIndex ? UIManager.getColor("List.selectionForeground") : pending ? Color.GRAY : Color.BLACK);
+            g.drawString(clipText("#" + task.getId() + " " + task.getTitle(), fm, textWidth), textX, y + 6 + fm.getAscent());
+            String details = "Assigned to: " + userNames.apply(task.getAssigneeId());
+            boolean overdue = false;
+            if (task.getDueAt() != null) {
+                details = "Due " + task.getDueAt().format(ClientGUI.DUE_DATE_FORMATTER) + " - " + details;
+                overdue = status != TaskStatus.DONE && task.getDueAt().isBefore(LocalDateTime.now());
+            }
+            g.setColor(overdue ? Color.RED.darker() : Color.DARK_GRAY);
+            g.drawString(clipText(details, fm, textWidth), textX, y + 10 + fm.getAscent() + fm.getHeight());
+        }
+    }
+
+    private static String clipText(String text, FontMetrics fm, int width) {
+        if (text == null || fm.stringWidth(text) <= width) {
+            return text == null ? "" : text;
+        }
+        int ellipsisWidth = fm.stringWidth("...");
+        int end = text.length();
+        while (end > 0 && fm.stringWidth(text.substring(0, end)) + ellipsisWidth > width) {
+            end--;
+        }
+        return text.substring(0, end) + "...";
+    }
+
+    // --- Scrollable: scroll by whole cards ---
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return new Dimension(200, ROW_HEIGHT * 8);
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? ROW_HEIGHT : 16;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return true;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+
+    private static DataFlavor taskFlavor() {
+        try {
+            return new DataFlavor(DataFlavor.javaJVMLocalObjectMimeType + ";class=java.lang.Integer");
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // The ID of a dragged card, only offered in TASK_FLAVOR
+    private record TaskTransferable(int taskId) implements Transferable {
+        @Override
+        public DataFlavor[] getTransferDataFlavors() {
+            return new DataFlavor[]{TASK_FLAVOR};
+        }
+
+        @Override
+        public boolean isDataFlavorSupported(DataFlavor flavor) {
+            return TASK_FLAVOR.equals(flavor);
+        }
+
+        @Override
+        public Object getTransferData(DataFlavor flavor) throws UnsupportedFlavorException {
+            if (!isDataFlavorSupported(flavor)) {
+                throw new UnsupportedFlavorException(flavor);
+            }
+            return taskId;
+        }
+    }
+
+    // Transfers the task ID; the drop position decides where the task goes in this lane
+    private class CardTransferHandler extends TransferHandler {
+        @Override
+        public int getSourceActions(JComponent c) {
+            return MOVE;
+        }
+
+        @Override
+        protected Transferable createTransferable(JComponent c) {
+            if (selectedIndex < 0 || selectedIndex >= tasks.size()) {
+                return null;
+            }
+            return new TaskTransferable(tasks.get(selectedIndex).getId());
+        }
+
+        @Override
+        public boolean canImport(TransferSupport support) {
+            return support.isDataFlavorSupported(TASK_FLAVOR);
+        }
+
+        @Override
+        public boolean importData(TransferSupport support) {
+            try {
+                int taskId = (Integer) support.getTransferable().getTransferData(TASK_FLAVOR);
+                int slot = support.isDrop() ? insertionIndexAt(support.getDropLocation().getDropPoint().y) : tasks.size();
+                // The card before the slot, not counting the dragged card itself
+                int after = slot - 1;
+                if (after >= 0 && tasks.get(after).getId() == taskId) {
+                    after--;
+                }
+                int current = -1;
+                for (int i = 0; i < tasks.size(); i++) {
+                    if (tasks.get(i).getId() == taskId) {
+                        current = i;
+                    }
+                }
+                if (current != -1 && after == current - 1) {
+                    return false; // Dropped where it already is
+                }
+                dropHandler.taskDropped(taskId, status, after >= 0 ? tasks.get(after).getId() : 0);
+                return true;
+            } catch (Exception e) {
+                System.err.println("Failed to import dropped task: " + e.getMessage());
+                return false;
+            }
+        }
+    }
+}
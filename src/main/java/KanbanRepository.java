@@ -0,0 +1,105 @@
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistence behind {@link KanbanServiceImpl}. The service keeps validation, caching and
+ * notifications; a repository only stores and queries. Two implementations exist:
+ * {@link PostgresKanbanRepository} and {@link EmbeddedKanbanRepository}, which needs no
+ * external process. Server picks one with the planny.storage property (postgres or embedded).
+ *
+ * Errors are reported as SQLException for both, with PostgreSQL's SQL states where the service
+ * tells them apart: 23505 for a duplicate name, 23503 for an unknown user or board, and
+ * {@link #WIP_LIMIT_STATE} when a change would exceed a WIP limit.
+ */
+public interface KanbanRepository {
+
+    String UNIQUE_VIOLATION_STATE = "23505";
+    String FOREIGN_KEY_VIOLATION_STATE = "23503";
+    String WIP_LIMIT_STATE = "23514";
+
+    // A task after a change, with the status and assignee it had before
+    record TaskChange(Task task, TaskStatus previousStatus, int previousAssigneeId) {}
+
+    // Forward-only stream of tasks, read in chunks
+    interface TaskStream extends AutoCloseable {
+        long getTotalCount();
+
+        // Returns an empty list once exhausted
+        List<Task> next(int maxTasks) throws SQLException;
+
+        @Override
+        void close();
+    }
+
+    // Bulk import: rows are staged, then validated and inserted at once on commit
+    interface TaskImport {
+        // Stages CSV rows (title, description, status, created by, assigned to); returns the number staged
+        long stage(String csvRows) throws SQLException;
+
+        // Inserts the valid staged rows and returns the number imported per status
+        Map<TaskStatus, Integer> commit() throws SQLException;
+
+        void abort();
+    }
+
+    // The error for a change rejected by a WIP limit; its message is shown to the user
+    static SQLException wipLimitReached(Integer limit, TaskStatus status) {
+        return new SQLException("WIP limit of " + limit + " reached for " + status.toString().replace('_', ' ') + ".", WIP_LIMIT_STATE);
+    }
+
+    User authenticateUser(String username, String password) throws SQLException;
+    User createUser(String username, String password) throws SQLException;
+    List<User> getUsers() throws SQLException;
+    List<User> getUsersById(int[] userIds) throws SQLException; // Unknown IDs are left out
+    List<User> searchUsers(String prefix, int limit) throws SQLException; // Case-insensitive username prefix, by name
+
+    List<Board> getBoards() throws SQLException;
+    Board createBoard(String name) throws SQLException; // Also creates the board's status counters
+    boolean updateBoard(int boardId, String name) throws SQLException;
+    boolean deleteBoard(int boardId) throws SQLException;
+
+    Map<Integer, BoardSummary> getBoardSummaries() throws SQLException;
+    boolean setWipLimit(int boardId, TaskStatus status, Integer limit) throws SQLException;
+
+    Task getTask(int taskId) throws SQLException; // Null if not found
+    List<Task> getTasks(int boardId) throws SQLException; // Ordered by status, then rank
+    List<Task> getUserTasks(int userId, boolean includeCreated, int afterTaskId, int limit) throws SQLException;
+    TaskStream streamTasks(int boardId) throws SQLException; // boardId -1 streams all boards
+    TaskImport beginImport(int boardId, int userId) throws SQLException;
+
+    // Returns null if the board does not exist; WIP_LIMIT_STATE if the status is at its WIP limit
+    Task createTask(int boardId, int userId, int assigneeId, String title, String description, TaskStatus status) throws SQLException;
+    TaskChange moveTask(int taskId, TaskStatus newStatus) throws SQLException; // Null if not found; keeps the rank
+    // Puts the task right after afterTaskId (0 for the top) in the status column; only the moved
+    // task's rank changes. Null if not found; FOREIGN_KEY_VIOLATION_STATE if the anchor is not in that column.
+    TaskChange reorderTask(int taskId, TaskStatus status, int afterTaskId) throws SQLException;
+    int rebalanceRanks(int boardId, TaskStatus status) throws SQLException; // Evenly respaces a column's ranks
+    TaskChange updateTask(int taskId, int assigneeId, String title, String description, TaskStatus status) throws SQLException;
+    Task deleteTask(int taskId) throws SQLException; // Null if not found
+
+    // Sets or clears (null) the due date and the reminder; null if not found
+    TaskChange setTaskSchedule(int taskId, LocalDateTime dueAt, LocalDateTime remindAt) throws SQLException;
+    // Tasks with a reminder that was not sent yet, by ID after afterTaskId
+    List<Task> getTasksWithReminders(int afterTaskId, int limit) throws SQLException;
+    // Clears the reminder if it is still set to remindAt and returns the task; null if it changed or the task is gone
+    Task takeReminder(int taskId, LocalDateTime remindAt) throws SQLException;
+
+    // Moves up to limit tasks that are DONE and unchanged since before doneBefore to the archive; returns them
+    List<Task> archiveDoneTasks(LocalDateTime doneBefore, int limit) throws SQLException;
+    // Archived tasks of a board, newest (highest ID) first, below beforeTaskId (0 for the newest)
+    List<Task> getArchivedTasks(int boardId, int beforeTaskId, int limit) throws SQLException;
+
+    // Null if the task does not exist (archived tasks keep their attachments but get no new ones)
+    Attachment addAttachment(int taskId, int userId, String fileName, long size, String sha256) throws SQLException;
+    List<Attachment> getAttachments(int taskId) throws SQLException; // Oldest first
+    Attachment getAttachment(int attachmentId) throws SQLException; // Null if not found
+
+    ChatMessage addChatMessage(int userId, int boardId, String content) throws SQLException;
+    // The latest messages of a channel before the given message, oldest first; all if beforeCreatedAt is null
+    List<ChatMessage> getChatHistory(int boardId, LocalDateTime beforeCreatedAt, int beforeMessageId, int limit) throws SQLException;
+
+    // Identifies the store and its write position: equal stamps mean nothing was written in between
+    String changeStamp() throws SQLException;
+}
@@ -1,27 +1,63 @@
 import java.rmi.Remote;
 import java.rmi.RemoteException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface KanbanService extends Remote {
 
+    // A stub of this service for the caller alone, so its calls are rate limited per session
+    // rather than per host; see AdmissionControlledService
+    KanbanService openSession() throws RemoteException;
+
     User authenticateUser(String username, String password) throws RemoteException;
     boolean createUser(String username, String password) throws RemoteException;
     List<User> getUsers() throws RemoteException;
+    // Batched lookup for client-side caches; at most KanbanServiceImpl.MAX_USER_BATCH IDs, unknown IDs are left out
+    List<User> getUsersById(int[] userIds) throws RemoteException;
+    // Users whose name starts with the prefix (case-insensitive), by name; for assignee pickers
+    List<User> searchUsers(String prefix, int limit) throws RemoteException;
 
     List<Board> getBoards() throws RemoteException;
     Board createBoard(String name) throws RemoteException;
 
     List<Task> getTasks(int boardId) throws RemoteException;
     List<Task> getTasksByBoard(int boardId) throws RemoteException;
-    void createTask(int boardId, int user_id, int assignee_id, String title, String description, TaskStatus status) throws RemoteException;
-    void moveTask(int taskId, TaskStatus newStatus) throws RemoteException;
-    void deleteTask(int taskId) throws RemoteException;
-    void updateTask(int taskId, int assignee_id, String title, String description, TaskStatus status) throws RemoteException;
+    TaskListPayload getBoardTasks(int boardId) throws RemoteException; // Cached, shared by all clients
+    // Null if the caller's revision (from a payload of the given epoch) is still current
+    TaskListPayload getBoardTasksIfChanged(int boardId, long epoch, long revision) throws RemoteException;
+    List<Task> getUserTasks(int userId, boolean includeCreated, int afterTaskId, int limit) throws RemoteException;
+    // DONE tasks moved out of the board by the archiver, newest first; beforeTaskId 0 for the first page
+    List<Task> getArchivedTasks(int boardId, int beforeTaskId, int limit) throws RemoteException;
+    TaskCursor exportTasks(int boardId) throws RemoteException; // boardId -1 exports all boards
+    TaskImportSession importTasks(int boardId, int userId) throws RemoteException;
+    // Attachments, oldest first; contents are sent in chunks of Attachment.CHUNK_SIZE bytes and stored once per SHA-256
+    List<Attachment> getAttachments(int taskId) throws RemoteException;
+    // Attaches a file the server already stores, by its SHA-256, without sending it; null if it is not stored
+    Attachment attachStoredFile(int taskId, int userId, String fileName, String sha256) throws RemoteException;
+    AttachmentUpload uploadAttachment(int taskId, int userId, String fileName, long size) throws RemoteException;
+    AttachmentDownload downloadAttachment(int attachmentId) throws RemoteException;
+    // Task mutations return the stored task and the board revision of the change, so clients can
+    // apply their own changes without reloading the board when the change is announced
+    TaskMutationResult createTask(int boardId, int user_id, int assignee_id, String title, String description, TaskStatus status) throws RemoteException;
+    TaskMutationResult moveTask(int taskId, TaskStatus newStatus) throws RemoteException;
+    // Moves the task right after afterTaskId (0 for the top) in the status column, which may be another one
+    TaskMutationResult reorderTask(int taskId, TaskStatus status, int afterTaskId) throws RemoteException;
+    TaskMutationResult deleteTask(int taskId) throws RemoteException; // Returns the task as it was
+    TaskMutationResult updateTask(int taskId, int assignee_id, String title, String description, TaskStatus status) throws RemoteException;
+    // Sets or clears (null) the due date, and when the assignee is reminded of the task
+    TaskMutationResult setTaskDueDate(int taskId, LocalDateTime dueAt, LocalDateTime remindAt) throws RemoteException;
+    BoardSummary getBoardSummary(int boardId) throws RemoteException;
+    void setWipLimit(int boardId, TaskStatus status, Integer limit) throws RemoteException; // null removes the limit
     void updateBoard(int boardId, String name) throws RemoteException;
     void deleteBoard(int boardId) throws RemoteException;
-    void sendMessage(int userId, String content) throws RemoteException;
-    List<ChatMessage> getChatHistory() throws RemoteException;
+    // Chat channels: a board ID, or ChatMessage.GENERAL_CHANNEL
+    void sendMessage(int userId, int boardId, String content) throws RemoteException;
+    List<ChatMessage> getChatHistory(int boardId, LocalDateTime beforeCreatedAt, int beforeMessageId, int limit) throws RemoteException; // Oldest first; before the given message, or the latest if beforeCreatedAt is null
+    void subscribeChat(ClientListener listener, int boardId) throws RemoteException;
+    void unsubscribeChat(ClientListener listener, int boardId) throws RemoteException;
     void registerListener(ClientListener listener) throws RemoteException;
     void unregisterListener(ClientListener listener) throws RemoteException;
+    void subscribeUserTasks(ClientListener listener, int userId) throws RemoteException;
+    void ping() throws RemoteException; // Lets clients notice a lost connection while idle
 
 }
@@ -1,38 +1,63 @@
-import java.rmi.server.UnicastRemoteObject;
+import java.io.IOException;
 import java.rmi.RemoteException;
-import java.sql.*;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
 
-public class KanbanServiceImpl extends UnicastRemoteObject implements KanbanService {
+// Not exported itself: the server exports it wrapped in an AdmissionControlledService
+public class KanbanServiceImpl implements KanbanService {
     private List<ClientListener> listeners = new CopyOnWriteArrayList<>();
+    private final KanbanRepository repository;
+    private final BoardStatusCounters statusCounters = new BoardStatusCounters();
+    private final BoardTaskListCache taskListCache = new BoardTaskListCache();
+    private final Map<Integer, Set<ClientListener>> userTaskListeners = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<ClientListener>> chatSubscribers = new ConcurrentHashMap<>(); // By channel
+    private static final int MAX_CHAT_PAGE = 200;
+    private final ChatHistoryCache chatHistory = new ChatHistoryCache(MAX_CHAT_PAGE);
+    static final int MAX_USER_BATCH = 500;
+    static final int MAX_USER_SEARCH = 50;
+    private final StatusJournal statusJournal; // Null unless write-behind moves are enabled
+    private final TaskRankRebalancer rankRebalancer;
+    private final BlobStore blobStore = BlobStore.open(); // Attachment contents
+    private final ReminderScheduler reminders = new ReminderScheduler(this::deliverReminder);
+
+    protected KanbanServiceImpl(KanbanRepository repository, StatusJournal statusJournal) throws RemoteException {
+        this.repository = repository;
+        this.statusJournal = statusJournal;
+        // Respacing ranks keeps the order, so clients are not notified; only cached lists are stale
+        this.rankRebalancer = new TaskRankRebalancer(repository, taskListCache::invalidate);
+        try {
+            statusCounters.loadAll(repository);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RemoteException("Error loading board status counters", e);
+        }
+        try {
+            reminders.loadAll(repository);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RemoteException("Error loading task reminders", e);
+        }
+        reminders.start();
+    }
 
-    protected KanbanServiceImpl() throws RemoteException {
-        super();
+    // Sessions only scope admission control, so the AdmissionControlledService answers this itself
+    @Override
+    public KanbanService openSession() throws RemoteException {
+        throw new RemoteException("Sessions are opened by admission control");
     }
+
     @Override
     public User authenticateUser(String username, String password) throws RemoteException {
-        String sql = "SELECT id, username, created_at, updated_at FROM users WHERE username = ? AND password = ?";
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, username);
-            stmt.setString(2, password);
-            ResultSet rs = stmt.executeQuery();
-
-            if (rs.next()) {
-                return new User(
-                        rs.getInt("id"),
-                        rs.getString("username"),
-                        rs.getTimestamp("created_at").toLocalDateTime(),
-                        rs.getTimestamp("updated_at").toLocalDateTime()
-                );
-            } else {
-                return null;
-            }
-
+        try {
+            return repository.authenticateUser(username, password);
         } catch (SQLException e) {
             e.printStackTrace();
             throw new RemoteException("Error during authentication", e);
@@ -46,18 +71,13 @@ public class KanbanServiceImpl extends UnicastRemoteObject implements KanbanServ
             throw new RemoteException("Username and password cannot be empty.");
         }
 
-        String sql = "INSERT INTO users (username, password) VALUES (?, ?)";
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, username.trim());
-            stmt.setString(2, password);
-            int affectedRows = stmt.executeUpdate();
-            return affectedRows > 0; // Return true if insertion was successful
-
+        try {
+            User user = repository.createUser(username.trim(), password);
+            notifyUserDirectoryChanged(user);
+            return true;
         } catch (SQLException e) {
-            // Check for unique constraint violation (PostgreSQL specific code '23505')
-            if ("23505".equals(e.getSQLState())) {
+            // Check for unique constraint violation
+            if (KanbanRepository.UNIQUE_VIOLATION_STATE.equals(e.getSQLState())) {
                 System.out.println("Attempt to create user with existing username: " + username);
                 return false; // Username already exists
             } else {
@@ -69,25 +89,35 @@ public class KanbanServiceImpl extends UnicastRemoteObject implements KanbanServ
 
     @Override
     public List<User> getUsers() throws RemoteException {
-        List<User> users = new ArrayList<>();
-        String sql = "SELECT id, username, created_at, updated_at FROM users ORDER BY username";
-        try (Connection conn = DatabaseManager.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                users.add(new User(
-                        rs.getInt("id"),
-                        rs.getString("username"),
-                        rs.getTimestamp("created_at").toLocalDateTime(),
-                        rs.getTimestamp("updated_at").toLocalDateTime()
-                ));
-            }
+        try {
+            return repository.getUsers();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RemoteException("Error fetching users", e);
+        }
+    }
+
+    @Override
+    public List<User> searchUsers(String prefix, int limit) throws RemoteException {
+        try {
+            return repository.searchUsers(prefix == null ? "" : prefix.trim(), Math.max(1, Math.min(limit, MAX_USER_SEARCH)));
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RemoteException("Error searching users", e);
+        }
+    }
+
+    @Override
+    public List<User> getUsersById(int[] userIds) throws RemoteException {
+        if (userIds.length > MAX_USER_BATCH) {
+            throw new RemoteException("At most " + MAX_USER_BATCH + " users can be looked up at once.");
+        }
+        try {
+            return repository.getUsersById(userIds);
         } catch (SQLException e) {
             e.printStackTrace();
             throw new RemoteException("Error fetching users", e);
         }
-        return users;
     }
 
 
@@ -105,50 +135,63 @@ public class KanbanServiceImpl extends UnicastRemoteObject implements KanbanServ
         if (removed) {
             System.out.println("Listener unregistered: " + listener);
         }
+        removeUserTaskListener(listener);
+        removeChatSubscriber(listener);
     }
 
+    @Override
+    public void ping() {
+        // Reaching the server is the answer
+    }
 
     @Override
-    public List<Board> getBoards() throws RemoteException {
-        List<Board> boards = new ArrayList<>();
-        try (Connection conn = DatabaseManager.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT * FROM boards ORDER BY id")) {
+    public void subscribeUserTasks(ClientListener listener, int userId) throws RemoteException {
+        userTaskListeners.computeIfAbsent(userId, id -> new CopyOnWriteArraySet<>()).add(listener);
+    }
 
-            while (rs.next()) {
-                boards.add(new Board(
-                        rs.getInt("id"),
-                        rs.getString("name"),
-                        rs.getTimestamp("created_at").toLocalDateTime(),
-                        rs.getTimestamp("updated_at").toLocalDateTime()
-                ));
-            }
+    @Override
+    public void subscribeChat(ClientListener listener, int boardId) throws RemoteException {
+        chatSubscribers.computeIfAbsent(boardId, id -> new CopyOnWriteArraySet<>()).add(listener);
+    }
+
+    @Override
+    public void unsubscribeChat(ClientListener listener, int boardId) throws RemoteException {
+        Set<ClientListener> subscribers = chatSubscribers.get(boardId);
+        if (subscribers != null) {
+            subscribers.remove(listener);
+        }
+    }
+
+    private void removeChatSubscriber(ClientListener listener) {
+        for (Set<ClientListener> subscribers : chatSubscribers.values()) {
+            subscribers.remove(listener);
+        }
+    }
+
+    private void removeUserTaskListener(ClientListener listener) {
+        for (Set<ClientListener> subscribers : userTaskListeners.values()) {
+            subscribers.remove(listener);
+        }
+    }
 
+
+    @Override
+    public List<Board> getBoards() throws RemoteException {
+        try {
+            return repository.getBoards();
         } catch (SQLException e) {
             e.printStackTrace();
             throw new RemoteException("Error fetching boards", e);
         }
-        return boards;
     }
 
     @Override
     public Board createBoard(String name) throws RemoteException {
-        String sql = "INSERT INTO boards (name) VALUES (?) RETURNING id, created_at, updated_at";
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, name);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                int id = rs.getInt("id");
-                LocalDateTime createdAt = rs.getTimestamp("created_at").toLocalDateTime();
-                LocalDateTime updatedAt = rs.getTimestamp("updated_at").toLocalDateTime();
-                notifyBoardListChanged();
-                return new Board(id, name, createdAt, updatedAt);
-            } else {
-                throw new RemoteException("Failed to create board");
-            }
-
+        try {
+            Board board = repository.createBoard(name);
+            statusCounters.addBoard(board.getId());
+            notifyBoardListChanged();
+            return board;
         } catch (SQLException e) {
             e.printStackTrace();
             throw new RemoteException("Error creating board", e);
@@ -157,69 +200,155 @@ public class KanbanServiceImpl extends UnicastRemoteObject implements KanbanServ
 
     @Override
     public List<Task> getTasks(int boardId) throws RemoteException {
-        List<Task> tasks = new ArrayList<>();
-        String sql = "SELECT * FROM tasks WHERE board_id = ? ORDER BY id";
+        try {
+            List<Task> tasks = repository.getTasks(boardId);
+            tasks.forEach(this::withJournaledStatus);
+            return tasks;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RemoteException("Error fetching tasks", e);
+        }
+    }
+
+    @Override
+    public List<Task> getTasksByBoard(int boardId) throws RemoteException {
+        return getTasks(boardId);
+    }
 
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+    @Override
+    public TaskListPayload getBoardTasks(int boardId) throws RemoteException {
+        return taskListCache.get(boardId, () -> getTasks(boardId));
+    }
 
-            stmt.setInt(1, boardId);
-            ResultSet rs = stmt.executeQuery();
+    @Override
+    public TaskListPayload getBoardTasksIfChanged(int boardId, long epoch, long revision) throws RemoteException {
+        return taskListCache.isCurrent(boardId, epoch, revision) ? null : getBoardTasks(boardId);
+    }
 
-            while (rs.next()) {
-                tasks.add(new Task(
-                        rs.getInt("id"),
-                        rs.getString("title"),
-                        rs.getString("description"),
-                        TaskStatus.valueOf(rs.getString("status")),
-                        rs.getInt("board_id"),
-                        rs.getInt("user_id"),
-                        rs.getInt("assignee_id"),
-                        rs.getTimestamp("created_at").toLocalDateTime(),
-                        rs.getTimestamp("updated_at").toLocalDateTime()
-                ));
-            }
+    @Override
+    public List<Task> getUserTasks(int userId, boolean includeCreated, int afterTaskId, int limit) throws RemoteException {
+        int pageSize = Math.max(1, Math.min(limit, 500));
+        try {
+            List<Task> tasks = repository.getUserTasks(userId, includeCreated, afterTaskId, pageSize);
+            tasks.forEach(this::withJournaledStatus);
+            return tasks;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RemoteException("Error fetching user tasks", e);
+        }
+    }
+
+    @Override
+    public TaskCursor exportTasks(int boardId) throws RemoteException {
+        return new TaskCursorImpl(repository, boardId, this::withJournaledStatus);
+    }
 
+    @Override
+    public TaskImportSession importTasks(int boardId, int userId) throws RemoteException {
+        return new TaskImportSessionImpl(this, repository, boardId, userId);
+    }
+
+    @Override
+    public List<Attachment> getAttachments(int taskId) throws RemoteException {
+        try {
+            return repository.getAttachments(taskId);
         } catch (SQLException e) {
             e.printStackTrace();
-            throw new RemoteException("Error fetching tasks", e);
+            throw new RemoteException("Error fetching attachments", e);
         }
-        return tasks;
     }
 
     @Override
-    public List<Task> getTasksByBoard(int boardId) throws RemoteException {
-        return getTasks(boardId);
+    public Attachment attachStoredFile(int taskId, int userId, String fileName, String sha256) throws RemoteException {
+        String name = validAttachmentName(fileName);
+        if (!BlobStore.isValidHash(sha256)) {
+            throw new RemoteException("Invalid file hash.");
+        }
+        try {
+            long size = blobStore.size(sha256);
+            if (size < 0) {
+                return null; // Not stored: the client uploads it
+            }
+            Attachment attachment = repository.addAttachment(taskId, userId, name, size, sha256);
+            if (attachment == null) {
+                throw new RemoteException("Task " + taskId + " does not exist.");
+            }
+            return attachment;
+        } catch (IOException | SQLException e) {
+            e.printStackTrace();
+            throw new RemoteException("Error attaching file", e);
+        }
     }
 
     @Override
-    public void createTask(int boardId, int user_id, int assignee_id, String title, String description, TaskStatus status) throws RemoteException {
-        String sql = """
-                INSERT INTO tasks (board_id, user_id, assignee_id, title, description, status)
-                VALUES (?, ?, ?, ?, ?, ?::task_status)
-                RETURNING id, created_at, updated_at
-            """;
+    public AttachmentUpload uploadAttachment(int taskId, int userId, String fileName, long size) throws RemoteException {
+        try {
+            if (repository.getTask(taskId) == null) {
+                throw new RemoteException("Task " + taskId + " does not exist."); // Before the client sends the file
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RemoteException("Error fetching task", e);
+        }
+        return new AttachmentUploadImpl(repository, blobStore, taskId, userId, validAttachmentName(fileName), size);
+    }
 
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+    @Override
+    public AttachmentDownload downloadAttachment(int attachmentId) throws RemoteException {
+        Attachment attachment;
+        try {
+            attachment = repository.getAttachment(attachmentId);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RemoteException("Error fetching attachment", e);
+        }
+        if (attachment == null) {
+            throw new RemoteException("Attachment " + attachmentId + " does not exist.");
+        }
+        return new AttachmentDownloadImpl(blobStore, attachment);
+    }
 
-            stmt.setInt(1, boardId);
-            stmt.setInt(2, user_id);
-            stmt.setInt(3, assignee_id);
-            stmt.setString(4, title);
-            stmt.setString(5, description);
-            stmt.setString(6, status.name());
-            ResultSet rs = stmt.executeQuery();
+    // The last path element of the client's file name, which must fit the file_name column
+    private static String validAttachmentName(String fileName) throws RemoteException {
+        String name = fileName == null ? "" : fileName.substring(Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf('\\')) + 1).trim();
+        if (name.isEmpty() || name.length() > 255) {
+            throw new RemoteException("File names must have 1 to 255 characters.");
+        }
+        return name;
+    }
+
+    // Called once by an import session after its rows were committed
+    void notifyTasksImported(int boardId, Map<TaskStatus, Integer> importedByStatus) {
+        importedByStatus.forEach((status, count) -> statusCounters.apply(boardId, status, count));
+        // Imported ranks are suffixed to the column's last rank, so they are always long
+        importedByStatus.keySet().forEach(status -> rankRebalancer.request(boardId, status));
+        notifyTaskUpdate(boardId);
+    }
+
+    @Override
+    public TaskMutationResult createTask(int boardId, int user_id, int assignee_id, String title, String description, TaskStatus status) throws RemoteException {
+        if (statusCounters.wouldExceedLimit(boardId, status, 1)) {
+            throw new RemoteException(wipLimitMessage(boardId, status));
+        }
 
-            if (rs.next()) {
-                notifyTaskUpdate(boardId);
+        try {
+            Task task = repository.createTask(boardId, user_id, assignee_id, title, description, status);
+            if (task != null) {
+                statusCounters.apply(boardId, status, 1);
+                requestRebalanceIfNeeded(task);
+                long revision = notifyTaskUpdate(boardId);
+                notifyUserTaskChanged(task, false, task.getUserId(), task.getAssigneeId());
+                return new TaskMutationResult(task, revision);
             } else {
-                throw new RemoteException("Failed to create task");
+                throw new RemoteException("Failed to create task: board not found");
             }
 
         } catch (SQLException e) {
+            if (KanbanRepository.WIP_LIMIT_STATE.equals(e.getSQLState())) {
+                throw new RemoteException(e.getMessage());
+            }
             e.printStackTrace();
-            if (e.getSQLState().startsWith("23")) { // Foreign key or other constraint violation
+            if (e.getSQLState() != null && e.getSQLState().startsWith("23")) { // Foreign key or other constraint violation
                 throw new RemoteException("Error creating task: Invalid user or board reference.", e);
             }
             throw new RemoteException("Error creating task", e);
@@ -227,43 +356,135 @@ public class KanbanServiceImpl extends UnicastRemoteObject implements KanbanServ
     }
 
     @Override
-    public void moveTask(int taskId, TaskStatus newStatus) throws RemoteException {
-        String sql = "UPDATE tasks SET status = ?::task_status, updated_at = CURRENT_TIMESTAMP WHERE id = ? RETURNING board_id";
-
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+    public TaskMutationResult moveTask(int taskId, TaskStatus newStatus) throws RemoteException {
+        if (statusJournal != null) {
+            return moveTaskWriteBehind(taskId, newStatus);
+        }
 
-            stmt.setString(1, newStatus.name());
-            stmt.setInt(2, taskId);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                int boardId = rs.getInt("board_id");
-                notifyTaskUpdate(boardId);
-            } else {
+        try {
+            KanbanRepository.TaskChange change = repository.moveTask(taskId, newStatus);
+            if (change == null) {
                 throw new RemoteException("Failed to move task");
             }
+            Task moved = change.task();
+            statusCounters.apply(moved.getBoardId(), change.previousStatus(), -1);
+            statusCounters.apply(moved.getBoardId(), newStatus, 1);
+            long revision = notifyTaskUpdate(moved.getBoardId());
+            notifyUserTaskChanged(moved, false, moved.getUserId(), moved.getAssigneeId());
+            return new TaskMutationResult(moved, revision);
 
         } catch (SQLException e) {
+            if (KanbanRepository.WIP_LIMIT_STATE.equals(e.getSQLState())) {
+                throw new RemoteException(e.getMessage());
+            }
             e.printStackTrace();
             throw new RemoteException("Error moving task", e);
         }
     }
 
     @Override
-    public void deleteTask(int taskId) throws RemoteException {
-        String sql = "DELETE FROM tasks WHERE id = ? RETURNING board_id";
+    public TaskMutationResult reorderTask(int taskId, TaskStatus status, int afterTaskId) throws RemoteException {
+        try {
+            KanbanRepository.TaskChange change = withoutPendingMoves(() ->
+                    applyStatusChange(repository.reorderTask(taskId, status, afterTaskId), status));
+            if (change == null) {
+                throw new RemoteException("Failed to reorder task");
+            }
+            Task reordered = change.task();
+            requestRebalanceIfNeeded(reordered);
+            long revision = notifyTaskUpdate(reordered.getBoardId());
+            if (change.previousStatus() != status) {
+                notifyUserTaskChanged(reordered, false, reordered.getUserId(), reordered.getAssigneeId());
+            }
+            return new TaskMutationResult(reordered, revision);
 
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        } catch (SQLException e) {
+            if (KanbanRepository.WIP_LIMIT_STATE.equals(e.getSQLState())) {
+                throw new RemoteException(e.getMessage());
+            }
+            if (KanbanRepository.FOREIGN_KEY_VIOLATION_STATE.equals(e.getSQLState())) {
+                throw new RemoteException("The board changed meanwhile; reload and try again.");
+            }
+            e.printStackTrace();
+            throw new RemoteException("Error reordering task", e);
+        }
+    }
 
-            stmt.setInt(1, taskId);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                int boardId = rs.getInt("board_id");
-                notifyTaskUpdate(boardId);
-            } else {
+    private void requestRebalanceIfNeeded(Task task) {
+        if (TaskRank.needsRebalance(task.getRank())) {
+            rankRebalancer.request(task.getBoardId(), task.getStatus());
+        }
+    }
+
+    // Journals the move and acknowledges it once durable; the database is updated by the journal's flusher
+    private TaskMutationResult moveTaskWriteBehind(int taskId, TaskStatus newStatus) throws RemoteException {
+        try {
+            LocalDateTime movedAt = LocalDateTime.now();
+            while (true) {
+                long generation = statusJournal.generation();
+                Task task = repository.getTask(taskId);
+                if (task == null) {
+                    throw new RemoteException("Failed to move task");
+                }
+                long seq = statusJournal.append(generation, taskId, task.getStatus(), newStatus, movedAt, previousStatus -> {
+                    if (previousStatus != newStatus && statusCounters.wouldExceedLimit(task.getBoardId(), newStatus, 1)) {
+                        throw new RemoteException(wipLimitMessage(task.getBoardId(), newStatus));
+                    }
+                    statusCounters.apply(task.getBoardId(), previousStatus, -1);
+                    statusCounters.apply(task.getBoardId(), newStatus, 1);
+                });
+                if (seq < 0) {
+                    continue; // Moves were applied while the task was read; read it again
+                }
+
+                task.setStatus(newStatus);
+                task.setUpdatedAt(movedAt);
+                long revision = notifyTaskUpdate(task.getBoardId());
+                notifyUserTaskChanged(task, false, task.getUserId(), task.getAssigneeId());
+                return new TaskMutationResult(task, revision);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RemoteException("Error moving task", e);
+        }
+    }
+
+    private Task withJournaledStatus(Task task) {
+        return statusJournal != null ? statusJournal.overlay(task) : task;
+    }
+
+    // Runs a synchronous write with journaled moves applied and new ones held back, so neither
+    // overwrites the other and the status counters the write updates stay in step with the moves
+    private <T> T withoutPendingMoves(StatusJournal.SynchronousWrite<T> write) throws SQLException {
+        return statusJournal != null ? statusJournal.exclusively(write) : write.run();
+    }
+
+    private KanbanRepository.TaskChange applyStatusChange(KanbanRepository.TaskChange change, TaskStatus status) {
+        if (change != null) {
+            statusCounters.apply(change.task().getBoardId(), change.previousStatus(), -1);
+            statusCounters.apply(change.task().getBoardId(), status, 1);
+        }
+        return change;
+    }
+
+    @Override
+    public TaskMutationResult deleteTask(int taskId) throws RemoteException {
+        try {
+            Task deleted = withoutPendingMoves(() -> {
+                Task task = repository.deleteTask(taskId);
+                if (task != null) {
+                    statusCounters.apply(task.getBoardId(), task.getStatus(), -1);
+                }
+                return task;
+            });
+            if (deleted == null) {
                 throw new RemoteException("Failed to delete task");
             }
+            int boardId = deleted.getBoardId();
+            reminders.cancel(taskId);
+            long revision = notifyTaskUpdate(boardId);
+            notifyUserTaskChanged(deleted, true, deleted.getUserId(), deleted.getAssigneeId());
+            return new TaskMutationResult(deleted, revision);
 
         } catch (SQLException e) {
             e.printStackTrace();
@@ -272,45 +493,152 @@ public class KanbanServiceImpl extends UnicastRemoteObject implements KanbanServ
     }
 
     @Override
-    public void updateTask(int taskId, int assignee_id, String title, String description, TaskStatus status) throws RemoteException {
-        String sql = """
-                UPDATE tasks
-                SET title = ?, assignee_id = ?, description = ?, status = ?::task_status, updated_at = CURRENT_TIMESTAMP
-                WHERE id = ? RETURNING board_id
-            """;
-
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, title);
-            stmt.setInt(2, assignee_id);
-            stmt.setString(3, description);
-            stmt.setString(4, status.name());
-            stmt.setInt(5, taskId);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                int boardId = rs.getInt("board_id");
-                notifyTaskUpdate(boardId);
-            } else {
+    public TaskMutationResult updateTask(int taskId, int assignee_id, String title, String description, TaskStatus status) throws RemoteException {
+        try {
+            KanbanRepository.TaskChange change = withoutPendingMoves(() ->
+                    applyStatusChange(repository.updateTask(taskId, assignee_id, title, description, status), status));
+            if (change == null) {
                 throw new RemoteException("Failed to update task");
             }
+            Task updated = change.task();
+            long revision = notifyTaskUpdate(updated.getBoardId());
+            // The previous assignee is told too, so the task leaves their "My tasks" view
+            notifyUserTaskChanged(updated, false, updated.getUserId(), updated.getAssigneeId(), change.previousAssigneeId());
+            return new TaskMutationResult(updated, revision);
 
         } catch (SQLException e) {
+            if (KanbanRepository.WIP_LIMIT_STATE.equals(e.getSQLState())) {
+                throw new RemoteException(e.getMessage());
+            }
             e.printStackTrace();
             throw new RemoteException("Error updating task", e);
         }
     }
 
+    @Override
+    public TaskMutationResult setTaskDueDate(int taskId, LocalDateTime dueAt, LocalDateTime remindAt) throws RemoteException {
+        try {
+            KanbanRepository.TaskChange change = withoutPendingMoves(() -> repository.setTaskSchedule(taskId, dueAt, remindAt));
+            if (change == null) {
+                throw new RemoteException("Failed to set due date");
+            }
+            Task updated = withJournaledStatus(change.task());
+            reminders.schedule(taskId, remindAt);
+            long revision = notifyTaskUpdate(updated.getBoardId());
+            notifyUserTaskChanged(updated, false, updated.getUserId(), updated.getAssigneeId());
+            return new TaskMutationResult(updated, revision);
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RemoteException("Error setting due date", e);
+        }
+    }
+
+    // Runs on the reminder delivery thread. The reminder is cleared first, so it is sent once,
+    // even if the assignee is not connected.
+    private void deliverReminder(ReminderScheduler.Reminder reminder) {
+        Task task;
+        try {
+            task = repository.takeReminder(reminder.taskId(), reminder.remindAt());
+            if (task == null) {
+                // Deleted, or the reminder was changed meanwhile. The database write and the wheel
+                // update of setTaskDueDate are not atomic, so concurrent changes may have left the
+                // wheel with an older time; the stored one is the one to send.
+                Task current = repository.getTask(reminder.taskId());
+                if (current != null && current.getRemindAt() != null) {
+                    reminders.schedule(current.getId(), current.getRemindAt());
+                }
+                return;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error sending the reminder for task " + reminder.taskId() + ": " + e.getMessage());
+            reminders.retryLater(reminder);
+            return;
+        }
+        // Only cached lists show the cleared reminder; not worth a reload by every client
+        taskListCache.invalidate(task.getBoardId());
+        task = withJournaledStatus(task);
+        Set<ClientListener> subscribers = userTaskListeners.get(task.getAssigneeId());
+        if (task.getStatus() == TaskStatus.DONE || subscribers == null) {
+            return;
+        }
+        for (ClientListener listener : subscribers) {
+            try {
+                listener.onTaskReminder(task);
+            } catch (RemoteException e) {
+                System.err.println("Failed to notify listener " + listener + " about reminder: " + e.getMessage());
+                listeners.remove(listener);
+                removeUserTaskListener(listener);
+                System.out.println("Removed unresponsive listener: " + listener);
+            } catch (Exception e) {
+                System.err.println("Error during reminder callback for " + listener + ": " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // Called by the TaskArchiver for each batch; returns the number of tasks archived
+    int archiveDoneTasks(LocalDateTime doneBefore, int limit) throws SQLException {
+        Map<Integer, Integer> archivedByBoard = new HashMap<>();
+        // Journaled moves may still change what is DONE
+        List<Task> archived = withoutPendingMoves(() -> {
+            List<Task> tasks = repository.archiveDoneTasks(doneBefore, limit);
+            for (Task task : tasks) {
+                archivedByBoard.merge(task.getBoardId(), 1, Integer::sum);
+            }
+            archivedByBoard.forEach((boardId, count) -> statusCounters.apply(boardId, TaskStatus.DONE, -count));
+            return tasks;
+        });
+        for (Task task : archived) {
+            reminders.cancel(task.getId());
+            notifyUserTaskChanged(task, true, task.getUserId(), task.getAssigneeId());
+        }
+        archivedByBoard.keySet().forEach(this::notifyTaskUpdate);
+        return archived.size();
+    }
+
+    @Override
+    public List<Task> getArchivedTasks(int boardId, int beforeTaskId, int limit) throws RemoteException {
+        try {
+            return repository.getArchivedTasks(boardId, beforeTaskId, Math.max(1, Math.min(limit, 500)));
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RemoteException("Error fetching archived tasks", e);
+        }
+    }
+
+    @Override
+    public BoardSummary getBoardSummary(int boardId) throws RemoteException {
+        return statusCounters.summary(boardId);
+    }
+
+    @Override
+    public void setWipLimit(int boardId, TaskStatus status, Integer limit) throws RemoteException {
+        if (limit != null && limit < 0) {
+            throw new RemoteException("WIP limit cannot be negative.");
+        }
+        try {
+            if (!repository.setWipLimit(boardId, status, limit)) {
+                throw new RemoteException("Board not found.");
+            }
+            statusCounters.setLimit(boardId, status, limit);
+            notifyTaskUpdate(boardId);
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RemoteException("Error setting WIP limit", e);
+        }
+    }
+
+    private String wipLimitMessage(int boardId, TaskStatus status) {
+        return "WIP limit of " + statusCounters.summary(boardId).getWipLimit(status) + " reached for "
+                + status.toString().replace('_', ' ') + ".";
+    }
+
     @Override
     public void updateBoard(int boardId, String newName) throws RemoteException {
-        String sql = "UPDATE boards SET name = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, newName);
-            stmt.setInt(2, boardId);
-            int affectedRows = stmt.executeUpdate();
-            if (affectedRows == 0) {
+        try {
+            if (!repository.updateBoard(boardId, newName)) {
                 throw new RemoteException("Board not found or name could not be updated.");
             }
 
@@ -319,7 +647,7 @@ public class KanbanServiceImpl extends UnicastRemoteObject implements KanbanServ
         } catch (SQLException e) {
             e.printStackTrace();
             // Check for unique constraint violation (if the name must be unique)
-            if (e.getSQLState().equals("23505")) { // PostgresSQL unique violation code
+            if (KanbanRepository.UNIQUE_VIOLATION_STATE.equals(e.getSQLState())) {
                 throw new RemoteException("Board name '" + newName + "' already exists.", e);
             }
             throw new RemoteException("Error updating board name", e);
@@ -328,15 +656,13 @@ public class KanbanServiceImpl extends UnicastRemoteObject implements KanbanServ
 
     @Override
     public void deleteBoard(int boardId) throws RemoteException {
-        String sql = "DELETE FROM boards WHERE id = ? RETURNING id";
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, boardId);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                int deletedBoardId = rs.getInt("id");
-                System.out.println("Deleted board with ID: " + deletedBoardId);
+        try {
+            if (repository.deleteBoard(boardId)) {
+                System.out.println("Deleted board with ID: " + boardId);
+                statusCounters.removeBoard(boardId);
+                taskListCache.removeBoard(boardId);
+                chatSubscribers.remove(boardId);
+                chatHistory.removeChannel(boardId);
                 // Notify listeners about the deletion
                 notifyBoardListChanged();
             } else {
@@ -349,13 +675,19 @@ public class KanbanServiceImpl extends UnicastRemoteObject implements KanbanServ
         }
     }
 
-    private void notifyTaskUpdate(int boardId) {
+    // Returns the board revision of the change, which is sent along so clients can recognize their own changes
+    private long notifyTaskUpdate(int boardId) {
         System.out.println("Notifying " + listeners.size() + " listeners about update for board " + boardId);
+        BoardSummary summary = statusCounters.summary(boardId);
+        // Reads of the board must stick to the primary before the new revision can be cached, or a
+        // request in between could cache a lagging replica's list under it
+        DatabaseManager.markBoardWritten(boardId);
+        long revision = taskListCache.invalidate(boardId);
         // Iterate over the thread-safe list
         for (ClientListener listener : listeners) {
             try {
                 System.out.println("Notifying listener: " + listener);
-                listener.onTasksUpdated(boardId);
+                listener.onTasksUpdated(boardId, revision, summary);
             } catch (RemoteException e) {
                 // Handle potential communication errors with a specific listener
                 System.err.println("Failed to notify listener " + listener + ": " + e.getMessage());
@@ -370,6 +702,47 @@ public class KanbanServiceImpl extends UnicastRemoteObject implements KanbanServ
                 // listeners.remove(listener);
             }
         }
+        return revision;
+    }
+
+    // Sends the task only to the listeners of the users it concerns (creator, assignee, previous assignee)
+    private void notifyUserTaskChanged(Task task, boolean removed, int... userIds) {
+        Set<ClientListener> targets = new HashSet<>();
+        for (int userId : userIds) {
+            Set<ClientListener> subscribers = userTaskListeners.get(userId);
+            if (subscribers != null) {
+                targets.addAll(subscribers);
+            }
+        }
+        for (ClientListener listener : targets) {
+            try {
+                listener.onUserTaskChanged(task, removed);
+            } catch (RemoteException e) {
+                System.err.println("Failed to notify listener " + listener + " about user task: " + e.getMessage());
+                listeners.remove(listener);
+                removeUserTaskListener(listener);
+                System.out.println("Removed unresponsive listener: " + listener);
+            } catch (Exception e) {
+                System.err.println("Error during user task listener callback for " + listener + ": " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // Clients cache user names on demand; this lets them pick up new and changed users
+    private void notifyUserDirectoryChanged(User user) {
+        for (ClientListener listener : listeners) {
+            try {
+                listener.onUserDirectoryChanged(user);
+            } catch (RemoteException e) {
+                System.err.println("Failed to notify listener " + listener + " about user change: " + e.getMessage());
+                listeners.remove(listener);
+                System.out.println("Removed unresponsive listener: " + listener);
+            } catch (Exception e) {
+                System.err.println("Error during user change listener callback for " + listener + ": " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
     }
 
     private void notifyBoardListChanged() {
@@ -390,106 +763,81 @@ public class KanbanServiceImpl extends UnicastRemoteObject implements KanbanServ
     }
 
     @Override
-    public void sendMessage(int userId, String content) throws RemoteException {
-        String sqlInsert = "INSERT INTO messages (user_id, content) VALUES (?, ?) RETURNING message_id, created_at";
-        String sqlSelectUser = "SELECT username FROM users WHERE id = ?";
-        ChatMessage newMessage = null;
-
-        try (Connection conn = DatabaseManager.getConnection()) {
-            // Start transaction
-            conn.setAutoCommit(false);
-
-            try (PreparedStatement stmtInsert = conn.prepareStatement(sqlInsert);
-                 PreparedStatement stmtSelectUser = conn.prepareStatement(sqlSelectUser)) {
-
-                // Insert the message
-                stmtInsert.setInt(1, userId);
-                stmtInsert.setString(2, content);
-                ResultSet rsInsert = stmtInsert.executeQuery();
-
-                int messageId = -1;
-                LocalDateTime createdAt = null;
-                if (rsInsert.next()) {
-                    messageId = rsInsert.getInt("message_id");
-                    createdAt = rsInsert.getTimestamp("created_at").toLocalDateTime();
-                } else {
-                    throw new SQLException("Failed to insert message, no ID obtained.");
-                }
-
-                // Get the username
-                stmtSelectUser.setInt(1, userId);
-                ResultSet rsUser = stmtSelectUser.executeQuery();
-                String username = "Unknown"; // Default if user not found (shouldn't happen with FK)
-                if (rsUser.next()) {
-                    username = rsUser.getString("username");
-                }
-
-                // Create the ChatMessage object
-                newMessage = new ChatMessage(messageId, userId, username, content, createdAt);
-
-                // Commit transaction
-                conn.commit();
-
-            } catch (SQLException e) {
-                conn.rollback(); // Rollback on error
-                e.printStackTrace();
-                throw new RemoteException("Error sending message", e);
-            } finally {
-                conn.setAutoCommit(true); // Restore default auto-commit behavior
-            }
-
+    public void sendMessage(int userId, int boardId, String content) throws RemoteException {
+        ChatMessage newMessage;
+        try {
+            newMessage = repository.addChatMessage(userId, boardId, content);
         } catch (SQLException e) {
             e.printStackTrace();
-            throw new RemoteException("Database connection error while sending message", e);
+            if (KanbanRepository.FOREIGN_KEY_VIOLATION_STATE.equals(e.getSQLState())) {
+                throw new RemoteException("Board or user no longer exists.", e);
+            }
+            throw new RemoteException("Error sending message", e);
         }
 
-        // Notify listeners only if the message was successfully created and committed
-        if (newMessage != null) {
-            notifyChatListeners(newMessage);
-        }
+        // Notify the channel only once the message was stored
+        chatHistory.add(newMessage);
+        notifyChatListeners(newMessage);
     }
 
     @Override
-    public List<ChatMessage> getChatHistory() throws RemoteException {
-        List<ChatMessage> history = new ArrayList<>();
-        // Join messages with users to get the username
-        String sql = """
-            SELECT m.message_id, m.user_id, u.username, m.content, m.created_at
-            FROM messages m
-            JOIN users u ON m.user_id = u.id
-            ORDER BY m.created_at ASC
-            LIMIT 100
-        """; // Added LIMIT to prevent loading excessive history
-
-        try (Connection conn = DatabaseManager.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+    public List<ChatMessage> getChatHistory(int boardId, LocalDateTime beforeCreatedAt, int beforeMessageId, int limit) throws RemoteException {
+        int pageSize = Math.max(1, Math.min(limit, MAX_CHAT_PAGE));
+        if (beforeCreatedAt == null) {
+            return chatHistory.latest(boardId, pageSize, () -> loadChatHistory(boardId, null, 0, MAX_CHAT_PAGE));
+        }
+        return loadChatHistory(boardId, beforeCreatedAt, beforeMessageId, pageSize);
+    }
 
-            while (rs.next()) {
-                history.add(new ChatMessage(
-                        rs.getInt("message_id"),
-                        rs.getInt("user_id"),
-                        rs.getString("username"),
-                        rs.getString("content"),
-                        rs.getTimestamp("created_at").toLocalDateTime()
-                ));
-            }
+    private List<ChatMessage> loadChatHistory(int boardId, LocalDateTime beforeCreatedAt, int beforeMessageId, int limit) throws RemoteException {
+        try {
+            return repository.getChatHistory(boardId, beforeCreatedAt, beforeMessageId, limit);
         } catch (SQLException e) {
             e.printStackTrace();
             throw new RemoteException("Error fetching chat history", e);
         }
-        return history;
     }
 
+    // Restores the caches saved at the last shutdown; only before the service is exported
+    void restoreWarmStart(WarmStart.State state) {
+        taskListCache.restore(state.tasks());
+        chatHistory.restore(state.chat());
+        System.out.println("Warm start: " + state.tasks().payloads().size() + " board task lists and "
+                + state.chat().size() + " chat channels restored.");
+    }
+
+    /**
+     * Saves the caches for the next start, once calls have stopped (see {@link AdmissionController#drain}).
+     * Background work that already wrote may not have announced its change yet, so this waits
+     * settleMillis and gives up if the repository or the cached task lists changed meanwhile.
+     */
+    boolean saveWarmStart(WarmStart warmStart, long settleMillis) throws SQLException, IOException, InterruptedException {
+        long invalidations = taskListCache.invalidationCount();
+        String changeStamp = repository.changeStamp();
+        Thread.sleep(settleMillis);
+        WarmStart.State state = new WarmStart.State(changeStamp, taskListCache.snapshot(), chatHistory.snapshot());
+        if (invalidations != taskListCache.invalidationCount() || !changeStamp.equals(repository.changeStamp())) {
+            return false;
+        }
+        warmStart.save(state);
+        return true;
+    }
+
+    // Only the subscribers of the message's channel receive it
     private void notifyChatListeners(ChatMessage message) {
-        System.out.println("Notifying " + listeners.size() + " listeners about new chat message.");
-        for (ClientListener listener : listeners) {
+        Set<ClientListener> subscribers = chatSubscribers.get(message.getBoardId());
+        if (subscribers == null) {
+            return;
+        }
+        System.out.println("Notifying " + subscribers.size() + " listeners about new chat message in channel " + message.getBoardId());
+        for (ClientListener listener : subscribers) {
             try {
-                System.out.println("Notifying listener about chat: " + listener);
                 listener.onChatMessageReceived(message); // Send the whole object
             } catch (RemoteException e) {
                 System.err.println("Failed to notify listener " + listener + " about chat: " + e.getMessage());
                 listeners.remove(listener);
+                removeUserTaskListener(listener);
+                removeChatSubscriber(listener);
                 System.out.println("Removed unresponsive listener: " + listener);
             } catch (Exception e) {
                 System.err.println("Error during chat listener callback for " + listener + ": " + e.getMessage());
@@ -0,0 +1,78 @@
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram in the style of HdrHistogram: values (in microseconds) are kept in
+ * log-linear buckets with 64 sub-buckets per power of two, which bounds the relative error of
+ * any reported percentile to under 2% while using a fixed amount of memory.
+ */
+public class LatencyHistogram {
+
+    private static final int LINEAR_LIMIT = 128;
+    private static final int SUB_BUCKETS = 64;
+    private static final int BUCKET_COUNT = LINEAR_LIMIT + 58 * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+
+    public void recordNanos(long nanos) {
+        long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+        counts.incrementAndGet(indexFor(micros));
+        totalCount.increment();
+        totalMicros.add(micros);
+    }
+
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    public double getMeanMicros() {
+        long count = totalCount.sum();
+        return count == 0 ? 0 : (double) totalMicros.sum() / count;
+    }
+
+    // Returns the upper bound (in microseconds) of the bucket containing the given percentile
+    public long percentileMicros(double percentile) {
+        long count = totalCount.sum();
+        if (count == 0) {
+            return 0;
+        }
+        long threshold = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= threshold) {
+                return upperBoundOf(i);
+            }
+        }
+        return upperBoundOf(BUCKET_COUNT - 1);
+    }
+
+    public String summary() {
+        return String.format("count=%d mean=%.2fms p50=%.2fms p90=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms",
+                getCount(), getMeanMicros() / 1000.0,
+                percentileMicros(50) / 1000.0, percentileMicros(90) / 1000.0,
+                percentileMicros(99) / 1000.0, percentileMicros(99.9) / 1000.0,
+                percentileMicros(100) / 1000.0);
+    }
+
+    private static int indexFor(long micros) {
+        if (micros < LINEAR_LIMIT) {
+            return (int) micros;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - 6; // Keeps 7 significant bits: 64..127
+        int subBucket = (int) (micros >>> shift) - SUB_BUCKETS;
+        return Math.min(BUCKET_COUNT - 1, LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + subBucket);
+    }
+
+    private static long upperBoundOf(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = (index - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+        long subBucket = (index - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,260 @@
+import java.rmi.Naming;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load generator that simulates many ClientGUI users against a running Server. Every simulated
+ * user runs on its own virtual thread: it opens a session, creates/authenticates its account,
+ * registers a headless {@link SimulatedClient} listener and then runs a weighted mix of operations
+ * until the test ends. Setup calls rejected by admission control are retried; users whose setup
+ * fails otherwise sit the test out and are counted in the report.
+ *
+ * Configured with system properties (defaults in brackets):
+ * planny.loadtest.url [rmi://localhost/KanbanService], planny.loadtest.users [500],
+ * planny.loadtest.boards [10], planny.loadtest.durationSeconds [60], planny.loadtest.thinkMillis [100],
+ * planny.loadtest.mix [getTasks=60,moveTask=25,createTask=10,sendMessage=5].
+ *
+ * The server's admission control limits calls per session, so each simulated user gets the
+ * budget of a real client; raise planny.admission.* on the server to measure beyond it.
+ */
+public class LoadTest {
+
+    enum Operation { getTasks, moveTask, createTask, sendMessage }
+
+    private record SimulatedUser(KanbanService session, User user, SimulatedClient client) {}
+
+    private final KanbanService service;
+    private final int users = Integer.getInteger("planny.loadtest.users", 500);
+    private final int boardCount = Integer.getInteger("planny.loadtest.boards", 10);
+    private final long durationNanos = TimeUnit.SECONDS.toNanos(Long.getLong("planny.loadtest.durationSeconds", 60));
+    private final long thinkMillis = Long.getLong("planny.loadtest.thinkMillis", 100);
+    private final Map<Operation, Integer> mix = parseMix(System.getProperty("planny.loadtest.mix",
+            "getTasks=60,moveTask=25,createTask=10,sendMessage=5"));
+
+    private final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> rejections = new EnumMap<>(Operation.class);
+    private final LatencyHistogram taskEventLag = new LatencyHistogram();
+    private final LatencyHistogram chatLag = new LatencyHistogram();
+    private final Map<Integer, Long> lastMutationNanos = new ConcurrentHashMap<>();
+    private final LongAdder connectedUsers = new LongAdder();
+    private final Map<String, LongAdder> setupFailures = new ConcurrentHashMap<>(); // By error
+    private final List<Integer> boardIds = new ArrayList<>();
+
+    public LoadTest(KanbanService service) {
+        this.service = service;
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new LatencyHistogram());
+            errors.put(operation, new LongAdder());
+            rejections.put(operation, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("planny.loadtest.url", "rmi://localhost/KanbanService");
+        KanbanService service = (KanbanService) Naming.lookup(url);
+        System.out.println("Connected to " + url);
+        new LoadTest(service).run();
+        System.exit(0);
+    }
+
+    public void run() throws Exception {
+        prepareBoards();
+        System.out.println("Starting " + users + " simulated users on " + boardIds.size() + " boards, mix " + mix);
+
+        CountDownLatch ready = new CountDownLatch(users);
+        long[] startedAt = new long[1];
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < users; i++) {
+                int userIndex = i;
+                executor.submit(() -> {
+                    simulateUser(userIndex, ready);
+                    return null;
+                });
+            }
+            ready.await();
+            startedAt[0] = System.nanoTime();
+            System.out.println(connectedUsers.sum() + " of " + users + " users connected, running for "
+                    + TimeUnit.NANOSECONDS.toSeconds(durationNanos) + "s");
+        } // Waits for all users to finish
+        report(System.nanoTime() - startedAt[0]);
+    }
+
+    private void prepareBoards() throws Exception {
+        List<Board> boards = service.getBoards();
+        for (int i = 0; i < boardCount; i++) {
+            String name = "loadtest-board-" + i;
+            Board board = boards.stream().filter(b -> b.getName().equals(name)).findFirst().orElse(null);
+            if (board == null) {
+                board = service.createBoard(name);
+            }
+            boardIds.add(board.getId());
+        }
+    }
+
+    private void simulateUser(int userIndex, CountDownLatch ready) throws Exception {
+        int boardId = boardIds.get(userIndex % boardIds.size());
+        SimulatedUser simulated = null;
+        try {
+            simulated = connect("loadtest-user-" + userIndex, boardId);
+            connectedUsers.increment();
+        } catch (Exception e) {
+            setupFailures.computeIfAbsent(e.getClass().getSimpleName() + ": " + e.getMessage(), k -> new LongAdder()).increment();
+        } finally {
+            ready.countDown();
+        }
+        if (simulated == null) {
+            return;
+        }
+        ready.await();
+
+        KanbanService session = simulated.session();
+        User user = simulated.user();
+        SimulatedClient client = simulated.client();
+
+        long deadline = System.nanoTime() + durationNanos;
+        try {
+            while (System.nanoTime() < deadline) {
+                Operation operation = pickOperation();
+                long start = System.nanoTime();
+                try {
+                    execute(session, operation, user, boardId, client);
+                    latencies.get(operation).recordNanos(System.nanoTime() - start);
+                } catch (Exception e) {
+                    RateLimitedException limited = RateLimitedException.of(e);
+                    if (limited != null) {
+                        rejections.get(operation).increment();
+                        Thread.sleep(limited.getRetryAfterMillis());
+                    } else {
+                        errors.get(operation).increment();
+                    }
+                }
+                if (thinkMillis > 0) {
+                    Thread.sleep(ThreadLocalRandom.current().nextLong(thinkMillis * 2 + 1));
+                }
+            }
+        } finally {
+            try {
+                session.unregisterListener(client);
+            } catch (Exception e) {
+                // Server gone or overloaded; the listener is dropped on the next failed callback
+            }
+            UnicastRemoteObject.unexportObject(client, true);
+        }
+    }
+
+    private SimulatedUser connect(String username, int boardId) throws Exception {
+        KanbanService session = retryRateLimited(service::openSession); // Rate limited on its own, like a ClientGUI
+        retryRateLimited(() -> session.createUser(username, "loadtest")); // False if the account already exists
+        User user = retryRateLimited(() -> session.authenticateUser(username, "loadtest"));
+        if (user == null) {
+            throw new IllegalStateException("Cannot log in as " + username);
+        }
+        SimulatedClient client = new SimulatedClient(lastMutationNanos, taskEventLag, chatLag);
+        try {
+            retryRateLimited(() -> {
+                session.registerListener(client);
+                return null;
+            });
+            retryRateLimited(() -> {
+                session.subscribeChat(client, boardId); // Chat messages go to the board's channel
+                return null;
+            });
+        } catch (Exception e) {
+            UnicastRemoteObject.unexportObject(client, true);
+            throw e;
+        }
+        return new SimulatedUser(session, user, client);
+    }
+
+    // A call rejected by admission control did not run, so it is sent again after the hint
+    private static <T> T retryRateLimited(Callable<T> call) throws Exception {
+        while (true) {
+            try {
+                return call.call();
+            } catch (Exception e) {
+                RateLimitedException limited = RateLimitedException.of(e);
+                if (limited == null) {
+                    throw e;
+                }
+                Thread.sleep(limited.getRetryAfterMillis());
+            }
+        }
+    }
+
+    private void execute(KanbanService session, Operation operation, User user, int boardId, SimulatedClient client) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (operation) {
+            case getTasks -> client.setKnownTasks(session.getBoardTasks(boardId).getTasks());
+            case moveTask -> {
+                List<Task> tasks = client.getKnownTasks();
+                if (tasks.isEmpty()) {
+                    client.setKnownTasks(session.getBoardTasks(boardId).getTasks());
+                    return;
+                }
+                Task task = tasks.get(random.nextInt(tasks.size()));
+                TaskStatus[] statuses = TaskStatus.values();
+                lastMutationNanos.put(boardId, System.nanoTime());
+                session.moveTask(task.getId(), statuses[random.nextInt(statuses.length)]);
+            }
+            case createTask -> {
+                lastMutationNanos.put(boardId, System.nanoTime());
+                session.createTask(boardId, user.getId(), user.getId(),
+                        "Load test task " + random.nextInt(1_000_000), "Created by " + user.getUsername(), TaskStatus.TO_DO);
+            }
+            case sendMessage -> session.sendMessage(user.getId(), boardId,
+                    SimulatedClient.CHAT_PREFIX + System.nanoTime() + "| hello from " + user.getUsername());
+        }
+    }
+
+    private Operation pickOperation() {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int pick = ThreadLocalRandom.current().nextInt(total);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            pick -= entry.getValue();
+            if (pick < 0) {
+                return entry.getKey();
+            }
+        }
+        return Operation.getTasks;
+    }
+
+    private void report(long elapsedNanos) {
+        double seconds = Math.max(1e-9, elapsedNanos / 1e9);
+        long totalOps = 0;
+        System.out.println();
+        System.out.printf("=== Load test: %d users connected, %d failed to set up, %.1fs ===%n",
+                connectedUsers.sum(), users - connectedUsers.sum(), seconds);
+        setupFailures.forEach((error, count) -> System.out.println("Setup failed for " + count.sum() + " users: " + error));
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram histogram = latencies.get(operation);
+            totalOps += histogram.getCount();
+            System.out.printf("%-12s %8.1f ops/s errors=%d rejected=%d %s%n", operation,
+                    histogram.getCount() / seconds, errors.get(operation).sum(),
+                    rejections.get(operation).sum(), histogram.summary());
+        }
+        System.out.printf("%-12s %8.1f ops/s%n", "total", totalOps / seconds);
+        System.out.println("Task event delivery lag:   " + taskEventLag.summary());
+        System.out.println("Chat message delivery lag: " + chatLag.summary());
+    }
+
+    private static Map<Operation, Integer> parseMix(String spec) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : spec.split(",")) {
+            String[] keyValue = part.trim().split("=");
+            mix.put(Operation.valueOf(keyValue[0].trim()), Integer.parseInt(keyValue[1].trim()));
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,244 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Client-side copy of the selected board's tasks, with the user's own changes applied before the
+ * server confirms them. A local change tags the task as pending; the server's answer then either
+ * replaces the local version with the stored task ({@link #confirm}) or restores the previous one
+ * ({@link #rollback}).
+ *
+ * Every board change has a revision (see {@link BoardTaskListCache}). The board tracks the
+ * revision its tasks are known to be current for, and which revisions were the user's own, so
+ * the announcement of an own change does not cause a reload: {@link #needsReload()} is only true
+ * once no change is pending and some other change was announced. Confined to the EDT.
+ */
+public class LocalTaskBoard {
+
+    // Same order as the server's lists: status, rank, ID
+    private static final Comparator<Task> TASK_ORDER = Comparator
+            .comparing(Task::getStatus)
+            .thenComparing(Task::getRank, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparingInt(Task::getId);
+
+    private final int boardId;
+    private final List<Task> tasks;
+    private final Map<Integer, Integer> pendingChanges = new HashMap<>(); // By task ID
+    private final Set<Long> ownRevisions = new HashSet<>(); // Confirmed, above revision
+    private final TreeSet<Long> announcedRevisions = new TreeSet<>(); // Announced, above revision
+    private final long epoch; // Of the revisions, see BoardTaskListCache
+    private long revision;
+    private int pendingCount;
+    private int nextLocalId = -1; // Created tasks have negative IDs until confirmed
+
+    public LocalTaskBoard(int boardId, List<Task> tasks, long epoch, long revision) {
+        this.boardId = boardId;
+        this.tasks = new ArrayList<>(tasks);
+        this.epoch = epoch;
+        this.revision = revision;
+    }
+
+    public int getBoardId() {
+        return boardId;
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    // The revision the tasks are known to be current for
+    public long getRevision() {
+        return revision;
+    }
+
+    public boolean hasPendingChanges() {
+        return pendingCount > 0;
+    }
+
+    public List<Task> getTasks() {
+        return Collections.unmodifiableList(tasks);
+    }
+
+    public boolean isPending(int taskId) {
+        return pendingChanges.containsKey(taskId);
+    }
+
+    public Task find(int taskId) {
+        int index = indexOf(taskId);
+        return index >= 0 ? tasks.get(index) : null;
+    }
+
+    // Adds a task not stored yet at the end of its column; returns its local (negative) ID
+    public int add(Task task) {
+        Task local = copy(task);
+        local.setId(nextLocalId--);
+        local.setRank(TaskRank.after(lastRank(local.getStatus())));
+        insert(local);
+        markPending(local.getId());
+        return local.getId();
+    }
+
+    /**
+     * Replaces a task with a changed copy; a task that changes status goes to the end of its new
+     * column, like on the server. Returns the previous version, for {@link #rollback}.
+     */
+    public Task update(Task changed) {
+        Task previous = removeTask(changed.getId());
+        Task local = copy(changed);
+        if (previous != null && previous.getStatus() != changed.getStatus()) {
+            local.setRank(TaskRank.after(lastRank(changed.getStatus())));
+        }
+        insert(local);
+        markPending(local.getId());
+        return previous;
+    }
+
+    // Moves a task right after afterTaskId (0 for the top) in the given column
+    public Task reorder(int taskId, TaskStatus status, int afterTaskId) {
+        Task previous = removeTask(taskId);
+        if (previous == null) {
+            markPending(taskId); // Settled by confirm or rollback like any other change
+            return null;
+        }
+        Task local = copy(previous);
+        local.setStatus(status);
+        String lower = null;
+        String upper = null;
+        Task after = afterTaskId != 0 ? find(afterTaskId) : null;
+        for (Task task : tasks) {
+            if (task.getStatus() != status) {
+                continue;
+            }
+            if (after == null ? afterTaskId == 0 : lower != null) {
+                upper = task.getRank(); // First task of the column, or the one after the anchor
+                break;
+            }
+            if (task == after) {
+                lower = task.getRank();
+            }
+        }
+        if (lower == null && upper == null) {
+            local.setRank(TaskRank.after(lastRank(status)));
+        } else if (lower != null && upper != null && lower.compareTo(upper) >= 0) {
+            local.setRank(lower); // Tied ranks (ordered by ID on the server); the server decides
+        } else {
+            local.setRank(TaskRank.between(lower, upper));
+        }
+        insert(local);
+        markPending(taskId);
+        return previous;
+    }
+
+    public Task remove(int taskId) {
+        Task previous = removeTask(taskId);
+        markPending(taskId);
+        return previous;
+    }
+
+    // The server stored the change: its version of the task replaces the local one
+    public void confirm(int localTaskId, TaskMutationResult result, boolean removed) {
+        unmarkPending(localTaskId);
+        removeTask(localTaskId);
+        if (!removed) {
+            removeTask(result.getTask().getId()); // An announcement may have reloaded it meanwhile
+            insert(result.getTask());
+        }
+        if (result.getRevision() > revision) {
+            ownRevisions.add(result.getRevision());
+            advance();
+        }
+    }
+
+    // The server rejected the change: the previous version (null for a created task) is restored
+    public void rollback(int localTaskId, Task previous) {
+        unmarkPending(localTaskId);
+        removeTask(localTaskId);
+        if (previous != null) {
+            insert(previous);
+        }
+    }
+
+    // A change of the board was announced
+    public void announced(long announcedRevision) {
+        if (announcedRevision > revision) {
+            announcedRevisions.add(announcedRevision);
+        }
+    }
+
+    // Whether a change by someone else was announced; only once own changes are settled
+    public boolean needsReload() {
+        if (pendingCount > 0) {
+            return false;
+        }
+        for (long announcedRevision : announcedRevisions) {
+            if (!ownRevisions.contains(announcedRevision)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Moves the known revision past own changes that directly follow it
+    private void advance() {
+        while (ownRevisions.remove(revision + 1)) {
+            revision++;
+        }
+        announcedRevisions.headSet(revision, true).clear();
+    }
+
+    private void markPending(int taskId) {
+        pendingChanges.merge(taskId, 1, Integer::sum);
+        pendingCount++;
+    }
+
+    private void unmarkPending(int taskId) {
+        pendingChanges.computeIfPresent(taskId, (id, count) -> count > 1 ? count - 1 : null);
+        pendingCount--;
+    }
+
+    private String lastRank(TaskStatus status) {
+        String last = null;
+        for (Task task : tasks) {
+            if (task.getStatus() == status) {
+                last = task.getRank();
+            } else if (task.getStatus().compareTo(status) > 0) {
+                break;
+            }
+        }
+        return last;
+    }
+
+    private void insert(Task task) {
+        int index = Collections.binarySearch(tasks, task, TASK_ORDER);
+        tasks.add(index >= 0 ? index : -index - 1, task);
+    }
+
+    private Task removeTask(int taskId) {
+        int index = indexOf(taskId);
+        return index >= 0 ? tasks.remove(index) : null;
+    }
+
+    private int indexOf(int taskId) {
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.get(i).getId() == taskId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static Task copy(Task task) {
+        Task copy = new Task(task.getId(), task.getTitle(), task.getDescription(), task.getStatus(),
+                task.getBoardId(), task.getUserId(), task.getAssigneeId(), task.getCreatedAt(), task.getUpdatedAt());
+        copy.setRank(task.getRank());
+        copy.setDueAt(task.getDueAt());
+        copy.setRemindAt(task.getRemindAt());
+        return copy;
+    }
+}
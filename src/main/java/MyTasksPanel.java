@@ -0,0 +1,203 @@
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.ListSelectionModel;
+import javax.swing.SwingWorker;
+import javax.swing.table.AbstractTableModel;
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Cross-board list of the tasks assigned to (and optionally created by) the current user.
+ * Pages are loaded with keyset pagination; afterwards the list is kept up to date by the targeted
+ * onUserTaskChanged events instead of reloading every board.
+ */
+public class MyTasksPanel extends JPanel {
+
+    private static final int PAGE_SIZE = 100;
+
+    private final KanbanService service;
+    private final int userId;
+    private final IntFunction<String> boardNames;
+    private final BiConsumer<String, RemoteException> errorHandler;
+    private final MyTasksTableModel tableModel = new MyTasksTableModel();
+    private final JCheckBox includeCreatedBox = new JCheckBox("Include tasks I created");
+    private final JButton loadMoreButton = new JButton("Load more");
+    private final JLabel statusLabel = new JLabel();
+    private boolean hasMore;
+    private int reloadGeneration;
+
+    public MyTasksPanel(KanbanService service, int userId, IntFunction<String> boardNames,
+                        BiConsumer<String, RemoteException> errorHandler) {
+        super(new BorderLayout(5, 5));
+        this.service = service;
+        this.userId = userId;
+        this.boardNames = boardNames;
+        this.errorHandler = errorHandler;
+
+        JTable table = new JTable(tableModel);
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.getColumnModel().getColumn(1).setPreferredWidth(50);
+        table.getColumnModel().getColumn(2).setPreferredWidth(300);
+        table.getColumnModel().getColumn(3).setCellRenderer(new StatusCellRenderer());
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        controls.setBorder(BorderFactory.createEmptyBorder(0, 5, 0, 5));
+        controls.add(includeCreatedBox);
+        controls.add(loadMoreButton);
+        controls.add(statusLabel);
+        add(controls, BorderLayout.SOUTH);
+
+        includeCreatedBox.addActionListener(e -> reload());
+        loadMoreButton.addActionListener(e -> loadPage(tableModel.lastTaskId(), reloadGeneration));
+    }
+
+    public void reload() {
+        reloadGeneration++;
+        tableModel.clear();
+        hasMore = false;
+        loadPage(0, reloadGeneration);
+    }
+
+    // Board names are resolved at render time; repaint after the board list changed
+    public void boardsChanged() {
+        tableModel.fireTableDataChanged();
+    }
+
+    // Applies a targeted event; must be called on the EDT
+    public void applyChange(Task task, boolean removed) {
+        boolean matches = !removed && (task.getAssigneeId() == userId
+                || (includeCreatedBox.isSelected() && task.getUserId() == userId));
+        if (!matches) {
+            tableModel.remove(task.getId());
+        } else if (!hasMore || task.getId() <= tableModel.lastTaskId()) {
+            // Tasks beyond the loaded pages arrive with "Load more"
+            tableModel.upsert(task);
+        }
+        updateStatus();
+    }
+
+    private void loadPage(int afterTaskId, int generation) {
+        boolean includeCreated = includeCreatedBox.isSelected();
+        loadMoreButton.setEnabled(false);
+        new SwingWorker<List<Task>, Void>() {
+            @Override
+            protected List<Task> doInBackground() throws Exception {
+                return service.getUserTasks(userId, includeCreated, afterTaskId, PAGE_SIZE);
+            }
+
+            @Override
+            protected void done() {
+                if (generation != reloadGeneration) {
+                    return; // A newer reload was started meanwhile
+                }
+                try {
+                    List<Task> page = get();
+                    for (Task task : page) {
+                        tableModel.upsert(task);
+                    }
+                    hasMore = page.size() == PAGE_SIZE;
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    errorHandler.accept("Failed to load your tasks",
+                            cause instanceof RemoteException re ? re : new RemoteException(cause.getMessage(), cause));
+                }
+                updateStatus();
+            }
+        }.execute();
+    }
+
+    private void updateStatus() {
+        loadMoreButton.setEnabled(hasMore);
+        statusLabel.setText(tableModel.getRowCount() + (hasMore ? "+" : "") + " tasks");
+    }
+
+    // Rows kept sorted by task ID, matching the server's page order
+    private class MyTasksTableModel extends AbstractTableModel {
+        private final String[] columns = {"Board", "ID", "Title", "Status", "Updated At"};
+        private final List<Task> rows = new ArrayList<>();
+
+        int lastTaskId() {
+            return rows.isEmpty() ? 0 : rows.get(rows.size() - 1).getId();
+        }
+
+        void clear() {
+            rows.clear();
+            fireTableDataChanged();
+        }
+
+        void upsert(Task task) {
+            int index = indexOf(task.getId());
+            if (index >= 0) {
+                rows.set(index, task);
+                fireTableRowsUpdated(index, index);
+            } else {
+                int insertAt = -index - 1;
+                rows.add(insertAt, task);
+                fireTableRowsInserted(insertAt, insertAt);
+            }
+        }
+
+        void remove(int taskId) {
+            int index = indexOf(taskId);
+            if (index >= 0) {
+                rows.remove(index);
+                fireTableRowsDeleted(index, index);
+            }
+        }
+
+        private int indexOf(int taskId) {
+            int low = 0;
+            int high = rows.size() - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int midId = rows.get(mid).getId();
+                if (midId < taskId) {
+                    low = mid + 1;
+                } else if (midId > taskId) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        @Override
+        public int getRowCount() {
+            return rows.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columns.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return columns[column];
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            Task task = rows.get(rowIndex);
+            return switch (columnIndex) {
+                case 0 -> boardNames.apply(task.getBoardId());
+                case 1 -> task.getId();
+                case 2 -> task.getTitle();
+                case 3 -> task.getStatus();
+                default -> ClientGUI.formatTableValue(task.getUpdatedAt());
+            };
+        }
+    }
+}
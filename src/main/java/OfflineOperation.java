@@ -0,0 +1,114 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.rmi.RemoteException;
+import java.time.LocalDateTime;
+
+/**
+ * A change made by the user that can be sent to the server now or kept in the {@link OfflineQueue}
+ * and sent later. baseUpdatedAt is the last change time of the task as the user saw it, so a
+ * replay can tell whether someone else changed the task meanwhile (null if unknown).
+ */
+public record OfflineOperation(Type type, int boardId, int taskId, int userId, int assigneeId, int afterTaskId,
+                               String title, String description, TaskStatus status, String content,
+                               LocalDateTime baseUpdatedAt) {
+
+    public enum Type { CREATE_TASK, MOVE_TASK, REORDER_TASK, UPDATE_TASK, DELETE_TASK, SEND_MESSAGE }
+
+    private static final Type[] TYPES = Type.values();
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    public static OfflineOperation createTask(int boardId, int userId, int assigneeId, String title, String description, TaskStatus status) {
+        return new OfflineOperation(Type.CREATE_TASK, boardId, 0, userId, assigneeId, 0, title, description, status, null, null);
+    }
+
+    public static OfflineOperation moveTask(Task task, TaskStatus status) {
+        return new OfflineOperation(Type.MOVE_TASK, task.getBoardId(), task.getId(), 0, 0, 0, null, null, status, null, task.getUpdatedAt());
+    }
+
+    public static OfflineOperation reorderTask(Task task, TaskStatus status, int afterTaskId) {
+        return new OfflineOperation(Type.REORDER_TASK, task.getBoardId(), task.getId(), 0, 0, afterTaskId, null, null, status, null, task.getUpdatedAt());
+    }
+
+    // task is the version the user edited; the other arguments are the new values
+    public static OfflineOperation updateTask(Task task, int assigneeId, String title, String description, TaskStatus status) {
+        return new OfflineOperation(Type.UPDATE_TASK, task.getBoardId(), task.getId(), 0, assigneeId, 0, title, description, status, null, task.getUpdatedAt());
+    }
+
+    public static OfflineOperation deleteTask(Task task) {
+        return new OfflineOperation(Type.DELETE_TASK, task.getBoardId(), task.getId(), 0, 0, 0, null, null, null, null, task.getUpdatedAt());
+    }
+
+    public static OfflineOperation sendMessage(int userId, int boardId, String content) {
+        return new OfflineOperation(Type.SEND_MESSAGE, boardId, 0, userId, 0, 0, null, null, null, content, null);
+    }
+
+    // Sends the change; returns null for chat messages
+    public TaskMutationResult apply(KanbanService service) throws RemoteException {
+        return switch (type) {
+            case CREATE_TASK -> service.createTask(boardId, userId, assigneeId, title, description, status);
+            case MOVE_TASK -> service.moveTask(taskId, status);
+            case REORDER_TASK -> service.reorderTask(taskId, status, afterTaskId);
+            case UPDATE_TASK -> service.updateTask(taskId, assigneeId, title, description, status);
+            case DELETE_TASK -> service.deleteTask(taskId);
+            case SEND_MESSAGE -> {
+                service.sendMessage(userId, boardId, content);
+                yield null;
+            }
+        };
+    }
+
+    // For messages to the user
+    public String describe() {
+        return switch (type) {
+            case CREATE_TASK -> "Create task \"" + title + "\"";
+            case MOVE_TASK -> "Move task #" + taskId + " to " + status.toString().replace('_', ' ');
+            case REORDER_TASK -> "Reorder task #" + taskId;
+            case UPDATE_TASK -> "Edit task #" + taskId;
+            case DELETE_TASK -> "Delete task #" + taskId;
+            case SEND_MESSAGE -> "Chat message \"" + content + "\"";
+        };
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeByte(type.ordinal());
+        out.writeInt(boardId);
+        out.writeInt(taskId);
+        out.writeInt(userId);
+        out.writeInt(assigneeId);
+        out.writeInt(afterTaskId);
+        writeNullableString(out, title);
+        writeNullableString(out, description);
+        out.writeByte(status != null ? status.ordinal() : -1);
+        writeNullableString(out, content);
+        writeNullableString(out, baseUpdatedAt != null ? baseUpdatedAt.toString() : null);
+    }
+
+    static OfflineOperation read(DataInputStream in) throws IOException {
+        Type type = TYPES[in.readByte()];
+        int boardId = in.readInt();
+        int taskId = in.readInt();
+        int userId = in.readInt();
+        int assigneeId = in.readInt();
+        int afterTaskId = in.readInt();
+        String title = readNullableString(in);
+        String description = readNullableString(in);
+        byte status = in.readByte();
+        String content = readNullableString(in);
+        String baseUpdatedAt = readNullableString(in);
+        return new OfflineOperation(type, boardId, taskId, userId, assigneeId, afterTaskId, title, description,
+                status >= 0 ? STATUSES[status] : null, content,
+                baseUpdatedAt != null ? LocalDateTime.parse(baseUpdatedAt) : null);
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,268 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.rmi.RemoteException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Durable queue of the changes a user made while the server could not be reached. Changes are
+ * appended to a log file and forced to disk before they are reported as queued, so they survive a
+ * client crash too. {@link #replay(KanbanService)} sends them in order after reconnecting; each
+ * change that was sent (or given up on) is marked done with a record of its own, and the file is
+ * emptied once nothing is left.
+ *
+ * Replaying checks for conflicts first: a change to a task that no longer exists is dropped, and
+ * an edit is dropped if someone else changed the task after the user last saw it. Moves, reorders
+ * and deletes of a task that still exists are applied. Changes the server rejects are dropped as
+ * well, and so is a change whose call broke off after it was sent, since the server may have
+ * applied it (sending a create or a message again would duplicate it); all of them are listed in
+ * the {@link ReplayResult} for the user.
+ *
+ * Records are framed like the embedded store's log (length, CRC32, record), so a torn tail from
+ * a crash is cut off on open. One file per user, in planny.offline.dir (default ~/.planny).
+ */
+public class OfflineQueue {
+
+    public record ReplayResult(int sent, List<String> dropped, int remaining) {}
+
+    private record Entry(long seq, OfflineOperation operation) {}
+
+    private static final byte APPEND = 1;
+    private static final byte DONE = 2;
+
+    private final FileChannel log;
+    private final Deque<Entry> pending = new ArrayDeque<>(); // Guarded by this
+    private long nextSeq = 1;
+    private boolean replaying;
+
+    private OfflineQueue(Path file) throws IOException {
+        this.log = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long valid = load();
+        if (valid < log.size()) {
+            System.err.println("Cutting off a torn record at the end of " + file);
+            log.truncate(valid);
+        }
+        log.position(valid);
+    }
+
+    public static OfflineQueue open(int userId) throws IOException {
+        Path dir = Path.of(System.getProperty("planny.offline.dir", System.getProperty("user.home") + "/.planny"));
+        Files.createDirectories(dir);
+        OfflineQueue queue = new OfflineQueue(dir.resolve("offline-" + userId + ".log"));
+        if (queue.size() > 0) {
+            System.out.println(queue.size() + " offline changes from an earlier session are waiting to be sent.");
+        }
+        return queue;
+    }
+
+    public synchronized int size() {
+        return pending.size();
+    }
+
+    /**
+     * Queues the change if it cannot be sent right now: while disconnected, and while earlier
+     * changes are still queued, so that changes reach the server in the order they were made.
+     * Returns false if the caller should send it.
+     */
+    public synchronized boolean queueIfBusy(OfflineOperation operation, boolean connected) throws IOException {
+        if (connected && pending.isEmpty() && !replaying) {
+            return false;
+        }
+        append(operation);
+        return true;
+    }
+
+    public synchronized void append(OfflineOperation operation) throws IOException {
+        long seq = nextSeq++;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(APPEND);
+            out.writeLong(seq);
+            operation.write(out);
+        }
+        write(bytes.toByteArray());
+        pending.addLast(new Entry(seq, operation));
+    }
+
+    /**
+     * Sends the queued changes in order. Stops early if the connection is lost again, keeping the
+     * rest and the change being sent if it certainly did not reach the server. Only one replay
+     * runs at a time; a second call returns right away.
+     */
+    public ReplayResult replay(KanbanService service) {
+        synchronized (this) {
+            if (replaying || pending.isEmpty()) {
+                return new ReplayResult(0, List.of(), pending.size());
+            }
+            replaying = true;
+        }
+        int sent = 0;
+        List<String> dropped = new ArrayList<>();
+        Map<Integer, Map<Integer, Task>> boards = new HashMap<>(); // Current tasks, loaded once per board
+        Set<Integer> changedHere = new HashSet<>(); // Tasks already changed by this replay
+        try {
+            while (true) {
+                Entry entry;
+                synchronized (this) {
+                    entry = pending.peekFirst();
+                    if (entry == null) {
+                        replaying = false;
+                        log.truncate(0); // Everything was sent: start the file over
+                        return new ReplayResult(sent, dropped, 0);
+                    }
+                }
+                OfflineOperation operation = entry.operation();
+                boolean sending = false; // Past the conflict check's reads
+                try {
+                    String conflict = conflict(service, operation, boards, changedHere);
+                    if (conflict != null) {
+                        dropped.add(operation.describe() + ": " + conflict);
+                    } else {
+                        sending = true;
+                        operation.apply(service);
+                        changedHere.add(operation.taskId());
+                        sent++;
+                    }
+                } catch (RemoteException e) {
+                    RateLimitedException limited = RateLimitedException.of(e);
+                    if (limited != null && sleep(limited.getRetryAfterMillis())) {
+                        continue; // Not run by the server; send it again
+                    }
+                    boolean connectionFailure = ReconnectingService.isConnectionFailure(e);
+                    if (limited != null || ReconnectingService.isRequestNotSent(e) || (connectionFailure && !sending)) {
+                        synchronized (this) {
+                            replaying = false;
+                            return new ReplayResult(sent, dropped, pending.size());
+                        }
+                    }
+                    if (connectionFailure) {
+                        dropped.add(operation.describe() + ": the connection broke while it was sent, it may or may not have been applied");
+                        markDone(entry);
+                        synchronized (this) {
+                            replaying = false;
+                            return new ReplayResult(sent, dropped, pending.size());
+                        }
+                    }
+                    dropped.add(operation.describe() + ": " + e.getMessage());
+                }
+                markDone(entry);
+            }
+        } catch (IOException e) {
+            System.err.println("Error updating the offline queue: " + e.getMessage());
+            synchronized (this) {
+                replaying = false;
+                return new ReplayResult(sent, dropped, pending.size());
+            }
+        }
+    }
+
+    // False if interrupted
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Why the change should not be sent any more, or null if it should
+    private static String conflict(KanbanService service, OfflineOperation operation,
+                                   Map<Integer, Map<Integer, Task>> boards, Set<Integer> changedHere) throws RemoteException {
+        if (operation.taskId() == 0 || operation.baseUpdatedAt() == null || changedHere.contains(operation.taskId())) {
+            return null; // Creates and messages, or a task whose earlier change was just sent
+        }
+        Map<Integer, Task> tasks = boards.get(operation.boardId());
+        if (tasks == null) {
+            tasks = new HashMap<>();
+            try {
+                for (Task task : service.getBoardTasks(operation.boardId()).getTasks()) {
+                    tasks.put(task.getId(), task);
+                }
+            } catch (IOException e) {
+                throw new RemoteException("Unreadable task list from server", e);
+            }
+            boards.put(operation.boardId(), tasks);
+        }
+        Task current = tasks.get(operation.taskId());
+        if (current == null) {
+            return "the task was deleted or archived meanwhile";
+        }
+        if (operation.type() == OfflineOperation.Type.UPDATE_TASK && !operation.baseUpdatedAt().equals(current.getUpdatedAt())) {
+            return "the task was changed by someone else meanwhile";
+        }
+        return null;
+    }
+
+    private synchronized void markDone(Entry entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(DONE);
+            out.writeLong(entry.seq());
+        }
+        write(bytes.toByteArray());
+        pending.remove(entry);
+    }
+
+    private void write(byte[] record) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        ByteBuffer frame = ByteBuffer.allocate(8 + record.length);
+        frame.putInt(record.length).putInt((int) crc.getValue()).put(record).flip();
+        while (frame.hasRemaining()) {
+            log.write(frame);
+        }
+        log.force(false);
+    }
+
+    // Rebuilds the queue from the file and returns the length of its valid prefix
+    private long load() throws IOException {
+        ByteBuffer file = log.map(FileChannel.MapMode.READ_ONLY, 0, log.size());
+        CRC32 crc = new CRC32();
+        Map<Long, Entry> entries = new LinkedHashMap<>();
+        while (file.remaining() >= 8) {
+            int length = file.getInt(file.position());
+            int checksum = file.getInt(file.position() + 4);
+            if (length <= 0 || length > file.remaining() - 8) {
+                break;
+            }
+            byte[] record = new byte[length];
+            file.get(file.position() + 8, record);
+            crc.reset();
+            crc.update(record);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+                byte type = in.readByte();
+                long seq = in.readLong();
+                if (type == APPEND) {
+                    entries.put(seq, new Entry(seq, OfflineOperation.read(in)));
+                } else {
+                    entries.remove(seq);
+                }
+                nextSeq = Math.max(nextSeq, seq + 1);
+            }
+            file.position(file.position() + 8 + length);
+        }
+        pending.addAll(entries.values());
+        return file.position();
+    }
+}
@@ -0,0 +1,52 @@
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Daily upkeep of the monthly partitions of the messages and archived_tasks tables: creates the
+ * partitions for the coming months ahead of time, so no write ever waits on DDL, and drops the
+ * messages partitions that fell out of the retention period. Dropping a partition removes a
+ * month of chat history at once, without the dead rows and vacuum work a DELETE would leave.
+ *
+ * Configured with system properties: planny.messages.partitionsAhead (default 3),
+ * planny.messages.retentionMonths (default 12, 0 keeps all history).
+ */
+public class PartitionMaintenance {
+
+    private static final int PARTITIONS_AHEAD = Integer.getInteger("planny.messages.partitionsAhead", 3);
+    private static final int RETENTION_MONTHS = Integer.getInteger("planny.messages.retentionMonths", 12);
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "partition-maintenance");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Runs once right away, so the current month's partitions exist before the service starts
+    public void start() {
+        run();
+        executor.scheduleWithFixedDelay(this::run, 1, 1, TimeUnit.DAYS);
+        System.out.println("Maintaining monthly partitions " + PARTITIONS_AHEAD + " months ahead"
+                + (RETENTION_MONTHS > 0 ? ", keeping " + RETENTION_MONTHS + " months of chat history." : "."));
+    }
+
+    private void run() {
+        try {
+            DatabaseManager.ensureMonthlyPartitions("messages", PARTITIONS_AHEAD);
+            DatabaseManager.ensureMonthlyPartitions("archived_tasks", PARTITIONS_AHEAD);
+            if (RETENTION_MONTHS > 0) {
+                // Keep the current month plus RETENTION_MONTHS - 1 full months before it
+                YearMonth cutoff = YearMonth.now().minusMonths(RETENTION_MONTHS - 1);
+                List<String> dropped = DatabaseManager.dropMonthlyPartitionsBefore("messages", cutoff);
+                if (!dropped.isEmpty()) {
+                    System.out.println("Dropped expired message partitions: " + String.join(", ", dropped));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error maintaining partitions: " + e.getMessage());
+        }
+    }
+}
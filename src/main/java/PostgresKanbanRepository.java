@@ -0,0 +1,1144 @@
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * PostgreSQL storage, through {@link DatabaseManager}. Reads go to {@link DatabaseManager#getReadConnection(int)}
+ * so they may be served by a replica; writes use the primary.
+ */
+public class PostgresKanbanRepository implements KanbanRepository {
+
+    // The rank digits in order; translate() with this and its shifted copy increments a digit
+    private static final String RANK_DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+
+    private static final String COPY_SQL =
+            "COPY task_import (title, description, status, created_by, assigned_to) FROM STDIN WITH (FORMAT csv)";
+
+    // Inserts the valid rows and adds them to the board's status counters in one statement
+    // Imported tasks are ranked after the current end of their column, in file order
+    private static final String IMPORT_SQL = """
+            WITH last_rank AS (
+                SELECT st.status, (SELECT max(t.rank) FROM tasks t WHERE t.board_id = ? AND t.status = st.status) AS rank
+                FROM unnest(enum_range(NULL::task_status)) AS st(status)
+            ), inserted AS (
+                INSERT INTO tasks (board_id, user_id, assignee_id, title, description, status, rank)
+                SELECT ?, COALESCE(cu.id, ?), au.id, s.title, NULLIF(s.description, ''),
+                       COALESCE(NULLIF(s.status, ''), 'TO_DO')::task_status,
+                       COALESCE(lr.rank, '') || lpad((row_number() OVER (ORDER BY s.line_no))::text, 9, '0') || 'V'
+                FROM task_import s
+                LEFT JOIN users cu ON cu.username = NULLIF(s.created_by, '')
+                LEFT JOIN users au ON au.username = NULLIF(s.assigned_to, '')
+                LEFT JOIN last_rank lr ON lr.status::text = COALESCE(NULLIF(s.status, ''), 'TO_DO')
+                WHERE NULLIF(trim(s.title), '') IS NOT NULL
+                  AND char_length(s.title) <= 100
+                  AND char_length(COALESCE(s.description, '')) <= 500
+                  AND COALESCE(NULLIF(s.status, ''), 'TO_DO') IN (SELECT unnest(enum_range(NULL::task_status))::text)
+                  AND (NULLIF(s.created_by, '') IS NULL OR cu.id IS NOT NULL)
+                  AND (NULLIF(s.assigned_to, '') IS NULL OR au.id IS NOT NULL)
+                ORDER BY s.line_no
+                RETURNING status
+            ), per_status AS (
+                SELECT status, COUNT(*) AS imported FROM inserted GROUP BY status
+            )
+            UPDATE board_status_counts c SET task_count = c.task_count + p.imported
+            FROM per_status p
+            WHERE c.board_id = ? AND c.status = p.status
+            RETURNING c.status, p.imported, c.task_count, c.wip_limit
+        """;
+
+    @Override
+    public User authenticateUser(String username, String password) throws SQLException {
+        String sql = "SELECT id, username, created_at, updated_at FROM users WHERE username = ? AND password = ?";
+        try (Connection conn = DatabaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, username);
+            stmt.setString(2, password);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? mapUser(rs) : null;
+        }
+    }
+
+    @Override
+    public User createUser(String username, String password) throws SQLException {
+        String sql = "INSERT INTO users (username, password) VALUES (?, ?) RETURNING id, username, created_at, updated_at";
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, username);
+            stmt.setString(2, password);
+            ResultSet rs = stmt.executeQuery();
+            if (!rs.next()) {
+                throw new SQLException("Failed to create user, no ID obtained.");
+            }
+            return mapUser(rs);
+        }
+    }
+
+    @Override
+    public List<User> getUsers() throws SQLException {
+        List<User> users = new ArrayList<>();
+        String sql = "SELECT id, username, created_at, updated_at FROM users ORDER BY username";
+        try (Connection conn = DatabaseManager.getReadConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            while (rs.next()) {
+                users.add(mapUser(rs));
+            }
+        }
+        return users;
+    }
+
+    @Override
+    public List<User> getUsersById(int[] userIds) throws SQLException {
+        List<User> users = new ArrayList<>(userIds.length);
+        String sql = "SELECT id, username, created_at, updated_at FROM users WHERE id = ANY(?)";
+        try (Connection conn = DatabaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            Integer[] ids = new Integer[userIds.length];
+            for (int i = 0; i < userIds.length; i++) {
+                ids[i] = userIds[i];
+            }
+            stmt.setArray(1, conn.createArrayOf("integer", ids));
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                users.add(mapUser(rs));
+            }
+        }
+        return users;
+    }
+
+    @Override
+    public List<User> searchUsers(String prefix, int limit) throws SQLException {
+        List<User> users = new ArrayList<>();
+        // Matches the byte-wise (lower(username), id) index, which serves both the prefix range and the order
+        String sql = """
+                SELECT id, username, created_at, updated_at FROM users
+                WHERE lower(username) COLLATE "C" LIKE ? ESCAPE '\\'
+                ORDER BY lower(username) COLLATE "C", id
+                LIMIT ?
+            """;
+        try (Connection conn = DatabaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            String pattern = prefix.toLowerCase(Locale.ROOT)
+                    .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+            stmt.setString(1, pattern + "%");
+            stmt.setInt(2, limit);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                users.add(mapUser(rs));
+            }
+        }
+        return users;
+    }
+
+    @Override
+    public List<Board> getBoards() throws SQLException {
+        List<Board> boards = new ArrayList<>();
+        try (Connection conn = DatabaseManager.getReadConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT * FROM boards ORDER BY id")) {
+
+            while (rs.next()) {
+                boards.add(new Board(
+                        rs.getInt("id"),
+                        rs.getString("name"),
+                        rs.getTimestamp("created_at").toLocalDateTime(),
+                        rs.getTimestamp("updated_at").toLocalDateTime()
+                ));
+            }
+        }
+        return boards;
+    }
+
+    @Override
+    public Board createBoard(String name) throws SQLException {
+        // The board and its status counter rows are created in one statement
+        String sql = """
+                WITH new_board AS (
+                    INSERT INTO boards (name) VALUES (?) RETURNING id, created_at, updated_at
+                ), counters AS (
+                    INSERT INTO board_status_counts (board_id, status)
+                    SELECT new_board.id, s.status FROM new_board, unnest(enum_range(NULL::task_status)) AS s(status)
+                )
+                SELECT id, created_at, updated_at FROM new_board
+            """;
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, name);
+            ResultSet rs = stmt.executeQuery();
+            if (!rs.next()) {
+                throw new SQLException("Failed to create board, no ID obtained.");
+            }
+            return new Board(
+                    rs.getInt("id"),
+                    name,
+                    rs.getTimestamp("created_at").toLocalDateTime(),
+                    rs.getTimestamp("updated_at").toLocalDateTime()
+            );
+        }
+    }
+
+    @Override
+    public boolean updateBoard(int boardId, String name) throws SQLException {
+        String sql = "UPDATE boards SET name = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, name);
+            stmt.setInt(2, boardId);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    @Override
+    public boolean deleteBoard(int boardId) throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM boards WHERE id = ?")) {
+
+            stmt.setInt(1, boardId);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    @Override
+    public Map<Integer, BoardSummary> getBoardSummaries() throws SQLException {
+        Map<Integer, Map<TaskStatus, Integer>> counts = new HashMap<>();
+        Map<Integer, Map<TaskStatus, Integer>> limits = new HashMap<>();
+        try (Connection conn = DatabaseManager.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT board_id, status, task_count, wip_limit FROM board_status_counts")) {
+
+            while (rs.next()) {
+                int boardId = rs.getInt("board_id");
+                TaskStatus status = TaskStatus.valueOf(rs.getString("status"));
+                counts.computeIfAbsent(boardId, id -> new EnumMap<>(TaskStatus.class)).put(status, rs.getInt("task_count"));
+                Map<TaskStatus, Integer> boardLimits = limits.computeIfAbsent(boardId, id -> new EnumMap<>(TaskStatus.class));
+                int limit = rs.getInt("wip_limit");
+                if (!rs.wasNull()) {
+                    boardLimits.put(status, limit);
+                }
+            }
+        }
+        Map<Integer, BoardSummary> summaries = new HashMap<>();
+        counts.forEach((boardId, boardCounts) -> summaries.put(boardId, new BoardSummary(boardId, boardCounts, limits.get(boardId))));
+        return summaries;
+    }
+
+    @Override
+    public boolean setWipLimit(int boardId, TaskStatus status, Integer limit) throws SQLException {
+        String sql = "UPDATE board_status_counts SET wip_limit = ? WHERE board_id = ? AND status = ?::task_status";
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            if (limit == null) {
+                stmt.setNull(1, Types.INTEGER);
+            } else {
+                stmt.setInt(1, limit);
+            }
+            stmt.setInt(2, boardId);
+            stmt.setString(3, status.name());
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    @Override
+    public Task getTask(int taskId) throws SQLException {
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT * FROM tasks WHERE id = ?")) {
+            stmt.setInt(1, taskId);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? mapTask(rs) : null;
+        }
+    }
+
+    @Override
+    public List<Task> getTasks(int boardId) throws SQLException {
+        List<Task> tasks = new ArrayList<>();
+        String sql = "SELECT * FROM tasks WHERE board_id = ? ORDER BY status, rank, id";
+
+        try (Connection conn = DatabaseManager.getReadConnection(boardId);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, boardId);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                tasks.add(mapTask(rs));
+            }
+        }
+        return tasks;
+    }
+
+    @Override
+    public List<Task> getUserTasks(int userId, boolean includeCreated, int afterTaskId, int limit) throws SQLException {
+        // Keyset pagination over the (assignee_id, id) and (user_id, id) indexes
+        String assignedSql = "SELECT * FROM tasks WHERE assignee_id = ? AND id > ? ORDER BY id LIMIT ?";
+        String assignedOrCreatedSql = """
+                SELECT * FROM (
+                    (SELECT * FROM tasks WHERE assignee_id = ? AND id > ? ORDER BY id LIMIT ?)
+                    UNION
+                    (SELECT * FROM tasks WHERE user_id = ? AND id > ? ORDER BY id LIMIT ?)
+                ) t
+                ORDER BY id LIMIT ?
+            """;
+        List<Task> tasks = new ArrayList<>();
+
+        try (Connection conn = DatabaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(includeCreated ? assignedOrCreatedSql : assignedSql)) {
+
+            stmt.setInt(1, userId);
+            stmt.setInt(2, afterTaskId);
+            stmt.setInt(3, limit);
+            if (includeCreated) {
+                stmt.setInt(4, userId);
+                stmt.setInt(5, afterTaskId);
+                stmt.setInt(6, limit);
+                stmt.setInt(7, limit);
+            }
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                tasks.add(mapTask(rs));
+            }
+        }
+        return tasks;
+    }
+
+    @Override
+    public TaskStream streamTasks(int boardId) throws SQLException {
+        return new CursorTaskStream(boardId);
+    }
+
+    @Override
+    public TaskImport beginImport(int boardId, int userId) throws SQLException {
+        return new CopyTaskImport(boardId, userId);
+    }
+
+    @Override
+    public Task createTask(int boardId, int userId, int assigneeId, String title, String description, TaskStatus status) throws SQLException {
+        // The counter increment is guarded by the WIP limit; no counter row means no insert.
+        // The new task goes to the end of its column, with the rank TaskRank.after would compute.
+        String sql = """
+                WITH counter AS (
+                    UPDATE board_status_counts SET task_count = task_count + 1
+                    WHERE board_id = ? AND status = ?::task_status AND (wip_limit IS NULL OR task_count < wip_limit)
+                    RETURNING board_id, status
+                ), last_rank AS (
+                    SELECT t.rank, length(t.rank) - length(ltrim(t.rank, 'z')) AS leading
+                    FROM tasks t, counter c
+                    WHERE t.board_id = c.board_id AND t.status = c.status
+                    ORDER BY t.rank DESC LIMIT 1
+                )
+                INSERT INTO tasks (board_id, user_id, assignee_id, title, description, status, rank)
+                SELECT board_id, ?, ?, ?, ?, ?::task_status,
+                       CASE
+                           WHEN lr.rank IS NULL THEN 'V'
+                           WHEN lr.leading = length(lr.rank) THEN lr.rank || '1'
+                           ELSE left(lr.rank, lr.leading) || translate(substr(lr.rank, lr.leading + 1, 1), ?, ?)
+                       END
+                FROM counter LEFT JOIN last_rank lr ON true
+                RETURNING *
+            """;
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, boardId);
+            stmt.setString(2, status.name());
+            stmt.setInt(3, userId);
+            stmt.setInt(4, assigneeId);
+            stmt.setString(5, title);
+            stmt.setString(6, description);
+            stmt.setString(7, status.name());
+            stmt.setString(8, RANK_DIGITS.substring(0, RANK_DIGITS.length() - 1));
+            stmt.setString(9, RANK_DIGITS.substring(1));
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return mapTask(rs);
+            }
+            // The counter row exists, so the guard held the insert back: the column is at its limit
+            try (PreparedStatement limitStmt = conn.prepareStatement(
+                    "SELECT wip_limit FROM board_status_counts WHERE board_id = ? AND status = ?::task_status")) {
+                limitStmt.setInt(1, boardId);
+                limitStmt.setString(2, status.name());
+                ResultSet limitRs = limitStmt.executeQuery();
+                if (limitRs.next()) {
+                    throw KanbanRepository.wipLimitReached((Integer) limitRs.getObject("wip_limit"), status);
+                }
+            }
+            return null;
+        }
+    }
+
+    @Override
+    public TaskChange moveTask(int taskId, TaskStatus newStatus) throws SQLException {
+        String sql = "UPDATE tasks SET status = ?::task_status, updated_at = CURRENT_TIMESTAMP WHERE id = ? RETURNING *";
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                TaskRef task = lockTask(conn, taskId);
+                if (task == null) {
+                    conn.rollback();
+                    return null;
+                }
+                moveCounter(conn, task, newStatus);
+
+                stmt.setString(1, newStatus.name());
+                stmt.setInt(2, taskId);
+                ResultSet rs = stmt.executeQuery();
+                rs.next();
+                Task moved = mapTask(rs);
+                conn.commit();
+                return new TaskChange(moved, task.status, task.assigneeId);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    @Override
+    public TaskChange setTaskSchedule(int taskId, LocalDateTime dueAt, LocalDateTime remindAt) throws SQLException {
+        String sql = "UPDATE tasks SET due_at = ?, remind_at = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ? RETURNING *";
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setTimestamp(1, dueAt != null ? Timestamp.valueOf(dueAt) : null);
+            stmt.setTimestamp(2, remindAt != null ? Timestamp.valueOf(remindAt) : null);
+            stmt.setInt(3, taskId);
+            ResultSet rs = stmt.executeQuery();
+            if (!rs.next()) {
+                return null;
+            }
+            Task task = mapTask(rs);
+            return new TaskChange(task, task.getStatus(), task.getAssigneeId());
+        }
+    }
+
+    @Override
+    public List<Task> getTasksWithReminders(int afterTaskId, int limit) throws SQLException {
+        // Keyset pages over the partial index of tasks with a pending reminder
+        String sql = "SELECT * FROM tasks WHERE remind_at IS NOT NULL AND id > ? ORDER BY id LIMIT ?";
+        List<Task> tasks = new ArrayList<>();
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, afterTaskId);
+            stmt.setInt(2, limit);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                tasks.add(mapTask(rs));
+            }
+        }
+        return tasks;
+    }
+
+    @Override
+    public Task takeReminder(int taskId, LocalDateTime remindAt) throws SQLException {
+        // Not a change by a user, so updated_at stays (edits made offline do not conflict with it)
+        String sql = "UPDATE tasks SET remind_at = NULL WHERE id = ? AND remind_at = ? RETURNING *";
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, taskId);
+            stmt.setTimestamp(2, Timestamp.valueOf(remindAt));
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? mapTask(rs) : null;
+        }
+    }
+
+    @Override
+    public TaskChange updateTask(int taskId, int assigneeId, String title, String description, TaskStatus status) throws SQLException {
+        String sql = """
+                UPDATE tasks
+                SET title = ?, assignee_id = ?, description = ?, status = ?::task_status, updated_at = CURRENT_TIMESTAMP
+                WHERE id = ? RETURNING *
+            """;
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                TaskRef task = lockTask(conn, taskId);
+                if (task == null) {
+                    conn.rollback();
+                    return null;
+                }
+                moveCounter(conn, task, status);
+
+                stmt.setString(1, title);
+                stmt.setInt(2, assigneeId);
+                stmt.setString(3, description);
+                stmt.setString(4, status.name());
+                stmt.setInt(5, taskId);
+                ResultSet rs = stmt.executeQuery();
+                rs.next();
+                Task updated = mapTask(rs);
+                conn.commit();
+                return new TaskChange(updated, task.status, task.assigneeId);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    @Override
+    public TaskChange reorderTask(int taskId, TaskStatus status, int afterTaskId) throws SQLException {
+        String anchorSql = "SELECT rank FROM tasks WHERE id = ? AND board_id = ? AND status = ?::task_status";
+        // First task of the column strictly after the anchor's rank, over the (board_id, status, rank) index
+        String nextSql = """
+                SELECT rank FROM tasks
+                WHERE board_id = ? AND status = ?::task_status AND rank > ? AND id <> ?
+                ORDER BY rank, id LIMIT 1
+            """;
+        String sql = """
+                UPDATE tasks SET status = ?::task_status, rank = ?, updated_at = CURRENT_TIMESTAMP
+                WHERE id = ? RETURNING *
+            """;
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement anchorStmt = conn.prepareStatement(anchorSql);
+                 PreparedStatement nextStmt = conn.prepareStatement(nextSql);
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                // The anchor and next ranks must not be respaced until the new rank is written
+                Integer boardId = readBoardId(conn, taskId);
+                TaskRef task = null;
+                if (boardId != null) {
+                    lockColumn(conn, boardId, status);
+                    task = lockTask(conn, taskId);
+                }
+                if (task == null) {
+                    conn.rollback();
+                    return null;
+                }
+
+                String lower = null;
+                if (afterTaskId > 0) {
+                    anchorStmt.setInt(1, afterTaskId);
+                    anchorStmt.setInt(2, task.boardId);
+                    anchorStmt.setString(3, status.name());
+                    ResultSet rs = anchorStmt.executeQuery();
+                    if (afterTaskId == taskId || !rs.next()) {
+                        throw new SQLException("Task " + afterTaskId + " is not in the " + status + " column", FOREIGN_KEY_VIOLATION_STATE);
+                    }
+                    lower = rs.getString("rank");
+                }
+                nextStmt.setInt(1, task.boardId);
+                nextStmt.setString(2, status.name());
+                nextStmt.setString(3, lower != null ? lower : "");
+                nextStmt.setInt(4, taskId);
+                ResultSet next = nextStmt.executeQuery();
+                String upper = next.next() ? next.getString("rank") : null;
+
+                moveCounter(conn, task, status);
+                stmt.setString(1, status.name());
+                stmt.setString(2, TaskRank.between(lower, upper));
+                stmt.setInt(3, taskId);
+                ResultSet rs = stmt.executeQuery();
+                rs.next();
+                Task reordered = mapTask(rs);
+                conn.commit();
+                return new TaskChange(reordered, task.status, task.assigneeId);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    @Override
+    public int rebalanceRanks(int boardId, TaskStatus status) throws SQLException {
+        String selectSql = "SELECT id FROM tasks WHERE board_id = ? AND status = ?::task_status ORDER BY rank, id";
+        String updateSql = """
+                UPDATE tasks t SET rank = r.rank
+                FROM unnest(?::int[], ?::text[]) AS r(id, rank)
+                WHERE t.id = r.id
+            """;
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement selectStmt = conn.prepareStatement(selectSql);
+                 PreparedStatement updateStmt = conn.prepareStatement(updateSql)) {
+                // No reorder lands between reading the order and writing the new ranks
+                lockColumn(conn, boardId, status);
+                selectStmt.setInt(1, boardId);
+                selectStmt.setString(2, status.name());
+                ResultSet rs = selectStmt.executeQuery();
+                List<Integer> ids = new ArrayList<>();
+                while (rs.next()) {
+                    ids.add(rs.getInt("id"));
+                }
+
+                updateStmt.setArray(1, conn.createArrayOf("integer", ids.toArray()));
+                updateStmt.setArray(2, conn.createArrayOf("text", TaskRank.spread(ids.size())));
+                updateStmt.executeUpdate();
+                conn.commit();
+                return ids.size();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    @Override
+    public Task deleteTask(int taskId) throws SQLException {
+        String sql = "DELETE FROM tasks WHERE id = ? RETURNING *";
+        String counterSql = "UPDATE board_status_counts SET task_count = task_count - 1 WHERE board_id = ? AND status = ?::task_status";
+        String attachmentsSql = "DELETE FROM task_attachments WHERE task_id = ?"; // Stored files stay, they may be shared
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql);
+                 PreparedStatement counterStmt = conn.prepareStatement(counterSql);
+                 PreparedStatement attachmentsStmt = conn.prepareStatement(attachmentsSql)) {
+
+                stmt.setInt(1, taskId);
+                ResultSet rs = stmt.executeQuery();
+                if (!rs.next()) {
+                    conn.rollback();
+                    return null;
+                }
+                Task deleted = mapTask(rs);
+
+                counterStmt.setInt(1, deleted.getBoardId());
+                counterStmt.setString(2, deleted.getStatus().name());
+                counterStmt.executeUpdate();
+                attachmentsStmt.setInt(1, taskId);
+                attachmentsStmt.executeUpdate();
+                conn.commit();
+                return deleted;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    @Override
+    public List<Task> archiveDoneTasks(LocalDateTime doneBefore, int limit) throws SQLException {
+        // One batch in one statement: tasks leave the hot table, enter the archive and leave the DONE counters
+        String sql = """
+                WITH moved AS (
+                    DELETE FROM tasks WHERE id IN (
+                        SELECT id FROM tasks
+                        WHERE status = 'DONE' AND updated_at < ?
+                        ORDER BY updated_at LIMIT ?
+                        FOR UPDATE SKIP LOCKED
+                    )
+                    RETURNING *
+                ), archived AS (
+                    INSERT INTO archived_tasks (id, board_id, user_id, assignee_id, title, description, status, rank, created_at, updated_at, due_at)
+                    SELECT id, board_id, user_id, assignee_id, title, description, status, rank, created_at, updated_at, due_at FROM moved
+                ), counted AS (
+                    UPDATE board_status_counts c SET task_count = c.task_count - m.archived
+                    FROM (SELECT board_id, COUNT(*) AS archived FROM moved GROUP BY board_id) m
+                    WHERE c.board_id = m.board_id AND c.status = 'DONE'
+                )
+                SELECT * FROM moved
+            """;
+        DatabaseManager.ensureMonthlyPartitions("archived_tasks", 1);
+        List<Task> archived = new ArrayList<>();
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setTimestamp(1, Timestamp.valueOf(doneBefore));
+            stmt.setInt(2, limit);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                archived.add(mapTask(rs));
+            }
+        }
+        return archived;
+    }
+
+    @Override
+    public List<Task> getArchivedTasks(int boardId, int beforeTaskId, int limit) throws SQLException {
+        // Keyset pagination over the (board_id, id) index of every partition
+        String sql = "SELECT * FROM archived_tasks WHERE board_id = ? AND id < ? ORDER BY id DESC LIMIT ?";
+        List<Task> tasks = new ArrayList<>();
+
+        try (Connection conn = DatabaseManager.getReadConnection(boardId);
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, boardId);
+            stmt.setInt(2, beforeTaskId > 0 ? beforeTaskId : Integer.MAX_VALUE);
+            stmt.setInt(3, limit);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                tasks.add(mapTask(rs));
+            }
+        }
+        return tasks;
+    }
+
+    @Override
+    public Attachment addAttachment(int taskId, int userId, String fileName, long size, String sha256) throws SQLException {
+        // Inserts nothing if the task does not exist; the board comes from the task
+        String sql = """
+                INSERT INTO task_attachments (task_id, board_id, user_id, file_name, size, sha256)
+                SELECT id, board_id, ?, ?, ?, ? FROM tasks WHERE id = ?
+                RETURNING *
+            """;
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, userId);
+            stmt.setString(2, fileName);
+            stmt.setLong(3, size);
+            stmt.setString(4, sha256);
+            stmt.setInt(5, taskId);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? mapAttachment(rs) : null;
+        }
+    }
+
+    @Override
+    public List<Attachment> getAttachments(int taskId) throws SQLException {
+        String sql = "SELECT * FROM task_attachments WHERE task_id = ? ORDER BY id";
+        List<Attachment> attachments = new ArrayList<>();
+
+        try (Connection conn = DatabaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, taskId);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                attachments.add(mapAttachment(rs));
+            }
+        }
+        return attachments;
+    }
+
+    @Override
+    public Attachment getAttachment(int attachmentId) throws SQLException {
+        String sql = "SELECT * FROM task_attachments WHERE id = ?";
+
+        try (Connection conn = DatabaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, attachmentId);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? mapAttachment(rs) : null;
+        }
+    }
+
+    @Override
+    public ChatMessage addChatMessage(int userId, int boardId, String content) throws SQLException {
+        // The username is read in the same statement as the insert
+        String sql = """
+                WITH inserted AS (
+                    INSERT INTO messages (user_id, board_id, content) VALUES (?, ?, ?)
+                    RETURNING message_id, board_id, user_id, content, created_at
+                )
+                SELECT i.message_id, i.board_id, i.user_id, COALESCE(u.username, 'Unknown') AS username, i.content, i.created_at
+                FROM inserted i LEFT JOIN users u ON u.id = i.user_id
+            """;
+        DatabaseManager.ensureMonthlyPartitions("messages", 1);
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, userId);
+            if (boardId == ChatMessage.GENERAL_CHANNEL) {
+                stmt.setNull(2, Types.INTEGER);
+            } else {
+                stmt.setInt(2, boardId);
+            }
+            stmt.setString(3, content);
+            ResultSet rs = stmt.executeQuery();
+            if (!rs.next()) {
+                throw new SQLException("Failed to insert message, no ID obtained.");
+            }
+            return mapChatMessage(rs);
+        }
+    }
+
+    @Override
+    public List<ChatMessage> getChatHistory(int boardId, LocalDateTime beforeCreatedAt, int beforeMessageId, int limit) throws SQLException {
+        List<ChatMessage> history = new ArrayList<>();
+        // Keyset page over the (board_id, created_at, message_id) index, newest first, returned oldest
+        // first. Ordering by the partition key lets the newest partitions be scanned first and the
+        // scan stop there once the page is full; the plain created_at bound of an earlier page prunes
+        // the partitions after the cursor.
+        String sql = """
+            SELECT * FROM (
+                SELECT m.message_id, m.board_id, m.user_id, u.username, m.content, m.created_at
+                FROM messages m
+                JOIN users u ON m.user_id = u.id
+                WHERE %s %s
+                ORDER BY m.created_at DESC, m.message_id DESC
+                LIMIT ?
+            ) page
+            ORDER BY created_at, message_id
+        """.formatted(boardId == ChatMessage.GENERAL_CHANNEL ? "m.board_id IS NULL" : "m.board_id = ?",
+                beforeCreatedAt != null
+                        ? "AND m.created_at <= ? AND (m.created_at, m.message_id) < (?, ?)"
+                        : "");
+
+        try (Connection conn = DatabaseManager.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            if (boardId != ChatMessage.GENERAL_CHANNEL) {
+                stmt.setInt(index++, boardId);
+            }
+            if (beforeCreatedAt != null) {
+                Timestamp before = Timestamp.valueOf(beforeCreatedAt);
+                stmt.setTimestamp(index++, before);
+                stmt.setTimestamp(index++, before);
+                stmt.setInt(index++, beforeMessageId);
+            }
+            stmt.setInt(index, limit);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                history.add(mapChatMessage(rs));
+            }
+        }
+        return history;
+    }
+
+    // The server and database with the primary's WAL position, which every committed write advances.
+    // The position is cluster-wide, so writes to other databases of the cluster change it too.
+    @Override
+    public String changeStamp() throws SQLException {
+        String sql = "SELECT format('%s:%s/%s@%s', inet_server_addr(), inet_server_port(), current_database(), pg_current_wal_lsn())";
+        try (Connection conn = DatabaseManager.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+
+    static Task mapTask(ResultSet rs) throws SQLException {
+        Task task = new Task(
+                rs.getInt("id"),
+                rs.getString("title"),
+                rs.getString("description"),
+                TaskStatus.valueOf(rs.getString("status")),
+                rs.getInt("board_id"),
+                rs.getInt("user_id"),
+                rs.getInt("assignee_id"),
+                rs.getTimestamp("created_at").toLocalDateTime(),
+                rs.getTimestamp("updated_at").toLocalDateTime()
+        );
+        task.setRank(rs.getString("rank"));
+        Timestamp dueAt = rs.getTimestamp("due_at");
+        task.setDueAt(dueAt != null ? dueAt.toLocalDateTime() : null);
+        Timestamp remindAt = rs.getTimestamp("remind_at");
+        task.setRemindAt(remindAt != null ? remindAt.toLocalDateTime() : null);
+        return task;
+    }
+
+    private static Attachment mapAttachment(ResultSet rs) throws SQLException {
+        return new Attachment(
+                rs.getInt("id"),
+                rs.getInt("task_id"),
+                rs.getInt("board_id"),
+                rs.getInt("user_id"),
+                rs.getString("file_name"),
+                rs.getLong("size"),
+                rs.getString("sha256"),
+                rs.getTimestamp("created_at").toLocalDateTime()
+        );
+    }
+
+    private static User mapUser(ResultSet rs) throws SQLException {
+        return new User(
+                rs.getInt("id"),
+                rs.getString("username"),
+                rs.getTimestamp("created_at").toLocalDateTime(),
+                rs.getTimestamp("updated_at").toLocalDateTime()
+        );
+    }
+
+    private static ChatMessage mapChatMessage(ResultSet rs) throws SQLException {
+        int boardId = rs.getInt("board_id");
+        return new ChatMessage(
+                rs.getInt("message_id"),
+                rs.wasNull() ? ChatMessage.GENERAL_CHANNEL : boardId,
+                rs.getInt("user_id"),
+                rs.getString("username"),
+                rs.getString("content"),
+                rs.getTimestamp("created_at").toLocalDateTime()
+        );
+    }
+
+    // Board and status of a task, read with a row lock for the rest of the transaction
+    private record TaskRef(int boardId, TaskStatus status, int assigneeId) {}
+
+    private static TaskRef lockTask(Connection conn, int taskId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT board_id, status, assignee_id FROM tasks WHERE id = ? FOR UPDATE")) {
+            stmt.setInt(1, taskId);
+            ResultSet rs = stmt.executeQuery();
+            if (!rs.next()) {
+                return null;
+            }
+            return new TaskRef(rs.getInt("board_id"), TaskStatus.valueOf(rs.getString("status")), rs.getInt("assignee_id"));
+        }
+    }
+
+    // The board of a task, which never changes; null if the task does not exist
+    private static Integer readBoardId(Connection conn, int taskId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT board_id FROM tasks WHERE id = ?")) {
+            stmt.setInt(1, taskId);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getInt("board_id") : null;
+        }
+    }
+
+    /**
+     * Serializes the rank writers of a column (reorders and rebalances) until the transaction ends.
+     * An advisory lock rather than the column's board_status_counts row: moves lock their task and
+     * then the counter rows, so a counter row lock taken before a task's row lock could deadlock
+     * with them, and taken after it could deadlock with a rebalance writing that task's rank.
+     */
+    private static void lockColumn(Connection conn, int boardId, TaskStatus status) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT pg_advisory_xact_lock(?, ?)")) {
+            stmt.setInt(1, boardId);
+            stmt.setInt(2, status.ordinal());
+            stmt.executeQuery();
+        }
+    }
+
+    // Moves one task between the status counters of its board, guarded by the target's WIP limit
+    private static void moveCounter(Connection conn, TaskRef task, TaskStatus newStatus) throws SQLException {
+        if (task.status == newStatus) {
+            return;
+        }
+        String incrementSql = """
+                UPDATE board_status_counts SET task_count = task_count + 1
+                WHERE board_id = ? AND status = ?::task_status AND (wip_limit IS NULL OR task_count < wip_limit)
+            """;
+        String decrementSql = "UPDATE board_status_counts SET task_count = task_count - 1 WHERE board_id = ? AND status = ?::task_status";
+        try (PreparedStatement increment = conn.prepareStatement(incrementSql);
+             PreparedStatement decrement = conn.prepareStatement(decrementSql)) {
+            increment.setInt(1, task.boardId);
+            increment.setString(2, newStatus.name());
+            if (increment.executeUpdate() == 0) {
+                throw KanbanRepository.wipLimitReached(readWipLimit(conn, task.boardId, newStatus), newStatus);
+            }
+            decrement.setInt(1, task.boardId);
+            decrement.setString(2, task.status.name());
+            decrement.executeUpdate();
+        }
+    }
+
+    private static Integer readWipLimit(Connection conn, int boardId, TaskStatus status) throws SQLException {
+        String sql = "SELECT wip_limit FROM board_status_counts WHERE board_id = ? AND status = ?::task_status";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, boardId);
+            stmt.setString(2, status.name());
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? (Integer) rs.getObject("wip_limit") : null;
+        }
+    }
+
+    /**
+     * Streams tasks from a server-side JDBC cursor. With auto-commit off, the PostgreSQL driver
+     * only keeps one fetch (sized to the requested chunk) in memory at a time.
+     */
+    private static class CursorTaskStream implements TaskStream {
+
+        private final long totalCount;
+        private Connection conn;
+        private PreparedStatement stmt;
+        private ResultSet rs;
+
+        CursorTaskStream(int boardId) throws SQLException {
+            String countSql = boardId == -1
+                    ? "SELECT COUNT(*) FROM tasks"
+                    : "SELECT COUNT(*) FROM tasks WHERE board_id = ?";
+            String sql = boardId == -1
+                    ? "SELECT * FROM tasks ORDER BY board_id, status, rank, id"
+                    : "SELECT * FROM tasks WHERE board_id = ? ORDER BY status, rank, id";
+
+            try {
+                conn = DatabaseManager.getReadConnection(boardId);
+                conn.setAutoCommit(false); // Required for the driver to use a cursor instead of reading all rows
+                conn.setReadOnly(true);
+
+                try (PreparedStatement countStmt = conn.prepareStatement(countSql)) {
+                    if (boardId != -1) {
+                        countStmt.setInt(1, boardId);
+                    }
+                    try (ResultSet countRs = countStmt.executeQuery()) {
+                        totalCount = countRs.next() ? countRs.getLong(1) : 0;
+                    }
+                }
+
+                stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                stmt.setFetchSize(TaskCursorImpl.CHUNK_SIZE);
+                if (boardId != -1) {
+                    stmt.setInt(1, boardId);
+                }
+                rs = stmt.executeQuery();
+            } catch (SQLException e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public long getTotalCount() {
+            return totalCount;
+        }
+
+        @Override
+        public List<Task> next(int maxTasks) throws SQLException {
+            List<Task> chunk = new ArrayList<>(maxTasks);
+            while (rs != null && chunk.size() < maxTasks && rs.next()) {
+                chunk.add(mapTask(rs));
+            }
+            return chunk;
+        }
+
+        @Override
+        public void close() {
+            try {
+                if (rs != null) rs.close();
+                if (stmt != null) stmt.close();
+                if (conn != null) {
+                    conn.rollback();
+                    conn.close();
+                }
+            } catch (SQLException e) {
+                System.err.println("Error closing task export cursor: " + e.getMessage());
+            } finally {
+                rs = null;
+                stmt = null;
+                conn = null;
+            }
+        }
+    }
+
+    /**
+     * Every chunk is loaded with COPY into a temporary staging table on a single connection and
+     * transaction. On commit, unknown users, unknown statuses and oversized fields are filtered out
+     * set-wise and the remaining rows are inserted with one INSERT ... SELECT, which also updates
+     * the board's status counters.
+     */
+    private static class CopyTaskImport implements TaskImport {
+
+        private final int boardId;
+        private final int userId;
+        private Connection conn;
+        private CopyManager copyManager;
+
+        CopyTaskImport(int boardId, int userId) throws SQLException {
+            this.boardId = boardId;
+            this.userId = userId;
+            try {
+                conn = DatabaseManager.getConnection();
+                conn.setAutoCommit(false);
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.executeUpdate("""
+                        CREATE TEMP TABLE task_import (
+                            line_no BIGSERIAL,
+                            title TEXT,
+                            description TEXT,
+                            status TEXT,
+                            created_by TEXT,
+                            assigned_to TEXT
+                        ) ON COMMIT DROP
+                    """);
+                }
+                copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+            } catch (SQLException e) {
+                abort();
+                throw e;
+            }
+        }
+
+        @Override
+        public long stage(String csvRows) throws SQLException {
+            try {
+                return copyManager.copyIn(COPY_SQL, new StringReader(csvRows));
+            } catch (IOException e) {
+                throw new SQLException("Error staging imported tasks: " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public Map<TaskStatus, Integer> commit() throws SQLException {
+            Map<TaskStatus, Integer> importedByStatus = new EnumMap<>(TaskStatus.class);
+            try (PreparedStatement stmt = conn.prepareStatement(IMPORT_SQL)) {
+                stmt.setInt(1, boardId);
+                stmt.setInt(2, boardId);
+                stmt.setInt(3, userId);
+                stmt.setInt(4, boardId);
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    TaskStatus status = TaskStatus.valueOf(rs.getString("status"));
+                    int wipLimit = rs.getInt("wip_limit");
+                    if (!rs.wasNull() && rs.getInt("task_count") > wipLimit) {
+                        throw new SQLException("Import would exceed the WIP limit of " + wipLimit + " for "
+                                + status.toString().replace('_', ' ') + ".", WIP_LIMIT_STATE);
+                    }
+                    importedByStatus.put(status, rs.getInt("imported"));
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                abort();
+                throw e;
+            }
+            close();
+            return importedByStatus;
+        }
+
+        @Override
+        public void abort() {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException e) {
+                    System.err.println("Error rolling back task import: " + e.getMessage());
+                }
+            }
+            close();
+        }
+
+        private void close() {
+            try {
+                if (conn != null) conn.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing task import connection: " + e.getMessage());
+            } finally {
+                conn = null;
+                copyManager = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+import java.rmi.RemoteException;
+
+// Thrown when a call is rejected by admission control; clients should retry after the hint
+public class RateLimitedException extends RemoteException {
+    private final long retryAfterMillis;
+
+    public RateLimitedException(String operation, long retryAfterMillis) {
+        super("Too many requests for " + operation + ", retry after " + retryAfterMillis + " ms");
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    // RMI hands exceptions thrown by the server to the caller wrapped in a ServerException
+    public static RateLimitedException of(Throwable e) {
+        if (e instanceof RateLimitedException limited) {
+            return limited;
+        }
+        return e != null && e.getCause() instanceof RateLimitedException limited ? limited : null;
+    }
+}
@@ -0,0 +1,195 @@
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.rmi.ConnectException;
+import java.rmi.ConnectIOException;
+import java.rmi.MarshalException;
+import java.rmi.Naming;
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+import java.rmi.UnknownHostException;
+import java.rmi.UnmarshalException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client-side {@link KanbanService} that survives server restarts. Calls go to the current stub;
+ * when a call fails because the server cannot be reached, the connection is marked as lost and a
+ * background loop looks the service up again, with exponential backoff and full jitter so that
+ * the clients of a restarted server do not all come back at the same moment. Once reconnected,
+ * the connection listeners run (on the reconnect thread), e.g. to register callbacks again. While
+ * disconnected, calls fail fast with a {@link ConnectException}. A periodic ping notices a lost
+ * connection while the user is idle.
+ *
+ * Every connection opens a session of its own (see {@link KanbanService#openSession()}), so the
+ * server rate limits this client apart from others on the same network. A call rejected by the
+ * rate limit never ran, and is sent again after the server's retry-after hint.
+ *
+ * Configured with system properties: planny.reconnect.baseMillis (default 500),
+ * planny.reconnect.maxMillis (default 30000), planny.reconnect.pingSeconds (default 15),
+ * planny.reconnect.rateLimitRetries (default 5).
+ */
+public class ReconnectingService implements InvocationHandler {
+
+    public interface ConnectionListener {
+        void connectionLost();
+
+        void reconnected() throws Exception;
+    }
+
+    private static final long BASE_MILLIS = Long.getLong("planny.reconnect.baseMillis", 500);
+    private static final long MAX_MILLIS = Long.getLong("planny.reconnect.maxMillis", 30_000);
+    private static final long PING_SECONDS = Long.getLong("planny.reconnect.pingSeconds", 15);
+    private static final int RATE_LIMIT_RETRIES = Integer.getInteger("planny.reconnect.rateLimitRetries", 5);
+
+    private final String url;
+    private final KanbanService proxy;
+    private final List<ConnectionListener> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "rmi-reconnect");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile KanbanService target; // Null while disconnected
+
+    private ReconnectingService(String url, KanbanService target) {
+        this.url = url;
+        this.target = target;
+        this.proxy = (KanbanService) Proxy.newProxyInstance(
+                KanbanService.class.getClassLoader(),
+                new Class<?>[]{KanbanService.class},
+                this);
+        executor.scheduleWithFixedDelay(this::ping, PING_SECONDS, PING_SECONDS, TimeUnit.SECONDS);
+    }
+
+    // Looks the service up once; later lookups are done by the reconnect loop
+    public static ReconnectingService connect(String url) throws Exception {
+        return new ReconnectingService(url, openSession(url));
+    }
+
+    // Sessions are opened through the registry's stub, which is rate limited per host
+    private static KanbanService openSession(String url) throws Exception {
+        KanbanService service = (KanbanService) Naming.lookup(url);
+        for (int retries = 0; ; retries++) {
+            try {
+                return service.openSession();
+            } catch (RemoteException e) {
+                RateLimitedException limited = RateLimitedException.of(e);
+                if (limited == null || retries >= RATE_LIMIT_RETRIES) {
+                    throw e;
+                }
+                Thread.sleep(limited.getRetryAfterMillis());
+            }
+        }
+    }
+
+    public KanbanService service() {
+        return proxy;
+    }
+
+    public boolean isConnected() {
+        return target != null;
+    }
+
+    public void addConnectionListener(ConnectionListener listener) {
+        listeners.add(listener);
+    }
+
+    // Whether the server could not be reached, so the call may or may not have been executed
+    public static boolean isConnectionFailure(Throwable e) {
+        return isRequestNotSent(e)
+                || ((e instanceof MarshalException || e instanceof UnmarshalException) && e.getCause() instanceof IOException);
+    }
+
+    // Whether the call certainly did not reach the server, so it is safe to send it again later
+    public static boolean isRequestNotSent(Throwable e) {
+        return e instanceof ConnectException || e instanceof ConnectIOException
+                || e instanceof NoSuchObjectException || e instanceof UnknownHostException;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            return method.invoke(this, args); // equals/hashCode/toString of the wrapper itself
+        }
+
+        KanbanService current = target;
+        if (current == null) {
+            throw new ConnectException("Not connected to the server; reconnecting");
+        }
+        for (int retries = 0; ; retries++) {
+            try {
+                return method.invoke(current, args);
+            } catch (InvocationTargetException e) {
+                RateLimitedException limited = RateLimitedException.of(e.getCause());
+                if (limited != null && retries < RATE_LIMIT_RETRIES) {
+                    try {
+                        Thread.sleep(limited.getRetryAfterMillis());
+                        continue;
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                if (isConnectionFailure(e.getCause())) {
+                    connectionLost(current);
+                }
+                throw e.getCause();
+            }
+        }
+    }
+
+    private void ping() {
+        KanbanService current = target;
+        if (current != null) {
+            try {
+                current.ping();
+            } catch (Exception e) {
+                if (isConnectionFailure(e)) {
+                    connectionLost(current);
+                }
+            }
+        }
+    }
+
+    private synchronized void connectionLost(KanbanService failed) {
+        if (target != failed) {
+            return; // Already noticed by another call
+        }
+        target = null;
+        System.err.println("Lost the connection to " + url + "; reconnecting.");
+        for (ConnectionListener listener : listeners) {
+            listener.connectionLost();
+        }
+        scheduleReconnect(0);
+    }
+
+    private void scheduleReconnect(int attempt) {
+        // Full jitter: a random delay up to the exponential backoff, capped
+        long ceiling = Math.min(MAX_MILLIS, BASE_MILLIS << Math.min(attempt, 20));
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        executor.schedule(() -> reconnect(attempt), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void reconnect(int attempt) {
+        try {
+            target = openSession(url);
+        } catch (Exception e) {
+            scheduleReconnect(attempt + 1);
+            return;
+        }
+        System.out.println("Reconnected to " + url + " after " + (attempt + 1) + " attempts.");
+        for (ConnectionListener listener : listeners) {
+            try {
+                listener.reconnected();
+            } catch (Exception e) {
+                System.err.println("Error after reconnecting: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends task reminders when they are due. Pending reminders live in one {@link TimingWheel},
+ * advanced by a single ticker thread every planny.reminders.tickMillis (default 1000), instead of
+ * a scheduled executor task per reminder; setting, changing and cancelling a reminder are O(1).
+ * Due reminders are handed to the delivery on a thread of their own, so a slow delivery (a
+ * database update and a callback) never holds up the ticks.
+ *
+ * The wheel is only a schedule: the reminders themselves are stored with the tasks, and
+ * {@link #loadAll(KanbanRepository)} rebuilds the wheel from them on startup. Reminders that fell
+ * due while the server was down are sent right away.
+ */
+public class ReminderScheduler {
+
+    public record Reminder(int taskId, LocalDateTime remindAt) {}
+
+    public interface Delivery {
+        void deliver(Reminder reminder);
+    }
+
+    private static final long TICK_MILLIS = Long.getLong("planny.reminders.tickMillis", 1000);
+    private static final long RETRY_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final int LOAD_PAGE = 5000;
+
+    private final TimingWheel<Reminder> wheel = new TimingWheel<>(TICK_MILLIS, System.currentTimeMillis()); // Guarded by this
+    private final Delivery delivery;
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "reminder-wheel");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService deliveries = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "reminder-delivery");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReminderScheduler(Delivery delivery) {
+        this.delivery = delivery;
+    }
+
+    public void start() {
+        ticker.scheduleAtFixedRate(this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    // Sets, moves or (with null) cancels the task's reminder
+    public synchronized void schedule(int taskId, LocalDateTime remindAt) {
+        if (remindAt == null) {
+            wheel.cancel(taskId);
+        } else {
+            wheel.schedule(taskId, toMillis(remindAt), new Reminder(taskId, remindAt));
+        }
+    }
+
+    public synchronized void cancel(int taskId) {
+        wheel.cancel(taskId);
+    }
+
+    // A delivery that failed (e.g. the database was unreachable) is tried again later, unless
+    // the task got a new reminder meanwhile
+    public synchronized void retryLater(Reminder reminder) {
+        if (!wheel.contains(reminder.taskId())) {
+            wheel.schedule(reminder.taskId(), System.currentTimeMillis() + RETRY_MILLIS, reminder);
+        }
+    }
+
+    public synchronized int size() {
+        return wheel.size();
+    }
+
+    public void loadAll(KanbanRepository repository) throws SQLException {
+        int afterTaskId = 0;
+        List<Task> page;
+        do {
+            page = repository.getTasksWithReminders(afterTaskId, LOAD_PAGE);
+            for (Task task : page) {
+                schedule(task.getId(), task.getRemindAt());
+                afterTaskId = task.getId();
+            }
+        } while (page.size() == LOAD_PAGE);
+        System.out.println("Loaded " + size() + " pending task reminders.");
+    }
+
+    private void tick() {
+        List<Reminder> due;
+        synchronized (this) {
+            due = wheel.advance(System.currentTimeMillis());
+        }
+        for (Reminder reminder : due) {
+            deliveries.execute(() -> delivery.deliver(reminder));
+        }
+    }
+
+    // Task times are local times of the server, like CURRENT_TIMESTAMP in the database
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
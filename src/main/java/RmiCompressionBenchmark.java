@@ -0,0 +1,97 @@
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Benchmark for {@link CompressedSocketFactory}. Exports one service backed by an embedded store
+ * holding a large board twice, once with compression disabled (same framing, so equivalent to
+ * plain RMI on the wire) and once with the default threshold, calls getTasks, getUsers and
+ * getChatHistory over loopback and reports bytes on the wire and latency per call, plus the
+ * latency to expect on a slow link (loopback latency + wire bytes / link bandwidth).
+ *
+ * Run with: java RmiCompressionBenchmark [tasks] [iterations] [link Mbit/s]
+ */
+public class RmiCompressionBenchmark {
+
+    // Exported objects only reachable through local stubs would otherwise be collected
+    private static final List<KanbanService> exported = new ArrayList<>();
+
+    public static void main(String[] args) throws Exception {
+        int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        double linkMbps = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+
+        Path dir = Files.createTempDirectory("planny-bench");
+        System.setProperty("planny.embedded.dir", dir.toString());
+        EmbeddedKanbanRepository repository = EmbeddedKanbanRepository.open();
+        int boardId = populate(repository, taskCount);
+        KanbanServiceImpl service = new KanbanServiceImpl(repository, null);
+
+        KanbanService plain = export(service, new CompressedSocketFactory(-1));
+        KanbanService compressed = export(service, new CompressedSocketFactory(8192));
+
+        System.out.printf("%d tasks, %d iterations, link %.1f Mbit/s%n", taskCount, iterations, linkMbps);
+        System.out.printf("%-16s %-12s %14s %12s %16s%n", "call", "sockets", "wire bytes", "loopback ms", "on link ms");
+        for (boolean useCompression : new boolean[]{false, true}) {
+            KanbanService stub = useCompression ? compressed : plain;
+            String name = useCompression ? "compressed" : "plain";
+            run("getTasks", name, () -> stub.getTasks(boardId), iterations, linkMbps);
+            run("getUsers", name, stub::getUsers, iterations, linkMbps);
+            run("getChatHistory", name, () -> stub.getChatHistory(ChatMessage.GENERAL_CHANNEL, null, 0, 100), iterations, linkMbps);
+        }
+        System.exit(0);
+    }
+
+    private static int populate(EmbeddedKanbanRepository repository, int taskCount) throws Exception {
+        for (int i = 0; i < 200; i++) {
+            repository.createUser("user" + i, "password");
+        }
+        int boardId = repository.createBoard("Benchmark").getId();
+        for (int i = 0; i < taskCount; i++) {
+            repository.createTask(boardId, 1 + i % 200, 1 + (i * 7) % 200, "Task " + i + ": update the release checklist",
+                    "Follow up with the team on item " + i + " and record the outcome in the tracker.",
+                    TaskStatus.values()[i % TaskStatus.values().length]);
+        }
+        for (int i = 0; i < 100; i++) {
+            repository.addChatMessage(1 + i % 200, ChatMessage.GENERAL_CHANNEL, "Status update " + i + ": the board is looking good, moving on to review.");
+        }
+        return boardId;
+    }
+
+    // Exports a pass-through proxy per socket factory, since an object can only be exported once
+    private static KanbanService export(KanbanService service, CompressedSocketFactory sockets) throws Exception {
+        KanbanService proxy = (KanbanService) Proxy.newProxyInstance(KanbanService.class.getClassLoader(),
+                new Class<?>[]{KanbanService.class}, (target, method, methodArgs) -> {
+                    try {
+                        return method.invoke(service, methodArgs);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        exported.add(proxy);
+        return (KanbanService) UnicastRemoteObject.exportObject(proxy, 0, sockets, sockets);
+    }
+
+    private static void run(String call, String sockets, Callable<?> invocation, int iterations, double linkMbps) throws Exception {
+        // Warm-up: JIT, connection setup and the Deflater
+        for (int i = 0; i < Math.max(5, iterations / 5); i++) {
+            invocation.call();
+        }
+
+        long bytesBefore = CompressedSocket.wireBytesSent.get();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            invocation.call();
+        }
+        double millis = (System.nanoTime() - start) / 1e6 / iterations;
+        long wireBytes = (CompressedSocket.wireBytesSent.get() - bytesBefore) / iterations;
+        double linkMillis = millis + wireBytes * 8 / (linkMbps * 1000);
+
+        System.out.printf("%-16s %-12s %14d %12.2f %16.1f%n", call, sockets, wireBytes, millis, linkMillis);
+    }
+}
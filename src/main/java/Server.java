@@ -1,15 +1,60 @@
 import java.rmi.registry.LocateRegistry;
 import java.rmi.Naming;
+import java.rmi.server.UnicastRemoteObject;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
 
 public class Server {
 
+    // How long a shutdown waits for running calls, and for background work to announce its changes
+    private static final long DRAIN_SECONDS = Long.getLong("planny.warmStart.drainSeconds", 10);
+    private static final long SETTLE_MILLIS = Long.getLong("planny.warmStart.settleMillis", 500);
+
     public static void main(String[] args) {
+        EmbeddedKanbanRepository embedded = null; // Closed by the shutdown hook
         try {
-            // 1. Initialize database connection and create tables
-            DatabaseManager.initialize();
+            // 1. Open the storage: PostgreSQL (default) or the embedded store, chosen with planny.storage
+            KanbanRepository repository;
+            StatusJournal statusJournal = null;
+            WarmStart warmStart = WarmStart.isEnabled() ? WarmStart.open() : null;
+            WarmStart.State warmState;
+            if ("embedded".equals(System.getProperty("planny.storage", "postgres"))) {
+                embedded = EmbeddedKanbanRepository.open();
+                repository = embedded;
+                warmState = loadWarmStart(warmStart, repository);
+                if (StatusJournal.isEnabled()) {
+                    System.out.println("Write-behind moves are only used with PostgreSQL storage; ignoring planny.writeBehind.");
+                }
+            } else {
+                // The saved caches are only valid if nothing was written since, so check before
+                // the startup work below writes
+                repository = new PostgresKanbanRepository();
+                warmState = loadWarmStart(warmStart, repository);
+
+                // Initialize database connection and create tables
+                DatabaseManager.initialize();
+
+                // Create upcoming monthly partitions and drop expired chat history, now and daily
+                new PartitionMaintenance().start();
 
-            // 2. Create the KanbanService implementation
-            KanbanServiceImpl service = new KanbanServiceImpl();
+                // Replay the write-behind journal, if enabled, before anything reads task statuses
+                if (StatusJournal.isEnabled()) {
+                    statusJournal = StatusJournal.open();
+                    statusJournal.recover();
+                }
+            }
+
+            // 2. Create the KanbanService implementation, behind per-client rate limiting
+            KanbanServiceImpl service = new KanbanServiceImpl(repository, statusJournal);
+            if (warmState != null) {
+                service.restoreWarmStart(warmState);
+            }
+            AdmissionController admission = new AdmissionController();
+            CompressedSocketFactory sockets = CompressedSocketFactory.forExport();
+            KanbanService admittedService = AdmissionControlledService.wrap(service, admission, sockets, sockets);
+            if (TaskArchiver.isEnabled()) {
+                new TaskArchiver(service).start();
+            }
 
             // 3. Start the RMI registry (on port 1099, default RMI port)
             try {
@@ -19,12 +64,59 @@ public class Server {
                 System.out.println("RMI Registry already running.");
             }
 
-            // 4. Bind the service instance to the RMI registry
-            Naming.rebind("KanbanService", service);
+            // 4. Bind the service instance to the RMI registry, exported with compressing sockets
+            Naming.rebind("KanbanService", UnicastRemoteObject.exportObject(admittedService, 0, sockets, sockets));
             System.out.println("KanbanService is ready!");
 
+            // 5. On a graceful shutdown, stop taking calls, save the caches for a warm start and
+            // close the storage, in that order (separate hooks would run concurrently)
+            EmbeddedKanbanRepository embeddedStore = embedded;
+            Runtime.getRuntime().addShutdownHook(new Thread(
+                    () -> shutDown(warmStart, service, admittedService, admission, embeddedStore), "server-shutdown"));
+
         } catch (Exception e) {
             e.printStackTrace();
+            if (embedded != null) {
+                embedded.close();
+            }
+        }
+    }
+
+    private static WarmStart.State loadWarmStart(WarmStart warmStart, KanbanRepository repository) {
+        if (warmStart == null) {
+            return null;
+        }
+        String changeStamp = null;
+        try {
+            changeStamp = repository.changeStamp();
+        } catch (SQLException e) {
+            System.err.println("Error reading the storage's change stamp: " + e.getMessage());
+        }
+        return warmStart.load(changeStamp);
+    }
+
+    private static void shutDown(WarmStart warmStart, KanbanServiceImpl service, KanbanService exported,
+                                 AdmissionController admission, EmbeddedKanbanRepository embedded) {
+        try {
+            boolean drained = admission.drain(DRAIN_SECONDS, TimeUnit.SECONDS);
+            UnicastRemoteObject.unexportObject(exported, true);
+            if (warmStart == null) {
+                return;
+            }
+            if (!drained) {
+                System.out.println("Calls were still running at shutdown; the next start will be cold.");
+            } else if (service.saveWarmStart(warmStart, SETTLE_MILLIS)) {
+                System.out.println("Saved the caches for a warm start.");
+            } else {
+                System.out.println("Data changed during shutdown; the next start will be cold.");
+            }
+        } catch (Exception e) {
+            System.err.println("Error saving the caches for a warm start: " + e.getMessage());
+        } finally {
+            // Last: the drained calls and the background work may still have been writing to it
+            if (embedded != null) {
+                embedded.close();
+            }
         }
     }
 }
\ No newline at end of file
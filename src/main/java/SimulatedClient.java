@@ -0,0 +1,76 @@
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Headless {@link ClientListener} used by {@link LoadTest}. It records how long notifications
+ * take to arrive: task events are measured against the last mutation of the board made by any
+ * simulated user, chat messages against the send time embedded in their content.
+ */
+public class SimulatedClient extends UnicastRemoteObject implements ClientListener {
+
+    static final String CHAT_PREFIX = "lt:";
+
+    private final Map<Integer, Long> lastMutationNanos;
+    private final LatencyHistogram taskEventLag;
+    private final LatencyHistogram chatLag;
+    private volatile List<Task> knownTasks = List.of();
+
+    public SimulatedClient(Map<Integer, Long> lastMutationNanos, LatencyHistogram taskEventLag, LatencyHistogram chatLag) throws RemoteException {
+        super(0, CompressedSocketFactory.forExport(), CompressedSocketFactory.forExport());
+        this.lastMutationNanos = lastMutationNanos;
+        this.taskEventLag = taskEventLag;
+        this.chatLag = chatLag;
+    }
+
+    public List<Task> getKnownTasks() {
+        return knownTasks;
+    }
+
+    public void setKnownTasks(List<Task> tasks) {
+        this.knownTasks = tasks;
+    }
+
+    @Override
+    public void onTasksUpdated(int boardId, long revision, BoardSummary summary) {
+        Long mutatedAt = lastMutationNanos.get(boardId);
+        if (mutatedAt != null) {
+            taskEventLag.recordNanos(System.nanoTime() - mutatedAt);
+        }
+    }
+
+    @Override
+    public void onBoardListChanged() {
+        // Board list changes are not part of the simulated workload
+    }
+
+    @Override
+    public void onUserTaskChanged(Task task, boolean removed) {
+        // Simulated users do not keep a "My tasks" view
+    }
+
+    @Override
+    public void onUserDirectoryChanged(User user) {
+        // Simulated users do not display user names
+    }
+
+    @Override
+    public void onTaskReminder(Task task) {
+        // Simulated users do not set reminders
+    }
+
+    @Override
+    public void onChatMessageReceived(ChatMessage message) {
+        String content = message.getContent();
+        if (content != null && content.startsWith(CHAT_PREFIX)) {
+            int end = content.indexOf('|');
+            try {
+                long sentAt = Long.parseLong(content.substring(CHAT_PREFIX.length(), end));
+                chatLag.recordNanos(System.nanoTime() - sentAt);
+            } catch (RuntimeException e) {
+                // Not a load test message
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+import javax.swing.JTable;
+import javax.swing.SwingConstants;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.Color;
+import java.awt.Component;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Renders the task status column with colors and labels computed once per status,
+ * instead of recomputing them on every paint.
+ */
+public class StatusCellRenderer extends DefaultTableCellRenderer {
+
+    private static final Map<TaskStatus, Color> BACKGROUNDS = new EnumMap<>(TaskStatus.class);
+    private static final Map<TaskStatus, Color> FOREGROUNDS = new EnumMap<>(TaskStatus.class);
+    private static final Map<TaskStatus, String> LABELS = new EnumMap<>(TaskStatus.class);
+
+    static {
+        BACKGROUNDS.put(TaskStatus.TO_DO, Color.RED);
+        FOREGROUNDS.put(TaskStatus.TO_DO, Color.WHITE); // Set text color for contrast
+        BACKGROUNDS.put(TaskStatus.IN_PROGRESS, Color.YELLOW);
+        FOREGROUNDS.put(TaskStatus.IN_PROGRESS, Color.BLACK);
+        BACKGROUNDS.put(TaskStatus.DONE, Color.GREEN);
+        FOREGROUNDS.put(TaskStatus.DONE, Color.BLACK);
+        for (TaskStatus status : TaskStatus.values()) {
+            LABELS.put(status, status.toString());
+        }
+    }
+
+    public static Color backgroundFor(TaskStatus status) {
+        return BACKGROUNDS.get(status);
+    }
+
+    public static Color foregroundFor(TaskStatus status) {
+        return FOREGROUNDS.get(status);
+    }
+
+    @Override
+    public Component getTableCellRendererComponent(JTable table, Object value,
+                                                   boolean isSelected, boolean hasFocus, int row, int column) {
+        super.getTableCellRendererComponent(table, null, isSelected, hasFocus, row, column);
+
+        if (value instanceof TaskStatus status) {
+            setBackground(BACKGROUNDS.get(status));
+            setForeground(FOREGROUNDS.get(status));
+            setHorizontalAlignment(SwingConstants.CENTER);
+            setText(LABELS.get(status));
+        } else {
+            // Reset to default colors if the value is not a TaskStatus or null
+            setBackground(isSelected ? table.getSelectionBackground() : table.getBackground());
+            setForeground(isSelected ? table.getSelectionForeground() : table.getForeground());
+            setHorizontalAlignment(SwingConstants.LEFT);
+            setText(value != null ? value.toString() : "");
+        }
+        return this;
+    }
+}
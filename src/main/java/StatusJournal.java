@@ -0,0 +1,449 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.rmi.RemoteException;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * Write-behind journal for task status moves.
+ *
+ * A move is appended to a memory-mapped file and acknowledged once the file was forced to disk.
+ * A sync thread forces once for all records appended since the previous force (group commit), so
+ * concurrent moves share one fsync. A flusher thread then applies durable records to PostgreSQL
+ * in batches, one transaction per batch, coalescing repeated moves of the same task and updating
+ * the board status counters in the same statement. The header keeps the last applied sequence
+ * number; on startup {@link #recover()} replays everything after it.
+ *
+ * Until a move is applied, {@link #overlay(Task)} lets reads return the journaled status.
+ * Synchronous writes to tasks go through {@link #exclusively(SynchronousWrite)}, which applies
+ * the journal first and holds new moves back until the write is done.
+ *
+ * Layout: a 32 byte header (magic, version, applied sequence) followed by 32 byte records
+ * (sequence, task ID, status, move time, CRC32 of the first 24 bytes).
+ */
+public class StatusJournal {
+
+    // Checked before a move is appended, with the task's latest (possibly journaled) status
+    public interface MoveGuard {
+        void check(TaskStatus previousStatus) throws RemoteException;
+    }
+
+    public interface SynchronousWrite<T> {
+        T run() throws SQLException;
+    }
+
+    private static final int MAGIC = 0x504C4E4A; // "PLNJ"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int RECORD_SIZE = 32;
+    private static final int APPLIED_SEQ_OFFSET = 8;
+    private static final int MAX_BATCH = 1000;
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+
+    private static final String APPLY_SQL = """
+            WITH moves AS (
+                SELECT * FROM unnest(?::int[], ?::text[], ?::timestamp[]) AS m(id, status, moved_at)
+            ), old AS (
+                SELECT t.id, t.board_id, t.status AS old_status
+                FROM tasks t JOIN moves m ON m.id = t.id
+                FOR UPDATE OF t
+            ), updated AS (
+                UPDATE tasks t SET status = m.status::task_status, updated_at = m.moved_at
+                FROM moves m WHERE t.id = m.id
+                RETURNING t.id
+            ), deltas AS (
+                SELECT old.board_id, old.old_status AS status, -1 AS delta
+                FROM old JOIN moves m ON m.id = old.id WHERE old.old_status::text <> m.status
+                UNION ALL
+                SELECT old.board_id, m.status::task_status, 1
+                FROM old JOIN moves m ON m.id = old.id WHERE old.old_status::text <> m.status
+            )
+            UPDATE board_status_counts c SET task_count = c.task_count + d.delta
+            FROM (SELECT board_id, status, SUM(delta) AS delta FROM deltas GROUP BY board_id, status) d
+            WHERE c.board_id = d.board_id AND c.status = d.status
+        """;
+
+    private record PendingMove(long seq, TaskStatus status, LocalDateTime movedAt) {}
+
+    private record JournalRecord(long seq, int taskId, TaskStatus status, LocalDateTime movedAt) {}
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final long flushMillis;
+    private final Map<Integer, PendingMove> pending = new ConcurrentHashMap<>();
+    private final Object syncLock = new Object();
+    private final Object flushLock = new Object();
+    private final ReadWriteLock appendLock = new ReentrantReadWriteLock(); // Shared by appends, exclusive for synchronous writes
+
+    // Guarded by this
+    private int writePos = HEADER_SIZE;
+    private int appliedPos = HEADER_SIZE;
+    private long nextSeq = 1;
+    private long writtenSeq;
+    private long generation;
+
+    // Guarded by syncLock
+    private long durableSeq;
+    private int durablePos = HEADER_SIZE;
+
+    private volatile long appliedSeq;
+
+    private StatusJournal(Path path, int capacity, long flushMillis) throws IOException {
+        this.capacity = capacity - (capacity - HEADER_SIZE) % RECORD_SIZE;
+        this.flushMillis = flushMillis;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, this.capacity);
+
+        if (buffer.getInt(0) != MAGIC) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(APPLIED_SEQ_OFFSET, 0);
+            buffer.force();
+        } else if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported status journal version " + buffer.getInt(4));
+        }
+    }
+
+    /**
+     * Opens the journal configured by planny.writeBehind.journal (default planny-status.journal),
+     * planny.writeBehind.journalMB (default 64) and planny.writeBehind.flushMillis (default 50).
+     */
+    public static StatusJournal open() throws IOException {
+        Path path = Path.of(System.getProperty("planny.writeBehind.journal", "planny-status.journal"));
+        int capacity = Integer.getInteger("planny.writeBehind.journalMB", 64) * 1024 * 1024;
+        long flushMillis = Long.getLong("planny.writeBehind.flushMillis", 50);
+        System.out.println("Opening status journal " + path.toAbsolutePath());
+        return new StatusJournal(path, capacity, flushMillis);
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean("planny.writeBehind");
+    }
+
+    /**
+     * Replays the durable records that were not applied before the last shutdown or crash,
+     * then starts the sync and flusher threads. Must be called once, before serving requests.
+     */
+    public void recover() throws SQLException {
+        appliedSeq = buffer.getLong(APPLIED_SEQ_OFFSET);
+        List<JournalRecord> unapplied = new ArrayList<>();
+        long lastSeq = appliedSeq;
+
+        for (int pos = HEADER_SIZE; pos + RECORD_SIZE <= capacity; pos += RECORD_SIZE) {
+            JournalRecord record = readRecord(pos);
+            // A torn write, an empty slot or a stale record from before the last reset ends the log
+            if (record == null || (pos > HEADER_SIZE && record.seq != lastSeq + 1)) {
+                break;
+            }
+            lastSeq = record.seq;
+            if (record.seq > appliedSeq) {
+                unapplied.add(record);
+            }
+        }
+
+        if (!unapplied.isEmpty()) {
+            System.out.println("Replaying " + unapplied.size() + " journaled task moves.");
+            for (int from = 0; from < unapplied.size(); from += MAX_BATCH) {
+                apply(unapplied.subList(from, Math.min(unapplied.size(), from + MAX_BATCH)));
+            }
+        }
+        // The first slot may hold a stale, already applied record from before the last reset
+        lastSeq = Math.max(lastSeq, appliedSeq);
+        markApplied(lastSeq);
+
+        synchronized (this) {
+            nextSeq = lastSeq + 1;
+            writtenSeq = lastSeq;
+        }
+        synchronized (syncLock) {
+            durableSeq = lastSeq;
+        }
+
+        startThread("status-journal-sync", this::syncLoop);
+        startThread("status-journal-flusher", this::flushLoop);
+    }
+
+    // Changes every time applied records are removed from the overlay
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Appends a move after checking it with the guard, and returns its sequence number once it is
+     * durable. Returns -1 without appending if records were applied since {@code expectedGeneration}
+     * was read, in which case the caller must re-read the task from the database and retry.
+     */
+    public long append(long expectedGeneration, int taskId, TaskStatus dbStatus, TaskStatus newStatus,
+                       LocalDateTime movedAt, MoveGuard guard) throws RemoteException {
+        long seq;
+        appendLock.readLock().lock();
+        try {
+            synchronized (this) {
+                if (generation != expectedGeneration) {
+                    return -1;
+                }
+                PendingMove previous = pending.get(taskId);
+                guard.check(previous != null ? previous.status : dbStatus);
+
+                while (writePos + RECORD_SIZE > capacity) {
+                    // Full: wait for the flusher to apply everything and reset the file
+                    notifyAll();
+                    try {
+                        wait(flushMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RemoteException("Interrupted while waiting for the status journal");
+                    }
+                }
+
+                seq = nextSeq++;
+                writeRecord(writePos, seq, taskId, newStatus, movedAt);
+                writePos += RECORD_SIZE;
+                writtenSeq = seq;
+                pending.put(taskId, new PendingMove(seq, newStatus, movedAt));
+                notifyAll(); // Wakes the sync thread
+            }
+        } finally {
+            appendLock.readLock().unlock();
+        }
+        awaitDurable(seq);
+        return seq;
+    }
+
+    // Replaces the status of a task read from the database by its journaled status, if any
+    public Task overlay(Task task) {
+        PendingMove move = pending.get(task.getId());
+        if (move != null) {
+            task.setStatus(move.status);
+            task.setUpdatedAt(move.movedAt);
+        }
+        return task;
+    }
+
+    /**
+     * Runs a synchronous write (e.g. deleting a task) after applying every journaled move, and
+     * holds new moves back until it returns, so the write and the status counters updated with it
+     * see each task's final status. The generation changes afterwards: a move that read its task
+     * before the write reads it again and sees the write's outcome.
+     */
+    public <T> T exclusively(SynchronousWrite<T> write) throws SQLException {
+        appendLock.writeLock().lock();
+        try {
+            drain();
+            return write.run();
+        } finally {
+            synchronized (this) {
+                generation++;
+            }
+            appendLock.writeLock().unlock();
+        }
+    }
+
+    // Applies every durable record before returning
+    private void drain() throws SQLException {
+        long target;
+        synchronized (syncLock) {
+            target = durableSeq;
+        }
+        while (appliedSeq < target) {
+            flushOnce();
+        }
+    }
+
+    private void awaitDurable(long seq) throws RemoteException {
+        synchronized (syncLock) {
+            while (durableSeq < seq) {
+                try {
+                    syncLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RemoteException("Interrupted while waiting for the status journal");
+                }
+            }
+        }
+    }
+
+    // Group commit: one force covers every record appended while the previous force was running
+    private void syncLoop() {
+        while (true) {
+            long target;
+            int targetPos;
+            synchronized (this) {
+                while (writtenSeq == durableSeqSnapshot()) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                target = writtenSeq;
+                targetPos = writePos;
+            }
+            buffer.force();
+            synchronized (syncLock) {
+                durableSeq = target;
+                durablePos = targetPos;
+                syncLock.notifyAll();
+            }
+        }
+    }
+
+    private long durableSeqSnapshot() {
+        synchronized (syncLock) {
+            return durableSeq;
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            try {
+                Thread.sleep(flushMillis);
+                while (flushOnce() > 0) {
+                    // Keep going while there is a backlog
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                System.err.println("Error applying journaled task moves, will retry: " + e.getMessage());
+            }
+        }
+    }
+
+    // Applies up to MAX_BATCH durable records in one transaction; returns how many were applied
+    private int flushOnce() throws SQLException {
+        synchronized (flushLock) {
+            int from;
+            int to;
+            synchronized (this) {
+                from = appliedPos;
+            }
+            synchronized (syncLock) {
+                to = Math.min(durablePos, from + MAX_BATCH * RECORD_SIZE);
+            }
+            if (to <= from) {
+                return 0;
+            }
+
+            List<JournalRecord> batch = new ArrayList<>();
+            for (int pos = from; pos < to; pos += RECORD_SIZE) {
+                batch.add(readRecord(pos));
+            }
+            apply(batch);
+
+            long lastSeq = batch.get(batch.size() - 1).seq;
+            markApplied(lastSeq);
+
+            synchronized (this) {
+                appliedPos = to;
+                for (JournalRecord record : batch) {
+                    pending.computeIfPresent(record.taskId, (id, move) -> move.seq <= lastSeq ? null : move);
+                }
+                generation++;
+                // Everything written has been applied: start over at the beginning of the file
+                if (appliedPos == writePos) {
+                    appliedPos = HEADER_SIZE;
+                    writePos = HEADER_SIZE;
+                    synchronized (syncLock) {
+                        durablePos = HEADER_SIZE;
+                    }
+                    notifyAll(); // Wakes appenders waiting for space
+                }
+            }
+            return batch.size();
+        }
+    }
+
+    // Applies a batch of moves, keeping only the last move of each task
+    private static void apply(List<JournalRecord> records) throws SQLException {
+        Map<Integer, JournalRecord> latest = new LinkedHashMap<>();
+        for (JournalRecord record : records) {
+            latest.put(record.taskId, record);
+        }
+        Integer[] ids = new Integer[latest.size()];
+        String[] statuses = new String[latest.size()];
+        Timestamp[] movedAt = new Timestamp[latest.size()];
+        int i = 0;
+        for (JournalRecord record : latest.values()) {
+            ids[i] = record.taskId;
+            statuses[i] = record.status.name();
+            movedAt[i] = Timestamp.valueOf(record.movedAt);
+            i++;
+        }
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(APPLY_SQL)) {
+                Array idArray = conn.createArrayOf("integer", ids);
+                Array statusArray = conn.createArrayOf("text", statuses);
+                Array movedAtArray = conn.createArrayOf("timestamp", movedAt);
+                stmt.setArray(1, idArray);
+                stmt.setArray(2, statusArray);
+                stmt.setArray(3, movedAtArray);
+                stmt.executeUpdate();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private void markApplied(long seq) {
+        buffer.putLong(APPLIED_SEQ_OFFSET, seq);
+        buffer.force();
+        appliedSeq = seq;
+    }
+
+    private void writeRecord(int pos, long seq, int taskId, TaskStatus status, LocalDateTime movedAt) {
+        buffer.putLong(pos, seq);
+        buffer.putInt(pos + 8, taskId);
+        buffer.put(pos + 12, (byte) status.ordinal());
+        buffer.putLong(pos + 16, movedAt.toInstant(ZoneOffset.UTC).toEpochMilli());
+        buffer.putInt(pos + 24, checksum(pos));
+    }
+
+    // Returns null if the slot does not hold a complete, valid record
+    private JournalRecord readRecord(int pos) {
+        long seq = buffer.getLong(pos);
+        int statusOrdinal = buffer.get(pos + 12);
+        if (seq <= 0 || statusOrdinal < 0 || statusOrdinal >= STATUSES.length || buffer.getInt(pos + 24) != checksum(pos)) {
+            return null;
+        }
+        LocalDateTime movedAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(buffer.getLong(pos + 16)), ZoneOffset.UTC);
+        return new JournalRecord(seq, buffer.getInt(pos + 8), STATUSES[statusOrdinal], movedAt);
+    }
+
+    private int checksum(int pos) {
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < 24; i++) {
+            crc.update(buffer.get(pos + i));
+        }
+        return (int) crc.getValue();
+    }
+
+    private static void startThread(String name, Runnable loop) {
+        Thread thread = new Thread(loop, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -0,0 +1,94 @@
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+import javax.swing.table.TableModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Caches the display strings of expensive-to-format cells (e.g. timestamps) per model row.
+ * Registered as a listener on the table model so that inserted, deleted and updated rows
+ * drop their cached strings, while untouched rows are painted without re-formatting.
+ */
+public class TableDisplayCache implements TableModelListener {
+
+    private final TableModel model;
+    private final int columnCount;
+    private final Function<Object, String> formatter;
+    private final List<String[]> rows = new ArrayList<>();
+
+    public TableDisplayCache(TableModel model, Function<Object, String> formatter) {
+        this.model = model;
+        this.columnCount = model.getColumnCount();
+        this.formatter = formatter;
+        resize();
+        model.addTableModelListener(this);
+    }
+
+    // Returns the cached display string for a model cell, formatting it on first use
+    public String get(int modelRow, int modelColumn) {
+        if (modelRow < 0 || modelRow >= rows.size() || modelColumn < 0 || modelColumn >= columnCount) {
+            return formatter.apply(model.getValueAt(modelRow, modelColumn));
+        }
+        String[] cached = rows.get(modelRow);
+        if (cached == null) {
+            cached = new String[columnCount];
+            rows.set(modelRow, cached);
+        }
+        String text = cached[modelColumn];
+        if (text == null) {
+            text = formatter.apply(model.getValueAt(modelRow, modelColumn));
+            cached[modelColumn] = text;
+        }
+        return text;
+    }
+
+    public void invalidateAll() {
+        rows.clear();
+        resize();
+    }
+
+    @Override
+    public void tableChanged(TableModelEvent e) {
+        int first = e.getFirstRow();
+        int last = e.getLastRow();
+
+        // Structure change or full data change (e.g. setRowCount, fireTableDataChanged)
+        if (first == TableModelEvent.HEADER_ROW || last == Integer.MAX_VALUE) {
+            invalidateAll();
+            return;
+        }
+
+        switch (e.getType()) {
+            case TableModelEvent.INSERT:
+                for (int row = first; row <= last; row++) {
+                    rows.add(Math.min(row, rows.size()), null);
+                }
+                break;
+            case TableModelEvent.DELETE:
+                for (int row = last; row >= first; row--) {
+                    if (row < rows.size()) {
+                        rows.remove(row);
+                    }
+                }
+                break;
+            default: // UPDATE
+                for (int row = first; row <= last && row < rows.size(); row++) {
+                    rows.set(row, null);
+                }
+                break;
+        }
+        resize();
+    }
+
+    // Keeps the row slots aligned with the model in case events were coalesced or missed
+    private void resize() {
+        int rowCount = model.getRowCount();
+        while (rows.size() < rowCount) {
+            rows.add(null);
+        }
+        while (rows.size() > rowCount) {
+            rows.remove(rows.size() - 1);
+        }
+    }
+}
@@ -12,6 +12,9 @@ public class Task implements Serializable {
     private int assigneeId;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private String rank; // Position within the status column, see TaskRank
+    private LocalDateTime dueAt; // Null if the task has no due date
+    private LocalDateTime remindAt; // When the assignee is reminded; cleared once the reminder was sent
 
     // Constructor, Getters, Setters
     public Task(int id, String title, String description, TaskStatus status,
@@ -93,6 +96,14 @@ public class Task implements Serializable {
         this.createdAt = createdAt;
     }
 
+    public String getRank() {
+        return rank;
+    }
+
+    public void setRank(String rank) {
+        this.rank = rank;
+    }
+
     public LocalDateTime getUpdatedAt() {
         return updatedAt;
     }
@@ -101,6 +112,22 @@ public class Task implements Serializable {
         this.updatedAt = updatedAt;
     }
 
+    public LocalDateTime getDueAt() {
+        return dueAt;
+    }
+
+    public void setDueAt(LocalDateTime dueAt) {
+        this.dueAt = dueAt;
+    }
+
+    public LocalDateTime getRemindAt() {
+        return remindAt;
+    }
+
+    public void setRemindAt(LocalDateTime remindAt) {
+        this.remindAt = remindAt;
+    }
+
     public String toString() {
         return "Task{" +
                 "id=" + id +
@@ -112,6 +139,9 @@ public class Task implements Serializable {
                 ", assignedUserId=" + assigneeId +
                 ", createdAt=" + createdAt +
                 ", updatedAt=" + updatedAt +
+                ", rank='" + rank + '\'' +
+                ", dueAt=" + dueAt +
+                ", remindAt=" + remindAt +
                 '}';
     }
 
@@ -128,11 +158,14 @@ public class Task implements Serializable {
                 Objects.equals(description, task.description) &&
                 status == task.status &&
                 Objects.equals(createdAt, task.createdAt) &&
-                Objects.equals(updatedAt, task.updatedAt);
+                Objects.equals(updatedAt, task.updatedAt) &&
+                Objects.equals(rank, task.rank) &&
+                Objects.equals(dueAt, task.dueAt) &&
+                Objects.equals(remindAt, task.remindAt);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, title, description, status, boardId, userId, assigneeId, createdAt, updatedAt);
+        return Objects.hash(id, title, description, status, boardId, userId, assigneeId, createdAt, updatedAt, rank, dueAt, remindAt);
     }
 }
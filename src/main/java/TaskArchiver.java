@@ -0,0 +1,67 @@
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background job that moves tasks which have been DONE (and unchanged) for longer than a
+ * configurable age out of the hot tasks table into the archive, so board payloads only carry
+ * live work. Each run archives in batches, each batch in its own transaction, with a short pause
+ * in between so foreground writes are not starved.
+ *
+ * Configured with system properties: planny.archive.doneDays (default 30, 0 disables archival),
+ * planny.archive.batchSize (default 500), planny.archive.intervalMinutes (default 60),
+ * planny.archive.pauseMillis (default 100).
+ */
+public class TaskArchiver {
+
+    private static final int DONE_DAYS = Integer.getInteger("planny.archive.doneDays", 30);
+    private static final int BATCH_SIZE = Integer.getInteger("planny.archive.batchSize", 500);
+    private static final long INTERVAL_MINUTES = Long.getLong("planny.archive.intervalMinutes", 60);
+    private static final long PAUSE_MILLIS = Long.getLong("planny.archive.pauseMillis", 100);
+
+    private final KanbanServiceImpl service;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "task-archiver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public TaskArchiver(KanbanServiceImpl service) {
+        this.service = service;
+    }
+
+    public static boolean isEnabled() {
+        return DONE_DAYS > 0;
+    }
+
+    public void start() {
+        executor.scheduleWithFixedDelay(this::run, 1, INTERVAL_MINUTES, TimeUnit.MINUTES);
+        System.out.println("Archiving tasks DONE for more than " + DONE_DAYS + " days every " + INTERVAL_MINUTES + " minutes.");
+    }
+
+    private void run() {
+        long start = System.nanoTime();
+        LocalDateTime doneBefore = LocalDateTime.now().minusDays(DONE_DAYS);
+        int total = 0;
+        try {
+            int archived;
+            do {
+                archived = service.archiveDoneTasks(doneBefore, BATCH_SIZE);
+                total += archived;
+                if (archived == BATCH_SIZE) {
+                    Thread.sleep(PAUSE_MILLIS);
+                }
+            } while (archived == BATCH_SIZE);
+        } catch (SQLException e) {
+            System.err.println("Error archiving tasks: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (total > 0) {
+            System.out.println("Archived " + total + " tasks in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms.");
+        }
+    }
+}
@@ -0,0 +1,10 @@
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+import java.util.List;
+
+// Server-side cursor over a task export; chunks are fetched one at a time until an empty list is returned
+public interface TaskCursor extends Remote {
+    long getTotalCount() throws RemoteException;
+    List<Task> nextChunk() throws RemoteException;
+    void close() throws RemoteException;
+}
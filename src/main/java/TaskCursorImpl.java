@@ -0,0 +1,80 @@
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.rmi.server.Unreferenced;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Remote cursor over a repository task stream, handed out {@link #CHUNK_SIZE} tasks at a time.
+ * With PostgreSQL the stream is a server-side JDBC cursor, so exporting any number of tasks runs
+ * in constant memory on both sides. Each task goes through the overlay on its way out, so journaled
+ * status moves that are not in the repository yet are exported too. The cursor closes itself when exhausted, when the client
+ * calls {@link #close()}, or when the client disappears (RMI unreferenced).
+ */
+public class TaskCursorImpl extends UnicastRemoteObject implements TaskCursor, Unreferenced {
+
+    static final int CHUNK_SIZE = 1000;
+
+    private final long totalCount;
+    private final UnaryOperator<Task> overlay;
+    private KanbanRepository.TaskStream stream;
+
+    // boardId -1 exports the tasks of all boards
+    protected TaskCursorImpl(KanbanRepository repository, int boardId, UnaryOperator<Task> overlay) throws RemoteException {
+        super(0, CompressedSocketFactory.forExport(), CompressedSocketFactory.forExport());
+        this.overlay = overlay;
+        try {
+            stream = repository.streamTasks(boardId);
+            totalCount = stream.getTotalCount();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new RemoteException("Error opening task export", e);
+        }
+    }
+
+    @Override
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    @Override
+    public synchronized List<Task> nextChunk() throws RemoteException {
+        if (stream == null) {
+            return List.of();
+        }
+        List<Task> chunk;
+        try {
+            chunk = stream.next(CHUNK_SIZE);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            close();
+            throw new RemoteException("Error reading task export", e);
+        }
+        if (chunk.isEmpty()) {
+            close();
+        }
+        chunk.replaceAll(overlay);
+        return chunk;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+        try {
+            UnicastRemoteObject.unexportObject(this, true);
+        } catch (NoSuchObjectException e) {
+            // Already unexported
+        }
+    }
+
+    @Override
+    public void unreferenced() {
+        System.out.println("Task export cursor abandoned by client, closing.");
+        close();
+    }
+}
@@ -0,0 +1,210 @@
+import javax.swing.SwingWorker;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a server-side task export to disk off the EDT. Chunks are pulled from a {@link TaskCursor}
+ * and encoded straight into a fixed direct buffer that is drained to a {@link FileChannel}, so
+ * memory use does not depend on the number of exported tasks. Progress (0-100) is published
+ * through the regular SwingWorker "progress" property.
+ */
+public class TaskExportWorker extends SwingWorker<Long, Void> {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    static final String CSV_HEADER = "ID,Board ID,Title,Description,Status,Created By,Assigned To,Created At,Updated At";
+
+    private final KanbanService service;
+    private final int boardId;
+    private final Path target;
+    private final Format format;
+    private final UserDirectory userNames;
+
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final StringBuilder line = new StringBuilder(256);
+
+    public TaskExportWorker(KanbanService service, int boardId, Path target, Format format, UserDirectory userNames) {
+        this.service = service;
+        this.boardId = boardId;
+        this.target = target;
+        this.format = format;
+        this.userNames = userNames;
+    }
+
+    public static Format formatFor(Path path) {
+        return path.getFileName().toString().toLowerCase().endsWith(".ndjson") ? Format.NDJSON : Format.CSV;
+    }
+
+    @Override
+    protected Long doInBackground() throws Exception {
+        TaskCursor cursor = service.exportTasks(boardId);
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            long total = cursor.getTotalCount();
+            if (format == Format.CSV) {
+                line.setLength(0);
+                line.append(CSV_HEADER).append('\n');
+                write(channel);
+            }
+
+            List<Task> chunk;
+            while (!(chunk = cursor.nextChunk()).isEmpty()) {
+                if (isCancelled()) {
+                    break;
+                }
+                // Names of users not seen yet, fetched once per chunk
+                List<Integer> userIds = new ArrayList<>(chunk.size() * 2);
+                for (Task task : chunk) {
+                    userIds.add(task.getUserId());
+                    userIds.add(task.getAssigneeId());
+                }
+                userNames.resolve(userIds);
+                for (Task task : chunk) {
+                    line.setLength(0);
+                    if (format == Format.CSV) {
+                        appendCsv(task);
+                    } else {
+                        appendJson(task);
+                    }
+                    write(channel);
+                }
+                written += chunk.size();
+                if (total > 0) {
+                    setProgress((int) Math.min(100, written * 100 / total));
+                }
+            }
+            flush(channel);
+        } finally {
+            cursor.close();
+        }
+        return written;
+    }
+
+    private void appendCsv(Task task) {
+        line.append(task.getId()).append(',')
+                .append(task.getBoardId()).append(',');
+        appendCsvValue(task.getTitle());
+        line.append(',');
+        appendCsvValue(task.getDescription());
+        line.append(',').append(task.getStatus()).append(',');
+        appendCsvValue(userNames.name(task.getUserId(), ""));
+        line.append(',');
+        appendCsvValue(userNames.name(task.getAssigneeId(), ""));
+        line.append(',');
+        appendDate(task.getCreatedAt());
+        line.append(',');
+        appendDate(task.getUpdatedAt());
+        line.append('\n');
+    }
+
+    // Basic CSV escaping: double quotes around values containing commas, quotes or newlines
+    private void appendCsvValue(String value) {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            line.append('"').append(value.replace("\"", "\"\"")).append('"');
+        } else {
+            line.append(value);
+        }
+    }
+
+    private void appendJson(Task task) {
+        line.append("{\"id\":").append(task.getId())
+                .append(",\"boardId\":").append(task.getBoardId())
+                .append(",\"title\":");
+        appendJsonString(task.getTitle());
+        line.append(",\"description\":");
+        appendJsonString(task.getDescription());
+        line.append(",\"status\":\"").append(task.getStatus()).append('"')
+                .append(",\"userId\":").append(task.getUserId())
+                .append(",\"createdBy\":");
+        appendJsonString(userNames.name(task.getUserId(), ""));
+        line.append(",\"assigneeId\":").append(task.getAssigneeId())
+                .append(",\"assignedTo\":");
+        appendJsonString(userNames.name(task.getAssigneeId(), ""));
+        line.append(",\"createdAt\":");
+        appendJsonString(task.getCreatedAt() != null ? task.getCreatedAt().toString() : null);
+        line.append(",\"updatedAt\":");
+        appendJsonString(task.getUpdatedAt() != null ? task.getUpdatedAt().toString() : null);
+        line.append("}\n");
+    }
+
+    private void appendJsonString(String value) {
+        if (value == null) {
+            line.append("null");
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+                }
+            }
+        }
+        line.append('"');
+    }
+
+    private void appendDate(LocalDateTime dateTime) {
+        if (dateTime != null) {
+            DATE_FORMATTER.formatTo(dateTime, line);
+        }
+    }
+
+    // Encodes the current line into the buffer, draining it to the channel whenever it fills up
+    private void write(FileChannel channel) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(line);
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, false);
+            if (result.isOverflow()) {
+                drain(channel);
+            } else if (result.isUnderflow()) {
+                return;
+            } else {
+                result.throwException();
+            }
+        }
+    }
+
+    private void flush(FileChannel channel) throws IOException {
+        encoder.encode(CharBuffer.allocate(0), buffer, true);
+        encoder.flush(buffer);
+        drain(channel);
+        channel.force(false);
+    }
+
+    private void drain(FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
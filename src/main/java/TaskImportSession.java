@@ -0,0 +1,10 @@
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+
+// Server-side bulk import; rows are sent in chunks and inserted into the board on commit
+public interface TaskImportSession extends Remote {
+    // Chunk of CSV records with the columns title, description, status, created_by, assigned_to
+    void sendRows(String csvRows) throws RemoteException;
+    ImportResult commit() throws RemoteException;
+    void abort() throws RemoteException;
+}
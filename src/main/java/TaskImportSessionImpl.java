@@ -0,0 +1,105 @@
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.rmi.server.Unreferenced;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Remote bulk task import over a repository {@link KanbanRepository.TaskImport}. Rows are staged
+ * chunk by chunk and validated and inserted at once on commit (with PostgreSQL: COPY into a
+ * temporary table, then one INSERT ... SELECT), followed by a single board notification.
+ */
+public class TaskImportSessionImpl extends UnicastRemoteObject implements TaskImportSession, Unreferenced {
+
+    private final int boardId;
+    private final KanbanServiceImpl service;
+    private KanbanRepository.TaskImport taskImport;
+    private long stagedRows;
+
+    protected TaskImportSessionImpl(KanbanServiceImpl service, KanbanRepository repository, int boardId, int userId) throws RemoteException {
+        super(0, CompressedSocketFactory.forExport(), CompressedSocketFactory.forExport());
+        this.service = service;
+        this.boardId = boardId;
+
+        try {
+            taskImport = repository.beginImport(boardId, userId);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            close();
+            throw new RemoteException("Error starting task import", e);
+        }
+    }
+
+    @Override
+    public synchronized void sendRows(String csvRows) throws RemoteException {
+        ensureOpen();
+        try {
+            stagedRows += taskImport.stage(csvRows);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            abort();
+            throw new RemoteException("Error staging imported tasks: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized ImportResult commit() throws RemoteException {
+        ensureOpen();
+        Map<TaskStatus, Integer> importedByStatus;
+        try {
+            importedByStatus = taskImport.commit();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            abort();
+            if (KanbanRepository.WIP_LIMIT_STATE.equals(e.getSQLState())) {
+                throw new RemoteException(e.getMessage());
+            }
+            if (e.getSQLState() != null && e.getSQLState().startsWith("23")) {
+                throw new RemoteException("Error importing tasks: Invalid user or board reference.", e);
+            }
+            throw new RemoteException("Error importing tasks", e);
+        }
+        taskImport = null;
+        close();
+
+        long imported = 0;
+        for (int count : importedByStatus.values()) {
+            imported += count;
+        }
+        System.out.println("Imported " + imported + " of " + stagedRows + " tasks into board " + boardId);
+        if (imported > 0) {
+            service.notifyTasksImported(boardId, importedByStatus);
+        }
+        return new ImportResult(imported, stagedRows - imported);
+    }
+
+    @Override
+    public synchronized void abort() {
+        if (taskImport != null) {
+            taskImport.abort();
+            taskImport = null;
+        }
+        close();
+    }
+
+    @Override
+    public void unreferenced() {
+        System.out.println("Task import abandoned by client, rolling back.");
+        abort();
+    }
+
+    private void ensureOpen() throws RemoteException {
+        if (taskImport == null) {
+            throw new RemoteException("Import session is closed");
+        }
+    }
+
+    private void close() {
+        try {
+            UnicastRemoteObject.unexportObject(this, true);
+        } catch (NoSuchObjectException e) {
+            // Already unexported
+        }
+    }
+}
@@ -0,0 +1,127 @@
+import javax.swing.SwingWorker;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Streams a CSV file to a server-side {@link TaskImportSession} off the EDT. The file is read
+ * record by record and re-encoded into chunks of {@link #CHUNK_ROWS} rows with a fixed column
+ * order, so neither side holds the whole file in memory. The header must contain a "Title"
+ * column; "Description", "Status", "Created By" and "Assigned To" are optional (the same
+ * headers produced by the task export).
+ */
+public class TaskImportWorker extends SwingWorker<ImportResult, Void> {
+
+    private static final int CHUNK_ROWS = 5000;
+
+    private final KanbanService service;
+    private final int boardId;
+    private final int userId;
+    private final Path source;
+
+    public TaskImportWorker(KanbanService service, int boardId, int userId, Path source) {
+        this.service = service;
+        this.boardId = boardId;
+        this.userId = userId;
+        this.source = source;
+    }
+
+    @Override
+    protected ImportResult doInBackground() throws Exception {
+        long fileSize = Math.max(1, Files.size(source));
+        long[] bytesRead = new long[1];
+
+        InputStream in = new FilterInputStream(Files.newInputStream(source)) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int n = super.read(b, off, len);
+                if (n > 0) {
+                    bytesRead[0] += n;
+                }
+                return n;
+            }
+        };
+
+        try (CsvReader csv = new CsvReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String[] header = csv.readRecord();
+            if (header == null) {
+                throw new IOException("The file is empty.");
+            }
+            int[] columns = mapColumns(header);
+
+            TaskImportSession session = service.importTasks(boardId, userId);
+            try {
+                StringBuilder chunk = new StringBuilder(64 * 1024);
+                int rowsInChunk = 0;
+                String[] record;
+                while ((record = csv.readRecord()) != null) {
+                    if (isCancelled()) {
+                        session.abort();
+                        return null;
+                    }
+                    if (record.length == 1 && record[0].isEmpty()) {
+                        continue; // Blank line
+                    }
+                    for (int i = 0; i < columns.length; i++) {
+                        if (i > 0) {
+                            chunk.append(',');
+                        }
+                        int column = columns[i];
+                        String value = column >= 0 && column < record.length ? record[column] : "";
+                        if (i == 2) {
+                            value = value.trim().replace(' ', '_').toUpperCase(Locale.ROOT); // "In Progress" -> IN_PROGRESS
+                        }
+                        chunk.append('"').append(value.replace("\"", "\"\"")).append('"');
+                    }
+                    chunk.append('\n');
+
+                    if (++rowsInChunk == CHUNK_ROWS) {
+                        session.sendRows(chunk.toString());
+                        chunk.setLength(0);
+                        rowsInChunk = 0;
+                        setProgress((int) Math.min(99, bytesRead[0] * 100 / fileSize));
+                    }
+                }
+                if (rowsInChunk > 0) {
+                    session.sendRows(chunk.toString());
+                }
+                ImportResult result = session.commit();
+                setProgress(100);
+                return result;
+            } catch (Exception e) {
+                try {
+                    session.abort();
+                } catch (Exception abortEx) {
+                    // The session is already closed on the server
+                }
+                throw e;
+            }
+        }
+    }
+
+    // Maps title, description, status, created_by, assigned_to to their position in the file
+    private static int[] mapColumns(String[] header) throws IOException {
+        String[] names = {"title", "description", "status", "created by", "assigned to"};
+        int[] columns = {-1, -1, -1, -1, -1};
+        for (int i = 0; i < header.length; i++) {
+            String name = header[i].trim().replace('_', ' ').toLowerCase(Locale.ROOT);
+            if (i == 0 && name.startsWith("\uFEFF")) {
+                name = name.substring(1); // Byte order mark
+            }
+            for (int j = 0; j < names.length; j++) {
+                if (names[j].equals(name)) {
+                    columns[j] = i;
+                }
+            }
+        }
+        if (columns[0] == -1) {
+            throw new IOException("The CSV header must contain a \"Title\" column.");
+        }
+        return columns;
+    }
+}
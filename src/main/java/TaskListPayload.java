@@ -0,0 +1,55 @@
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.List;
+import java.util.zip.InflaterInputStream;
+
+// A board's task list, serialized once on the server (and deflated if large) and shared by all callers
+public class TaskListPayload implements Serializable {
+    private final int boardId;
+    private final long epoch; // Revisions are only comparable within an epoch, see BoardTaskListCache
+    private final long revision;
+    private final boolean compressed;
+    private final byte[] data;
+
+    public TaskListPayload(int boardId, long epoch, long revision, boolean compressed, byte[] data) {
+        this.boardId = boardId;
+        this.epoch = epoch;
+        this.revision = revision;
+        this.compressed = compressed;
+        this.data = data;
+    }
+
+    public int getBoardId() { return boardId; }
+    public long getEpoch() { return epoch; }
+    public long getRevision() { return revision; }
+    public boolean isCompressed() { return compressed; }
+    public int getSize() { return data.length; }
+    byte[] getData() { return data; } // Serialized (and maybe deflated) list; for the warm start snapshot
+
+    // Deserializes the tasks; called on the client
+    @SuppressWarnings("unchecked")
+    public List<Task> getTasks() throws IOException {
+        InputStream in = new ByteArrayInputStream(data);
+        if (compressed) {
+            in = new InflaterInputStream(in);
+        }
+        try (ObjectInputStream objects = new ObjectInputStream(in)) {
+            return (List<Task>) objects.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unexpected task list payload", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TaskListPayload{" +
+                "boardId=" + boardId +
+                ", revision=" + revision +
+                ", compressed=" + compressed +
+                ", size=" + data.length +
+                '}';
+    }
+}
@@ -0,0 +1,23 @@
+import java.io.Serializable;
+
+// Outcome of a task mutation: the task as stored (as it was, for a delete) and the board revision the change produced
+public class TaskMutationResult implements Serializable {
+    private final Task task;
+    private final long revision;
+
+    public TaskMutationResult(Task task, long revision) {
+        this.task = task;
+        this.revision = revision;
+    }
+
+    public Task getTask() { return task; }
+    public long getRevision() { return revision; }
+
+    @Override
+    public String toString() {
+        return "TaskMutationResult{" +
+                "task=" + task +
+                ", revision=" + revision +
+                '}';
+    }
+}
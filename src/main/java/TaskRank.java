@@ -0,0 +1,124 @@
+/**
+ * Fractional rank keys for ordering tasks within a status column. A key is a base-62 fraction
+ * written with the digits 0-9, A-Z, a-z, so keys compare like the fractions they encode when
+ * compared as plain strings (Java's {@link String#compareTo}, PostgreSQL's "C" collation). Keys
+ * never end in '0', which guarantees there is always another key between two different keys:
+ * moving a task only rewrites the moved task's key.
+ *
+ * <p>Repeated inserts at the same spot make keys longer. Once a key exceeds
+ * {@link #REBALANCE_LENGTH} (system property {@code planny.rank.rebalanceLength}, default 16),
+ * the column is rebalanced in the background with {@link #spread(int)}.
+ */
+public final class TaskRank {
+
+    public static final int REBALANCE_LENGTH = Integer.getInteger("planny.rank.rebalanceLength", 16);
+
+    private static final String DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final int BASE = DIGITS.length();
+
+    private TaskRank() {}
+
+    // Rank of a task stored before ranks existed: ordered by ID, below every key starting at '1'
+    public static String forLegacyId(int taskId) {
+        return String.format("%010dV", taskId);
+    }
+
+    // A key between lower and upper; either may be null for the start or end of the column
+    public static String between(String lower, String upper) {
+        if (lower != null && upper != null && lower.compareTo(upper) >= 0) {
+            throw new IllegalArgumentException("Rank " + lower + " is not below " + upper);
+        }
+        if (upper == null) {
+            return after(lower);
+        }
+        return midpoint(lower != null ? lower : "", upper);
+    }
+
+    // A key after the given one (null for an empty column); the first digit is incremented, so
+    // appending to a column keeps keys short
+    public static String after(String rank) {
+        if (rank == null) {
+            return "V";
+        }
+        int leading = 0;
+        while (leading < rank.length() && rank.charAt(leading) == 'z') {
+            leading++;
+        }
+        if (leading == rank.length()) {
+            return rank + "1";
+        }
+        return rank.substring(0, leading) + DIGITS.charAt(DIGITS.indexOf(rank.charAt(leading)) + 1);
+    }
+
+    public static boolean needsRebalance(String rank) {
+        return rank.length() > REBALANCE_LENGTH;
+    }
+
+    /**
+     * Evenly spaced keys for a column of the given size, in order. All keys start with '0', so
+     * the next 61 tasks appended to the column get one-character keys, and every gap leaves
+     * room for dozens of inserts before a key grows.
+     */
+    public static String[] spread(int count) {
+        int width = 0;
+        long range = 1;
+        while (range < (long) BASE * (count + 1)) {
+            range *= BASE;
+            width++;
+        }
+        long step = range / (count + 1);
+        String[] ranks = new String[count];
+        char[] digits = new char[width + 1];
+        for (int i = 0; i < count; i++) {
+            long value = (i + 1) * step;
+            digits[0] = '0';
+            for (int d = width; d >= 1; d--) {
+                digits[d] = DIGITS.charAt((int) (value % BASE));
+                value /= BASE;
+            }
+            int length = digits.length;
+            while (digits[length - 1] == '0') {
+                length--;
+            }
+            ranks[i] = new String(digits, 0, length);
+        }
+        return ranks;
+    }
+
+    // Midpoint of two keys, lower < upper; lower is "" for the start of the column
+    private static String midpoint(String lower, String upper) {
+        int common = 0;
+        while (common < upper.length() && digitAt(lower, common) == upper.charAt(common)) {
+            common++;
+        }
+        if (common > 0) {
+            return upper.substring(0, common)
+                    + midpoint(lower.length() > common ? lower.substring(common) : "", upper.substring(common));
+        }
+        int lowerDigit = lower.isEmpty() ? 0 : DIGITS.indexOf(lower.charAt(0));
+        int upperDigit = DIGITS.indexOf(upper.charAt(0));
+        if (upperDigit - lowerDigit > 1) {
+            return String.valueOf(DIGITS.charAt((lowerDigit + upperDigit + 1) / 2));
+        }
+        // Adjacent first digits: the upper key's first digit alone sits between if it is longer,
+        // otherwise keep the lower digit and go one digit deeper
+        if (upper.length() > 1) {
+            return upper.substring(0, 1);
+        }
+        return DIGITS.charAt(lowerDigit) + midpointToEnd(lower.length() > 1 ? lower.substring(1) : "");
+    }
+
+    // Midpoint between a key tail and the end of the space; unlike after(), this halves the
+    // remaining space, so repeated inserts just below the same key share it evenly
+    private static String midpointToEnd(String lower) {
+        int digit = lower.isEmpty() ? 0 : DIGITS.indexOf(lower.charAt(0));
+        if (BASE - digit > 1) {
+            return String.valueOf(DIGITS.charAt((digit + BASE + 1) / 2));
+        }
+        return lower.charAt(0) + midpointToEnd(lower.substring(1));
+    }
+
+    private static char digitAt(String rank, int index) {
+        return index < rank.length() ? rank.charAt(index) : '0';
+    }
+}
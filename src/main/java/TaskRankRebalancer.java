@@ -0,0 +1,54 @@
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * Respaces the rank keys of a status column in the background once a key got too long (see
+ * {@link TaskRank#needsRebalance(String)}). Requests for the same column are coalesced until the
+ * rebalance runs, which is delayed by {@code planny.rank.rebalanceDelayMillis} (default 5000) so
+ * a burst of reorders costs one rebalance. The task order itself does not change.
+ */
+public class TaskRankRebalancer {
+
+    private static final long DELAY_MILLIS = Long.getLong("planny.rank.rebalanceDelayMillis", 5000);
+
+    private final KanbanRepository repository;
+    private final IntConsumer onRebalanced; // Gets the board ID
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "rank-rebalancer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public TaskRankRebalancer(KanbanRepository repository, IntConsumer onRebalanced) {
+        this.repository = repository;
+        this.onRebalanced = onRebalanced;
+    }
+
+    public void request(int boardId, TaskStatus status) {
+        long column = ((long) boardId << 8) | status.ordinal();
+        if (pending.add(column)) {
+            executor.schedule(() -> rebalance(column, boardId, status), DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void rebalance(long column, int boardId, TaskStatus status) {
+        pending.remove(column); // Reorders from now on may need another pass
+        try {
+            long start = System.nanoTime();
+            int count = repository.rebalanceRanks(boardId, status);
+            if (count > 0) {
+                onRebalanced.accept(boardId);
+            }
+            System.out.println("Rebalanced " + count + " ranks of board " + boardId + " " + status + " in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms.");
+        } catch (SQLException e) {
+            System.err.println("Error rebalancing ranks of board " + boardId + " " + status + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+import javax.swing.JLabel;
+import javax.swing.JTable;
+import javax.swing.SwingUtilities;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableCellRenderer;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+
+/**
+ * Microbenchmark for task table paint cost. Paints 1,000 rows into an off-screen image with the
+ * old per-paint renderers and with the cached renderers, and reports time and bytes allocated
+ * per 1,000 rows painted.
+ *
+ * Run with: java TaskTableRenderBenchmark [iterations]
+ */
+public class TaskTableRenderBenchmark {
+
+    private static final int ROWS = 1_000;
+    private static final int COL_STATUS = 3;
+    private static final int COL_CREATED_AT = 6;
+    private static final int COL_UPDATED_AT = 7;
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+
+        SwingUtilities.invokeAndWait(() -> {
+            run("legacy renderers", createTable(false), iterations);
+            run("cached renderers", createTable(true), iterations);
+        });
+    }
+
+    private static void run(String name, JTable table, int iterations) {
+        BufferedImage image = new BufferedImage(table.getWidth(), table.getHeight(), BufferedImage.TYPE_INT_RGB);
+
+        // Warm-up so that JIT and the display cache are in a steady state
+        for (int i = 0; i < iterations; i++) {
+            paint(table, image);
+        }
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            paint(table, image);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        System.out.printf("%-18s %10.1f us/1000 rows %12d bytes/1000 rows%n",
+                name, elapsed / 1_000.0 / iterations, allocated / iterations);
+    }
+
+    private static void paint(JTable table, BufferedImage image) {
+        Graphics2D g = image.createGraphics();
+        try {
+            table.paint(g);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    private static JTable createTable(boolean cached) {
+        DefaultTableModel model = new DefaultTableModel(
+                new Object[]{"ID", "Title", "Description", "Status", "Created By", "Assigned To", "Created At", "Updated At"}, 0);
+        TaskStatus[] statuses = TaskStatus.values();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ROWS; i++) {
+            model.addRow(new Object[]{i, "Task " + i, "Description " + i, statuses[i % statuses.length],
+                    "alice", "bob", now.minusMinutes(i), now.minusSeconds(i)});
+        }
+
+        JTable table = new JTable(model);
+        if (cached) {
+            table.getColumnModel().getColumn(COL_STATUS).setCellRenderer(new StatusCellRenderer());
+            TableCellRenderer dateTimeRenderer = new DateTimeCellRenderer(
+                    new TableDisplayCache(model, ClientGUI::formatTableValue));
+            table.getColumnModel().getColumn(COL_CREATED_AT).setCellRenderer(dateTimeRenderer);
+            table.getColumnModel().getColumn(COL_UPDATED_AT).setCellRenderer(dateTimeRenderer);
+        } else {
+            table.getColumnModel().getColumn(COL_STATUS).setCellRenderer(new LegacyStatusRenderer());
+            TableCellRenderer dateTimeRenderer = (t, value, isSelected, hasFocus, row, column) ->
+                    new JLabel(ClientGUI.formatTableValue(value));
+            table.getColumnModel().getColumn(COL_CREATED_AT).setCellRenderer(dateTimeRenderer);
+            table.getColumnModel().getColumn(COL_UPDATED_AT).setCellRenderer(dateTimeRenderer);
+        }
+        table.setSize(1200, table.getRowHeight() * ROWS);
+        table.doLayout();
+        return table;
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean sunBean) {
+            return sunBean.getThreadAllocatedBytes(Thread.currentThread().threadId());
+        }
+        return 0;
+    }
+
+    // The renderer ClientGUI used before, kept here as the baseline for comparison
+    private static class LegacyStatusRenderer extends DefaultTableCellRenderer {
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value,
+                                                       boolean isSelected, boolean hasFocus, int row, int column) {
+            Component c = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+            if (value instanceof TaskStatus status) {
+                switch (status) {
+                    case TO_DO -> { c.setBackground(Color.RED); c.setForeground(Color.WHITE); }
+                    case IN_PROGRESS -> { c.setBackground(Color.YELLOW); c.setForeground(Color.BLACK); }
+                    case DONE -> { c.setBackground(Color.GREEN); c.setForeground(Color.BLACK); }
+                }
+                ((JLabel) c).setHorizontalAlignment(JLabel.CENTER);
+            }
+            setText(value != null ? value.toString() : "");
+            return c;
+        }
+    }
+}
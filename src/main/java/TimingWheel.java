@@ -0,0 +1,167 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel: timers keyed by an int ID, each with a deadline and a value. Time is
+ * counted in ticks of tickMillis since the epoch. There are LEVELS wheels of 64 slots; level L
+ * holds the timers that are due within the current rotation of level L + 1, in the slot of bits
+ * 6L to 6L + 5 of their deadline tick. When a slot of a higher level comes up, its timers are
+ * cascaded to the lower levels, and level 0 slots hold the timers due at exactly that tick.
+ *
+ * Slots are doubly linked lists and an ID map points to each timer's node, so scheduling and
+ * cancelling are O(1) however many timers are pending. Advancing costs O(1) per tick plus the
+ * timers that expire or cascade (each timer cascades at most LEVELS - 1 times). With 6 levels
+ * a wheel of 1-second ticks spans more than 2000 years. Not thread-safe.
+ */
+public class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 6;
+    private static final long MAX_TICKS_STEPPED = SLOTS * SLOTS; // Larger gaps are rebuilt instead of stepped
+
+    private static class Node<T> {
+        final int id;
+        final long deadlineTick;
+        final T value;
+        Node<T> prev;
+        Node<T> next;
+
+        Node(int id, long deadlineTick, T value) {
+            this.id = id;
+            this.deadlineTick = deadlineTick;
+            this.value = value;
+        }
+    }
+
+    private final long tickMillis;
+    private final List<List<Node<T>>> levels = new ArrayList<>(); // Sentinels of circular lists, [level][slot]
+    private final Node<T> overdue = sentinel(); // Due before the current tick, returned by the next advance
+    private final Map<Integer, Node<T>> nodes = new HashMap<>();
+    private long currentTick;
+
+    public TimingWheel(long tickMillis, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = Math.floorDiv(nowMillis, tickMillis);
+        for (int level = 0; level < LEVELS; level++) {
+            List<Node<T>> slots = new ArrayList<>(SLOTS);
+            for (int slot = 0; slot < SLOTS; slot++) {
+                slots.add(sentinel());
+            }
+            levels.add(slots);
+        }
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    public boolean contains(int id) {
+        return nodes.containsKey(id);
+    }
+
+    // Replaces the ID's timer, if any; a deadline in the past expires on the next advance
+    public void schedule(int id, long deadlineMillis, T value) {
+        cancel(id);
+        // Rounded up, so a timer never expires before its deadline
+        Node<T> node = new Node<>(id, Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), value);
+        nodes.put(id, node);
+        place(node);
+    }
+
+    public boolean cancel(int id) {
+        Node<T> node = nodes.remove(id);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        return true;
+    }
+
+    // Moves the wheel to the given time and returns the values of the timers that expired
+    public List<T> advance(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        if (targetTick - currentTick > MAX_TICKS_STEPPED) {
+            // E.g. after the machine slept: placing every timer again is cheaper than stepping
+            List<Node<T>> all = new ArrayList<>(nodes.values());
+            all.forEach(TimingWheel::unlink);
+            currentTick = targetTick;
+            all.forEach(this::place);
+        }
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Cascade the slots that come up, higher levels first: their timers may land in the
+            // lower level slots that come up at the same tick
+            int top = 0;
+            while (top < LEVELS - 1 && (currentTick & ((1L << (SLOT_BITS * (top + 1))) - 1)) == 0) {
+                top++;
+            }
+            for (int level = top; level > 0; level--) {
+                for (Node<T> node : detach(slot(level, currentTick))) {
+                    place(node);
+                }
+            }
+            for (Node<T> node : detach(slot(0, currentTick))) {
+                link(overdue, node);
+            }
+        }
+        for (Node<T> node : detach(overdue)) {
+            nodes.remove(node.id);
+            expired.add(node.value);
+        }
+        return expired;
+    }
+
+    private void place(Node<T> node) {
+        if (node.deadlineTick <= currentTick) {
+            link(overdue, node);
+            return;
+        }
+        // The lowest level whose current rotation contains the deadline
+        int level = 0;
+        while (level < LEVELS - 1 && (node.deadlineTick >>> (SLOT_BITS * (level + 1))) != (currentTick >>> (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        // Beyond the top level's rotation the timer goes round again until its rotation comes
+        link(slot(level, node.deadlineTick), node);
+    }
+
+    private Node<T> slot(int level, long tick) {
+        return levels.get(level).get((int) ((tick >>> (SLOT_BITS * level)) & (SLOTS - 1)));
+    }
+
+    private static <T> Node<T> sentinel() {
+        Node<T> sentinel = new Node<>(0, 0, null);
+        sentinel.prev = sentinel;
+        sentinel.next = sentinel;
+        return sentinel;
+    }
+
+    private static <T> void link(Node<T> sentinel, Node<T> node) {
+        node.prev = sentinel.prev;
+        node.next = sentinel;
+        sentinel.prev.next = node;
+        sentinel.prev = node;
+    }
+
+    private static <T> void unlink(Node<T> node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+    }
+
+    // Empties the slot and returns its timers, so they can be placed again in the same slot
+    private static <T> List<Node<T>> detach(Node<T> sentinel) {
+        List<Node<T>> detached = new ArrayList<>();
+        for (Node<T> node = sentinel.next; node != sentinel; node = node.next) {
+            detached.add(node);
+        }
+        sentinel.prev = sentinel;
+        sentinel.next = sentinel;
+        return detached;
+    }
+}
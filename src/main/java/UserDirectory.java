@@ -0,0 +1,158 @@
+import javax.swing.SwingUtilities;
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Client-side cache of user names, filled on demand. A lookup of a user that is not cached yet
+ * returns the fallback and queues the ID; queued IDs are fetched together shortly after, in
+ * batches of {@link KanbanServiceImpl#MAX_USER_BATCH}, and the onResolved callback then runs on
+ * the EDT so views can repaint. Only the users a client actually displays are held, and the
+ * server pushes user changes ({@link #userChanged(User)}) instead of clients reloading the list.
+ * Cached users are also indexed by lower-case name for instant prefix matches while typing.
+ */
+public class UserDirectory {
+
+    private static final long BATCH_DELAY_MILLIS = 20; // Lets one render pass queue all its IDs
+
+    private final KanbanService service;
+    private final Runnable onResolved;
+    private final Map<Integer, String> names = new ConcurrentHashMap<>();
+    private final NavigableMap<String, Integer> byName = new ConcurrentSkipListMap<>(); // Prefix index, see searchKey
+    private final Set<Integer> missing = ConcurrentHashMap.newKeySet(); // Unknown to the server
+    private final Set<Integer> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean fetchScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService fetcher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "user-directory");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public UserDirectory(KanbanService service, Runnable onResolved) {
+        this.service = service;
+        this.onResolved = onResolved;
+    }
+
+    // The cached name, or the fallback while the user is being fetched (or does not exist)
+    public String name(int userId, String fallback) {
+        String name = names.get(userId);
+        if (name == null) {
+            request(List.of(userId));
+            return fallback;
+        }
+        return name;
+    }
+
+    // Queues the IDs that are not cached yet, so the names are there by the time they are shown
+    public void request(Collection<Integer> userIds) {
+        boolean queued = false;
+        for (int userId : userIds) {
+            if (userId > 0 && !names.containsKey(userId) && !missing.contains(userId) && pending.add(userId)) {
+                queued = true;
+            }
+        }
+        if (queued && fetchScheduled.compareAndSet(false, true)) {
+            fetcher.schedule(this::fetchPending, BATCH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Fetches the given IDs on the calling thread; for background work that needs the names now
+    public void resolve(Collection<Integer> userIds) throws RemoteException {
+        Set<Integer> unknown = new LinkedHashSet<>();
+        for (int userId : userIds) {
+            if (userId > 0 && !names.containsKey(userId) && !missing.contains(userId)) {
+                unknown.add(userId);
+            }
+        }
+        fetch(new ArrayList<>(unknown));
+    }
+
+    // Pushed by the server; only users this client has looked up are kept
+    public void userChanged(User user) {
+        if (names.containsKey(user.getId()) || missing.remove(user.getId())) {
+            put(user);
+            SwingUtilities.invokeLater(onResolved);
+        }
+    }
+
+    // Caches users the client got some other way, such as search results
+    public void remember(Collection<User> users) {
+        for (User user : users) {
+            missing.remove(user.getId());
+            put(user);
+        }
+    }
+
+    // Cached users whose name starts with the prefix (case-insensitive), by name; no round trip
+    public List<User> cachedMatches(String prefix, int limit) {
+        String from = prefix.toLowerCase(Locale.ROOT);
+        List<User> matches = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : byName.subMap(from, true, from + Character.MAX_VALUE, false).entrySet()) {
+            String name = names.get(entry.getValue());
+            if (name != null) {
+                matches.add(new User(entry.getValue(), name, null, null));
+                if (matches.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    private void fetchPending() {
+        fetchScheduled.set(false); // IDs queued from now on schedule another fetch
+        List<Integer> batch = new ArrayList<>(pending);
+        try {
+            fetch(batch);
+            SwingUtilities.invokeLater(onResolved);
+        } catch (RemoteException e) {
+            // Left uncached, so the next lookup queues them again
+            System.err.println("Error fetching " + batch.size() + " users: " + e.getMessage());
+        } finally {
+            pending.removeAll(batch);
+        }
+    }
+
+    private void fetch(List<Integer> userIds) throws RemoteException {
+        for (int from = 0; from < userIds.size(); from += KanbanServiceImpl.MAX_USER_BATCH) {
+            List<Integer> slice = userIds.subList(from, Math.min(userIds.size(), from + KanbanServiceImpl.MAX_USER_BATCH));
+            int[] ids = slice.stream().mapToInt(Integer::intValue).toArray();
+            Set<Integer> found = new HashSet<>();
+            for (User user : service.getUsersById(ids)) {
+                put(user);
+                found.add(user.getId());
+            }
+            for (int userId : ids) {
+                if (!found.contains(userId)) {
+                    missing.add(userId);
+                }
+            }
+        }
+    }
+
+    private void put(User user) {
+        String previous = names.put(user.getId(), user.getUsername());
+        if (previous != null && !previous.equals(user.getUsername())) {
+            byName.remove(searchKey(previous, user.getId()));
+        }
+        byName.put(searchKey(user.getUsername(), user.getId()), user.getId());
+    }
+
+    // Lower-case name, then the ID to tell apart names that only differ in case
+    private static String searchKey(String username, int userId) {
+        return username.toLowerCase(Locale.ROOT) + '\0' + userId;
+    }
+}
@@ -0,0 +1,191 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Lets the server start warm after a graceful shutdown. A shutdown hook saves the task list cache
+ * (board revisions and built payloads, with their epoch) and the chat history cache to a local
+ * file; the next start maps the file and restores them, so reconnecting clients find that their
+ * boards are still current and skip reloading them (see {@link KanbanService#getBoardTasksIfChanged}).
+ *
+ * The state is only used if nothing was written to the storage in between: the file holds the
+ * repository's {@link KanbanRepository#changeStamp()} from the shutdown, which the start compares
+ * with the stamp read before anything else (schema checks, journal recovery) writes. A different
+ * stamp, an old file (planny.warmStart.maxAgeMinutes, default 60) or a damaged one means a cold
+ * start. The file is deleted once read, so a later crash never brings back outdated state.
+ *
+ * Listener registrations are not saved: clients register again when they reconnect, and callbacks
+ * to clients that went away meanwhile would only hold up notifications. Enabled with
+ * planny.warmStart (default true); the file is planny.warmStart.file (default planny-warm-start.dat).
+ */
+public class WarmStart {
+
+    public record State(String changeStamp, BoardTaskListCache.Snapshot tasks, Map<Integer, List<ChatMessage>> chat) {}
+
+    private static final int MAGIC = 0x504c5753; // "PLWS"
+    private static final int VERSION = 1;
+    private static final long MAX_AGE_MILLIS = TimeUnit.MINUTES.toMillis(Long.getLong("planny.warmStart.maxAgeMinutes", 60));
+
+    private final Path file;
+
+    WarmStart(Path file) {
+        this.file = file;
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("planny.warmStart", "true"));
+    }
+
+    public static WarmStart open() {
+        return new WarmStart(Path.of(System.getProperty("planny.warmStart.file", "planny-warm-start.dat")));
+    }
+
+    // The saved state if the storage is still at the saved stamp (null if unknown), otherwise null
+    public State load(String changeStamp) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            State state = read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            if (state == null) {
+                System.out.println("Starting cold: " + file + " is outdated.");
+            } else if (!state.changeStamp().equals(changeStamp)) {
+                System.out.println("Starting cold: the storage changed after " + file + " was written.");
+            } else {
+                return state;
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Starting cold: " + file + " is unreadable: " + e);
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                System.err.println("Error deleting " + file + ": " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    // Writes a temporary file and moves it into place
+    public void save(State state) throws IOException {
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream fileOut = new BufferedOutputStream(Files.newOutputStream(tempFile), 1 << 16)) {
+            CheckedOutputStream checked = new CheckedOutputStream(fileOut, new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            write(out, state);
+            out.flush();
+            new DataOutputStream(fileOut).writeLong(checked.getChecksum().getValue()); // Not part of the sum
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void write(DataOutputStream out, State state) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(System.currentTimeMillis());
+        writeString(out, state.changeStamp());
+
+        BoardTaskListCache.Snapshot tasks = state.tasks();
+        out.writeLong(tasks.epoch());
+        out.writeInt(tasks.revisions().size());
+        for (Map.Entry<Integer, Long> revision : tasks.revisions().entrySet()) {
+            out.writeInt(revision.getKey());
+            out.writeLong(revision.getValue());
+        }
+        out.writeInt(tasks.payloads().size());
+        for (TaskListPayload payload : tasks.payloads()) {
+            out.writeInt(payload.getBoardId());
+            out.writeLong(payload.getRevision());
+            out.writeBoolean(payload.isCompressed());
+            out.writeInt(payload.getData().length);
+            out.write(payload.getData());
+        }
+
+        out.writeInt(state.chat().size());
+        for (Map.Entry<Integer, List<ChatMessage>> channel : state.chat().entrySet()) {
+            out.writeInt(channel.getKey());
+            out.writeInt(channel.getValue().size());
+            for (ChatMessage message : channel.getValue()) {
+                out.writeInt(message.getMessageId());
+                out.writeInt(message.getUserId());
+                writeString(out, message.getUsername());
+                writeString(out, message.getContent());
+                writeString(out, message.getCreatedAt().toString());
+            }
+        }
+    }
+
+    // Null if the file is too old or from another version
+    private static State read(ByteBuffer file) throws IOException {
+        int end = file.limit() - 8;
+        CRC32 crc = new CRC32();
+        crc.update(file.duplicate().limit(end));
+        if (crc.getValue() != file.getLong(end)) {
+            throw new IOException("checksum mismatch");
+        }
+        file.limit(end);
+        if (file.getInt() != MAGIC) {
+            throw new IOException("not a warm start file");
+        }
+        if (file.getInt() != VERSION || System.currentTimeMillis() - file.getLong() > MAX_AGE_MILLIS) {
+            return null;
+        }
+        String changeStamp = readString(file);
+
+        long epoch = file.getLong();
+        Map<Integer, Long> revisions = new HashMap<>();
+        for (int i = file.getInt(); i > 0; i--) {
+            revisions.put(file.getInt(), file.getLong());
+        }
+        List<TaskListPayload> payloads = new ArrayList<>();
+        for (int i = file.getInt(); i > 0; i--) {
+            int boardId = file.getInt();
+            long revision = file.getLong();
+            boolean compressed = file.get() != 0;
+            byte[] data = new byte[file.getInt()];
+            file.get(data);
+            payloads.add(new TaskListPayload(boardId, epoch, revision, compressed, data));
+        }
+
+        Map<Integer, List<ChatMessage>> chat = new HashMap<>();
+        for (int i = file.getInt(); i > 0; i--) {
+            int boardId = file.getInt();
+            List<ChatMessage> messages = new ArrayList<>();
+            for (int j = file.getInt(); j > 0; j--) {
+                messages.add(new ChatMessage(file.getInt(), boardId, file.getInt(), readString(file), readString(file),
+                        LocalDateTime.parse(readString(file))));
+            }
+            chat.put(boardId, messages);
+        }
+        return new State(changeStamp, new BoardTaskListCache.Snapshot(epoch, revisions, payloads), chat);
+    }
+
+    // Length-prefixed UTF-8; writeUTF is limited to 64 KB
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer file) {
+        byte[] bytes = new byte[file.getInt()];
+        file.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}